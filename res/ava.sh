@@ -0,0 +1,82 @@
+#!/bin/sh
+#
+# Launcher of Ava using a dynamic AppCDS archive of Ava, its libraries and plugins.
+#
+#   ava.sh [Ava arguments]                    Start Ava, with the archive if there is one.
+#   ava.sh -train {utterances} [Ava arguments] Execute a training run and create the archive.
+#
+# An archive is only valid for the JVM, class path and plugins it has been created with. It is named
+# by a fingerprint of these, so after installing, updating or removing a plugin Ava starts without an
+# archive until the next training run. Archives of other fingerprints are removed by a training run.
+#
+# Ava is started in AVA_HOME, as it resolves ./res/ and ./plugins/ against the working directory.
+#
+# Environment:
+#   AVA_HOME       Installation directory containing res/. Default is the parent of the directory of this script.
+#   AVA_JAR        Jar of the compiled classes of Ava, i.e. created with 'jar cf ava.jar -C bin .'.
+#                  AppCDS only archives classes loaded from jars. Required unless AVA_CLASSPATH is set.
+#   AVA_CLASSPATH  Class path of Ava. Default is $AVA_JAR and all jars in $AVA_HOME/lib except javadoc
+#                  and source jars.
+#   AVA_PLUGINDIR  Plugin directory, has to match PLUGINDIR of ava.properties. Default is $AVA_HOME/plugins.
+#   AVA_CDS_DIR    Directory of the archives. Default is $AVA_HOME/cds.
+#   JAVA_OPTS      Additional JVM options.
+#
+# Requires Java 13 or later.
+
+AVA_HOME=$(cd "${AVA_HOME:-$(dirname "$0")/..}" && pwd) || exit 1
+AVA_PLUGINDIR=${AVA_PLUGINDIR:-$AVA_HOME/plugins}
+AVA_CDS_DIR=${AVA_CDS_DIR:-$AVA_HOME/cds}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+# CDS requires an explicit class path, wildcards are not supported
+if [ -z "$AVA_CLASSPATH" ]; then
+	if [ ! -f "$AVA_JAR" ]; then
+		echo "AVA_JAR does not name the jar of Ava: '$AVA_JAR'. Set AVA_JAR or AVA_CLASSPATH." >&2
+		exit 1
+	fi
+	AVA_CLASSPATH=$(cd "$(dirname "$AVA_JAR")" && pwd)/$(basename "$AVA_JAR")
+	for jar in $(find "$AVA_HOME/lib" -name '*.jar' ! -name '*-javadoc.jar' ! -name '*-sources.jar' 2>/dev/null | sort); do
+		AVA_CLASSPATH=$AVA_CLASSPATH:$jar
+	done
+fi
+
+# relative paths of the environment are resolved before changing into AVA_HOME
+case "$AVA_PLUGINDIR" in /*) ;; *) AVA_PLUGINDIR=$(pwd)/$AVA_PLUGINDIR ;; esac
+case "$AVA_CDS_DIR" in /*) ;; *) AVA_CDS_DIR=$(pwd)/$AVA_CDS_DIR ;; esac
+
+# fingerprint of the JVM, the class path and the size and modification time of all plugin jars
+fingerprint() {
+	{
+		java_bin=$(command -v "$JAVA")
+		ls -lnL "$(readlink -f "$java_bin" 2>/dev/null || echo "$java_bin")"
+		echo "$AVA_CLASSPATH"
+		echo "$AVA_CLASSPATH" | tr ':' '\n' | while read -r entry; do
+			[ -f "$entry" ] && ls -lnL "$entry"
+		done
+		[ -d "$AVA_PLUGINDIR" ] && find "$AVA_PLUGINDIR" -name '*.jar' -type f -exec ls -lnL {} + | sort
+	} | cksum | cut -d ' ' -f 1
+}
+
+ARCHIVE=$AVA_CDS_DIR/ava-$(fingerprint).jsa
+cd "$AVA_HOME" || exit 1
+
+if [ "$1" = "-train" ]; then
+	mkdir -p "$AVA_CDS_DIR" || exit 1
+	rm -f "$ARCHIVE"
+	"$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" $JAVA_OPTS -cp "$AVA_CLASSPATH" org.ava.Main "$@" < /dev/null
+	status=$?
+	if [ $status -eq 0 ] && [ -f "$ARCHIVE" ]; then
+		for old in "$AVA_CDS_DIR"/ava-*.jsa; do
+			[ "$old" != "$ARCHIVE" ] && rm -f "$old"
+		done
+		echo "AppCDS archive created: $ARCHIVE"
+	else
+		rm -f "$ARCHIVE"
+	fi
+	exit $status
+fi
+
+if [ -f "$ARCHIVE" ]; then
+	exec "$JAVA" -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto $JAVA_OPTS -cp "$AVA_CLASSPATH" org.ava.Main "$@"
+fi
+exec "$JAVA" $JAVA_OPTS -cp "$AVA_CLASSPATH" org.ava.Main "$@"
@@ -1,18 +1,36 @@
 package org.ava;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-
-import javax.swing.JFrame;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ava.audio.AudioCue;
+import org.ava.audio.AudioCueManager;
+import org.ava.audio.AudioOutput;
+import org.ava.audio.AudioOutputService;
+import org.ava.audio.FileAudioOutput;
+import org.ava.audio.LineAudioOutput;
+import org.ava.audio.NullAudioOutput;
+import org.ava.eventhandling.AsyncUtteranceRequestedListener;
 import org.ava.eventhandling.CommandEnteredEvent;
 import org.ava.eventhandling.CommandEnteredListener;
+import org.ava.eventhandling.EventJournal;
+import org.ava.eventhandling.EventPriority;
 import org.ava.eventhandling.PluginActivationStateChangedEvent;
 import org.ava.eventhandling.PluginActivationStateChangedListener;
+import org.ava.eventhandling.PriorityEventDispatcher;
 import org.ava.eventhandling.STTEventBus;
 import org.ava.eventhandling.ShutdownTriggeredListener;
 import org.ava.eventhandling.SpeakEvent;
@@ -20,21 +38,30 @@ import org.ava.eventhandling.SpeakListener;
 import org.ava.eventhandling.TTSEventBus;
 import org.ava.eventhandling.UIEventBus;
 import org.ava.eventhandling.UtteranceRecognizedEvent;
+import org.ava.eventhandling.UtteranceQueuedListener;
 import org.ava.eventhandling.UtteranceRecognizedListener;
-import org.ava.eventhandling.UtteranceRequestedListener;
+import org.ava.jfr.UtteranceReceivedEvent;
 import org.ava.matching.CommandMatch;
 import org.ava.matching.DefaultMatchingEngine;
 import org.ava.matching.MatchingEngine;
+import org.ava.matching.AppPluginMatcher;
+import org.ava.matching.SpeculativeMatcher;
 import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.AsyncSTTPlugin;
+import org.ava.pluginengine.CommandExecutionService;
 import org.ava.pluginengine.Plugin;
 import org.ava.pluginengine.PluginActivationState;
+import org.ava.pluginengine.PluginChangeListener;
+import org.ava.pluginengine.PluginDirectoryWatcher;
 import org.ava.pluginengine.PluginManager;
 import org.ava.pluginengine.PluginType;
 import org.ava.pluginengine.PluginWrapper;
 import org.ava.pluginengine.STTPlugin;
 import org.ava.pluginengine.TTSPlugin;
 import org.ava.util.ApplicationConfig;
-import org.ava.util.AvaUtil;
+import org.ava.util.BootProfiler;
+import org.ava.util.TraceStage;
+import org.ava.util.UtteranceTrace;
 
 public class AvaControl {
 
@@ -48,59 +75,156 @@ public class AvaControl {
 
 	private MatchingEngine matchingEngine;
 
-	private STTPlugin currentSTTEngine;
-	private TTSPlugin currentTTSEngine;
-	private AppPlugin currentMatchedPlugin;
+	/** Matches utterances ahead of their processing. */
+	private SpeculativeMatcher speculativeMatcher;
+
+	private AppPluginMatcher appPluginMatcher;
+
+	private volatile STTPlugin currentSTTEngine;
+	private volatile TTSPlugin currentTTSEngine;
+
+	/** State of the interactions, one session per input source. */
+	private Map<String, Session> sessions;
+
+	/** Time idle sessions have been removed last, in milliseconds since the epoch. */
+	private volatile long lastSessionSweep;
 
-	private boolean isAvaActivated;
+	/** Messages waiting for speech output. */
+	private SpeakQueue speakQueue;
 
-	private boolean isConsoleCommandMode;
+	/** Executes the commands of application plugins off the utterance processing threads. */
+	private CommandExecutionService commandService;
 
-	private boolean isPluginActivated;
+	/** Plays the preloaded audio cues. */
+	private AudioCueManager audioCues;
+
+	/** Reloads changed plugins, null if hot reload is disabled. */
+	private PluginDirectoryWatcher pluginWatcher;
+
+	/** Released when all shutdown routines have been executed. */
+	private final CountDownLatch terminated = new CountDownLatch(1);
+
+	private final AtomicBoolean shuttingDown = new AtomicBoolean();
 
 	public AvaControl() {
-		isAvaActivated = false;
-		isConsoleCommandMode = false;
-		isPluginActivated = false;
+		sessions = new ConcurrentHashMap<String, Session>();
+		speakQueue = new SpeakQueue( () -> currentTTSEngine );
+		commandService = new CommandExecutionService(
+				ApplicationConfig.getCommandThreads(),
+				ApplicationConfig.getCommandPluginConcurrency(),
+				ApplicationConfig.getCommandTimeout());
+		BootProfiler.Phase phase = BootProfiler.getInstance().begin("audio output");
+		try {
+			AudioOutputService.getInstance().start(createAudioOutput());
+			audioCues = new AudioCueManager(ApplicationConfig.getConfigDir(), AudioOutputService.getInstance());
+		} finally {
+			phase.end();
+		}
 
 		init();
 	}
 
 	private void init() {
-		// quick and dirty workaround to keep main thread alive
-		// when nothing is active. user has to explicitely trigger an
-		// application shutdown
-		JFrame frame = new JFrame();
-		frame.show();
-		frame.setVisible(false);
+		// shut down cleanly on SIGTERM and Ctrl-C as well
+		Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "ava-shutdown"));
+
+		BootProfiler profiler = BootProfiler.getInstance();
 
 		// initialize plugin engine
-		pluginManager = new PluginManager();
-		pluginManager.initialize();
-		currentSTTEngine = (STTPlugin) pluginManager.getLoadedSTTPlugin();
-		currentTTSEngine = (TTSPlugin) pluginManager.getLoadedTTSPlugin();
+		BootProfiler.Phase phase = profiler.begin("plugin manager");
+		try {
+			pluginManager = new PluginManager();
+			pluginManager.initialize();
+			currentSTTEngine = (STTPlugin) pluginManager.getLoadedSTTPlugin();
+			currentTTSEngine = (TTSPlugin) pluginManager.getLoadedTTSPlugin();
+		} finally {
+			phase.end();
+		}
 
 		// initialize matching
-		matchingEngine = new DefaultMatchingEngine();
-		for( Plugin p : pluginManager.getLoadedAppPlugins() ) {
-			matchingEngine.addApplicationCommands(
-					((AppPlugin) p).getApplicationCommands(),
-					pluginManager.getPluginProperties(p).getID());
+		phase = profiler.begin("matching index");
+		try {
+			matchingEngine = new DefaultMatchingEngine();
+			for( Plugin p : pluginManager.getLoadedAppPlugins() ) {
+				matchingEngine.addApplicationCommands(
+						((AppPlugin) p).getApplicationCommands(),
+						pluginManager.getPluginProperties(p).getID());
+			}
+			speculativeMatcher = new SpeculativeMatcher(matchingEngine,
+					() -> AppPluginMatcher.getAppPluginNames(pluginManager), ApplicationConfig.getMatchingTreshold());
+			appPluginMatcher = new AppPluginMatcher(pluginManager, speculativeMatcher);
+		} finally {
+			phase.end();
 		}
 
-		// retrieve event bus
-		sttEventBus = STTEventBus.getInstance();
-		uiEventBus = UIEventBus.getInstance();
-		ttsEventBus = TTSEventBus.getInstance();
+		// start recording events before any event can be fired
+		phase = profiler.begin("event buses");
+		try {
+			if( ApplicationConfig.getEventJournalFile() != null ) {
+				EventJournal.getInstance().open(Paths.get(ApplicationConfig.getEventJournalFile()));
+			}
+
+			// retrieve event bus
+			sttEventBus = STTEventBus.getInstance();
+			sttEventBus.configureUtteranceQueue(
+					ApplicationConfig.getUtteranceOverflowPolicy(),
+					ApplicationConfig.getUtteranceQueueCapacity(),
+					ApplicationConfig.getUtteranceQueueTimeout());
+			uiEventBus = UIEventBus.getInstance();
+			ttsEventBus = TTSEventBus.getInstance();
+
+			// create event listeners
+			createSTTEventListeners();
+			createUIEventListeners();
+			createTTSEventListeners();
+		} finally {
+			phase.end();
+		}
 
-		// create event listeners
-		createSTTEventListeners();
-		createUIEventListeners();
-		createTTSEventListeners();
+		phase = profiler.begin("boot sound");
+		try {
+			playBootSound();
+		} finally {
+			phase.end();
+		}
 
-		playBootSound();
+		if( ApplicationConfig.isPluginHotReload() ) {
+			pluginWatcher = new PluginDirectoryWatcher(Paths.get(ApplicationConfig.getPluginDir()),
+					this::reloadPlugins, PluginDirectoryWatcher.DEFAULT_QUIET_PERIOD);
+			try {
+				pluginWatcher.start();
+			} catch(IOException e) {
+				log.error("Failed to watch the plugin directory, plugins are not reloaded.");
+				log.catching(Level.DEBUG, e);
+			}
+		}
 
 		// start user interface
+		if( ApplicationConfig.isConsoleInput() ) {
+			Thread consoleReader = new Thread(this::readConsole, "console-reader");
+			consoleReader.setDaemon(true);
+			consoleReader.start();
+		}
+	}
+
+	/**
+	 * Block until Ava has been shut down. The user has to explicitly trigger the shutdown, or the
+	 * JVM has to be terminated.
+	 */
+	public void awaitTermination() {
+		try {
+			terminated.await();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * The loop of the console reader thread. Starts the CUI if it is active at startup and whenever
+	 * the user types something while it is deactivated. Ends if System.in is closed, i.e. if Ava
+	 * runs as a daemon.
+	 */
+	private void readConsole() {
 		if( ApplicationConfig.isCui_active() ){
 			CUI c = new CUI(this);
 			c.startConsoleControl();
@@ -113,27 +237,139 @@ public class AvaControl {
 				c.startConsoleControl();
 			}
 		}
-		scan.close();
+		log.debug("Console input closed.");
+	}
+
+	/**
+	 * Execute all shutdown routines. Called on a triggered shutdown and by the shutdown hook, the
+	 * routines are executed once.
+	 */
+	private void shutdown() {
+		if( !shuttingDown.compareAndSet(false, true) ) {
+			return;
+		}
+		log.info("Application shutdown triggered.");
+		if( pluginWatcher != null ) {
+			pluginWatcher.stop();
+		}
+		if( sttEventBus != null ) {
+			sttEventBus.shutdown();
+		}
+		speakQueue.shutdown();
+		commandService.shutdown();
+		if( speculativeMatcher != null ) {
+			speculativeMatcher.shutdown();
+		}
+		AudioOutputService.getInstance().shutdown();
+		if( pluginManager != null ) {
+			pluginManager.shutdown();
+		}
+		EventJournal.getInstance().close();
+		log.info("All shutdown routines executed. Terminate Ava.");
+		terminated.countDown();
+	}
+
+	/**
+	 * Reload the changed plugins of the plugin directory. Executed on the control thread, like the
+	 * (de)activation of plugins. Only the commands of the changed plugins are replaced.
+	 */
+	private void reloadPlugins() {
+		PluginChangeListener listener = new PluginChangeListener() {
+			@Override
+			public void pluginReplaced(int pluginID, Plugin oldInstance, Plugin newInstance) {
+				if( newInstance instanceof AppPlugin ) {
+					matchingEngine.replaceApplicationCommands(((AppPlugin) newInstance).getApplicationCommands(), pluginID);
+					speculativeMatcher.invalidate();
+				} else if( oldInstance == currentSTTEngine ) {
+					currentSTTEngine = (STTPlugin) newInstance;
+					log.debug("Current STT plugin replaced by new version of plugin '" + pluginID + "'.");
+				} else if( oldInstance == currentTTSEngine ) {
+					currentTTSEngine = (TTSPlugin) newInstance;
+					log.debug("Current TTS plugin replaced by new version of plugin '" + pluginID + "'.");
+				}
+			}
 
+			@Override
+			public void pluginRemoved(int pluginID, Plugin oldInstance) {
+				if( oldInstance instanceof AppPlugin ) {
+					matchingEngine.removeApplicationCommands(pluginID);
+					speculativeMatcher.invalidate();
+				} else if( oldInstance == currentSTTEngine ) {
+					currentSTTEngine = null;
+					log.debug("No STT plugin active due to removal of plugin '" + pluginID + "'.");
+				} else if( oldInstance == currentTTSEngine ) {
+					currentTTSEngine = null;
+					log.debug("No TTS plugin active due to removal of plugin '" + pluginID + "'.");
+				}
+			}
+		};
+		PriorityEventDispatcher.getInstance().executeControlEvent(EventPriority.ACTIVATION,
+				() -> pluginManager.reloadPlugins(listener));
 	}
 
 	private void createSTTEventListeners() {
+		sttEventBus.registerUtteranceQueuedListener(new UtteranceQueuedListener() {
+			@Override
+			public void utteranceQueued(UtteranceRecognizedEvent event) {
+				speculativeMatcher.speculate(event.getSource(), event.getUtterance(),
+						ApplicationConfig.getActivationPhrase());
+			}
+		});
+
 		sttEventBus.registerUtteranceRecognizedListener(new UtteranceRecognizedListener() {
 			@Override
 			public void processRecognizedUtterance(UtteranceRecognizedEvent event) {
-				processUtterance(event.getUtterance());
+				UtteranceReceivedEvent jfrEvent = new UtteranceReceivedEvent();
+				if( jfrEvent.isEnabled() ) {
+					jfrEvent.traceID = UtteranceTrace.currentTraceID();
+					jfrEvent.source = event.getSource();
+					jfrEvent.utterance = event.getUtterance();
+					jfrEvent.commit();
+				}
+
+				Session session = getSession(event.getSource());
+				synchronized( session ) {
+					if( session.isAvaActivated() ) {
+						// the user is talking to Ava, stop talking over the user
+						speakQueue.bargeIn(session.getSource());
+					}
+					processUtterance(session, event.getUtterance());
+				}
 			}
 		});
 
-		sttEventBus.registerUtteranceRequestedListener(new UtteranceRequestedListener() {
+		sttEventBus.registerUtteranceRequestedListener(new AsyncUtteranceRequestedListener() {
 			@Override
 			public String requestUtterance() {
-				if( currentSTTEngine != null ) {
-					return currentSTTEngine.requestText();
+				STTPlugin engine = currentSTTEngine;
+				if( engine != null ) {
+					return engine.requestText();
 				} else {
 					return null;
 				}
 			}
+
+			@Override
+			public CompletableFuture<String> requestUtteranceAsync() {
+				STTPlugin engine = currentSTTEngine;
+				if( engine == null ) {
+					return CompletableFuture.completedFuture(null);
+				} else if( !(engine instanceof AsyncSTTPlugin) ) {
+					// the engine is interrupted if the request is cancelled or times out
+					return sttEventBus.supplyUtteranceAsync(engine::requestText, engine::interruptExecution);
+				}
+				CompletableFuture<String> request = ((AsyncSTTPlugin) engine).requestTextAsync();
+				if( request != null ) {
+					// cancelling the future does not stop the engine from listening
+					request.whenComplete( (utterance, ex) -> {
+						if( ex instanceof CancellationException ) {
+							log.debug("Utterance request cancelled. Interrupt STT engine.");
+							engine.interruptExecution();
+						}
+					});
+				}
+				return request;
+			}
 		});
 	}
 
@@ -141,19 +377,23 @@ public class AvaControl {
 		uiEventBus.registerCommandEnteredListener(new CommandEnteredListener() {
 			@Override
 			public void executeEnteredCommand(CommandEnteredEvent event) {
-				isConsoleCommandMode = true;
-				isAvaActivated = true;
-				log.debug("Console command processing mode entered.");
-
-				String[] args = event.getCommand().split(":");
-				if( args.length == 2 ) {
-					processUtterance(args[0].trim());
-					if( isPluginActivated ) {
-						processUtterance(args[1].trim());
+				speakQueue.startNewInteraction(Session.CONSOLE_SOURCE);
+				Session session = getSession(Session.CONSOLE_SOURCE);
+				synchronized( session ) {
+					session.setConsoleCommandMode(true);
+					session.setAvaActivated(true);
+					log.debug("Console command processing mode entered.");
+
+					String[] args = event.getCommand().split(":");
+					if( args.length == 2 ) {
+						processUtterance(session, args[0].trim());
+						if( session.isPluginActivated() ) {
+							processUtterance(session, args[1].trim());
+						}
 					}
-				}
 
-				resetCurrentProcessingState();
+					resetCurrentProcessingState(session);
+				}
 			}
 		});
 
@@ -184,6 +424,7 @@ public class AvaControl {
 						matchingEngine.addApplicationCommands(
 								((AppPlugin) p).getApplicationCommands(),
 								pluginManager.getPluginProperties(p).getID());
+						speculativeMatcher.invalidate();
 					}
 				} else {
 					PluginType p = pluginManager.deactivatePlugin(Integer.parseInt(event.getPluginID()));
@@ -199,6 +440,7 @@ public class AvaControl {
 					} else if( p == PluginType.APPLICATION_PLUGIN ) {
 						matchingEngine.removeApplicationCommands(
 								Integer.parseInt(event.getPluginID()));
+						speculativeMatcher.invalidate();
 					}
 				}
 			}
@@ -207,10 +449,7 @@ public class AvaControl {
 		uiEventBus.registerShutdownTriggeredListener(new ShutdownTriggeredListener() {
 			@Override
 			public void shutdownApplication() {
-				log.info("Application shutdown triggered.");
-				pluginManager.shutdown();
-				log.info("All shutdown routines executed. Terminate Ava.");
-				System.exit(0);
+				shutdown();
 			}
 		});
 	}
@@ -219,62 +458,79 @@ public class AvaControl {
 		ttsEventBus.registerSpeakListener(new SpeakListener() {
 			@Override
 			public void speak(SpeakEvent event) {
-				speakText(event.getTextToSay());
+				// a plugin executing a command answers the source of the processed utterance
+				UtteranceTrace trace = UtteranceTrace.current();
+				speakQueue.enqueue(event.getTextToSay(), trace == null ? null : trace.getSource());
 			}
 		});
 	}
 
-	private void processUtterance(String utterance) {
-		log.debug("Utterance processing started. [utterance = '" + utterance + "'].");
+	/**
+	 * Process an utterance in the given session. The caller must hold the lock of the session.
+	 */
+	private void processUtterance(Session session, String utterance) {
+		session.touch();
+		log.debug("Utterance processing started. [utterance = '" + utterance + "', session = '" + session.getSource() + "'].");
 
 		// activation phrase not spoken yet
-		if( !isAvaActivated && !isConsoleCommandMode ) {
+		if( !session.isAvaActivated() && !session.isConsoleCommandMode() ) {
 			log.debug("Activation phrase not spoken yet. "
 					+ "Check if current utterance is activation phrase. "
 					+ "[utterance = '" + utterance + "', "
 					+ "activation phrase = '" + ApplicationConfig.getActivationPhrase() + "'].");
-			if( matchingEngine.matchStringToAvaTreshold(utterance, ApplicationConfig.getActivationPhrase()) ) {
+			long start = System.nanoTime();
+			boolean isActivationPhrase = speculativeMatcher.isActivationPhrase(utterance, ApplicationConfig.getActivationPhrase());
+			UtteranceTrace.recordCurrent(TraceStage.ACTIVATION_CHECK, start);
+			if( isActivationPhrase ) {
 				log.debug("Activation phrase recognized "
 						+ "[utterance = '" + utterance + "', "
 						+ "activation phrase = '" + ApplicationConfig.getActivationPhrase() + "']");
-				isAvaActivated = true;
+				session.setAvaActivated(true);
+				speakQueue.bargeIn(session.getSource());
+				speakQueue.startNewInteraction(session.getSource());
 				playConfirmationSound();
 				return;
 			}
 		}
 
 		// activation phrase spoken already, try to find the requested plugin
-		if( isAvaActivated && !isPluginActivated ) {
+		if( session.isAvaActivated() && !session.isPluginActivated() ) {
 			log.debug("Ava has been activated. Try to match plugin. [utterance = '" + utterance + "']");
-			AppPlugin ap = matchAppPlugin(utterance);
+			long start = System.nanoTime();
+			AppPlugin ap = appPluginMatcher.match(utterance);
+			UtteranceTrace.recordCurrent(TraceStage.PLUGIN_MATCH, start);
 			if(ap != null ) {
 				log.debug("A plugin has been matched.");
-				currentMatchedPlugin = ap;
-				isPluginActivated = true;
-				if( !isConsoleCommandMode ) {
+				session.setCurrentMatchedPlugin(ap);
+				session.setPluginActivated(true);
+				if( !session.isConsoleCommandMode() ) {
 					playConfirmationSound();
 				}
 				return;
 			} else {
 				log.debug("No plugin match found. Trigger reset of current processing state.");
-				speakText("No plugin match found.");
-				resetCurrentProcessingState();
+				speakText(session, "No plugin match found.");
+				resetCurrentProcessingState(session);
 				return;
 			}
 		}
 
 		// plugin found, match command and execute
-		if( isPluginActivated ) {
+		if( session.isPluginActivated() ) {
 			log.debug("A plugin has been matched. Try to match a command of that plugin. [utterance = '" + utterance + "']");
-			CommandMatch cm = matchAppCommand(utterance);
+			long start = System.nanoTime();
+			CommandMatch cm = matchAppCommand(session, utterance);
+			UtteranceTrace.recordCurrent(TraceStage.COMMAND_MATCH, start);
 			if( cm != null ) {
-				cm.getCommand().execute(cm.getVariablePart());
-				resetCurrentProcessingState();
+				AppPlugin plugin = session.getCurrentMatchedPlugin();
+				commandService.submit(pluginManager.getPluginProperties(plugin).getID(),
+						plugin, cm.getCommand(), cm.getVariablePart());
+				resetCurrentProcessingState(session);
 				return;
 			} else {
 				log.debug("No command match found. Trigger reset of current processing state.");
-				speakText("No command match found.");
-				resetCurrentProcessingState();
+				speakText(session, "No command match found.");
+				resetCurrentProcessingState(session);
 				return;
 			}
 		}
@@ -282,58 +538,68 @@ public class AvaControl {
 		log.debug("Utterance processing finished. [utterance = '" + utterance + "'].");
 	}
 
-	private void speakText(String msg) {
-		if( currentTTSEngine != null ) {
-			log.debug("Speak output triggered. [msg = '" + msg + "']");
-			currentTTSEngine.sayText(msg);
-		} else {
-			log.error("Speech output failed: No TTS plugin active. [msg = '" + msg + "']");
-		}
+	private void speakText(Session session, String msg) {
+		speakQueue.enqueue(msg, session.getSource());
 	}
 
-	private void resetCurrentProcessingState() {
-		currentMatchedPlugin = null;
-		isAvaActivated = false;
-		isConsoleCommandMode = false;
-		isPluginActivated = false;
-		log.debug("Reset current state of utterance processing.");
+	private void resetCurrentProcessingState(Session session) {
+		session.reset();
+		log.debug("Reset current state of utterance processing. [session = '" + session.getSource() + "']");
 	}
 
-	private AppPlugin matchAppPlugin(String utterance) {
-		List<Plugin> apl = pluginManager.getLoadedAppPlugins();
-		AppPlugin p = null;
-		double currentHighestMatch = 0;
+	/**
+	 * Returns the session of the given input source. The session is created with the first utterance of the source.
+	 * Sessions idle for longer than Session.IDLE_TIMEOUT are removed on the way.
+	 */
+	private Session getSession(String source) {
+		long now = System.currentTimeMillis();
+		if( now - lastSessionSweep > Session.IDLE_TIMEOUT / 2 ) {
+			lastSessionSweep = now;
+			removeIdleSessions(now);
+		}
+		return sessions.computeIfAbsent(source, Session::new);
+	}
 
-		log.debug("Find plugin match. Loaded app plugins count: " + apl.size());
-		for( Plugin pl : apl ) {
-			log.debug("Match utterance to plugin. "
-					+ "[utterance = '" + utterance + "', "
-					+ "plugin = '" + pluginManager.getPluginProperties(pl).getName() + "']");
-			double tmpResult = matchingEngine.matchString(utterance,
-					pluginManager.getPluginProperties(pl).getName());
-			if( tmpResult > ApplicationConfig.getMatchingTreshold() && tmpResult > currentHighestMatch ) {
-				p =  (AppPlugin) pl;
-				log.debug("Plugin match found. "
-						+ "[plugin = '" + pluginManager.getPluginProperties(pl).getName() + "', "
-						+ "likelihood = '" + tmpResult + "']");
+	private void removeIdleSessions(long now) {
+		for( Session session : sessions.values() ) {
+			if( now - session.getLastActivity() <= Session.IDLE_TIMEOUT ) {
+				continue;
+			}
+			synchronized( session ) {
+				if( now - session.getLastActivity() > Session.IDLE_TIMEOUT
+						&& sessions.remove(session.getSource(), session) ) {
+					speakQueue.removeSource(session.getSource());
+					log.debug("Removed idle session. [session = '" + session.getSource() + "']");
+				}
 			}
 		}
-
-		return p;
 	}
 
-	private CommandMatch matchAppCommand(String utterance) {
-		return matchingEngine.matchCommand(
+	private CommandMatch matchAppCommand(Session session, String utterance) {
+		return speculativeMatcher.matchCommand(
 				utterance,
-				pluginManager.getPluginProperties(currentMatchedPlugin).getID());
+				pluginManager.getPluginProperties(session.getCurrentMatchedPlugin()).getID());
+	}
+
+	/**
+	 * Returns the audio output configured with AUDIO_OUTPUT.
+	 */
+	private AudioOutput createAudioOutput() {
+		String audioOutput = ApplicationConfig.getAudioOutput();
+		if( audioOutput.equals("none") ) {
+			return new NullAudioOutput();
+		} else if( audioOutput.startsWith("file:") ) {
+			return new FileAudioOutput(Paths.get(audioOutput.substring("file:".length())));
+		}
+		return new LineAudioOutput();
 	}
 
 	private void playBootSound() {
-		new Thread( () -> {AvaUtil.playSound("./res/bootsound.wav");}, "boot-sound" ).start();
+		audioCues.play(AudioCue.BOOT);
 	}
 
 	private void playConfirmationSound() {
-		AvaUtil.playSound("./res/ping.wav");
+		audioCues.play(AudioCue.CONFIRMATION);
 	}
 
 
@@ -341,4 +607,40 @@ public class AvaControl {
 	public List<PluginWrapper> getLoadedPlugins() {
 		return new ArrayList<PluginWrapper>(pluginManager.getPluginList().values());
 	}
+
+	/**
+	 * Load all lazily started application plugins in the background.
+	 *
+	 * @return CompletableFuture<Void> Completed when all plugins have been loaded or failed to load.
+	 */
+	public CompletableFuture<Void> preloadAppPlugins() {
+		List<CompletableFuture<Boolean>> preloads = new ArrayList<CompletableFuture<Boolean>>();
+		for( Plugin p : pluginManager.getLoadedAppPlugins() ) {
+			preloads.add(pluginManager.preloadPlugin(p));
+		}
+		return CompletableFuture.allOf(preloads.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Returns the running plugin of a wrapper, without instantiating a lazily started plugin.
+	 */
+	public Plugin getRunningPlugin(PluginWrapper pw) {
+		return pluginManager.getRunningPlugin(pw);
+	}
+
+	public List<Session> getSessions() {
+		return new ArrayList<Session>(new TreeMap<String, Session>(sessions).values());
+	}
+
+	public SpeculativeMatcher getSpeculativeMatcher() {
+		return speculativeMatcher;
+	}
+
+	public CommandExecutionService getCommandService() {
+		return commandService;
+	}
+
+	public SpeakQueue getSpeakQueue() {
+		return speakQueue;
+	}
 }
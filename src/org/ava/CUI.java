@@ -3,23 +3,33 @@ package org.ava;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.Appender;
+import org.ava.audio.AudioOutputService;
 import org.ava.eventhandling.CommandEnteredEvent;
+import org.ava.eventhandling.EventBusStats;
+import org.ava.eventhandling.EventJournalReplayer;
 import org.ava.eventhandling.PluginActivationStateChangedEvent;
+import org.ava.eventhandling.STTEventBus;
 import org.ava.eventhandling.UIEventBus;
+import org.ava.eventhandling.UtteranceEventQueue;
 import org.ava.pluginengine.AppCommand;
 import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.ClassLoaderLeakDetector;
 import org.ava.pluginengine.Plugin;
 import org.ava.pluginengine.PluginActivationState;
 import org.ava.pluginengine.PluginProperties;
 import org.ava.pluginengine.PluginType;
 import org.ava.pluginengine.PluginWrapper;
+import org.ava.util.BootProfiler;
+import org.ava.util.TraceRecorder;
 
 
 /**
@@ -89,6 +99,10 @@ public class CUI {
 		sb.append("\t-d or -deactivate {ID}\tDeactivate a plug-in with the given ID.\n");
 		sb.append("\t-c or -commands\t\tList all commands of the loaded plug-ins.\n");
 		sb.append("\t-l or -list\t\t\tShows all loaded plug-ins with the ID, name and status.\n");
+		sb.append("\t-st or -stats\t\tShows event and latency statistics of all event listeners.\n");
+		sb.append("\t-t or -trace\t\tShows the latency percentiles per processing stage and the recent traces.\n");
+		sb.append("\t-boot\t\t\tShows the wall and CPU time of each startup phase and plugin start.\n");
+		sb.append("\t-r or -replay {file} [max]\tReplay an event journal, with recorded timing or at max speed.\n");
 		sb.append("\t-e or -exit\t\t\tClose this Console User Interface.\n");
 		sb.append("\t-s or -shutdown\t\tShutdown the application.\n");
 		// TODO help string must be completed
@@ -224,6 +238,16 @@ public class CUI {
 			return;
 		}
 
+		if( command.startsWith("-replay ") || command.startsWith("-r ") ) {
+			String[] args = command.split(" ");
+			EventJournalReplayer.Speed speed = EventJournalReplayer.Speed.RECORDED;
+			if( args.length > 2 && args[2].trim().equalsIgnoreCase("max") ) {
+				speed = EventJournalReplayer.Speed.MAX;
+			}
+			replayJournal(args[1].trim(), speed);
+			return;
+		}
+
 		switch(command) {
 		case "":
 			System.out.println("Empty command. Type -help for help. ");
@@ -239,6 +263,20 @@ public class CUI {
 			this.printAllCommands();
 			break;
 
+		case "-stats":
+		case "-st":
+			this.printEventStatistics();
+			break;
+
+		case "-trace":
+		case "-t":
+			this.printTraces();
+			break;
+
+		case "-boot":
+			System.out.println(BootProfiler.getInstance().formatReport());
+			break;
+
 		case "-help":
 		case "-h":
 			this.printHelp();
@@ -292,6 +330,73 @@ public class CUI {
 	}
 
 
+	/**
+	 * Replays an event journal in a separate thread, so the CUI stays responsive.
+	 *
+	 * @param journalFile Path to the journal file.
+	 * @param speed The replay speed.
+	 */
+	private void replayJournal(String journalFile, EventJournalReplayer.Speed speed) {
+		new Thread( () -> {
+			EventJournalReplayer replayer = new EventJournalReplayer();
+			try {
+				replayer.replay(Paths.get(journalFile), speed);
+				System.out.println("Replay of '" + journalFile + "' finished: " + replayer.formatResult());
+			} catch (IOException e) {
+				log.catching(Level.DEBUG, e);
+				System.out.println("Replay of '" + journalFile + "' failed: " + e.getMessage());
+			}
+		}, "journal-replay").start();
+		System.out.println("Replay of '" + journalFile + "' started [speed = " + speed + "].");
+	}
+
+
+	/**
+	 * Prints the statistics of all event listeners and the utterance queue to the stdout.
+	 */
+	private void printEventStatistics() {
+		for( Map.Entry<String, UtteranceEventQueue> e : STTEventBus.getInstance().getUtteranceQueues().entrySet() ) {
+			UtteranceEventQueue queue = e.getValue();
+			System.out.println("Utterance queue '" + e.getKey() + "': policy " + queue.getPolicy()
+					+ ", pending " + queue.size() + "/" + queue.getCapacity()
+					+ ", enqueued " + queue.getEnqueuedCount()
+					+ ", dropped " + queue.getDroppedCount()
+					+ ", coalesced " + queue.getCoalescedCount());
+		}
+		for( Session session : control.getSessions() ) {
+			System.out.println(session);
+		}
+		SpeakQueue speakQueue = control.getSpeakQueue();
+		System.out.println("Speak queue: pending " + speakQueue.getPendingCount()
+				+ ", spoken " + speakQueue.getSpokenCount()
+				+ ", deduplicated " + speakQueue.getDedupedCount()
+				+ ", cancelled " + speakQueue.getCancelledCount()
+				+ ", interrupted " + speakQueue.getInterruptedCount());
+		AudioOutputService audio = AudioOutputService.getInstance();
+		System.out.println("Audio output: streams " + audio.getStreamCount()
+				+ ", mixed frames " + audio.getMixedFrames()
+				+ String.format(", start latency p50 %.3f ms, p99 %.3f ms",
+						audio.getStartLatency().getPercentile(50) / 1e6, audio.getStartLatency().getPercentile(99) / 1e6));
+		System.out.println("Speculative matching: hits " + control.getSpeculativeMatcher().getHitCount()
+				+ ", misses " + control.getSpeculativeMatcher().getMissCount());
+		ClassLoaderLeakDetector leakDetector = ClassLoaderLeakDetector.getInstance();
+		System.out.println("Plugin class loaders: closed " + leakDetector.getTrackedCount()
+				+ ", collected " + leakDetector.getCollectedCount()
+				+ ", suspected leaks " + leakDetector.findLeaks().size());
+		System.out.println(control.getCommandService().formatReport());
+		System.out.println();
+		System.out.println(EventBusStats.getInstance().formatReport());
+	}
+
+
+	/**
+	 * Prints the latency percentiles of each processing stage and the most recent utterance traces.
+	 */
+	private void printTraces() {
+		System.out.println(TraceRecorder.getInstance().formatReport());
+	}
+
+
 	/**
 	 * Prints the menu to the stdout.
 	 */
@@ -320,10 +425,10 @@ public class CUI {
 
 		for(PluginWrapper pw : loadedPlugins) {
 			if( pw.getPluginType() == PluginType.APPLICATION_PLUGIN ) {
-				Plugin p = pw.getPluginInstance();
-				pluginCounter++;
+				Plugin p = this.control.getRunningPlugin(pw);
 
 				if ( p instanceof AppPlugin ) {
+					pluginCounter++;
 					AppPlugin ac = (AppPlugin)p;
 					List<AppCommand> tmpCommandList = ac.getApplicationCommands();
 
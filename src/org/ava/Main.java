@@ -1,12 +1,16 @@
 package org.ava;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.config.Configuration;
+import org.ava.eventhandling.OverflowPolicy;
 import org.ava.util.ApplicationConfig;
+import org.ava.util.BootProfiler;
 import org.ava.util.PropertiesFileLoader;
 
 /**
@@ -20,6 +24,17 @@ import org.ava.util.PropertiesFileLoader;
  * 		-pluginDir 	{validDirectoryName} 		Has to end with a "/"
  * 		-logLevel 	{INFO|DEBUG|ERROR|FATAL} 	Set the log level of the Logging mechanism.
  * 		-cui_active {true|false} 				True if the console user interface should be started.
+ * 		-journal 	{validFileName} 			Record all bus events to the given event journal.
+ * 		-train 		{validFileName} 			Execute a training run with the given utterances and terminate.
+ *
+ * Ava emits flight recorder events of the utterance pipeline and the plugin lifecycle (category "Ava").
+ * They are recorded with the JVM option -XX:StartFlightRecording.
+ *
+ * A training run started with the JVM option -XX:ArchiveClassesAtExit dumps an AppCDS archive of all classes
+ * loaded by Ava and its plugins, see TrainingRun. The launcher ava.sh creates and uses these archives.
+ *
+ * Ava does not need a display. Set CONSOLE_INPUT to false to run it as a daemon without reading System.in,
+ * it terminates when the shutdown is triggered or the JVM receives SIGTERM.
  *
  * @author Kevin
  * @version 1.0
@@ -32,46 +47,68 @@ public class Main {
 	public static void main(String[] args) {
 		try {
 			boolean isCommandLineValid = true;
+			BootProfiler profiler = BootProfiler.getInstance();
+			BootProfiler.Phase phase = profiler.begin("configuration");
+			try {
+				log.info(ApplicationConfig.appName + " started");
+				log.info("Version " + ApplicationConfig.version);
 
-			log.info(ApplicationConfig.appName + " started");
-			log.info("Version " + ApplicationConfig.version);
-
-			PropertiesFileLoader loader = null;
+				PropertiesFileLoader loader = null;
 
-			try {
-				loader = new PropertiesFileLoader(ApplicationConfig.getConfigDir(), ApplicationConfig.getConfigName());
-			} catch (NullPointerException e) {
-				log.catching(Level.DEBUG, e);
-				return;
-			}
+				try {
+					loader = new PropertiesFileLoader(ApplicationConfig.getConfigDir(), ApplicationConfig.getConfigName());
+				} catch (NullPointerException e) {
+					log.catching(Level.DEBUG, e);
+					return;
+				}
 
-			if( !loader.readPropertiesFile() ) {
-				log.fatal("No properties file to initialize Ava found. Application will terminate.");
-				System.exit(-1);
-			}
+				if( !loader.readPropertiesFile() ) {
+					log.fatal("No properties file to initialize Ava found. Application will terminate.");
+					System.exit(-1);
+				}
 
-			ArrayList<String> propList = new ArrayList<String>();
-			propList.add("PLUGINDIR");
-			propList.add("CONFIGDIR");
-			propList.add("LOGLEVEL");
-			propList.add("CUI_ACTIVE");
+				ArrayList<String> propList = new ArrayList<String>();
+				propList.add("PLUGINDIR");
+				propList.add("CONFIGDIR");
+				propList.add("LOGLEVEL");
+				propList.add("CUI_ACTIVE");
 
-			String tmp = null;
-			if( (tmp = loader.isPropertiesFileValid(propList)) != null ) {
-				log.fatal("There are missing properties in " + ApplicationConfig.getConfigName() + ". " + tmp + " is missing. ");
-				return;
-			}
+				String tmp = null;
+				if( (tmp = loader.isPropertiesFileValid(propList)) != null ) {
+					log.fatal("There are missing properties in " + ApplicationConfig.getConfigName() + ". " + tmp + " is missing. ");
+					return;
+				}
 
-			initApplicationConfig(loader);
+				initApplicationConfig(loader);
 
-			log.debug(args.length + " arguments are given with the program start form command line.");
-			if( args.length > 0 ) {
-				isCommandLineValid = handleArguments(args);
+				log.debug(args.length + " arguments are given with the program start form command line.");
+				if( args.length > 0 ) {
+					isCommandLineValid = handleArguments(args);
+				}
+				setLogConfiguration();
+			} finally {
+				phase.end();
 			}
-			setLogConfiguration();
 
 			if ( isCommandLineValid ) {
-				new AvaControl();
+				AvaControl control;
+				phase = profiler.begin("AvaControl");
+				try {
+					control = new AvaControl();
+				} finally {
+					phase.end();
+				}
+				profiler.markReady();
+				if( ApplicationConfig.getBootProfileFile() != null ) {
+					profiler.writeJson(Paths.get(ApplicationConfig.getBootProfileFile()));
+				}
+				if( ApplicationConfig.getTrainingScriptFile() != null ) {
+					new TrainingRun(Paths.get(ApplicationConfig.getTrainingScriptFile())).run(control);
+					// the shutdown hook stops Ava, the JVM dumps the AppCDS archive on exit
+					System.exit(0);
+				}
+				control.awaitTermination();
+				System.exit(0);
 			} else {
 				log.error("Provide valid command line arguments.");
 				log.error("Ava is shuting down.");
@@ -120,6 +157,19 @@ public class Main {
 					i++;
 					log.info("logLevel changed to " +  ApplicationConfig.getLogLevel());
 					break;
+				case "-journal":
+					ApplicationConfig.setEventJournalFile(args[i+1]);
+					i++;
+					log.info("Event journal changed to " + ApplicationConfig.getEventJournalFile());
+					break;
+				case "-train":
+					ApplicationConfig.setTrainingScriptFile(args[i+1]);
+					// nobody is typing during a training run
+					ApplicationConfig.setCui_active(false);
+					ApplicationConfig.setConsoleInput(false);
+					i++;
+					log.info("Training run with " + ApplicationConfig.getTrainingScriptFile());
+					break;
 				case "-cui_active":
 					String cui_active = args[i+1];
 					cui_active = cui_active.toLowerCase();
@@ -154,6 +204,109 @@ public class Main {
 		}
 		ApplicationConfig.setActivationPhrase(loader.getPropertie("ACTIVATION_PHRASE"));
 
+		String journal = loader.getPropertie("EVENT_JOURNAL");
+		if( journal != null && !journal.trim().isEmpty() ) {
+			ApplicationConfig.setEventJournalFile(journal.trim());
+		}
+
+		// optional settings of the utterance queue, defaults are kept if missing or invalid
+		try {
+			ApplicationConfig.setUtteranceOverflowPolicy(
+					OverflowPolicy.valueOf(loader.getPropertie("UTTERANCE_QUEUE_POLICY").trim().toUpperCase()));
+		} catch(NullPointerException | IllegalArgumentException ex) {
+			log.debug("No valid UTTERANCE_QUEUE_POLICY given. Using " + ApplicationConfig.getUtteranceOverflowPolicy() + ".");
+		}
+		try {
+			ApplicationConfig.setUtteranceQueueCapacity(Integer.parseInt(loader.getPropertie("UTTERANCE_QUEUE_CAPACITY").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid UTTERANCE_QUEUE_CAPACITY given. Using " + ApplicationConfig.getUtteranceQueueCapacity() + ".");
+		}
+		try {
+			ApplicationConfig.setUtteranceQueueTimeout(Long.parseLong(loader.getPropertie("UTTERANCE_QUEUE_TIMEOUT").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid UTTERANCE_QUEUE_TIMEOUT given. Using " + ApplicationConfig.getUtteranceQueueTimeout() + " ms.");
+		}
+
+		// optional settings of the command execution, defaults are kept if missing or invalid
+		try {
+			ApplicationConfig.setCommandThreads(Integer.parseInt(loader.getPropertie("COMMAND_THREADS").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid COMMAND_THREADS given. Using " + ApplicationConfig.getCommandThreads() + ".");
+		}
+		try {
+			ApplicationConfig.setCommandPluginConcurrency(Integer.parseInt(loader.getPropertie("COMMAND_PLUGIN_CONCURRENCY").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid COMMAND_PLUGIN_CONCURRENCY given. Using " + ApplicationConfig.getCommandPluginConcurrency() + ".");
+		}
+		try {
+			ApplicationConfig.setCommandTimeout(Long.parseLong(loader.getPropertie("COMMAND_TIMEOUT").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid COMMAND_TIMEOUT given. Using " + ApplicationConfig.getCommandTimeout() + " ms.");
+		}
+		try {
+			ApplicationConfig.setPluginStartThreads(Integer.parseInt(loader.getPropertie("PLUGIN_START_THREADS").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid PLUGIN_START_THREADS given. Using " + ApplicationConfig.getPluginStartThreads() + ".");
+		}
+		try {
+			ApplicationConfig.setPluginStartTimeout(Long.parseLong(loader.getPropertie("PLUGIN_START_TIMEOUT").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid PLUGIN_START_TIMEOUT given. Using " + ApplicationConfig.getPluginStartTimeout() + " ms.");
+		}
+		String bootProfile = loader.getPropertie("BOOT_PROFILE");
+		if( bootProfile != null && !bootProfile.trim().isEmpty() ) {
+			ApplicationConfig.setBootProfileFile(bootProfile.trim());
+		}
+		String consoleInput = loader.getPropertie("CONSOLE_INPUT");
+		if( consoleInput != null && (consoleInput.trim().equalsIgnoreCase("true") || consoleInput.trim().equalsIgnoreCase("false")) ) {
+			ApplicationConfig.setConsoleInput(Boolean.parseBoolean(consoleInput.trim()));
+		} else {
+			log.debug("No valid CONSOLE_INPUT given. Using " + ApplicationConfig.isConsoleInput() + ".");
+		}
+		String audioOutput = loader.getPropertie("AUDIO_OUTPUT");
+		if( audioOutput != null && (audioOutput.trim().equalsIgnoreCase("line") || audioOutput.trim().equalsIgnoreCase("none")) ) {
+			ApplicationConfig.setAudioOutput(audioOutput.trim().toLowerCase());
+		} else if( audioOutput != null && audioOutput.trim().startsWith("file:") ) {
+			ApplicationConfig.setAudioOutput(audioOutput.trim());
+		} else {
+			log.debug("No valid AUDIO_OUTPUT given. Using " + ApplicationConfig.getAudioOutput() + ".");
+		}
+		String lazyAppPlugins = loader.getPropertie("LAZY_APP_PLUGINS");
+		if( lazyAppPlugins != null && (lazyAppPlugins.trim().equalsIgnoreCase("true") || lazyAppPlugins.trim().equalsIgnoreCase("false")) ) {
+			ApplicationConfig.setLazyAppPlugins(Boolean.parseBoolean(lazyAppPlugins.trim()));
+		} else {
+			log.debug("No valid LAZY_APP_PLUGINS given. Using " + ApplicationConfig.isLazyAppPlugins() + ".");
+		}
+		try {
+			ApplicationConfig.setAppPluginIdleTimeout(Long.parseLong(loader.getPropertie("APP_PLUGIN_IDLE_TIMEOUT").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid APP_PLUGIN_IDLE_TIMEOUT given. Using " + ApplicationConfig.getAppPluginIdleTimeout() + " ms.");
+		}
+		try {
+			ApplicationConfig.setPluginDiscoveryThreads(Integer.parseInt(loader.getPropertie("PLUGIN_DISCOVERY_THREADS").trim()));
+		} catch(NullPointerException | NumberFormatException ex) {
+			log.debug("No valid PLUGIN_DISCOVERY_THREADS given. Using " + ApplicationConfig.getPluginDiscoveryThreads() + ".");
+		}
+		String pluginHotReload = loader.getPropertie("PLUGIN_HOT_RELOAD");
+		if( pluginHotReload != null && (pluginHotReload.trim().equalsIgnoreCase("true") || pluginHotReload.trim().equalsIgnoreCase("false")) ) {
+			ApplicationConfig.setPluginHotReload(Boolean.parseBoolean(pluginHotReload.trim()));
+		} else {
+			log.debug("No valid PLUGIN_HOT_RELOAD given. Using " + ApplicationConfig.isPluginHotReload() + ".");
+		}
+
+		String sharedPackages = loader.getPropertie("SHARED_PACKAGES");
+		if( sharedPackages != null && !sharedPackages.trim().isEmpty() ) {
+			List<String> packages = new ArrayList<String>();
+			for( String p : sharedPackages.split(",") ) {
+				if( !p.trim().isEmpty() ) {
+					packages.add(p.trim());
+				}
+			}
+			ApplicationConfig.setSharedPackages(packages);
+		} else {
+			log.debug("No SHARED_PACKAGES given. Only the libraries in the library directory are shared.");
+		}
+
 
 		String cui_active = loader.getPropertie("CUI_ACTIVE");
 		cui_active = cui_active.toLowerCase();
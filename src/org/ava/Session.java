@@ -0,0 +1,115 @@
+package org.ava;
+
+import org.ava.pluginengine.AppPlugin;
+
+/**
+ * This class holds the state of an interaction between the user and Ava for a single input source,
+ * i.e. a microphone, a room, a remote client or the console. Each source has its own session, so
+ * interactions of different sources do not interfere with each other.
+ * <p>
+ * A session is processed by one thread at a time. Callers synchronize on the session while
+ * processing an utterance.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class Session {
+
+	/** Source of commands entered on the console. */
+	public final static String CONSOLE_SOURCE = "console";
+
+	/** Milliseconds without utterances after which a session is removed. */
+	public final static long IDLE_TIMEOUT = 5 * 60 * 1000;
+
+	/** The input source this session belongs to. */
+	private String source;
+
+	private boolean isAvaActivated;
+
+	private boolean isConsoleCommandMode;
+
+	private boolean isPluginActivated;
+
+	/** The plugin matched in the current interaction, null if no plugin has been matched yet. */
+	private AppPlugin currentMatchedPlugin;
+
+	/** Time of the last processed utterance in milliseconds since the epoch. */
+	private volatile long lastActivity;
+
+	/**
+	 * Create a new session in idle state.
+	 *
+	 * @param source The input source of the session.
+	 */
+	public Session(String source) {
+		this.source = source;
+		this.lastActivity = System.currentTimeMillis();
+		reset();
+	}
+
+	/**
+	 * Reset the session to idle state. The activation phrase has to be spoken again.
+	 */
+	public void reset() {
+		currentMatchedPlugin = null;
+		isAvaActivated = false;
+		isConsoleCommandMode = false;
+		isPluginActivated = false;
+	}
+
+	/**
+	 * Mark the session as active now.
+	 */
+	public void touch() {
+		lastActivity = System.currentTimeMillis();
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public boolean isAvaActivated() {
+		return isAvaActivated;
+	}
+
+	public void setAvaActivated(boolean isAvaActivated) {
+		this.isAvaActivated = isAvaActivated;
+	}
+
+	public boolean isConsoleCommandMode() {
+		return isConsoleCommandMode;
+	}
+
+	public void setConsoleCommandMode(boolean isConsoleCommandMode) {
+		this.isConsoleCommandMode = isConsoleCommandMode;
+	}
+
+	public boolean isPluginActivated() {
+		return isPluginActivated;
+	}
+
+	public void setPluginActivated(boolean isPluginActivated) {
+		this.isPluginActivated = isPluginActivated;
+	}
+
+	public AppPlugin getCurrentMatchedPlugin() {
+		return currentMatchedPlugin;
+	}
+
+	public void setCurrentMatchedPlugin(AppPlugin currentMatchedPlugin) {
+		this.currentMatchedPlugin = currentMatchedPlugin;
+	}
+
+	public long getLastActivity() {
+		return lastActivity;
+	}
+
+	@Override
+	public String toString() {
+		return "Session [source = " + source
+				+ ", activated = " + isAvaActivated
+				+ ", plugin activated = " + isPluginActivated
+				+ ", console = " + isConsoleCommandMode + "]";
+	}
+}
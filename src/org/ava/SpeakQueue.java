@@ -0,0 +1,326 @@
+package org.ava;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ava.audio.AudioChannel;
+import org.ava.audio.AudioOutputService;
+import org.ava.eventhandling.EventPriority;
+import org.ava.eventhandling.PriorityEventDispatcher;
+import org.ava.jfr.SpeechOutputEvent;
+import org.ava.pluginengine.TTSPlugin;
+import org.ava.util.TraceStage;
+import org.ava.util.UtteranceTrace;
+
+/**
+ * This class implements the queue of messages waiting for speech output. Messages are spoken
+ * one after another by a dedicated speaker thread, so neither the utterance processing nor
+ * application plugins wait for the audio playback.
+ * <p>
+ * Features:
+ * 		-- Deduplication: A message identical to a pending or currently spoken message is ignored.
+ * 		-- Cancellation: Starting a new interaction discards all messages of previous interactions
+ * 			of the same input source, that have not been spoken yet.
+ * 		-- Barge-in: If the user speaks, the current speech output is interrupted via
+ * 			Plugin.interruptExecution(), unless it belongs to another input source.
+ * <p>
+ * Interactions are counted per input source, so a user talking to Ava does not cancel or interrupt the
+ * answers to another source. Messages without a source, i.e. messages of plugins not processing an
+ * utterance, do not belong to any interaction.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class SpeakQueue {
+
+	private final static Logger log = LogManager.getLogger(SpeakQueue.class);
+
+	/**
+	 * Inner class wrapping a message and the interaction it belongs to.
+	 */
+	private class SpeakRequest {
+
+		private String message;
+		/** The input source the message answers, null if it does not belong to an interaction. */
+		private String source;
+		private long interaction;
+		private long enqueuedAt;
+		/** Trace of the utterance that caused the message, null if not traced. */
+		private UtteranceTrace trace;
+		/** The engine speaking the message, set before the message becomes the current message. */
+		private TTSPlugin engine;
+
+		public SpeakRequest(String message, String source, long interaction) {
+			this.message = message;
+			this.source = source;
+			this.interaction = interaction;
+			this.enqueuedAt = System.nanoTime();
+			this.trace = UtteranceTrace.current();
+			if( this.trace != null ) {
+				this.trace.retain();
+			}
+		}
+
+		/**
+		 * The message has been spoken or discarded.
+		 */
+		public void finished() {
+			inFlightCount.decrementAndGet();
+			if( trace != null ) {
+				trace.release();
+			}
+		}
+	}
+
+	/** Provides the TTS engine that is active when a message is spoken. */
+	private Supplier<TTSPlugin> ttsEngine;
+
+	private LinkedBlockingDeque<SpeakRequest> queue;
+
+	/** Number of the current interaction per input source. Messages of older interactions are stale. */
+	private Map<String, Long> currentInteractions;
+
+	/** The message that is currently spoken, null if the speaker is idle. */
+	private volatile SpeakRequest speaking;
+
+	private Thread speakerThread;
+
+	/** Number of messages queued or spoken, a message counts until it has been spoken or discarded. */
+	private AtomicInteger inFlightCount;
+
+	private AtomicLong spokenCount;
+
+	private AtomicLong dedupedCount;
+
+	private AtomicLong cancelledCount;
+
+	private AtomicLong interruptedCount;
+
+	/**
+	 * Create the queue and start the speaker thread.
+	 *
+	 * @param ttsEngine Provides the currently active TTS engine, may provide null if none is active.
+	 */
+	public SpeakQueue(Supplier<TTSPlugin> ttsEngine) {
+		this.ttsEngine = ttsEngine;
+		this.queue = new LinkedBlockingDeque<SpeakRequest>();
+		this.currentInteractions = new ConcurrentHashMap<String, Long>();
+		this.inFlightCount = new AtomicInteger();
+		this.spokenCount = new AtomicLong();
+		this.dedupedCount = new AtomicLong();
+		this.cancelledCount = new AtomicLong();
+		this.interruptedCount = new AtomicLong();
+
+		speakerThread = new Thread(this::speakLoop, "tts-speaker");
+		speakerThread.setDaemon(true);
+		speakerThread.start();
+		log.debug("SpeakQueue created.");
+	}
+
+	/**
+	 * Queue a message for speech output. Returns immediately.
+	 *
+	 * @param message The text to speak.
+	 * @param source The input source the message answers, null if it does not belong to an interaction.
+	 * @return boolean True if the message has been queued, false if an identical message is already in flight.
+	 */
+	public synchronized boolean enqueue(String message, String source) {
+		SpeakRequest current = speaking;
+		if( current != null && current.message.equals(message) ) {
+			dedupedCount.incrementAndGet();
+			log.debug("Message is already spoken, ignore it. [msg = '" + message + "']");
+			return false;
+		}
+		for( SpeakRequest r : queue ) {
+			if( r.message.equals(message) ) {
+				dedupedCount.incrementAndGet();
+				log.debug("Message is already queued, ignore it. [msg = '" + message + "']");
+				return false;
+			}
+		}
+		inFlightCount.incrementAndGet();
+		queue.addLast(new SpeakRequest(message, source, getCurrentInteraction(source)));
+		log.debug("Message queued for speech output. [msg = '" + message + "', pending = " + queue.size() + "]");
+		return true;
+	}
+
+	/**
+	 * Start a new interaction with an input source. Messages of previous interactions with this source
+	 * that have not been spoken yet are discarded.
+	 *
+	 * @param source The input source.
+	 */
+	public synchronized void startNewInteraction(String source) {
+		currentInteractions.merge(source, 1L, Long::sum);
+		Iterator<SpeakRequest> iter = queue.iterator();
+		while( iter.hasNext() ) {
+			SpeakRequest r = iter.next();
+			if( isStale(r) ) {
+				iter.remove();
+				r.finished();
+				cancelledCount.incrementAndGet();
+				log.debug("Discarded stale message. [msg = '" + r.message + "']");
+			}
+		}
+	}
+
+	/**
+	 * Forget the interactions of an input source, i.e. when its session expired. Pending messages
+	 * of the source are discarded.
+	 *
+	 * @param source The input source.
+	 */
+	public synchronized void removeSource(String source) {
+		startNewInteraction(source);
+		currentInteractions.remove(source);
+	}
+
+	/**
+	 * The user of an input source started speaking: interrupt the current speech output, so Ava does not
+	 * talk over the user. Messages answering another source are not interrupted.
+	 *
+	 * @param source The input source the user is speaking to.
+	 * @return boolean True if a speech output has been interrupted.
+	 */
+	public boolean bargeIn(String source) {
+		SpeakRequest current = speaking;
+		if( current == null ) {
+			return false;
+		}
+		if( current.source != null && !current.source.equals(source) ) {
+			log.debug("No barge-in, speech output answers another source. "
+					+ "[msg = '" + current.message + "', source = '" + source + "']");
+			return false;
+		}
+		log.debug("Barge-in: interrupt speech output. [msg = '" + current.message + "', source = '" + source + "']");
+		AudioOutputService.getInstance().abort(AudioChannel.SPEECH);
+		try {
+			current.engine.interruptExecution();
+			interruptedCount.incrementAndGet();
+			return true;
+		} catch(Exception e) {
+			log.error("Failed to interrupt TTS plugin.");
+			log.catching(Level.DEBUG, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Stop the speaker thread. Pending messages are discarded.
+	 */
+	public void shutdown() {
+		SpeakRequest r;
+		while( (r = queue.pollFirst()) != null ) {
+			r.finished();
+		}
+		speakerThread.interrupt();
+	}
+
+	private void speakLoop() {
+		PriorityEventDispatcher dispatcher = PriorityEventDispatcher.getInstance();
+		while( !Thread.currentThread().isInterrupted() ) {
+			SpeakRequest r;
+			try {
+				r = queue.takeFirst();
+			} catch (InterruptedException e) {
+				break;
+			}
+			if( isStale(r) ) {
+				cancelledCount.incrementAndGet();
+				log.debug("Discarded stale message. [msg = '" + r.message + "']");
+				r.finished();
+				continue;
+			}
+
+			TTSPlugin engine = ttsEngine.get();
+			if( engine == null ) {
+				log.error("Speech output failed: No TTS plugin active. [msg = '" + r.message + "']");
+				r.finished();
+				continue;
+			}
+
+			dispatcher.awaitTurn(EventPriority.SPEAK);
+			dispatcher.enter(EventPriority.SPEAK);
+			r.engine = engine;
+			speaking = r;
+			long start = System.nanoTime();
+			if( r.trace != null ) {
+				r.trace.record(TraceStage.SPEAK_WAIT, r.enqueuedAt, start);
+			}
+			SpeechOutputEvent jfrEvent = new SpeechOutputEvent();
+			jfrEvent.begin();
+			try {
+				log.debug("Speak output triggered. [msg = '" + r.message + "']");
+				engine.sayText(r.message);
+				spokenCount.incrementAndGet();
+			} catch(Exception e) {
+				log.error("TTS plugin failed to speak. [msg = '" + r.message + "']");
+				log.catching(Level.DEBUG, e);
+			} finally {
+				speaking = null;
+				dispatcher.exit(EventPriority.SPEAK);
+				if( r.trace != null ) {
+					r.trace.record(TraceStage.SPEAK, start, System.nanoTime());
+				}
+				jfrEvent.end();
+				if( jfrEvent.shouldCommit() ) {
+					jfrEvent.traceID = r.trace == null ? 0 : r.trace.getTraceID();
+					jfrEvent.message = r.message;
+					jfrEvent.waitTime = start - r.enqueuedAt;
+					jfrEvent.commit();
+				}
+				r.finished();
+			}
+		}
+		log.debug("Speaker thread stopped.");
+	}
+
+	private long getCurrentInteraction(String source) {
+		return source == null ? 0 : currentInteractions.getOrDefault(source, 0L);
+	}
+
+	/**
+	 * Check whether a message belongs to a previous interaction with its source.
+	 */
+	private boolean isStale(SpeakRequest r) {
+		return r.source != null && r.interaction < getCurrentInteraction(r.source);
+	}
+
+	/**
+	 * Check whether the speaker is idle, i.e. no message is waiting or spoken.
+	 *
+	 * @return boolean True if all queued messages have been spoken or discarded.
+	 */
+	public boolean isIdle() {
+		return inFlightCount.get() == 0;
+	}
+
+	public int getPendingCount() {
+		return queue.size();
+	}
+
+	public long getSpokenCount() {
+		return spokenCount.get();
+	}
+
+	public long getDedupedCount() {
+		return dedupedCount.get();
+	}
+
+	public long getCancelledCount() {
+		return cancelledCount.get();
+	}
+
+	public long getInterruptedCount() {
+		return interruptedCount.get();
+	}
+}
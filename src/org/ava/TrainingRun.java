@@ -0,0 +1,142 @@
+package org.ava;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ava.eventhandling.STTEventBus;
+import org.ava.eventhandling.UtteranceRecognizedEvent;
+
+/**
+ * This class executes a training run: it feeds a scripted set of utterances through the STTEventBus
+ * of a started Ava, so the classes of Ava, its libraries and all activated plugins are loaded.
+ * <p>
+ * A training run is started with the command line argument -train. Started with the JVM option
+ * -XX:ArchiveClassesAtExit, the JVM dumps all loaded classes into a dynamic AppCDS archive when Ava
+ * terminates after the run. The launcher ava.sh uses the archive for all later launches with the
+ * same JVM, class path and plugins.
+ * <p>
+ * The script contains one utterance per line. Empty lines and lines starting with '#' are ignored.
+ * It should exercise the activation phrase and a command of each plugin.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class TrainingRun {
+
+	private final static Logger log = LogManager.getLogger(TrainingRun.class);
+
+	/** The input source of the scripted utterances. */
+	public final static String SOURCE = "training";
+
+	/** Maximum time to wait for the processing of the utterances. */
+	private final static long PROCESSING_TIMEOUT = 60000;
+
+	/** Interval of checking whether the commands and speech output have finished. */
+	private final static long POLL_INTERVAL = 20;
+
+	private Path scriptFile;
+
+	/**
+	 * Create a training run.
+	 *
+	 * @param scriptFile The file containing the utterances.
+	 */
+	public TrainingRun(Path scriptFile) {
+		this.scriptFile = scriptFile;
+	}
+
+	/**
+	 * Read the utterances of a script.
+	 *
+	 * @param scriptFile The file containing the utterances.
+	 * @return List<String> The utterances in the order of the script.
+	 * @throws IOException If the file can't be read.
+	 */
+	public static List<String> readScript(Path scriptFile) throws IOException {
+		List<String> utterances = new ArrayList<String>();
+		for( String line : Files.readAllLines(scriptFile, StandardCharsets.UTF_8) ) {
+			line = line.trim();
+			if( !line.isEmpty() && !line.startsWith("#") ) {
+				utterances.add(line);
+			}
+		}
+		return utterances;
+	}
+
+	/**
+	 * Execute the training run. Blocks until all utterances have been processed.
+	 *
+	 * @param control The started Ava.
+	 * @return int The number of utterances fed through the STTEventBus.
+	 * @throws IOException If the script can't be read.
+	 */
+	public int run(AvaControl control) throws IOException {
+		List<String> utterances = readScript(scriptFile);
+		log.info("Training run with " + utterances.size() + " utterances from '" + scriptFile + "'.");
+
+		// the classes of lazily started plugins are archived as well
+		CompletableFuture<Void> preloads = control.preloadAppPlugins();
+
+		STTEventBus bus = STTEventBus.getInstance();
+		long start = System.currentTimeMillis();
+		for( String utterance : utterances ) {
+			bus.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent(utterance, SOURCE));
+			if( !bus.awaitUtterancesProcessed(PROCESSING_TIMEOUT) ) {
+				log.error("Training run: utterance '" + utterance + "' not processed within " + PROCESSING_TIMEOUT + " ms.");
+			}
+		}
+		try {
+			// plugins still loading would be missing from the archive
+			preloads.get(PROCESSING_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch(ExecutionException e) {
+			log.error("Training run: failed to preload the application plugins.");
+			log.catching(Level.DEBUG, e);
+		} catch(TimeoutException e) {
+			log.error("Training run: application plugins not loaded within " + PROCESSING_TIMEOUT + " ms.");
+		}
+		// commands and speech output started by the last utterances load classes as well
+		if( !awaitIdle(control, PROCESSING_TIMEOUT) ) {
+			log.error("Training run: commands and speech output not finished within " + PROCESSING_TIMEOUT + " ms.");
+		}
+		log.info("Training run finished in " + (System.currentTimeMillis() - start) + " ms.");
+		return utterances.size();
+	}
+
+	/**
+	 * Wait until no command is executed and no message is spoken. The commands are checked first, so a
+	 * message queued by a command is seen by the following check of the speech output.
+	 *
+	 * @param control The started Ava.
+	 * @param timeout Maximum milliseconds to wait.
+	 * @return boolean True if Ava is idle, false if the timeout expired or the thread has been interrupted.
+	 */
+	private static boolean awaitIdle(AvaControl control, long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		while( !(control.getCommandService().isIdle() && control.getSpeakQueue().isIdle()) ) {
+			if( System.currentTimeMillis() >= deadline ) {
+				return false;
+			}
+			try {
+				Thread.sleep(POLL_INTERVAL);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+}
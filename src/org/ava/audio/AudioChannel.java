@@ -0,0 +1,27 @@
+package org.ava.audio;
+
+/**
+ * This enum lists the channels of the AudioOutputService. A channel with a higher priority ducks all
+ * channels with a lower priority while it is playing, i.e. music is lowered under speech output and
+ * speech output is lowered under audio cues.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public enum AudioChannel {
+
+	MUSIC(0),
+	SPEECH(1),
+	CUE(2);
+
+	private int priority;
+
+	private AudioChannel(int priority) {
+		this.priority = priority;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+}
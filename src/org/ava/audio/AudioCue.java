@@ -0,0 +1,28 @@
+package org.ava.audio;
+
+/**
+ * Enum encoding the short sounds Ava plays to give feedback to the user.
+ *
+ * Possible values:
+ * 		-- BOOT: Played when Ava has been started.
+ * 		-- CONFIRMATION: Played when the activation phrase or a plugin has been recognized.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public enum AudioCue {
+	BOOT("bootsound.wav"),
+	CONFIRMATION("ping.wav");
+
+	/** Name of the WAV file of the cue in the resource directory. */
+	private String fileName;
+
+	private AudioCue(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+}
@@ -0,0 +1,104 @@
+package org.ava.audio;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class plays the audio cues of Ava. All cues are decoded once into samples of the mix format
+ * of the AudioOutputService when the manager is created. Cues are played on the cue channel of the
+ * service, which ducks the speech output and music while a cue is playing.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class AudioCueManager {
+
+	private final static Logger log = LogManager.getLogger(AudioCueManager.class);
+
+	/** Directory the cues have been played from before, used if a cue is missing in the resource directory. */
+	public final static String DEFAULT_RESOURCE_DIRECTORY = "./res/";
+
+	private AudioOutputService service;
+
+	/** The decoded cues in the mix format of the service. */
+	private Map<AudioCue, short[]> cues;
+
+	/**
+	 * Create the manager and decode all cues from the given resource directory. Cues missing in the
+	 * resource directory are read from DEFAULT_RESOURCE_DIRECTORY.
+	 *
+	 * @param resourceDirectory The directory containing the WAV files of the cues, i.e. the configuration directory.
+	 * @param service The service playing the cues.
+	 */
+	public AudioCueManager(String resourceDirectory, AudioOutputService service) {
+		this.service = service;
+		this.cues = new EnumMap<AudioCue, short[]>(AudioCue.class);
+
+		for( AudioCue cue : AudioCue.values() ) {
+			Path file = Paths.get(resourceDirectory, cue.getFileName());
+			if( !Files.exists(file) ) {
+				log.debug("Audio cue '" + file + "' not found, use the default resource directory.");
+				file = Paths.get(DEFAULT_RESOURCE_DIRECTORY, cue.getFileName());
+			}
+			short[] samples = decode(file);
+			if( samples != null ) {
+				cues.put(cue, samples);
+			}
+		}
+		log.debug("AudioCueManager created [cues = " + cues.keySet() + "].");
+	}
+
+	/**
+	 * Play a cue. Returns immediately.
+	 *
+	 * @param cue The cue to play.
+	 */
+	public void play(AudioCue cue) {
+		short[] samples = cues.get(cue);
+		if( samples == null ) {
+			log.debug("Audio cue not available: " + cue);
+			return;
+		}
+		log.debug("Play audio cue: " + cue);
+		service.play(AudioChannel.CUE, samples);
+	}
+
+	/**
+	 * Decode a WAV file into samples of the mix format.
+	 *
+	 * @return short[] The samples, null if the file can't be decoded.
+	 */
+	private short[] decode(Path file) {
+		try( AudioInputStream in = AudioSystem.getAudioInputStream(new BufferedInputStream(Files.newInputStream(file))) ) {
+			AudioFormat format = in.getFormat();
+			AudioInputStream pcmStream = in;
+			if( format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED ) {
+				format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+						format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+				pcmStream = AudioSystem.getAudioInputStream(format, in);
+			}
+			byte[] pcm = pcmStream.readAllBytes();
+			log.debug("Audio cue decoded: " + file + " [bytes = " + pcm.length + ", format = " + format + "]");
+			return service.convert(format, pcm);
+		} catch(IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+			log.error("Failed to decode audio cue '" + file + "'.");
+			log.catching(Level.DEBUG, e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package org.ava.audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * This interface specifies a sink for PCM audio data, i.e. a sound card line.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public interface AudioOutput {
+
+	/**
+	 * Prepare the output for audio data of the given format, so playback can start without delay.
+	 *
+	 * @param format The format of the audio data that will be played.
+	 * @return boolean True if the output is able to play the format, false if not.
+	 */
+	public boolean prepare(AudioFormat format);
+
+	/**
+	 * Play PCM audio data. Blocks until the data has been handed to the output device,
+	 * not necessarily until it has been heard.
+	 *
+	 * @param format The format of the audio data.
+	 * @param pcm The audio data.
+	 * @param offset The offset of the first byte to play.
+	 * @param length The number of bytes to play.
+	 */
+	public void write(AudioFormat format, byte[] pcm, int offset, int length);
+
+	/**
+	 * Release all resources of the output.
+	 */
+	public void close();
+
+}
@@ -0,0 +1,325 @@
+package org.ava.audio;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ava.util.LatencyHistogram;
+
+/**
+ * This class plays all audio output of Ava. A single mixer thread mixes the audio streams of all
+ * channels and writes the mix to one audio output, so no component has to acquire its own sound card line.
+ * <p>
+ * While a channel is playing, all channels with a lower priority are ducked: their gain is lowered to
+ * the duck gain and restored when the channel stopped playing. Gains are ramped to avoid clicks.
+ * <p>
+ * TTS plugins stream their speech output with
+ * <pre>
+ * 	AudioStream stream = AudioOutputService.getInstance().openStream(AudioChannel.SPEECH, format);
+ * 	stream.write(pcm, 0, pcm.length);
+ * 	stream.drain();
+ * </pre>
+ * and should call AudioStream.abort() if they are interrupted.
+ * <p>
+ * The mixer writes as fast as the output accepts the audio data. A sound card line blocks while its
+ * buffer is full, which paces the mixer to real time. File and null outputs are written at once.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class AudioOutputService {
+
+	private final static Logger log = LogManager.getLogger(AudioOutputService.class);
+
+	/** The mix format: 44.1 kHz, 16 bit, signed, stereo, little endian. */
+	public final static AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+
+	/** Frames mixed at once, 10 ms. */
+	public final static int CHUNK_FRAMES = 441;
+
+	/** Gain of ducked channels. */
+	public final static float DEFAULT_DUCK_GAIN = 0.3f;
+
+	/** Maximum change of the gain of a channel per chunk, ducking takes about 50 ms. */
+	private final static float GAIN_STEP = 0.2f;
+
+	/** The singleton instance of the service. */
+	private static AudioOutputService instance = new AudioOutputService();
+
+	private AudioOutput output;
+
+	private List<AudioStream> streams;
+
+	/** Lock the mixer thread waits on for audio data. */
+	private final Object mixLock = new Object();
+
+	private Thread mixer;
+
+	private volatile boolean running;
+
+	private volatile float duckGain;
+
+	/** Current gain of each channel. */
+	private float[] gains;
+
+	private AtomicLong mixedFrames;
+
+	/** Time between opening a stream and mixing its first samples. */
+	private LatencyHistogram startLatency;
+
+	/**
+	 * Private constructor to ensure singleton functionality.
+	 */
+	private AudioOutputService() {
+		streams = new CopyOnWriteArrayList<AudioStream>();
+		duckGain = DEFAULT_DUCK_GAIN;
+		gains = new float[AudioChannel.values().length];
+		mixedFrames = new AtomicLong();
+		startLatency = new LatencyHistogram();
+	}
+
+	/**
+	 * Returns the singleton instance of the AudioOutputService.
+	 *
+	 * @return AudioOutputService The instance of the service.
+	 */
+	public static AudioOutputService getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Start the mixer thread. If the output is not able to play the mix format, the audio output is muted.
+	 *
+	 * @param output The output the mix is written to.
+	 */
+	public synchronized void start(AudioOutput output) {
+		if( running ) {
+			log.debug("AudioOutputService already started.");
+			return;
+		}
+		if( !output.prepare(FORMAT) ) {
+			log.error("Audio output unable to play " + FORMAT + ". Audio output is muted.");
+			output = new NullAudioOutput();
+		}
+		this.output = output;
+		for( int ii = 0; ii < gains.length; ii++ ) {
+			gains[ii] = 1f;
+		}
+		running = true;
+		mixer = new Thread(this::mix, "audio-mixer");
+		mixer.setDaemon(true);
+		mixer.start();
+		log.debug("AudioOutputService started [output = " + output.getClass().getSimpleName() + "].");
+	}
+
+	/**
+	 * Stop the mixer thread, abort all streams and close the output.
+	 */
+	public synchronized void shutdown() {
+		if( !running ) {
+			return;
+		}
+		running = false;
+		dataAvailable();
+		try {
+			mixer.join(1000);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for( AudioStream stream : streams ) {
+			stream.abort();
+		}
+		streams.clear();
+		output.close();
+		log.debug("AudioOutputService stopped.");
+	}
+
+	/**
+	 * Open a stream audio data can be written to.
+	 *
+	 * @param channel The channel the stream is played on.
+	 * @param format The format of the audio data.
+	 * @return AudioStream The stream.
+	 * @throws IllegalArgumentException If the format is not supported, see PcmConverter.isSupported().
+	 */
+	public AudioStream openStream(AudioChannel channel, AudioFormat format) {
+		AudioStream stream = new AudioStream(this, channel, new PcmConverter(format));
+		streams.add(stream);
+		return stream;
+	}
+
+	/**
+	 * Play preloaded samples. Returns immediately.
+	 *
+	 * @param channel The channel the samples are played on.
+	 * @param samples The samples in the mix format, see convert().
+	 * @return AudioStream The finished stream playing the samples.
+	 */
+	public AudioStream play(AudioChannel channel, short[] samples) {
+		AudioStream stream = new AudioStream(this, channel, samples);
+		streams.add(stream);
+		dataAvailable();
+		return stream;
+	}
+
+	/**
+	 * Convert audio data to samples in the mix format, i.e. to preload audio data for play().
+	 *
+	 * @param format The format of the audio data.
+	 * @param pcm The audio data.
+	 * @return short[] The samples, interleaved left and right.
+	 * @throws IllegalArgumentException If the format is not supported.
+	 */
+	public short[] convert(AudioFormat format, byte[] pcm) {
+		PcmConverter converter = new PcmConverter(format);
+		short[] samples = converter.convert(pcm, 0, pcm.length);
+		short[] last = converter.flush();
+		short[] result = new short[samples.length + last.length];
+		System.arraycopy(samples, 0, result, 0, samples.length);
+		System.arraycopy(last, 0, result, samples.length, last.length);
+		return result;
+	}
+
+	/**
+	 * Abort all streams of a channel, i.e. to stop the speech output on barge-in.
+	 *
+	 * @param channel The channel.
+	 */
+	public void abort(AudioChannel channel) {
+		for( AudioStream stream : streams ) {
+			if( stream.getChannel() == channel ) {
+				stream.abort();
+			}
+		}
+	}
+
+	public float getDuckGain() {
+		return duckGain;
+	}
+
+	public void setDuckGain(float duckGain) {
+		this.duckGain = duckGain;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public int getStreamCount() {
+		return streams.size();
+	}
+
+	public long getMixedFrames() {
+		return mixedFrames.get();
+	}
+
+	public LatencyHistogram getStartLatency() {
+		return startLatency;
+	}
+
+	/**
+	 * Called by the streams when audio data has been written or a stream finished.
+	 */
+	void dataAvailable() {
+		synchronized( mixLock ) {
+			mixLock.notifyAll();
+		}
+	}
+
+	/**
+	 * The loop of the mixer thread.
+	 */
+	private void mix() {
+		short[] samples = new short[CHUNK_FRAMES * 2];
+		int[] mix = new int[CHUNK_FRAMES * 2];
+		byte[] pcm = new byte[CHUNK_FRAMES * 4];
+		float[] from = new float[gains.length];
+
+		while( running ) {
+			synchronized( mixLock ) {
+				removeFinished();
+				while( running && !hasData() ) {
+					try {
+						mixLock.wait();
+					} catch(InterruptedException e) {
+						return;
+					}
+					removeFinished();
+				}
+			}
+			if( !running ) {
+				return;
+			}
+
+			// duck all channels below the highest playing channel
+			int top = -1;
+			for( AudioStream stream : streams ) {
+				if( stream.available() > 0 ) {
+					top = Math.max(top, stream.getChannel().getPriority());
+				}
+			}
+			for( AudioChannel channel : AudioChannel.values() ) {
+				int ii = channel.ordinal();
+				float target = channel.getPriority() < top ? duckGain : 1f;
+				from[ii] = gains[ii];
+				gains[ii] = from[ii] + Math.max(-GAIN_STEP, Math.min(GAIN_STEP, target - from[ii]));
+			}
+
+			int frames = 0;
+			Arrays.fill(mix, 0);
+			for( AudioStream stream : streams ) {
+				int n = stream.read(samples, samples.length);
+				if( n == 0 ) {
+					continue;
+				}
+				long latency = stream.markStarted();
+				if( latency >= 0 ) {
+					startLatency.record(latency);
+				}
+				int ii = stream.getChannel().ordinal();
+				float g0 = from[ii];
+				float dg = (gains[ii] - g0) / CHUNK_FRAMES;
+				for( int s = 0; s < n; s++ ) {
+					mix[s] += (int) (samples[s] * (g0 + dg * (s >> 1)));
+				}
+				frames = Math.max(frames, n / 2);
+			}
+
+			for( int s = 0; s < frames * 2; s++ ) {
+				int v = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[s]));
+				pcm[2 * s] = (byte) v;
+				pcm[2 * s + 1] = (byte) (v >> 8);
+			}
+			try {
+				output.write(FORMAT, pcm, 0, frames * 4);
+			} catch(RuntimeException e) {
+				log.catching(Level.DEBUG, e);
+			}
+			mixedFrames.addAndGet(frames);
+		}
+	}
+
+	private boolean hasData() {
+		for( AudioStream stream : streams ) {
+			if( stream.available() > 0 ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void removeFinished() {
+		for( AudioStream stream : streams ) {
+			if( stream.isFinished() ) {
+				streams.remove(stream);
+			}
+		}
+	}
+}
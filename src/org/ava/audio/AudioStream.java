@@ -0,0 +1,223 @@
+package org.ava.audio;
+
+/**
+ * This class represents a source of audio data played by the AudioOutputService, i.e. the speech output
+ * of a TTS plugin. Audio data is written to the stream in its own format and converted to the mix format
+ * of the service. The stream buffers about one second of audio data, writing blocks while the buffer is full.
+ * <p>
+ * A stream is finished when it has been closed and all written data has been played, or when it has been
+ * aborted.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class AudioStream {
+
+	/** Milliseconds of audio data buffered by a stream. */
+	public final static int BUFFER_MILLIS = 1000;
+
+	private AudioOutputService service;
+
+	private AudioChannel channel;
+
+	/** Converts the written data to the mix format, null for preloaded audio data. */
+	private PcmConverter converter;
+
+	/** Ring buffer of samples in the mix format. */
+	private short[] buffer;
+	private int head;
+	private int size;
+
+	private boolean closed;
+	private boolean aborted;
+	private boolean finished;
+
+	/** System.nanoTime() the stream has been opened. */
+	private long openedAt;
+
+	private boolean started;
+
+	/**
+	 * Create a stream audio data is written to.
+	 */
+	AudioStream(AudioOutputService service, AudioChannel channel, PcmConverter converter) {
+		this.service = service;
+		this.channel = channel;
+		this.converter = converter;
+		this.buffer = new short[(int) (AudioOutputService.FORMAT.getSampleRate() * BUFFER_MILLIS / 1000) * 2];
+		this.openedAt = System.nanoTime();
+	}
+
+	/**
+	 * Create a closed stream playing preloaded samples in the mix format.
+	 */
+	AudioStream(AudioOutputService service, AudioChannel channel, short[] samples) {
+		this.service = service;
+		this.channel = channel;
+		this.buffer = samples;
+		this.size = samples.length;
+		this.closed = true;
+		this.finished = samples.length == 0;
+		this.openedAt = System.nanoTime();
+	}
+
+	/**
+	 * Write audio data to the stream. Blocks until all data has been buffered.
+	 *
+	 * @param pcm The audio data in the format the stream has been opened with.
+	 * @param offset The offset of the first byte.
+	 * @param length The number of bytes.
+	 * @return boolean True if the data has been buffered, false if the stream has been closed or aborted,
+	 * 			the buffer is full while the service is not running or the current thread has been interrupted.
+	 */
+	public boolean write(byte[] pcm, int offset, int length) {
+		synchronized( this ) {
+			if( closed || aborted || converter == null ) {
+				return false;
+			}
+		}
+		return push(converter.convert(pcm, offset, length));
+	}
+
+	/**
+	 * Close the stream. Data already written is still played.
+	 */
+	public void close() {
+		if( converter != null ) {
+			push(converter.flush());
+		}
+		synchronized( this ) {
+			closed = true;
+			if( size == 0 ) {
+				finish();
+			}
+		}
+		service.dataAvailable();
+	}
+
+	/**
+	 * Discard all buffered data and finish the stream immediately.
+	 */
+	public void abort() {
+		synchronized( this ) {
+			aborted = true;
+			size = 0;
+			finish();
+		}
+		service.dataAvailable();
+	}
+
+	/**
+	 * Close the stream and wait until all written data has been played. Returns immediately if the
+	 * AudioOutputService is not running, since nothing would play the data.
+	 *
+	 * @return boolean True if all data has been played, false if the stream has been aborted, the
+	 * 			service is not running or the current thread has been interrupted.
+	 */
+	public boolean drain() {
+		close();
+		synchronized( this ) {
+			try {
+				while( !finished ) {
+					// shutdown() aborts all streams, which ends the wait
+					if( !service.isRunning() ) {
+						return false;
+					}
+					wait();
+				}
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			return !aborted;
+		}
+	}
+
+	public AudioChannel getChannel() {
+		return channel;
+	}
+
+	public synchronized boolean isFinished() {
+		return finished;
+	}
+
+	public synchronized boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Returns the number of buffered samples.
+	 */
+	synchronized int available() {
+		return size;
+	}
+
+	/**
+	 * Called by the mixer thread to take buffered samples.
+	 *
+	 * @return int The number of samples copied to dst.
+	 */
+	synchronized int read(short[] dst, int length) {
+		int n = Math.min(size, length);
+		int first = Math.min(n, buffer.length - head);
+		System.arraycopy(buffer, head, dst, 0, first);
+		System.arraycopy(buffer, 0, dst, first, n - first);
+		head = (head + n) % buffer.length;
+		size -= n;
+		if( closed && size == 0 ) {
+			finish();
+		}
+		notifyAll();
+		return n;
+	}
+
+	/**
+	 * Called by the mixer thread when the first samples of the stream are played.
+	 *
+	 * @return long Nanoseconds since the stream has been opened, -1 if the stream started before.
+	 */
+	synchronized long markStarted() {
+		if( started ) {
+			return -1;
+		}
+		started = true;
+		return System.nanoTime() - openedAt;
+	}
+
+	private boolean push(short[] samples) {
+		int written = 0;
+		while( written < samples.length ) {
+			synchronized( this ) {
+				try {
+					while( size == buffer.length && !aborted ) {
+						if( !service.isRunning() ) {
+							return false;
+						}
+						wait();
+					}
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+				if( aborted ) {
+					return false;
+				}
+				int n = Math.min(samples.length - written, buffer.length - size);
+				int tail = (head + size) % buffer.length;
+				int first = Math.min(n, buffer.length - tail);
+				System.arraycopy(samples, written, buffer, tail, first);
+				System.arraycopy(samples, written + first, buffer, 0, n - first);
+				size += n;
+				written += n;
+			}
+			service.dataAvailable();
+		}
+		return true;
+	}
+
+	private void finish() {
+		finished = true;
+		notifyAll();
+	}
+}
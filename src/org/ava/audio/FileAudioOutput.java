@@ -0,0 +1,117 @@
+package org.ava.audio;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class implements an audio output writing to a WAV file, i.e. to record the audio output of Ava
+ * without a sound card. The file is written in the first format the output is prepared for, data of
+ * other formats is discarded.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class FileAudioOutput implements AudioOutput {
+
+	private final static Logger log = LogManager.getLogger(FileAudioOutput.class);
+
+	/** Size of the RIFF header of a PCM WAV file. */
+	private final static int HEADER_SIZE = 44;
+
+	private Path file;
+
+	private RandomAccessFile out;
+
+	private AudioFormat format;
+
+	private long dataSize;
+
+	/**
+	 * Create an output writing to the given file. The file is replaced.
+	 *
+	 * @param file The WAV file.
+	 */
+	public FileAudioOutput(Path file) {
+		this.file = file;
+	}
+
+	@Override
+	public synchronized boolean prepare(AudioFormat format) {
+		if( out != null ) {
+			return this.format.matches(format);
+		}
+		// WAV files hold little endian PCM
+		if( format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED && format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED
+				|| format.getSampleSizeInBits() > 8 && format.isBigEndian() ) {
+			return false;
+		}
+		try {
+			out = new RandomAccessFile(file.toFile(), "rw");
+			out.setLength(0);
+			out.write(new byte[HEADER_SIZE]);
+			this.format = format;
+			log.debug("Audio output file opened: " + file);
+			return true;
+		} catch(IOException e) {
+			log.error("Failed to open audio output file '" + file + "'.");
+			log.catching(Level.DEBUG, e);
+			out = null;
+			return false;
+		}
+	}
+
+	@Override
+	public synchronized void write(AudioFormat format, byte[] pcm, int offset, int length) {
+		if( out == null || !this.format.matches(format) ) {
+			return;
+		}
+		try {
+			out.write(pcm, offset, length);
+			dataSize += length;
+		} catch(IOException e) {
+			log.catching(Level.DEBUG, e);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if( out == null ) {
+			return;
+		}
+		try {
+			out.seek(0);
+			out.write(createHeader());
+			out.close();
+			log.debug("Audio output file closed: " + file + " [bytes = " + dataSize + "]");
+		} catch(IOException e) {
+			log.catching(Level.DEBUG, e);
+		}
+		out = null;
+	}
+
+	public synchronized long getDataSize() {
+		return dataSize;
+	}
+
+	private byte[] createHeader() {
+		int channels = format.getChannels();
+		int bits = format.getSampleSizeInBits();
+		int rate = (int) format.getSampleRate();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.put("RIFF".getBytes()).putInt((int) (36 + dataSize)).put("WAVE".getBytes());
+		header.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels);
+		header.putInt(rate).putInt(rate * channels * bits / 8).putShort((short) (channels * bits / 8)).putShort((short) bits);
+		header.put("data".getBytes()).putInt((int) dataSize);
+		return header.array();
+	}
+}
@@ -0,0 +1,70 @@
+package org.ava.audio;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class implements an audio output writing to the lines of the default mixer. A line is
+ * opened and started once per audio format and kept open, so playback starts without delay.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class LineAudioOutput implements AudioOutput {
+
+	private final static Logger log = LogManager.getLogger(LineAudioOutput.class);
+
+	/** Open lines by audio format. AudioFormat does not implement equals(), so the description is the key. */
+	private Map<String, SourceDataLine> lines = new ConcurrentHashMap<String, SourceDataLine>();
+
+	@Override
+	public boolean prepare(AudioFormat format) {
+		return getLine(format) != null;
+	}
+
+	@Override
+	public void write(AudioFormat format, byte[] pcm, int offset, int length) {
+		SourceDataLine line = getLine(format);
+		if( line != null ) {
+			line.write(pcm, offset, length);
+		}
+	}
+
+	@Override
+	public void close() {
+		for( SourceDataLine line : lines.values() ) {
+			line.drain();
+			line.close();
+		}
+		lines.clear();
+	}
+
+	private synchronized SourceDataLine getLine(AudioFormat format) {
+		SourceDataLine line = lines.get(format.toString());
+		if( line != null ) {
+			return line;
+		}
+		try {
+			line = AudioSystem.getSourceDataLine(format);
+			line.open(format);
+			line.start();
+			lines.put(format.toString(), line);
+			log.debug("Audio line opened [format = " + format + "].");
+			return line;
+		} catch(LineUnavailableException | IllegalArgumentException | SecurityException e) {
+			log.debug("No audio line available [format = " + format + "].");
+			log.catching(Level.DEBUG, e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package org.ava.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * This class implements an audio output discarding all audio data. It is used if no sound card is
+ * available, i.e. on headless servers and in tests. The written data is counted.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class NullAudioOutput implements AudioOutput {
+
+	private AtomicLong writeCount = new AtomicLong();
+
+	private AtomicLong byteCount = new AtomicLong();
+
+	@Override
+	public boolean prepare(AudioFormat format) {
+		return true;
+	}
+
+	@Override
+	public void write(AudioFormat format, byte[] pcm, int offset, int length) {
+		writeCount.incrementAndGet();
+		byteCount.addAndGet(length);
+	}
+
+	@Override
+	public void close() {
+	}
+
+	public long getWriteCount() {
+		return writeCount.get();
+	}
+
+	public long getByteCount() {
+		return byteCount.get();
+	}
+}
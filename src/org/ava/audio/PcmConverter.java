@@ -0,0 +1,173 @@
+package org.ava.audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * This class converts PCM audio data into the mix format of the AudioOutputService. Signed and unsigned
+ * PCM with 8 or 16 bits, one or two channels and any byte order and sample rate is supported. The
+ * sample rate is converted by linear interpolation.
+ * <p>
+ * A converter keeps the state of the stream it converts, so audio data may be split at any byte.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+class PcmConverter {
+
+	private AudioFormat format;
+
+	private int bytesPerSample;
+
+	private int channels;
+
+	private boolean signed;
+
+	private boolean bigEndian;
+
+	/** Source frames per output frame. */
+	private double step;
+
+	/** Bytes of an incomplete frame of the previous call. */
+	private byte[] remainder;
+
+	private int remainderLength;
+
+	/** The last source frame of the previous call, left and right. */
+	private int lastLeft;
+	private int lastRight;
+	private boolean hasLast;
+
+	/** Position of the next output frame in source frames, relative to the last source frame. */
+	private double position;
+
+	/**
+	 * Create a converter.
+	 *
+	 * @param format The format of the source audio data.
+	 * @throws IllegalArgumentException If the format is not supported.
+	 */
+	public PcmConverter(AudioFormat format) {
+		if( !isSupported(format) ) {
+			throw new IllegalArgumentException("Unsupported audio format: " + format);
+		}
+		this.format = format;
+		this.bytesPerSample = format.getSampleSizeInBits() / 8;
+		this.channels = format.getChannels();
+		this.signed = format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED;
+		this.bigEndian = format.isBigEndian();
+		this.step = format.getSampleRate() / AudioOutputService.FORMAT.getSampleRate();
+		this.remainder = new byte[bytesPerSample * channels];
+	}
+
+	/**
+	 * Check whether audio data of a format can be converted.
+	 *
+	 * @param format The format of the audio data.
+	 * @return boolean True if the format is supported.
+	 */
+	public static boolean isSupported(AudioFormat format) {
+		return (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED || format.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED)
+				&& (format.getSampleSizeInBits() == 8 || format.getSampleSizeInBits() == 16)
+				&& (format.getChannels() == 1 || format.getChannels() == 2)
+				&& format.getSampleRate() > 0;
+	}
+
+	public AudioFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Convert audio data.
+	 *
+	 * @param pcm The audio data in the source format.
+	 * @param offset The offset of the first byte.
+	 * @param length The number of bytes.
+	 * @return short[] The converted samples, interleaved left and right.
+	 */
+	public short[] convert(byte[] pcm, int offset, int length) {
+		int frameSize = remainder.length;
+		int available = remainderLength + length;
+		int frameCount = available / frameSize;
+
+		// decode all complete frames, preceded by the last frame of the previous call
+		int first = hasLast ? 1 : 0;
+		int[] left = new int[frameCount + first];
+		int[] right = new int[frameCount + first];
+		if( hasLast ) {
+			left[0] = lastLeft;
+			right[0] = lastRight;
+		}
+		byte[] frame = new byte[frameSize];
+		int read = offset;
+		for( int ii = 0; ii < frameCount; ii++ ) {
+			int fromRemainder = Math.min(remainderLength, frameSize);
+			System.arraycopy(remainder, 0, frame, 0, fromRemainder);
+			System.arraycopy(pcm, read, frame, fromRemainder, frameSize - fromRemainder);
+			read += frameSize - fromRemainder;
+			remainderLength = 0;
+			left[first + ii] = decodeSample(frame, 0);
+			right[first + ii] = channels == 2 ? decodeSample(frame, bytesPerSample) : left[first + ii];
+		}
+		int rest = offset + length - read;
+		System.arraycopy(pcm, read, remainder, remainderLength, rest);
+		remainderLength += rest;
+
+		int frames = left.length;
+		if( frames == 0 ) {
+			return new short[0];
+		}
+
+		// interpolate the output frames between the source frames
+		int outFrames = position < frames - 1 ? (int) Math.ceil((frames - 1 - position) / step) + 1 : 0;
+		short[] out = new short[outFrames * 2];
+		int written = 0;
+		while( position < frames - 1 ) {
+			int ii = (int) position;
+			double frac = position - ii;
+			out[written++] = (short) Math.round(left[ii] + (left[ii + 1] - left[ii]) * frac);
+			out[written++] = (short) Math.round(right[ii] + (right[ii + 1] - right[ii]) * frac);
+			position += step;
+		}
+		position -= frames - 1;
+		lastLeft = left[frames - 1];
+		lastRight = right[frames - 1];
+		hasLast = true;
+
+		if( written < out.length ) {
+			short[] trimmed = new short[written];
+			System.arraycopy(out, 0, trimmed, 0, written);
+			return trimmed;
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the last source frame, which is held back until the next call of convert() for the
+	 * interpolation.
+	 *
+	 * @return short[] The last frame, left and right, an empty array if there is none.
+	 */
+	public short[] flush() {
+		if( !hasLast || position > 0 ) {
+			return new short[0];
+		}
+		hasLast = false;
+		return new short[] { (short) lastLeft, (short) lastRight };
+	}
+
+	private int decodeSample(byte[] frame, int offset) {
+		int sample;
+		if( bytesPerSample == 1 ) {
+			sample = signed ? frame[offset] : (frame[offset] & 0xFF) - 128;
+			return sample << 8;
+		}
+		int lo = bigEndian ? frame[offset + 1] : frame[offset];
+		int hi = bigEndian ? frame[offset] : frame[offset + 1];
+		sample = (hi << 8) | (lo & 0xFF);
+		if( !signed ) {
+			sample = (sample & 0xFFFF) - 32768;
+		}
+		return sample;
+	}
+}
@@ -0,0 +1,26 @@
+package org.ava.eventhandling;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This listener will be notified when an utterance has been requested asynchronously
+ * via the STTEventBus, i.e. by an application plugin in a dialog-like situation.
+ *
+ * Listeners only implementing UtteranceRequestedListener are called on a shared
+ * request thread of the STTEventBus instead.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public interface AsyncUtteranceRequestedListener extends UtteranceRequestedListener {
+
+	/**
+	 * Called if an utterance has been requested asynchronously. The method must not block.
+	 *
+	 * @return CompletableFuture<String> A future completed with the requested utterance,
+	 * 				or with null if no utterance can be provided.
+	 */
+	public CompletableFuture<String> requestUtteranceAsync();
+
+}
@@ -0,0 +1,187 @@
+package org.ava.eventhandling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * This class collects per-listener statistics of all event buses. Each event bus
+ * invokes its listeners through this class, which measures the latency of the invocation
+ * and counts events and errors per listener. Listeners are told apart by identity, the
+ * statistics of a listener are removed when it is unregistered from its event bus.
+ * <p>
+ * Recording takes no lock, the statistics are looked up in a ConcurrentHashMap and updated by ListenerStats.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class EventBusStats {
+
+	/** The singleton instance. */
+	private static EventBusStats instance = new EventBusStats();
+
+	/**
+	 * Inner class identifying the statistics of a listener of an event. Listeners are compared by identity,
+	 * so listeners overriding equals() are not merged.
+	 */
+	private static class StatsKey {
+
+		private Object listener;
+		private String busName;
+		private String eventName;
+
+		public StatsKey(Object listener, String busName, String eventName) {
+			this.listener = listener;
+			this.busName = busName;
+			this.eventName = eventName;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if( !(o instanceof StatsKey) ) {
+				return false;
+			}
+			StatsKey other = (StatsKey) o;
+			return listener == other.listener && busName.equals(other.busName) && eventName.equals(other.eventName);
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(listener) * 31 + busName.hashCode()) * 31 + eventName.hashCode();
+		}
+	}
+
+	/** The statistics of each listener per bus and event. */
+	private Map<StatsKey, ListenerStats> stats;
+
+	/**
+	 * Private constructor to ensure singleton functionality.
+	 */
+	private EventBusStats() {
+		stats = new ConcurrentHashMap<StatsKey, ListenerStats>();
+	}
+
+	/**
+	 * Returns the singleton instance of EventBusStats.
+	 *
+	 * @return EventBusStats The instance collecting the listener statistics.
+	 */
+	public static EventBusStats getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Invoke a listener and record the latency of the invocation. Exceptions thrown by the
+	 * listener are counted and rethrown.
+	 *
+	 * @param busName The name of the event bus.
+	 * @param eventName The name of the fired event.
+	 * @param listener The listener, used to identify the statistics.
+	 * @param invocation The call of the listener.
+	 */
+	public void invoke(String busName, String eventName, Object listener, Runnable invocation) {
+		invoke(busName, eventName, listener, () -> {
+			invocation.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Invoke a listener returning a result and record the latency of the invocation.
+	 * Exceptions thrown by the listener are counted and rethrown.
+	 *
+	 * @param busName The name of the event bus.
+	 * @param eventName The name of the fired event.
+	 * @param listener The listener, used to identify the statistics.
+	 * @param invocation The call of the listener.
+	 * @return T The result of the listener.
+	 */
+	public <T> T invoke(String busName, String eventName, Object listener, Supplier<T> invocation) {
+		ListenerStats ls = getListenerStats(busName, eventName, listener);
+		boolean failed = true;
+		long start = System.nanoTime();
+		try {
+			T result = invocation.get();
+			failed = false;
+			return result;
+		} finally {
+			ls.recordInvocation(System.nanoTime() - start, failed);
+		}
+	}
+
+	/**
+	 * Returns the statistics of a listener. The statistics are created on first access.
+	 *
+	 * @param busName The name of the event bus.
+	 * @param eventName The name of the fired event.
+	 * @param listener The listener.
+	 * @return ListenerStats The statistics of the listener.
+	 */
+	public ListenerStats getListenerStats(String busName, String eventName, Object listener) {
+		StatsKey key = new StatsKey(listener, busName, eventName);
+		ListenerStats ls = stats.get(key);
+		if( ls == null ) {
+			ls = stats.computeIfAbsent(key, k -> new ListenerStats(busName, eventName, listener.toString()));
+		}
+		return ls;
+	}
+
+	/**
+	 * Remove the statistics of a listener, called when the listener is unregistered.
+	 *
+	 * @param busName The name of the event bus.
+	 * @param eventName The name of the event the listener has been notified of.
+	 * @param listener The listener.
+	 */
+	public void removeListenerStats(String busName, String eventName, Object listener) {
+		stats.remove(new StatsKey(listener, busName, eventName));
+	}
+
+	/**
+	 * Returns the statistics of all listeners that have been invoked so far,
+	 * sorted by event bus and event.
+	 *
+	 * @return List<ListenerStats> The statistics of all listeners.
+	 */
+	public List<ListenerStats> getAllListenerStats() {
+		List<ListenerStats> all = new ArrayList<ListenerStats>(stats.values());
+		all.sort(Comparator.comparing(ListenerStats::getBusName)
+				.thenComparing(ListenerStats::getEventName)
+				.thenComparing(ListenerStats::getListenerName));
+		return all;
+	}
+
+	/**
+	 * Remove all statistics.
+	 */
+	public void reset() {
+		stats.clear();
+	}
+
+	/**
+	 * Build a human readable table of all listener statistics. Latencies are given in microseconds.
+	 *
+	 * @return String The formatted statistics.
+	 */
+	public String formatReport() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%1$-40s %2$8s %3$6s %4$10s %5$10s %6$10s %7$10s\n",
+				"Bus/Event/Listener", "Events", "Errors", "Mean(us)", "p50(us)", "p99(us)", "Max(us)"));
+		for( ListenerStats ls : getAllListenerStats() ) {
+			sb.append(String.format("%1$-40s %2$8d %3$6d %4$10.1f %5$10.1f %6$10.1f %7$10.1f\n",
+					ls.getBusName() + "/" + ls.getEventName(),
+					ls.getEventCount(),
+					ls.getErrorCount(),
+					ls.getLatency().getMean() / 1000.0,
+					ls.getLatency().getPercentile(50) / 1000.0,
+					ls.getLatency().getPercentile(99) / 1000.0,
+					ls.getLatency().getMax() / 1000.0));
+			sb.append("    ").append(ls.getListenerName()).append("\n");
+		}
+		return sb.toString();
+	}
+}
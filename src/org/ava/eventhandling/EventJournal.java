@@ -0,0 +1,363 @@
+package org.ava.eventhandling;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ava.util.UtteranceTrace;
+
+/**
+ * This class implements an optional journal of all events fired on the event buses.
+ * The events are appended to a memory-mapped file, so recording does not block on I/O.
+ * A journal can be fed back through the event buses by the EventJournalReplayer.
+ * <p>
+ * Journaled events:
+ * 		-- UtteranceRecognizedEvent
+ * 		-- CommandEnteredEvent
+ * 		-- PluginActivationStateChangedEvent
+ * 		-- SpeakEvent
+ * <p>
+ * File format: a header (magic number, format version, wall clock time the journal has been
+ * opened) followed by length-prefixed records. Each record contains the length of the remaining
+ * record, the sequence number, the wall clock time, the nanoseconds since opening the journal, the
+ * event type and the string fields of the event. A length of 0 or the end of the file marks the
+ * end of the journal.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class EventJournal {
+
+	private final static Logger logger = LogManager.getLogger(EventJournal.class);
+
+	/** Magic number at the beginning of each journal: 'AVAJ'. */
+	final static int MAGIC = 0x4156414A;
+
+	final static int FORMAT_VERSION = 1;
+
+	/** Size of the file header: magic, version, wall clock time. */
+	final static int HEADER_SIZE = 4 + 4 + 8;
+
+	/** Size of the fixed part of a record after the length prefix. */
+	final static int RECORD_FIXED_SIZE = 8 + 8 + 8 + 1 + 1;
+
+	/** Size of a region mapped into memory at once. */
+	private final static int REGION_SIZE = 4 * 1024 * 1024;
+
+	/** Maximum number of events buffered while the journal is paused. */
+	private final static int MAX_BUFFERED_EVENTS = 100000;
+
+	/** The singleton instance of the journal. */
+	private static EventJournal instance = new EventJournal();
+
+	private FileChannel channel;
+
+	/** The currently mapped region of the journal file. */
+	private MappedByteBuffer region;
+
+	/** Position of the mapped region in the journal file. */
+	private long regionStart;
+
+	private long nextSequenceNumber;
+
+	/** System.nanoTime() when the journal has been opened. */
+	private long openedAt;
+
+	private volatile boolean isOpen;
+
+	/** The thread that paused the journal, i.e. the thread replaying a journal, or null. */
+	private volatile Thread pausedBy;
+
+	/** Records of events fired by other threads while the journal is paused. */
+	private List<ByteBuffer> buffered;
+
+	/** Number of events dropped because the buffer was full. */
+	private long droppedCount;
+
+	/**
+	 * Private constructor to ensure singleton functionality.
+	 */
+	private EventJournal() {
+		isOpen = false;
+		pausedBy = null;
+		buffered = new ArrayList<ByteBuffer>();
+	}
+
+	/**
+	 * Returns the singleton instance of the EventJournal.
+	 *
+	 * @return EventJournal The instance of the journal.
+	 */
+	public static EventJournal getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Start journaling to the given file. An existing file will be overwritten.
+	 *
+	 * @param journalFile The file to write the journal to.
+	 * @return boolean True if the journal has been opened, false if not.
+	 */
+	public synchronized boolean open(Path journalFile) {
+		if( isOpen ) {
+			close();
+		}
+		try {
+			channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			regionStart = 0;
+			region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+			region.putInt(MAGIC);
+			region.putInt(FORMAT_VERSION);
+			region.putLong(System.currentTimeMillis());
+			nextSequenceNumber = 0;
+			openedAt = System.nanoTime();
+			isOpen = true;
+			logger.info("Event journal opened: " + journalFile.toAbsolutePath());
+		} catch (IOException e) {
+			logger.error("Failed to open event journal '" + journalFile + "'.");
+			logger.catching(Level.DEBUG, e);
+			isOpen = false;
+		}
+		return isOpen;
+	}
+
+	/**
+	 * Stop journaling. All recorded events, including buffered ones, are flushed to the journal
+	 * file. The file is truncated behind the last record.
+	 */
+	public synchronized void close() {
+		if( !isOpen ) {
+			return;
+		}
+		writeBuffered();
+		if( !isOpen ) {
+			return;
+		}
+		isOpen = false;
+		long end = regionStart + region.position();
+		try {
+			region.force();
+			region = null;
+			// fails on platforms that don't allow truncating a mapped file, i.e. Windows. The journal
+			// stays valid, the zeroed remainder of the region marks its end.
+			channel.truncate(end);
+		} catch (IOException e) {
+			logger.warn("Failed to truncate event journal, it keeps its preallocated size.");
+			logger.catching(Level.DEBUG, e);
+		} finally {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.catching(Level.DEBUG, e);
+			}
+			region = null;
+			channel = null;
+		}
+		logger.info("Event journal closed after " + nextSequenceNumber + " events [size = " + end + "].");
+	}
+
+	/**
+	 * Check whether events are journaled.
+	 *
+	 * @return boolean True if the journal is open.
+	 */
+	public boolean isOpen() {
+		return isOpen;
+	}
+
+	/**
+	 * Pause journaling until resume() is called. Events fired by the calling thread are not
+	 * journaled, events fired by other threads are buffered and journaled by resume().
+	 * A replay pauses the journal, so replayed events are not journaled again while live events
+	 * are kept. Events caused by a replayed utterance are recognized by its UtteranceTrace, since
+	 * they are fired by other threads.
+	 */
+	public synchronized void pause() {
+		pausedBy = Thread.currentThread();
+	}
+
+	/**
+	 * Continue journaling events after pause(). Events buffered in the meantime are journaled first.
+	 */
+	public synchronized void resume() {
+		pausedBy = null;
+		if( isOpen ) {
+			writeBuffered();
+		}
+		buffered.clear();
+	}
+
+	public void recordUtteranceRecognized(UtteranceRecognizedEvent event) {
+		record(JournalRecord.Type.UTTERANCE_RECOGNIZED, event.getUtterance(), event.getSource());
+	}
+
+	public void recordCommandEntered(CommandEnteredEvent event) {
+		record(JournalRecord.Type.COMMAND_ENTERED, event.getCommand());
+	}
+
+	public void recordPluginActivationStateChanged(PluginActivationStateChangedEvent event) {
+		record(JournalRecord.Type.PLUGIN_ACTIVATION_STATE_CHANGED,
+				event.getPluginID(), event.getNewPluginActivationState().name());
+	}
+
+	public void recordSpeak(SpeakEvent event) {
+		record(JournalRecord.Type.SPEAK, event.getTextToSay());
+	}
+
+	/**
+	 * Append an event to the journal. Does nothing if the journal is not open.
+	 *
+	 * @param type The type of the event.
+	 * @param fields The string fields of the event. Null fields are written as empty strings.
+	 */
+	private void record(JournalRecord.Type type, String... fields) {
+		if( !isOpen || Thread.currentThread() == pausedBy ) {
+			return;
+		}
+		UtteranceTrace trace = UtteranceTrace.current();
+		if( trace != null && trace.isReplayed() ) {
+			return;
+		}
+
+		byte[][] encoded = new byte[fields.length][];
+		int length = RECORD_FIXED_SIZE;
+		for( int ii = 0; ii < fields.length; ii++ ) {
+			encoded[ii] = (fields[ii] == null ? "" : fields[ii]).getBytes(StandardCharsets.UTF_8);
+			length += 4 + encoded[ii].length;
+		}
+
+		synchronized( this ) {
+			if( !isOpen ) {
+				return;
+			}
+			ByteBuffer target;
+			if( pausedBy != null ) {
+				if( buffered.size() >= MAX_BUFFERED_EVENTS ) {
+					droppedCount++;
+					return;
+				}
+				target = ByteBuffer.allocate(4 + length);
+				buffered.add(target);
+			} else if( reserve(4 + length) ) {
+				target = region;
+			} else {
+				return;
+			}
+			target.putInt(length);
+			target.putLong(nextSequenceNumber++);
+			target.putLong(System.currentTimeMillis());
+			target.putLong(System.nanoTime() - openedAt);
+			target.put((byte) type.ordinal());
+			target.put((byte) encoded.length);
+			for( byte[] field : encoded ) {
+				target.putInt(field.length);
+				target.put(field);
+			}
+		}
+	}
+
+	/**
+	 * Append the records buffered while the journal was paused. Called with the monitor held.
+	 */
+	private void writeBuffered() {
+		if( !buffered.isEmpty() ) {
+			logger.debug("Journal " + buffered.size() + " events buffered while paused [dropped = " + droppedCount + "].");
+		}
+		for( ByteBuffer record : buffered ) {
+			record.flip();
+			if( !reserve(record.remaining()) ) {
+				break;
+			}
+			region.put(record);
+		}
+		buffered.clear();
+		droppedCount = 0;
+	}
+
+	/**
+	 * Make room for a record in the mapped region. The journal is closed if the file can't be extended.
+	 * Called with the monitor held.
+	 *
+	 * @param bytes The size of the record including its length prefix.
+	 * @return boolean True if the record can be written, false if the journal has been closed.
+	 */
+	private boolean reserve(int bytes) {
+		try {
+			// keep room for the end marker of the journal
+			ensureCapacity(bytes + 4);
+			return true;
+		} catch (IOException e) {
+			logger.error("Failed to extend event journal. Journaling stopped.");
+			logger.catching(Level.DEBUG, e);
+			buffered.clear();
+			close();
+			return false;
+		}
+	}
+
+	/**
+	 * Map the next region of the journal file, if the current region has not enough room left.
+	 */
+	private void ensureCapacity(int bytes) throws IOException {
+		if( region.remaining() >= bytes ) {
+			return;
+		}
+		long position = regionStart + region.position();
+		region.force();
+		regionStart = position;
+		region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_SIZE, bytes));
+		logger.debug("Event journal extended [position = " + position + "].");
+	}
+
+	/**
+	 * Decode a record at the current position of the given buffer. The position is moved behind the record.
+	 *
+	 * @param buffer The buffer containing the journal.
+	 * @return JournalRecord The record, or null if the end of the journal has been reached.
+	 */
+	static JournalRecord readRecord(ByteBuffer buffer) {
+		if( buffer.remaining() < 4 ) {
+			return null;
+		}
+		int length = buffer.getInt();
+		if( length < RECORD_FIXED_SIZE || length > buffer.remaining() ) {
+			return null;
+		}
+		long sequenceNumber = buffer.getLong();
+		long timestamp = buffer.getLong();
+		long monotonicTime = buffer.getLong();
+		int ordinal = buffer.get();
+		if( ordinal < 0 || ordinal >= JournalRecord.Type.values().length ) {
+			logger.error("Unknown event type " + ordinal + " in journal record #" + sequenceNumber + ".");
+			return null;
+		}
+		JournalRecord.Type type = JournalRecord.Type.values()[ordinal];
+		int fieldCount = buffer.get();
+		if( fieldCount < 0 ) {
+			return null;
+		}
+		String[] payload = new String[fieldCount];
+		for( int ii = 0; ii < payload.length; ii++ ) {
+			int fieldLength = buffer.remaining() < 4 ? -1 : buffer.getInt();
+			if( fieldLength < 0 || fieldLength > buffer.remaining() ) {
+				logger.error("Corrupted journal record #" + sequenceNumber + ".");
+				return null;
+			}
+			byte[] field = new byte[fieldLength];
+			buffer.get(field);
+			payload[ii] = new String(field, StandardCharsets.UTF_8);
+		}
+		return new JournalRecord(sequenceNumber, timestamp, monotonicTime, type, payload);
+	}
+}
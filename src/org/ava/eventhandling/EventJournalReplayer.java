@@ -0,0 +1,192 @@
+package org.ava.eventhandling;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ava.pluginengine.PluginActivationState;
+
+/**
+ * This class feeds the events of an event journal back through the STTEventBus and the UIEventBus.
+ * Events are replayed in the order of their sequence numbers, either with the recorded timing or
+ * as fast as possible. Replaying at maximum speed turns recorded traffic into a throughput benchmark.
+ * <p>
+ * SpeakEvents are not replayed, since they are a result of processing the other events.
+ * The journal is paused while replaying, so replayed events are not journaled again. Replayed utterances
+ * are marked in their UtteranceTrace, so the events caused by processing them on the dispatcher, command
+ * and speaker threads are not journaled either. Events fired by other threads in the meantime are
+ * journaled once the replay has finished.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class EventJournalReplayer {
+
+	private final static Logger logger = LogManager.getLogger(EventJournalReplayer.class);
+
+	/**
+	 * Enum encoding the speed of a replay.
+	 *
+	 * Possible values:
+	 * 		-- RECORDED: Events are fired with the time gaps in which they have been recorded.
+	 * 		-- MAX: Events are fired as fast as possible.
+	 */
+	public enum Speed {
+		RECORDED,
+		MAX
+	}
+
+	/** Maximum time to wait for queued utterances after the last event has been fired. */
+	private final static long DRAIN_TIMEOUT = 60000;
+
+	/** Number of events fired by the last replay. */
+	private long replayedCount;
+
+	/** Number of journaled events skipped by the last replay. */
+	private long skippedCount;
+
+	/** Duration of the last replay in nanoseconds, including processing of queued utterances. */
+	private long elapsedNanos;
+
+	/**
+	 * Read all records of a journal file.
+	 *
+	 * @param journalFile The journal written by the EventJournal.
+	 * @return List<JournalRecord> The records in the order of their sequence numbers.
+	 * @throws IOException If the file can't be read or is not an event journal.
+	 */
+	public static List<JournalRecord> readJournal(Path journalFile) throws IOException {
+		List<JournalRecord> records = new ArrayList<JournalRecord>();
+		try( FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ) ) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if( buffer.remaining() < EventJournal.HEADER_SIZE
+					|| buffer.getInt() != EventJournal.MAGIC
+					|| buffer.getInt() != EventJournal.FORMAT_VERSION ) {
+				throw new IOException("Not an event journal: " + journalFile);
+			}
+			buffer.getLong();
+
+			JournalRecord record;
+			while( (record = EventJournal.readRecord(buffer)) != null ) {
+				records.add(record);
+			}
+		}
+		logger.debug("Read " + records.size() + " records from event journal '" + journalFile + "'.");
+		return records;
+	}
+
+	/**
+	 * Replay a journal file.
+	 *
+	 * @param journalFile The journal to replay.
+	 * @param speed Whether to keep the recorded timing or replay as fast as possible.
+	 * @throws IOException If the journal can't be read.
+	 */
+	public void replay(Path journalFile, Speed speed) throws IOException {
+		replay(readJournal(journalFile), speed);
+	}
+
+	/**
+	 * Replay the given records.
+	 *
+	 * @param records The records to replay, ordered by sequence number.
+	 * @param speed Whether to keep the recorded timing or replay as fast as possible.
+	 */
+	public void replay(List<JournalRecord> records, Speed speed) {
+		STTEventBus sttEventBus = STTEventBus.getInstance();
+		UIEventBus uiEventBus = UIEventBus.getInstance();
+		EventJournal journal = EventJournal.getInstance();
+
+		replayedCount = 0;
+		skippedCount = 0;
+		logger.info("Replaying " + records.size() + " journaled events [speed = " + speed + "].");
+
+		journal.pause();
+		try {
+			long start = System.nanoTime();
+			long firstRecordTime = records.isEmpty() ? 0 : records.get(0).getMonotonicTime();
+			for( JournalRecord record : records ) {
+				if( speed == Speed.RECORDED ) {
+					long due = start + (record.getMonotonicTime() - firstRecordTime);
+					long wait = due - System.nanoTime();
+					if( wait > 0 ) {
+						try {
+							TimeUnit.NANOSECONDS.sleep(wait);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							logger.info("Replay interrupted after " + replayedCount + " events.");
+							break;
+						}
+					}
+				}
+
+				String[] payload = record.getPayload();
+				switch(record.getType()) {
+				case UTTERANCE_RECOGNIZED:
+					UtteranceRecognizedEvent utteranceEvent = new UtteranceRecognizedEvent(
+							payload[0], payload.length > 1 ? payload[1] : null);
+					utteranceEvent.setReplayed(true);
+					sttEventBus.fireUtteranceRecognizedEvent(utteranceEvent);
+					replayedCount++;
+					break;
+
+				case COMMAND_ENTERED:
+					uiEventBus.fireCommandEnteredEvent(new CommandEnteredEvent(payload[0]));
+					replayedCount++;
+					break;
+
+				case PLUGIN_ACTIVATION_STATE_CHANGED:
+					uiEventBus.firePluginActiavtionStateChangedEvent(new PluginActivationStateChangedEvent(
+							payload[0], PluginActivationState.valueOf(payload[1])));
+					replayedCount++;
+					break;
+
+				default:
+					skippedCount++;
+					break;
+				}
+			}
+
+			if( !sttEventBus.awaitUtterancesProcessed(DRAIN_TIMEOUT) ) {
+				logger.error("Replayed utterances have not been processed within " + DRAIN_TIMEOUT + " ms.");
+			}
+			elapsedNanos = System.nanoTime() - start;
+		} finally {
+			journal.resume();
+		}
+
+		logger.info("Replay finished: " + formatResult());
+	}
+
+	/**
+	 * Returns a short summary of the last replay, including the throughput.
+	 *
+	 * @return String The summary of the last replay.
+	 */
+	public String formatResult() {
+		double seconds = elapsedNanos / 1e9;
+		return replayedCount + " events replayed, " + skippedCount + " skipped in "
+				+ String.format("%.3f", seconds) + " s ("
+				+ String.format("%.1f", seconds > 0 ? replayedCount / seconds : 0.0) + " events/s)";
+	}
+
+	public long getReplayedCount() {
+		return replayedCount;
+	}
+
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+}
@@ -0,0 +1,33 @@
+package org.ava.eventhandling;
+
+/**
+ * Enum encoding the priority lanes of Ava's events. Events of a higher priority
+ * (lower ordinal) preempt events of a lower priority at event boundaries.
+ *
+ * Possible values:
+ * 		-- SHUTDOWN: Control plane. Application shutdown.
+ * 		-- ACTIVATION: Control plane. Activation and deactivation of plugins.
+ * 		-- UTTERANCE: Data plane. Recognized utterances and commands entered via console.
+ * 		-- SPEAK: Data plane. Speech output.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ *
+ * @see org.ava.eventhandling.PriorityEventDispatcher
+ */
+public enum EventPriority {
+	SHUTDOWN,
+	ACTIVATION,
+	UTTERANCE,
+	SPEAK;
+
+	/**
+	 * Check whether events of this priority belong to the control plane.
+	 *
+	 * @return boolean True for SHUTDOWN and ACTIVATION, false for data plane events.
+	 */
+	public boolean isControlPlane() {
+		return this == SHUTDOWN || this == ACTIVATION;
+	}
+}
@@ -0,0 +1,69 @@
+package org.ava.eventhandling;
+
+/**
+ * This class represents a single event read from an event journal.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ *
+ * @see org.ava.eventhandling.EventJournal
+ */
+public class JournalRecord {
+
+	/**
+	 * Enum encoding the type of a journaled event. The ordinal is written to the journal,
+	 * so new types must only be appended.
+	 */
+	public enum Type {
+		UTTERANCE_RECOGNIZED,
+		COMMAND_ENTERED,
+		PLUGIN_ACTIVATION_STATE_CHANGED,
+		SPEAK
+	}
+
+	private long sequenceNumber;
+
+	private long timestamp;
+
+	private long monotonicTime;
+
+	private Type type;
+
+	private String[] payload;
+
+	/**
+	 * @param sequenceNumber The monotonic sequence number of the event.
+	 * @param timestamp Wall clock time in milliseconds since the epoch.
+	 * @param monotonicTime Nanoseconds since the journal has been opened.
+	 * @param type The type of the event.
+	 * @param payload The string fields of the event.
+	 */
+	public JournalRecord(long sequenceNumber, long timestamp, long monotonicTime, Type type, String[] payload) {
+		this.sequenceNumber = sequenceNumber;
+		this.timestamp = timestamp;
+		this.monotonicTime = monotonicTime;
+		this.type = type;
+		this.payload = payload;
+	}
+
+	public long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public long getMonotonicTime() {
+		return monotonicTime;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public String[] getPayload() {
+		return payload;
+	}
+}
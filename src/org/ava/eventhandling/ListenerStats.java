@@ -0,0 +1,84 @@
+package org.ava.eventhandling;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ava.util.LatencyHistogram;
+
+/**
+ * This class holds the statistics of a single listener registered on one of Ava's event buses:
+ * the number of delivered events, the number of events the listener failed to process
+ * and the latency of each invocation.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class ListenerStats {
+
+	/** The event bus the listener is registered on. */
+	private String busName;
+
+	/** The event delivered to the listener. */
+	private String eventName;
+
+	/** String representation of the listener. */
+	private String listenerName;
+
+	private AtomicLong eventCount;
+
+	private AtomicLong errorCount;
+
+	private LatencyHistogram latency;
+
+	public ListenerStats(String busName, String eventName, String listenerName) {
+		this.busName = busName;
+		this.eventName = eventName;
+		this.listenerName = listenerName;
+		this.eventCount = new AtomicLong();
+		this.errorCount = new AtomicLong();
+		this.latency = new LatencyHistogram();
+	}
+
+	/**
+	 * Record a finished invocation of the listener.
+	 *
+	 * @param nanos Time the listener needed to process the event.
+	 * @param failed True if the listener threw an exception.
+	 */
+	public void recordInvocation(long nanos, boolean failed) {
+		eventCount.incrementAndGet();
+		if( failed ) {
+			errorCount.incrementAndGet();
+		}
+		latency.record(nanos);
+	}
+
+	public String getBusName() {
+		return busName;
+	}
+
+	public String getEventName() {
+		return eventName;
+	}
+
+	public String getListenerName() {
+		return listenerName;
+	}
+
+	public long getEventCount() {
+		return eventCount.get();
+	}
+
+	public long getErrorCount() {
+		return errorCount.get();
+	}
+
+	/**
+	 * Returns the histogram of invocation latencies in nanoseconds.
+	 *
+	 * @return LatencyHistogram The latency histogram of this listener.
+	 */
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+}
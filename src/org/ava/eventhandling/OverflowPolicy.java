@@ -0,0 +1,24 @@
+package org.ava.eventhandling;
+
+/**
+ * Enum encoding how the utterance queue of the STTEventBus behaves, if an STT engine
+ * fires utterances faster than Ava is able to process them.
+ *
+ * Possible values:
+ * 		-- DROP_OLDEST: The oldest pending utterance is dropped to make room for the new one.
+ * 		-- DROP_NEWEST: The new utterance is dropped, pending utterances are kept.
+ * 		-- COALESCE_TO_LATEST: At most one utterance is pending. A new utterance replaces
+ * 			the pending one.
+ * 		-- BLOCK_WITH_TIMEOUT: The STT engine is blocked until there is room in the queue.
+ * 			If the timeout expires, the new utterance is dropped.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public enum OverflowPolicy {
+	DROP_OLDEST,
+	DROP_NEWEST,
+	COALESCE_TO_LATEST,
+	BLOCK_WITH_TIMEOUT
+}
@@ -0,0 +1,205 @@
+package org.ava.eventhandling;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class implements the priority lanes of the event system.
+ * <p>
+ * Control plane events (shutdown, plugin activation) are executed on a dedicated control thread,
+ * ordered by their EventPriority. They never queue behind speech processing.
+ * <p>
+ * Data plane lanes (utterances, speech output) announce each event via awaitTurn(), enter() and exit().
+ * A lane does not start a new event while an event of a higher priority is pending or running.
+ * The lanes are only gated between events: a control event does not preempt an utterance or a speech
+ * output that is already running, both run concurrently. The wait is bounded by MAX_YIELD_TIME, so a
+ * hanging control event can't stall speech processing forever.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class PriorityEventDispatcher {
+
+	private final static Logger logger = LogManager.getLogger(PriorityEventDispatcher.class);
+
+	/** Maximum time in milliseconds a lane yields to events of a higher priority. */
+	public final static long MAX_YIELD_TIME = 5000;
+
+	/** The singleton instance of the dispatcher. */
+	private static PriorityEventDispatcher instance = new PriorityEventDispatcher();
+
+	/**
+	 * Inner class wrapping a control plane event waiting for execution.
+	 */
+	private class ControlTask implements Comparable<ControlTask> {
+
+		private EventPriority priority;
+		private long sequenceNumber;
+		private Runnable action;
+		private CompletableFuture<Void> done;
+
+		public ControlTask(EventPriority priority, Runnable action) {
+			this.priority = priority;
+			this.sequenceNumber = sequence.getAndIncrement();
+			this.action = action;
+			this.done = new CompletableFuture<Void>();
+		}
+
+		@Override
+		public int compareTo(ControlTask other) {
+			int c = priority.compareTo(other.priority);
+			return c != 0 ? c : Long.compare(sequenceNumber, other.sequenceNumber);
+		}
+	}
+
+	private PriorityBlockingQueue<ControlTask> controlQueue;
+
+	private AtomicLong sequence;
+
+	/** Number of pending or running events per priority. */
+	private int[] inFlight;
+
+	private Thread controlThread;
+
+	/**
+	 * Private constructor to ensure singleton functionality.
+	 */
+	private PriorityEventDispatcher() {
+		controlQueue = new PriorityBlockingQueue<ControlTask>();
+		sequence = new AtomicLong();
+		inFlight = new int[EventPriority.values().length];
+	}
+
+	/**
+	 * Returns the singleton instance of the PriorityEventDispatcher.
+	 *
+	 * @return PriorityEventDispatcher The instance of the dispatcher.
+	 */
+	public static PriorityEventDispatcher getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Execute a control plane event on the control thread and wait until it has been executed.
+	 * If called from the control thread itself, the event is executed immediately.
+	 *
+	 * @param priority The priority of the event. Must be a control plane priority.
+	 * @param action The notification of the listeners.
+	 */
+	public void executeControlEvent(EventPriority priority, Runnable action) {
+		if( !priority.isControlPlane() ) {
+			throw new IllegalArgumentException("Not a control plane priority: " + priority);
+		}
+		if( Thread.currentThread() == controlThread ) {
+			action.run();
+			return;
+		}
+
+		startControlThread();
+		ControlTask task = new ControlTask(priority, action);
+		enter(priority);
+		controlQueue.add(task);
+		logger.debug("Control event queued [priority = " + priority + ", pending = " + controlQueue.size() + "].");
+
+		try {
+			task.done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			if( e.getCause() instanceof RuntimeException ) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Wait until no event of a higher priority than the given one is pending or running,
+	 * but not longer than MAX_YIELD_TIME.
+	 *
+	 * @param priority The priority of the event that is about to be processed.
+	 */
+	public synchronized void awaitTurn(EventPriority priority) {
+		long deadline = System.currentTimeMillis() + MAX_YIELD_TIME;
+		while( hasHigherPriorityInFlight(priority) ) {
+			long remaining = deadline - System.currentTimeMillis();
+			if( remaining <= 0 ) {
+				logger.error("Waited " + MAX_YIELD_TIME + " ms for events with higher priority than " + priority
+						+ ". Continue processing.");
+				return;
+			}
+			try {
+				wait(remaining);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Announce that an event of the given priority is being processed.
+	 *
+	 * @param priority The priority of the event.
+	 */
+	public synchronized void enter(EventPriority priority) {
+		inFlight[priority.ordinal()]++;
+	}
+
+	/**
+	 * Announce that an event of the given priority has been processed.
+	 *
+	 * @param priority The priority of the event.
+	 */
+	public synchronized void exit(EventPriority priority) {
+		inFlight[priority.ordinal()]--;
+		notifyAll();
+	}
+
+	private boolean hasHigherPriorityInFlight(EventPriority priority) {
+		for( int ii = 0; ii < priority.ordinal(); ii++ ) {
+			if( inFlight[ii] > 0 ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private synchronized void startControlThread() {
+		if( controlThread != null ) {
+			return;
+		}
+		controlThread = new Thread( () -> {
+			while( !Thread.currentThread().isInterrupted() ) {
+				ControlTask task;
+				try {
+					task = controlQueue.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				logger.debug("Execute control event [priority = " + task.priority + "].");
+				try {
+					task.action.run();
+					task.done.complete(null);
+				} catch(RuntimeException e) {
+					logger.catching(Level.DEBUG, e);
+					task.done.completeExceptionally(e);
+				} finally {
+					exit(task.priority);
+				}
+			}
+		}, "control-dispatcher");
+		controlThread.setDaemon(true);
+		controlThread.setPriority(Thread.MAX_PRIORITY);
+		controlThread.start();
+		logger.debug("Control dispatcher thread started.");
+	}
+}
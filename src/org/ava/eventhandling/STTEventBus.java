@@ -1,10 +1,32 @@
 package org.ava.eventhandling;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ava.pluginengine.Plugin;
+import org.ava.util.TraceRecorder;
+import org.ava.util.TraceStage;
+import org.ava.util.UtteranceTrace;
 
 /**
  * This event bus handles events fired by the STT engine. Listeners can be registered
@@ -13,6 +35,21 @@ import org.apache.logging.log4j.Logger;
  * 
  * Supported events:
  * 		-- UtteranceRecognizedEvent: Fired if STT engine recognized an event.
+ * 		-- UtteranceRequestedEvent: Fired if an application plugin requests the next utterance.
+ * 		-- UtteranceQueuedEvent: Fired on the thread of the STT engine after an utterance has been queued.
+ *
+ * UtteranceRecognizedEvents are not processed on the thread of the STT engine. They are
+ * put into a bounded UtteranceEventQueue and dispatched to the listeners by a separate
+ * dispatcher thread. The behaviour of a full queue is determined by its OverflowPolicy.
+ * <p>
+ * Each input source of utterances gets its own queue and dispatcher thread. Utterances of
+ * one source are dispatched in order, utterances of different sources are dispatched
+ * concurrently. Therefore UtteranceRecognizedListeners must be thread-safe. The queue and
+ * the dispatcher thread of a source are removed once the source has been idle for the
+ * source idle timeout, they are created again with its next utterance.
+ * <p>
+ * Each fired utterance is assigned a trace. While the listeners are notified, the trace is the
+ * current UtteranceTrace of the dispatcher thread.
  * 
  * @author Constantin
  * @since 2016-03-15
@@ -22,6 +59,15 @@ public class STTEventBus {
 
 	private final static Logger logger = LogManager.getLogger(STTEventBus.class);
 	
+	/** Name of this bus in the listener statistics. */
+	private final static String BUS_NAME = "STTEventBus";
+	
+	/** Default milliseconds after which the queue and dispatcher thread of an idle source are removed. */
+	public final static long DEFAULT_SOURCE_IDLE_TIMEOUT = 5 * 60 * 1000;
+	
+	/** Maximum number of blocking utterance requests running at the same time. */
+	public final static int MAX_REQUEST_THREADS = 8;
+	
 	/** The singleton instance of the event bus. */
 	private static STTEventBus instance = new STTEventBus();
 	
@@ -31,13 +77,52 @@ public class STTEventBus {
 	/** List of registered UtteranceRequestedListeners. */
 	private List<UtteranceRequestedListener> ureqll;
 	
+	/** List of registered UtteranceQueuedListeners. */
+	private List<UtteranceQueuedListener> uqll;
+	
+	/** Queues of recognized utterances waiting to be dispatched, one per input source. */
+	private Map<String, UtteranceEventQueue> utteranceQueues;
+	
+	/** Dispatcher threads of the utterance queues, one per input source. */
+	private Map<String, Thread> dispatcherThreads;
+	
+	/** Milliseconds after which the queue and dispatcher thread of an idle source are removed. */
+	private volatile long sourceIdleTimeout;
+	
+	/** Overflow policy applied to each utterance queue. */
+	private OverflowPolicy queuePolicy;
+	
+	/** Capacity of each utterance queue. */
+	private int queueCapacity;
+	
+	/** Milliseconds an STT engine may be blocked by a full queue. */
+	private long queueOfferTimeout;
+	
+	/** Threads calling blocking UtteranceRequestedListeners for asynchronous requests, one per pending request. */
+	private ExecutorService requestExecutor;
+	
+	/** Statistics of the registered listeners. */
+	private EventBusStats stats;
+	
+	/** Dispatcher executing control events before speech events. */
+	private PriorityEventDispatcher dispatcher;
+	
 	/** 
 	 * Private constructor to ensure singleton functionality. 
 	 */
 	private STTEventBus() {
 		logger.debug("STTEventBus created.");
-		urell = new ArrayList<UtteranceRecognizedListener>();
-		ureqll = new ArrayList<UtteranceRequestedListener>();
+		urell = new CopyOnWriteArrayList<UtteranceRecognizedListener>();
+		ureqll = new CopyOnWriteArrayList<UtteranceRequestedListener>();
+		uqll = new CopyOnWriteArrayList<UtteranceQueuedListener>();
+		utteranceQueues = new ConcurrentHashMap<String, UtteranceEventQueue>();
+		dispatcherThreads = new ConcurrentHashMap<String, Thread>();
+		sourceIdleTimeout = DEFAULT_SOURCE_IDLE_TIMEOUT;
+		queuePolicy = OverflowPolicy.BLOCK_WITH_TIMEOUT;
+		queueCapacity = UtteranceEventQueue.DEFAULT_CAPACITY;
+		queueOfferTimeout = UtteranceEventQueue.DEFAULT_OFFER_TIMEOUT;
+		stats = EventBusStats.getInstance();
+		dispatcher = PriorityEventDispatcher.getInstance();
 	}
 	
 	/**
@@ -71,22 +156,269 @@ public class STTEventBus {
 	public boolean unregisterUtteranceRecognizedListener(UtteranceRecognizedListener listener) {
 		logger.debug("Remove UtteranceRecognizedListener. Listener: " + listener.toString());
 		boolean success = urell.remove(listener);
+		if( success ) {
+			stats.removeListenerStats(BUS_NAME, "UtteranceRecognizedEvent", listener);
+		}
 		logger.debug("Removing UtteranceRecognizedListener: " + success);
 		return success;
 	}
 	
 	/**
-	 * Fire an UtteranceRecognizedEvent. Each listener that has been registered on this event
-	 * will be notified.
+	 * Fire an UtteranceRecognizedEvent. The event is queued and each listener that has been
+	 * registered on this event will be notified by the dispatcher thread of the event's source.
+	 * <p>
+	 * Depending on the OverflowPolicy of the utterance queue, this method may block the
+	 * calling STT engine for a limited time or drop an utterance.
 	 * 
 	 * @param event The UtteranceRecognizedEvent that wraps the recognized utterance and that has been 
 	 * 					fired by the STT engine.
 	 */
 	public void fireUtteranceRecognizedEvent(UtteranceRecognizedEvent event) {
+		event.setTrace(TraceRecorder.getInstance().start(event.getSource(), event.getUtterance()));
+		if( event.isReplayed() ) {
+			event.getTrace().markReplayed();
+		}
+		EventJournal.getInstance().recordUtteranceRecognized(event);
+		try {
+			boolean queued;
+			while( true ) {
+				UtteranceEventQueue utteranceQueue = getUtteranceQueue(event.getSource());
+				try {
+					logger.debug("Queue UtteranceRecognizedEvent. Event: " + event.toString()
+							+ ", source: " + event.getSource() + ", pending: " + utteranceQueue.size());
+					queued = utteranceQueue.offer(event);
+					break;
+				} catch(IllegalStateException e) {
+					// the queue is closed if the source has just been removed, retry with a new queue
+					Thread.yield();
+				}
+			}
+			if( !queued ) {
+				return;
+			}
+		} catch (InterruptedException e) {
+			logger.catching(Level.DEBUG, e);
+			event.getTrace().drop("interrupted");
+			Thread.currentThread().interrupt();
+			return;
+		}
+		
+		for(UtteranceQueuedListener uql : uqll) {
+			try {
+				stats.invoke(BUS_NAME, "UtteranceQueuedEvent", uql, () -> uql.utteranceQueued(event));
+			} catch(RuntimeException e) {
+				logger.error("UtteranceQueuedListener failed. Listener: " + uql.toString());
+				logger.catching(Level.DEBUG, e);
+			}
+		}
+	}
+	
+	/**
+	 * Register an UtteranceQueuedListener.
+	 * 
+	 * @param listener The listener to be registered. 
+	 * @return boolean True if adding was successful, false if not.
+	 */
+	public boolean registerUtteranceQueuedListener(UtteranceQueuedListener listener) {
+		logger.debug("Add UtteranceQueuedListener. Listener: " + listener.toString());
+		boolean success = uqll.add(listener);
+		logger.debug("Adding UtteranceQueuedListener: " + success);
+		return success;
+	}
+	
+	/**
+	 * Remove an UtteranceQueuedListener.
+	 * 
+	 * @param listener The listener to be removed. 
+	 * @return boolean True if removing was successful, false if not.
+	 */
+	public boolean unregisterUtteranceQueuedListener(UtteranceQueuedListener listener) {
+		logger.debug("Remove UtteranceQueuedListener. Listener: " + listener.toString());
+		boolean success = uqll.remove(listener);
+		if( success ) {
+			stats.removeListenerStats(BUS_NAME, "UtteranceQueuedEvent", listener);
+		}
+		logger.debug("Removing UtteranceQueuedListener: " + success);
+		return success;
+	}
+	
+	/**
+	 * Notify each registered UtteranceRecognizedListener of the given event.
+	 * Called by the dispatcher thread of the event's source.
+	 * 
+	 * @param event The event taken from the utterance queue.
+	 */
+	private void dispatchUtteranceRecognizedEvent(UtteranceRecognizedEvent event) {
 		for(UtteranceRecognizedListener urel : urell) {
 			logger.debug("Fire UtteranceRecognizedEvent. Event: " + event.toString() 
 					+ ", listener: " + urel.toString());
-			urel.processRecognizedUtterance(event);
+			try {
+				stats.invoke(BUS_NAME, "UtteranceRecognizedEvent", urel,
+						() -> urel.processRecognizedUtterance(event));
+			} catch(RuntimeException e) {
+				logger.error("UtteranceRecognizedListener failed to process utterance. Listener: " + urel.toString());
+				logger.catching(Level.DEBUG, e);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the queue of the given input source. The queue and its dispatcher thread
+	 * are created with the first utterance of the source.
+	 * 
+	 * @param source The input source.
+	 * @return UtteranceEventQueue The queue of pending utterances of the source.
+	 */
+	private UtteranceEventQueue getUtteranceQueue(String source) {
+		UtteranceEventQueue queue = utteranceQueues.get(source);
+		if( queue != null ) {
+			return queue;
+		}
+		synchronized( this ) {
+			queue = utteranceQueues.get(source);
+			if( queue == null ) {
+				queue = new UtteranceEventQueue();
+				queue.configure(queuePolicy, queueCapacity, queueOfferTimeout);
+				utteranceQueues.put(source, queue);
+				startDispatcherThread(source, queue);
+			}
+			return queue;
+		}
+	}
+	
+	/**
+	 * Remove the queue and the dispatcher thread of a source, if the queue is idle.
+	 * 
+	 * @return boolean True if the queue has been removed.
+	 */
+	private synchronized boolean removeIdleQueue(String source, UtteranceEventQueue utteranceQueue) {
+		if( !utteranceQueue.closeIfIdle() ) {
+			return false;
+		}
+		utteranceQueues.remove(source, utteranceQueue);
+		dispatcherThreads.remove(source, Thread.currentThread());
+		logger.debug("Removed utterance queue of idle source [source = " + source + "].");
+		return true;
+	}
+	
+	private void startDispatcherThread(String source, UtteranceEventQueue utteranceQueue) {
+		Thread dispatcherThread = new Thread( () -> {
+			while( !Thread.currentThread().isInterrupted() ) {
+				try {
+					UtteranceRecognizedEvent event = utteranceQueue.poll(sourceIdleTimeout);
+					if( event == null ) {
+						if( removeIdleQueue(source, utteranceQueue) ) {
+							break;
+						}
+						continue;
+					}
+					UtteranceTrace trace = event.getTrace();
+					dispatcher.awaitTurn(EventPriority.UTTERANCE);
+					dispatcher.enter(EventPriority.UTTERANCE);
+					trace.record(TraceStage.QUEUE, trace.getStartedAt(), System.nanoTime());
+					UtteranceTrace.setCurrent(trace);
+					try {
+						dispatchUtteranceRecognizedEvent(event);
+					} finally {
+						UtteranceTrace.setCurrent(null);
+						trace.release();
+						dispatcher.exit(EventPriority.UTTERANCE);
+						utteranceQueue.processingFinished();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			logger.debug("STT dispatcher thread stopped [source = " + source + "].");
+		}, "stt-dispatcher-" + source);
+		dispatcherThread.setDaemon(true);
+		dispatcherThreads.put(source, dispatcherThread);
+		dispatcherThread.start();
+		logger.debug("STT dispatcher thread started [source = " + source + "].");
+	}
+	
+	/**
+	 * Set the time after which the queue and the dispatcher thread of an idle source are removed.
+	 * Applies to dispatcher threads waiting for their next utterance after this call.
+	 * 
+	 * @param timeout The idle time in milliseconds.
+	 */
+	public void setSourceIdleTimeout(long timeout) {
+		sourceIdleTimeout = timeout;
+	}
+	
+	/**
+	 * Stop the dispatcher threads of all sources. Pending utterances are discarded, utterances fired
+	 * afterwards create new queues.
+	 */
+	public synchronized void shutdown() {
+		for( Map.Entry<String, UtteranceEventQueue> entry : utteranceQueues.entrySet() ) {
+			entry.getValue().close();
+			Thread dispatcherThread = dispatcherThreads.remove(entry.getKey());
+			if( dispatcherThread != null ) {
+				dispatcherThread.interrupt();
+			}
+		}
+		utteranceQueues.clear();
+		if( requestExecutor != null ) {
+			requestExecutor.shutdownNow();
+			requestExecutor = null;
+		}
+		logger.debug("STTEventBus dispatcher threads stopped.");
+	}
+	
+	/**
+	 * Change the overflow behaviour of the utterance queues of all sources.
+	 * 
+	 * @param policy The OverflowPolicy to apply if a queue is full.
+	 * @param capacity The maximum number of pending utterances per source.
+	 * @param offerTimeout Milliseconds an STT engine may be blocked, if the policy is BLOCK_WITH_TIMEOUT.
+	 */
+	public synchronized void configureUtteranceQueue(OverflowPolicy policy, int capacity, long offerTimeout) {
+		queuePolicy = policy;
+		queueCapacity = capacity;
+		queueOfferTimeout = offerTimeout;
+		for( UtteranceEventQueue queue : utteranceQueues.values() ) {
+			queue.configure(policy, capacity, offerTimeout);
+		}
+	}
+	
+	/**
+	 * Returns the utterance queue of the default source, i.e. to read the dropped and coalesced counters.
+	 * 
+	 * @return UtteranceEventQueue The queue of pending utterances.
+	 */
+	public UtteranceEventQueue getUtteranceQueue() {
+		return getUtteranceQueue(UtteranceRecognizedEvent.DEFAULT_SOURCE);
+	}
+	
+	/**
+	 * Returns the utterance queues of all sources that have fired an utterance so far.
+	 * 
+	 * @return Map<String, UtteranceEventQueue> The queues, sorted by source.
+	 */
+	public Map<String, UtteranceEventQueue> getUtteranceQueues() {
+		return Collections.unmodifiableMap(new TreeMap<String, UtteranceEventQueue>(utteranceQueues));
+	}
+	
+	/**
+	 * Wait until all queued utterances of all sources have been dispatched to the listeners.
+	 * 
+	 * @param timeout Maximum time to wait in milliseconds.
+	 * @return boolean True if all utterances have been processed, false if the timeout expired.
+	 */
+	public boolean awaitUtterancesProcessed(long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		try {
+			for( UtteranceEventQueue queue : utteranceQueues.values() ) {
+				if( !queue.awaitIdle(Math.max(0, deadline - System.currentTimeMillis())) ) {
+					return false;
+				}
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
 		}
 	}
 	
@@ -112,20 +444,161 @@ public class STTEventBus {
 	public boolean unregisterUtteranceRequestedListener(UtteranceRequestedListener listener) {
 		logger.debug("Remove UtteranceRequestedListener. Listener: " + listener.toString());
 		boolean success = ureqll.remove(listener);
+		if( success ) {
+			stats.removeListenerStats(BUS_NAME, "UtteranceRequestedEvent", listener);
+			stats.removeListenerStats(BUS_NAME, "AsyncUtteranceRequestedEvent", listener);
+		}
 		logger.debug("Removing UtteranceRequestedListener: " + success);
 		return success;
 	}
 	
 	/**
-	 * Fire an UtteranceRequestedEvent. Each listener that has been registered on this event
-	 * will be notified.
+	 * Fire an UtteranceRequestedEvent. The registered listeners are notified one after another
+	 * until a listener provides an utterance. This method blocks until an utterance has been
+	 * recognized. Use requestUtteranceAsync(Duration) to avoid blocking the calling thread.
+	 * 
+	 * @return String The first utterance provided by a listener, or null if no listener provided one.
 	 */
 	public String fireUtteranceRequestedEvent() {
 		String res = null;
 		for(UtteranceRequestedListener urel : ureqll) {
 			logger.debug("Fire UtteranceRequestedEvent. Listener: " + urel.toString());
-			res = urel.requestUtterance();
+			res = stats.invoke(BUS_NAME, "UtteranceRequestedEvent", urel, urel::requestUtterance);
+			if( res != null ) {
+				break;
+			}
 		}
 		return res;
 	}
+	
+	/**
+	 * Request the next utterance without blocking the calling thread. All registered listeners are
+	 * notified, the first utterance provided by a listener completes the returned future.
+	 * <p>
+	 * AsyncUtteranceRequestedListeners are asked directly. Listeners only implementing the blocking
+	 * UtteranceRequestedListener interface are called on a request thread of their own, see
+	 * supplyUtteranceAsync(Supplier, Runnable).
+	 * <p>
+	 * The future is completed with null if no listener provided an utterance, and completed
+	 * exceptionally with a TimeoutException if no utterance has been provided in time. The futures
+	 * of listeners still listening at that point are cancelled, an asynchronous listener has to stop its
+	 * engine once its future is cancelled. A blocking listener is interrupted, via
+	 * Plugin.interruptExecution() if it is a plugin.
+	 * 
+	 * @param timeout Maximum time to wait for the utterance.
+	 * @return CompletableFuture<String> A future completed with the requested utterance.
+	 */
+	public CompletableFuture<String> requestUtteranceAsync(Duration timeout) {
+		CompletableFuture<String> result = new CompletableFuture<String>();
+		List<CompletableFuture<String>> pending = new ArrayList<CompletableFuture<String>>();
+		AtomicInteger remaining = new AtomicInteger(ureqll.size());
+		
+		if( remaining.get() == 0 ) {
+			logger.debug("Utterance requested, but no UtteranceRequestedListener registered.");
+			result.complete(null);
+			return result;
+		}
+		
+		for(UtteranceRequestedListener urel : ureqll) {
+			logger.debug("Fire asynchronous UtteranceRequestedEvent. Listener: " + urel.toString());
+			CompletableFuture<String> f;
+			try {
+				if( urel instanceof AsyncUtteranceRequestedListener ) {
+					f = stats.invoke(BUS_NAME, "AsyncUtteranceRequestedEvent", urel,
+							((AsyncUtteranceRequestedListener) urel)::requestUtteranceAsync);
+				} else {
+					Runnable interruption = null;
+					if( urel instanceof Plugin ) {
+						interruption = ((Plugin) urel)::interruptExecution;
+					}
+					f = supplyUtteranceAsync(urel::requestUtterance, interruption);
+				}
+			} catch(RuntimeException e) {
+				logger.catching(Level.DEBUG, e);
+				f = null;
+			}
+			if( f == null ) {
+				f = CompletableFuture.completedFuture(null);
+			}
+			pending.add(f);
+			f.whenComplete( (utterance, ex) -> {
+				if( ex != null ) {
+					logger.catching(Level.DEBUG, ex);
+				}
+				if( utterance != null ) {
+					result.complete(utterance);
+				} else if( remaining.decrementAndGet() == 0 ) {
+					result.complete(null);
+				}
+			});
+		}
+		
+		// stop listeners that are still listening, once the result is known or the request timed out
+		result.whenComplete( (utterance, ex) -> {
+			for(CompletableFuture<String> f : pending) {
+				f.cancel(true);
+			}
+		});
+		return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Run a blocking utterance request on a request thread of its own, so a blocked request does not
+	 * delay other requests. At most MAX_REQUEST_THREADS requests run at the same time, further requests
+	 * fail with a RejectedExecutionException.
+	 * <p>
+	 * If the returned future is cancelled or times out before the request returned, the request thread is
+	 * interrupted and the given interruption is run, i.e. Plugin.interruptExecution() of the STT engine.
+	 * 
+	 * @param request The blocking request returning the recognized utterance.
+	 * @param interruption Stops the blocked request, may be null.
+	 * @return CompletableFuture<String> A future completed with the result of the request.
+	 */
+	public CompletableFuture<String> supplyUtteranceAsync(Supplier<String> request, Runnable interruption) {
+		CompletableFuture<String> result = new CompletableFuture<String>();
+		Future<?> task;
+		try {
+			task = getRequestExecutor().submit( () -> {
+				try {
+					result.complete(request.get());
+				} catch(Throwable t) {
+					result.completeExceptionally(t);
+				}
+			});
+		} catch(RejectedExecutionException e) {
+			logger.error("Too many pending utterance requests. Request rejected.");
+			result.completeExceptionally(e);
+			return result;
+		}
+		result.whenComplete( (utterance, ex) -> {
+			if( ex == null || task.isDone() ) {
+				return;
+			}
+			if( ex instanceof CancellationException || ex instanceof TimeoutException ) {
+				logger.debug("Utterance request cancelled. Interrupt the blocked request.");
+				if( interruption != null ) {
+					try {
+						interruption.run();
+					} catch(RuntimeException e) {
+						logger.catching(Level.DEBUG, e);
+					}
+				}
+				task.cancel(true);
+			}
+		});
+		return result;
+	}
+	
+	private synchronized ExecutorService getRequestExecutor() {
+		if( requestExecutor == null ) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			requestExecutor = new ThreadPoolExecutor(0, MAX_REQUEST_THREADS, 60L, TimeUnit.SECONDS,
+					new SynchronousQueue<Runnable>(), r -> {
+						Thread t = new Thread(r, "stt-request-" + threadNumber.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					});
+		}
+		return requestExecutor;
+	}
 }
@@ -1,7 +1,7 @@
 package org.ava.eventhandling;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,17 +10,24 @@ public class TTSEventBus {
 
 	private final static Logger logger = LogManager.getLogger(TTSEventBus.class);
 	
+	/** Name of this bus in the listener statistics. */
+	private final static String BUS_NAME = "TTSEventBus";
+	
 	/** The singleton instance of the event bus. */
 	private static TTSEventBus instance = new TTSEventBus();
 	
 	/** List of registered SpeakListeners. */
 	private List<SpeakListener> sl;
 	
+	/** Statistics of the registered listeners. */
+	private EventBusStats stats;
+	
 	/** 
 	 * Private constructor to ensure singleton functionality. 
 	 */
 	private TTSEventBus() {
-		sl = new ArrayList<SpeakListener>();
+		sl = new CopyOnWriteArrayList<SpeakListener>();
+		stats = EventBusStats.getInstance();
 		logger.debug("TTSEventBus created.");
 	}
 	
@@ -55,6 +62,9 @@ public class TTSEventBus {
 	public boolean unregisterSpeakListener(SpeakListener listener) {
 		logger.debug("Remove SpeakListener. Listener: " + listener.toString());
 		boolean success = sl.remove(listener);
+		if( success ) {
+			stats.removeListenerStats(BUS_NAME, "SpeakEvent", listener);
+		}
 		logger.debug("Removing SpeakListener: " + success);
 		return success;
 	}
@@ -62,11 +72,16 @@ public class TTSEventBus {
 	/**
 	 * Fire a SpeakEvent. Each listener that has been registered on this event
 	 * will be notified.
+	 * <p>
+	 * Listeners are expected to queue the text for speech output instead of waiting for the
+	 * playback, since this event is usually fired while an utterance is processed. The speech
+	 * output itself is scheduled behind control events and utterances by the speaker.
 	 */
 	public void fireSspeakEvent(SpeakEvent event) {
+		EventJournal.getInstance().recordSpeak(event);
 		for(SpeakListener s : sl) {
 			logger.debug("Fire SspeakEvent. Listener: " + s.toString());
-			s.speak(event);
+			stats.invoke(BUS_NAME, "SpeakEvent", s, () -> s.speak(event));
 		}
 	}
 }
@@ -1,7 +1,7 @@
 package org.ava.eventhandling;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -16,6 +16,9 @@ import org.apache.logging.log4j.Logger;
  * 		-- PluginActivationStateChangedEvent: Fired if a specific plugin should be activated or deactivated.
  * 		-- CommandEnteredEvent: Fired if the user entered a command via console or gui.
  *
+ * ShutdownTriggeredEvents and PluginActivationStateChangedEvents are control plane events. They are
+ * executed on the control thread of the PriorityEventDispatcher and preempt speech processing.
+ *
  * @author Constantin
  * @since 2016-03-16
  * @version 0.1
@@ -24,6 +27,9 @@ public class UIEventBus {
 
 	private final static Logger logger = LogManager.getLogger(UIEventBus.class);
 
+	/** Name of this bus in the listener statistics. */
+	private final static String BUS_NAME = "UIEventBus";
+
 	/** The singleton instance of the event bus. */
 	private static UIEventBus instance = new UIEventBus();
 
@@ -36,13 +42,21 @@ public class UIEventBus {
 	/** List of registered CommandEnteredListeners. */
 	private List<CommandEnteredListener> cell;
 
+	/** Statistics of the registered listeners. */
+	private EventBusStats stats;
+
+	/** Dispatcher executing control events before speech events. */
+	private PriorityEventDispatcher dispatcher;
+
 	/**
 	 * Private constructor to ensure singleton functionality.
 	 */
 	private UIEventBus() {
-		stll = new ArrayList<ShutdownTriggeredListener>();
-		pascll = new ArrayList<PluginActivationStateChangedListener>();
-		cell = new ArrayList<CommandEnteredListener>();
+		stll = new CopyOnWriteArrayList<ShutdownTriggeredListener>();
+		pascll = new CopyOnWriteArrayList<PluginActivationStateChangedListener>();
+		cell = new CopyOnWriteArrayList<CommandEnteredListener>();
+		stats = EventBusStats.getInstance();
+		dispatcher = PriorityEventDispatcher.getInstance();
 
 		logger.debug("UIEventBus created.");
 	}
@@ -116,6 +130,9 @@ public class UIEventBus {
 	public boolean unregisterShutdownTriggeredListener(ShutdownTriggeredListener listener) {
 		logger.debug("Remove ShutdownTriggeredListener. Listener: " + listener.toString());
 		boolean success = stll.remove(listener);
+		if( success ) {
+			stats.removeListenerStats(BUS_NAME, "ShutdownTriggeredEvent", listener);
+		}
 		logger.debug("Removing ShutdownTriggeredListener: " + success);
 		return success;
 	}
@@ -129,6 +146,9 @@ public class UIEventBus {
 	public boolean unregisterPluginActivationStateChangedListener(PluginActivationStateChangedListener listener) {
 		logger.debug("Remove PluginActivationStateChangedListener. Listener: " + listener.toString());
 		boolean success = pascll.remove(listener);
+		if( success ) {
+			stats.removeListenerStats(BUS_NAME, "PluginActivationStateChangedEvent", listener);
+		}
 		logger.debug("Removing PluginActivationStateChangedListener: " + success);
 		return success;
 	}
@@ -142,6 +162,9 @@ public class UIEventBus {
 	public boolean unregisterCommandEnteredListener(CommandEnteredListener listener) {
 		logger.debug("Remove CommandEnteredListener. Listener: " + listener.toString());
 		boolean success = cell.remove(listener);
+		if( success ) {
+			stats.removeListenerStats(BUS_NAME, "CommandEnteredEvent", listener);
+		}
 		logger.debug("Removing CommandEnteredListener: " + success);
 		return success;
 	}
@@ -155,25 +178,38 @@ public class UIEventBus {
 	/**
 	 * Fire an ShutdownTriggeredEvent. Each listener that has been registered on this event
 	 * will be notified.
+	 * <p>
+	 * The listeners are notified on the control thread with the highest priority,
+	 * this method returns after all listeners have been notified.
 	 */
 	public void fireShutdownTriggeredEvent() {
-		for(ShutdownTriggeredListener stl : stll) {
-			logger.debug("Fire ShutdownTriggeredEvent. Listener: " + stl.toString());
-			stl.shutdownApplication();
-		}
+		dispatcher.executeControlEvent(EventPriority.SHUTDOWN, () -> {
+			for(ShutdownTriggeredListener stl : stll) {
+				logger.debug("Fire ShutdownTriggeredEvent. Listener: " + stl.toString());
+				stats.invoke(BUS_NAME, "ShutdownTriggeredEvent", stl, stl::shutdownApplication);
+			}
+		});
 	}
 
 	/**
 	 * Fire an PluginActivationStateChangedEvent indicating that the user wants to activate or deactivate a plugin.
 	 * Each listener that has been registered on this event will be notified.
+	 * <p>
+	 * The listeners are notified on the control thread, ahead of utterances and speech output that have not
+	 * started yet.
+	 * This method returns after all listeners have been notified.
 	 *
 	 * @param event The PluginActivationStateChangedEvent that indicates which plugin changed its state.
 	 */
 	public void firePluginActiavtionStateChangedEvent(PluginActivationStateChangedEvent event) {
-		for(PluginActivationStateChangedListener pascl : pascll) {
-			logger.debug("Fire ActivationStateChangedEvent. Event: " + event + ", Listener: " + pascl.toString());
-			pascl.changeActivationStateOfPlugin(event);
-		}
+		EventJournal.getInstance().recordPluginActivationStateChanged(event);
+		dispatcher.executeControlEvent(EventPriority.ACTIVATION, () -> {
+			for(PluginActivationStateChangedListener pascl : pascll) {
+				logger.debug("Fire ActivationStateChangedEvent. Event: " + event + ", Listener: " + pascl.toString());
+				stats.invoke(BUS_NAME, "PluginActivationStateChangedEvent", pascl,
+						() -> pascl.changeActivationStateOfPlugin(event));
+			}
+		});
 	}
 
 	/**
@@ -183,9 +219,16 @@ public class UIEventBus {
 	 * @param event The CommandEnteredEvent that wraps the command entered by the user via console or gui.
 	 */
 	public void fireCommandEnteredEvent(CommandEnteredEvent event) {
-		for(CommandEnteredListener cel : cell) {
-			logger.debug("Fire CommandEnteredEvent. Event: " + event + ", Listener: " + cel.toString());
-			cel.executeEnteredCommand(event);
+		EventJournal.getInstance().recordCommandEntered(event);
+		dispatcher.awaitTurn(EventPriority.UTTERANCE);
+		dispatcher.enter(EventPriority.UTTERANCE);
+		try {
+			for(CommandEnteredListener cel : cell) {
+				logger.debug("Fire CommandEnteredEvent. Event: " + event + ", Listener: " + cel.toString());
+				stats.invoke(BUS_NAME, "CommandEnteredEvent", cel, () -> cel.executeEnteredCommand(event));
+			}
+		} finally {
+			dispatcher.exit(EventPriority.UTTERANCE);
 		}
 	}
 
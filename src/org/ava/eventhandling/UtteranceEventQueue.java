@@ -0,0 +1,284 @@
+package org.ava.eventhandling;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class implements the bounded queue between the STT engine and the listeners
+ * registered on the STTEventBus. If the queue is full, the configured OverflowPolicy
+ * decides which utterance is given up. Dropped and coalesced utterances are counted,
+ * so a misbehaving STT engine can be identified.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ *
+ * @see org.ava.eventhandling.OverflowPolicy
+ */
+public class UtteranceEventQueue {
+
+	private final static Logger logger = LogManager.getLogger(UtteranceEventQueue.class);
+
+	/** Default number of utterances that may be pending. */
+	public final static int DEFAULT_CAPACITY = 16;
+
+	/** Default time in milliseconds the STT engine is blocked if the policy is BLOCK_WITH_TIMEOUT. */
+	public final static long DEFAULT_OFFER_TIMEOUT = 1000;
+
+	/** The pending utterances, oldest first. */
+	private Deque<UtteranceRecognizedEvent> queue;
+
+	/** True while an utterance taken from the queue is processed. */
+	private boolean isProcessing;
+
+	/** True once the queue has been given up, no utterances are accepted anymore. */
+	private boolean isClosed;
+
+	private OverflowPolicy policy;
+
+	private int capacity;
+
+	private long offerTimeout;
+
+	/** Number of utterances accepted by the queue. */
+	private AtomicLong enqueuedCount;
+
+	/** Number of utterances dropped due to the overflow policy. */
+	private AtomicLong droppedCount;
+
+	/** Number of utterances replaced by a newer one. */
+	private AtomicLong coalescedCount;
+
+	/**
+	 * Create a queue with the default policy BLOCK_WITH_TIMEOUT and default capacity.
+	 */
+	public UtteranceEventQueue() {
+		queue = new ArrayDeque<UtteranceRecognizedEvent>();
+		isProcessing = false;
+		isClosed = false;
+		policy = OverflowPolicy.BLOCK_WITH_TIMEOUT;
+		capacity = DEFAULT_CAPACITY;
+		offerTimeout = DEFAULT_OFFER_TIMEOUT;
+		enqueuedCount = new AtomicLong();
+		droppedCount = new AtomicLong();
+		coalescedCount = new AtomicLong();
+	}
+
+	/**
+	 * Change the overflow behaviour of the queue. Pending utterances are kept.
+	 *
+	 * @param policy The new overflow policy.
+	 * @param capacity The maximum number of pending utterances. Values below 1 are treated as 1.
+	 * @param offerTimeout Milliseconds an STT engine may be blocked, if the policy is BLOCK_WITH_TIMEOUT.
+	 */
+	public synchronized void configure(OverflowPolicy policy, int capacity, long offerTimeout) {
+		this.policy = policy;
+		this.capacity = Math.max(1, capacity);
+		this.offerTimeout = Math.max(0, offerTimeout);
+		logger.debug("Utterance queue configured [policy = " + this.policy + ", capacity = " + this.capacity
+				+ ", timeout = " + this.offerTimeout + " ms].");
+		notifyAll();
+	}
+
+	/**
+	 * Add an utterance to the queue, applying the configured overflow policy if the queue is full.
+	 * The traces of dropped and coalesced utterances are marked as dropped and released.
+	 *
+	 * @param event The utterance to add.
+	 * @return boolean True if the utterance has been queued, false if it has been dropped.
+	 * @throws InterruptedException If the caller has been interrupted while blocked.
+	 * @throws IllegalStateException If the queue is closed or has been closed while the caller was blocked.
+	 * 			The utterance is neither queued nor dropped.
+	 */
+	public synchronized boolean offer(UtteranceRecognizedEvent event) throws InterruptedException {
+		ensureOpen();
+		switch(policy) {
+		case COALESCE_TO_LATEST:
+			if( !queue.isEmpty() ) {
+				coalescedCount.addAndGet(queue.size());
+				logger.debug("Coalesced " + queue.size() + " pending utterances to '" + event.getUtterance() + "'.");
+				while( !queue.isEmpty() ) {
+					drop(queue.pollFirst(), "coalesced");
+				}
+			}
+			break;
+
+		case DROP_OLDEST:
+			while( queue.size() >= capacity ) {
+				UtteranceRecognizedEvent dropped = queue.pollFirst();
+				droppedCount.incrementAndGet();
+				logger.debug("Utterance queue full, dropped oldest utterance '" + dropped.getUtterance() + "'.");
+				drop(dropped, "queue full");
+			}
+			break;
+
+		case DROP_NEWEST:
+			if( queue.size() >= capacity ) {
+				droppedCount.incrementAndGet();
+				logger.debug("Utterance queue full, dropped new utterance '" + event.getUtterance() + "'.");
+				drop(event, "queue full");
+				return false;
+			}
+			break;
+
+		case BLOCK_WITH_TIMEOUT:
+			long deadline = System.currentTimeMillis() + offerTimeout;
+			while( queue.size() >= capacity ) {
+				long remaining = deadline - System.currentTimeMillis();
+				if( remaining <= 0 ) {
+					droppedCount.incrementAndGet();
+					logger.debug("Utterance queue full for " + offerTimeout + " ms, "
+							+ "dropped new utterance '" + event.getUtterance() + "'.");
+					drop(event, "queue full");
+					return false;
+				}
+				wait(remaining);
+				ensureOpen();
+			}
+			break;
+		}
+
+		queue.addLast(event);
+		enqueuedCount.incrementAndGet();
+		notifyAll();
+		return true;
+	}
+
+	/**
+	 * Discard all pending utterances, i.e. when the dispatcher thread of the queue is stopped.
+	 * The queue is closed.
+	 */
+	public synchronized void close() {
+		while( !queue.isEmpty() ) {
+			drop(queue.pollFirst(), "shutdown");
+		}
+		isClosed = true;
+		notifyAll();
+	}
+
+	private void ensureOpen() {
+		if( isClosed ) {
+			throw new IllegalStateException("Utterance queue is closed.");
+		}
+	}
+
+	private void drop(UtteranceRecognizedEvent event, String reason) {
+		if( event.getTrace() != null ) {
+			event.getTrace().drop(reason);
+		}
+	}
+
+	/**
+	 * Take the oldest pending utterance. Blocks until an utterance is available.
+	 * The queue is considered busy until processingFinished() is called.
+	 *
+	 * @return UtteranceRecognizedEvent The oldest pending utterance.
+	 * @throws InterruptedException If the caller has been interrupted while waiting.
+	 */
+	public synchronized UtteranceRecognizedEvent take() throws InterruptedException {
+		while( queue.isEmpty() ) {
+			wait();
+		}
+		isProcessing = true;
+		UtteranceRecognizedEvent event = queue.pollFirst();
+		notifyAll();
+		return event;
+	}
+
+	/**
+	 * Retrieve the oldest pending utterance, waiting at most the given time for an utterance to arrive.
+	 * The utterance has to be marked as processed via processingFinished().
+	 *
+	 * @param timeout Maximum time to wait in milliseconds.
+	 * @return UtteranceRecognizedEvent The oldest pending utterance, null if the timeout expired.
+	 * @throws InterruptedException If the caller has been interrupted while waiting.
+	 */
+	public synchronized UtteranceRecognizedEvent poll(long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while( queue.isEmpty() ) {
+			long remaining = deadline - System.currentTimeMillis();
+			if( remaining <= 0 ) {
+				return null;
+			}
+			wait(remaining);
+		}
+		return take();
+	}
+
+	/**
+	 * Close the queue if no utterance is pending or processed. A closed queue must not be offered
+	 * utterances anymore.
+	 *
+	 * @return boolean True if the queue is closed.
+	 */
+	public synchronized boolean closeIfIdle() {
+		if( queue.isEmpty() && !isProcessing ) {
+			isClosed = true;
+		}
+		return isClosed;
+	}
+
+	public synchronized boolean isClosed() {
+		return isClosed;
+	}
+
+	/**
+	 * Mark the utterance returned by the last take() as processed.
+	 */
+	public synchronized void processingFinished() {
+		isProcessing = false;
+		notifyAll();
+	}
+
+	/**
+	 * Wait until all pending utterances have been processed.
+	 *
+	 * @param timeout Maximum time to wait in milliseconds.
+	 * @return boolean True if the queue is idle, false if the timeout expired.
+	 * @throws InterruptedException If the caller has been interrupted while waiting.
+	 */
+	public synchronized boolean awaitIdle(long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while( !queue.isEmpty() || isProcessing ) {
+			long remaining = deadline - System.currentTimeMillis();
+			if( remaining <= 0 ) {
+				return false;
+			}
+			wait(remaining);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of pending utterances.
+	 *
+	 * @return int The number of pending utterances.
+	 */
+	public synchronized int size() {
+		return queue.size();
+	}
+
+	public synchronized OverflowPolicy getPolicy() {
+		return policy;
+	}
+
+	public synchronized int getCapacity() {
+		return capacity;
+	}
+
+	public long getEnqueuedCount() {
+		return enqueuedCount.get();
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+}
@@ -0,0 +1,23 @@
+package org.ava.eventhandling;
+
+/**
+ * This listener will be notified when a recognized utterance has been put into the utterance
+ * queue of the STTEventBus, before it is dispatched to the UtteranceRecognizedListeners.
+ * <p>
+ * The listener is called on the thread of the STT engine and must return quickly. It is intended
+ * to start work ahead of the processing of the utterance, i.e. speculative matching.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public interface UtteranceQueuedListener {
+
+	/**
+	 * Called if an utterance has been queued by the STTEventBus.
+	 *
+	 * @param event The queued UtteranceRecognizedEvent.
+	 */
+	public void utteranceQueued(UtteranceRecognizedEvent event);
+
+}
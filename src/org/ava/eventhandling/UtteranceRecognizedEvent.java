@@ -2,11 +2,16 @@ package org.ava.eventhandling;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ava.util.UtteranceTrace;
 
 /**
  * This class wraps an utterance that has been recognized by the STT engine.
  * The event is constructed by the STT engine and then passed to the STTEventBus,
  * which handles the event processing.
+ * <p>
+ * Each event carries the input source it has been recognized from, i.e. a microphone,
+ * a room or a remote client. Utterances of different sources are processed concurrently
+ * and in separate sessions, utterances of the same source are processed in order.
  * 
  * @author Constantin
  * @since 2016-03-15
@@ -16,17 +21,41 @@ public class UtteranceRecognizedEvent {
 
 	private final static Logger logger = LogManager.getLogger(UtteranceRecognizedEvent.class);
 	
+	/** Source of utterances recognized by the active STT plugin. */
+	public final static String DEFAULT_SOURCE = "stt";
+	
 	/** Utterance that has been recognized by the STT engine. */
 	private String utterance;
 	
+	/** Input source the utterance has been recognized from. */
+	private String source;
+	
+	/** Trace of the utterance, assigned by the STTEventBus. */
+	private UtteranceTrace trace;
+	
+	/** Whether the event is fed back from an event journal. */
+	private boolean replayed;
+	
 	/**
-	 * Create a new UtteranceRecognizedEvent with the given utterance.
+	 * Create a new UtteranceRecognizedEvent with the given utterance,
+	 * recognized from the default source.
 	 * 
 	 * @param utterance The utterance that has been recognized by the STT engine.
 	 */
 	public UtteranceRecognizedEvent(String utterance) {
+		this(utterance, DEFAULT_SOURCE);
+	}
+	
+	/**
+	 * Create a new UtteranceRecognizedEvent with the given utterance and source.
+	 * 
+	 * @param utterance The utterance that has been recognized by the STT engine.
+	 * @param source The input source, i.e. the name of a microphone or remote client.
+	 */
+	public UtteranceRecognizedEvent(String utterance, String source) {
 		this.utterance = utterance;
-		logger.debug("UtteranceRecognizedEvent created. Utterance: " + this.utterance);
+		this.source = (source == null || source.isEmpty()) ? DEFAULT_SOURCE : source;
+		logger.debug("UtteranceRecognizedEvent created. Utterance: " + this.utterance + ", source: " + this.source);
 	}
 	
 	/**
@@ -37,4 +66,39 @@ public class UtteranceRecognizedEvent {
 	public String getUtterance() {
 		return this.utterance;
 	}
+	
+	/**
+	 * Returns the input source the utterance has been recognized from.
+	 * 
+	 * @return String The input source.
+	 */
+	public String getSource() {
+		return this.source;
+	}
+	
+	/**
+	 * Returns the trace of the utterance.
+	 * 
+	 * @return UtteranceTrace The trace, null if the event has not been fired yet.
+	 */
+	public UtteranceTrace getTrace() {
+		return this.trace;
+	}
+	
+	void setTrace(UtteranceTrace trace) {
+		this.trace = trace;
+	}
+	
+	/**
+	 * Check whether the event is fed back from an event journal by the EventJournalReplayer.
+	 * 
+	 * @return boolean True if the event is replayed.
+	 */
+	public boolean isReplayed() {
+		return this.replayed;
+	}
+	
+	void setReplayed(boolean replayed) {
+		this.replayed = replayed;
+	}
 }
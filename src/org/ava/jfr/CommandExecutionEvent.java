@@ -0,0 +1,39 @@
+package org.ava.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the execution of a command of an application plugin.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+@Name("org.ava.CommandExecution")
+@Label("Command Execution")
+@Description("A command of an application plugin has been executed.")
+@Category({"Ava", "Utterance Pipeline"})
+@StackTrace(false)
+public class CommandExecutionEvent extends Event {
+
+	@Label("Trace ID")
+	public long traceID;
+
+	@Label("Plugin ID")
+	public int pluginID;
+
+	@Label("Command")
+	public String command;
+
+	@Label("Argument")
+	public String argument;
+
+	@Label("Failed")
+	@Description("True if the command threw an exception.")
+	public boolean failed;
+}
@@ -0,0 +1,44 @@
+package org.ava.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the matching of an utterance against the commands of an application plugin.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+@Name("org.ava.CommandMatch")
+@Label("Command Match")
+@Description("An utterance has been matched against the commands of an application plugin.")
+@Category({"Ava", "Utterance Pipeline"})
+@StackTrace(false)
+public class CommandMatchEvent extends Event {
+
+	@Label("Trace ID")
+	public long traceID;
+
+	@Label("Plugin ID")
+	public int pluginID;
+
+	@Label("Utterance")
+	public String utterance;
+
+	@Label("Candidates")
+	@Description("Number of commands of the plugin compared.")
+	public int candidateCount;
+
+	@Label("Best Score")
+	@Description("Highest similarity of all compared commands, including those below the threshold.")
+	public double bestScore;
+
+	@Label("Matched Command")
+	@Description("The matched command, null if no command exceeded the threshold.")
+	public String matchedCommand;
+}
@@ -0,0 +1,40 @@
+package org.ava.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the start or stop of a plugin.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+@Name("org.ava.PluginLifecycle")
+@Label("Plugin Start/Stop")
+@Description("A plugin has been started or stopped.")
+@Category({"Ava", "Plugins"})
+@StackTrace(false)
+public class PluginLifecycleEvent extends Event {
+
+	public final static String START = "start";
+
+	public final static String STOP = "stop";
+
+	@Label("Plugin ID")
+	public int pluginID;
+
+	@Label("Plugin Name")
+	public String pluginName;
+
+	@Label("Action")
+	@Description("Either 'start' or 'stop'.")
+	public String action;
+
+	@Label("Succeeded")
+	public boolean succeeded;
+}
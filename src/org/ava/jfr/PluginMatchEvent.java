@@ -0,0 +1,40 @@
+package org.ava.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the matching of an utterance against the names of the loaded application plugins.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+@Name("org.ava.PluginMatch")
+@Label("Plugin Match")
+@Description("An utterance has been matched against the names of the loaded application plugins.")
+@Category({"Ava", "Utterance Pipeline"})
+@StackTrace(false)
+public class PluginMatchEvent extends Event {
+
+	@Label("Trace ID")
+	public long traceID;
+
+	@Label("Utterance")
+	public String utterance;
+
+	@Label("Candidates")
+	@Description("Number of application plugins compared.")
+	public int candidateCount;
+
+	@Label("Best Score")
+	public double bestScore;
+
+	@Label("Matched Plugin")
+	@Description("Name of the matched plugin, null if no plugin exceeded the threshold.")
+	public String matchedPlugin;
+}
@@ -0,0 +1,35 @@
+package org.ava.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event spanning the speech output of a message by the TTS plugin.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+@Name("org.ava.SpeechOutput")
+@Label("Speech Output")
+@Description("A message has been spoken by the TTS plugin.")
+@Category({"Ava", "Utterance Pipeline"})
+@StackTrace(false)
+public class SpeechOutputEvent extends Event {
+
+	@Label("Trace ID")
+	public long traceID;
+
+	@Label("Message")
+	public String message;
+
+	@Label("Wait Time")
+	@Description("Nanoseconds the message waited in the speak queue.")
+	@Timespan(Timespan.NANOSECONDS)
+	public long waitTime;
+}
@@ -0,0 +1,32 @@
+package org.ava.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event emitted when a recognized utterance is dispatched to Ava.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+@Name("org.ava.UtteranceReceived")
+@Label("Utterance Received")
+@Description("A recognized utterance has been dispatched to the utterance processing.")
+@Category({"Ava", "Utterance Pipeline"})
+@StackTrace(false)
+public class UtteranceReceivedEvent extends Event {
+
+	@Label("Trace ID")
+	public long traceID;
+
+	@Label("Source")
+	public String source;
+
+	@Label("Utterance")
+	public String utterance;
+}
@@ -0,0 +1,97 @@
+package org.ava.matching;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ava.jfr.PluginMatchEvent;
+import org.ava.matching.SpeculativeMatcher.PluginRanking;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.Plugin;
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginProperties;
+import org.ava.util.ApplicationConfig;
+import org.ava.util.UtteranceTrace;
+
+/**
+ * This class matches an utterance against the names of the loaded application plugins. The plugin with
+ * the best score is matched if its score exceeds the matching threshold.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class AppPluginMatcher {
+
+	private final static Logger log = LogManager.getLogger(AppPluginMatcher.class);
+
+	private PluginManager pluginManager;
+
+	private SpeculativeMatcher speculativeMatcher;
+
+	/**
+	 * @param pluginManager The manager of the loaded application plugins.
+	 * @param speculativeMatcher The matcher scoring the plugin names, see getAppPluginNames().
+	 */
+	public AppPluginMatcher(PluginManager pluginManager, SpeculativeMatcher speculativeMatcher) {
+		this.pluginManager = pluginManager;
+		this.speculativeMatcher = speculativeMatcher;
+	}
+
+	/**
+	 * Returns the names of the loaded application plugins, i.e. the plugins the SpeculativeMatcher ranks.
+	 *
+	 * @param pluginManager The manager of the loaded application plugins.
+	 * @return Map<Integer, String> The plugin names by plugin ID.
+	 */
+	public static Map<Integer, String> getAppPluginNames(PluginManager pluginManager) {
+		Map<Integer, String> names = new TreeMap<Integer, String>();
+		for( Plugin p : pluginManager.getLoadedAppPlugins() ) {
+			PluginProperties props = pluginManager.getPluginProperties(p);
+			names.put(props.getID(), props.getName());
+		}
+		return names;
+	}
+
+	/**
+	 * Find the application plugin named by an utterance. A lazily started plugin is instantiated in the
+	 * background as soon as it has been matched.
+	 *
+	 * @param utterance The utterance.
+	 * @return AppPlugin The plugin with the best score above the matching threshold, null if there is none.
+	 */
+	public AppPlugin match(String utterance) {
+		PluginMatchEvent jfrEvent = new PluginMatchEvent();
+		jfrEvent.begin();
+
+		PluginRanking ranking = speculativeMatcher.matchPlugin(utterance);
+		log.debug("Find plugin match. Loaded app plugins count: " + ranking.getCandidateCount());
+		AppPlugin p = null;
+		if( ranking.getBestScore() > ApplicationConfig.getMatchingTreshold() ) {
+			for( Plugin pl : pluginManager.getLoadedAppPlugins() ) {
+				if( pluginManager.getPluginProperties(pl).getID() == ranking.getBestPluginID() ) {
+					p = (AppPlugin) pl;
+					// instantiate a lazily started plugin while the confirmation sound is played
+					pluginManager.preloadPlugin(p);
+					log.debug("Plugin match found. "
+							+ "[plugin = '" + pluginManager.getPluginProperties(pl).getName() + "', "
+							+ "likelihood = '" + ranking.getBestScore() + "']");
+					break;
+				}
+			}
+		}
+
+		jfrEvent.end();
+		if( jfrEvent.shouldCommit() ) {
+			jfrEvent.traceID = UtteranceTrace.currentTraceID();
+			jfrEvent.utterance = utterance;
+			jfrEvent.candidateCount = ranking.getCandidateCount();
+			jfrEvent.bestScore = ranking.getBestScore();
+			jfrEvent.matchedPlugin = p == null ? null : pluginManager.getPluginProperties(p).getName();
+			jfrEvent.commit();
+		}
+
+		return p;
+	}
+}
@@ -1,13 +1,17 @@
 package org.ava.matching;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ava.jfr.CommandMatchEvent;
 import org.ava.pluginengine.AppCommand;
 import org.ava.util.ApplicationConfig;
+import org.ava.util.UtteranceTrace;
 import info.debatty.java.stringsimilarity.JaroWinkler;
 
 /**
@@ -22,10 +26,10 @@ public class DefaultMatchingEngine implements MatchingEngine {
 
 	private final static Logger log = LogManager.getLogger(DefaultMatchingEngine.class);
 
-	/** Maps commands to a plugin ID.	 */
-	private Map<Integer, List<AppCommand>> commandList;
-
-	/** Maps a command structure to a command and the command to a plugin ID. */
+	/**
+	 * Maps a command structure to a command and the command to a plugin ID. The commands of a plugin are
+	 * published as a whole and never modified, so they can be replaced atomically while matching.
+	 */
 	private Map<Integer, Map<AppCommand, CommandParts>> fixedPartMapping;
 
 	/**
@@ -96,8 +100,8 @@ public class DefaultMatchingEngine implements MatchingEngine {
 	 * Initialize the matching engine.
 	 */
 	public DefaultMatchingEngine() {
-		commandList = new HashMap<Integer, List<AppCommand>>();
-		fixedPartMapping = new HashMap<Integer, Map<AppCommand, CommandParts>>();
+		// commands are added and removed on the control thread while utterances are matched
+		fixedPartMapping = new ConcurrentHashMap<Integer, Map<AppCommand, CommandParts>>();
 		matchingThreshold = ApplicationConfig.getMatchingTreshold();
 		log.debug("Matching engine created [treshold = " + matchingThreshold + "].");
 	}
@@ -111,16 +115,34 @@ public class DefaultMatchingEngine implements MatchingEngine {
 	@Override
 	public void addApplicationCommands(List<AppCommand> commandList, int pluginID) {
 		log.debug("Adding Commands of plugin '" + pluginID + "' to matching engine");
-		this.commandList.put(pluginID, commandList);
+		this.fixedPartMapping.put(pluginID, buildCommandParts(commandList));
+		log.debug("Finished adding commands of plugin '" + pluginID + "' to matching engine");
+	}
+
+	/**
+	 * Replace the application commands of a specific plugin atomically.
+	 *
+	 * @param commandList The new commands of the plugin.
+	 * @param pluginID The plugin ID of the plugin to which these commands belong.
+	 */
+	@Override
+	public void replaceApplicationCommands(List<AppCommand> commandList, int pluginID) {
+		Map<AppCommand, CommandParts> tmp = buildCommandParts(commandList);
+		Map<AppCommand, CommandParts> old = this.fixedPartMapping.put(pluginID, tmp);
+		log.debug("Replaced commands of plugin '" + pluginID + "' in matching engine [old = "
+				+ (old == null ? 0 : old.size()) + ", new = " + tmp.size() + "].");
+	}
+
+	/**
+	 * Build the complete command structures before publishing the commands to concurrent matching.
+	 * The commands keep their order, the first of equally similar commands is matched.
+	 */
+	private Map<AppCommand, CommandParts> buildCommandParts(List<AppCommand> commandList) {
+		Map<AppCommand, CommandParts> tmp = new LinkedHashMap<AppCommand, CommandParts>();
 		for( AppCommand c : commandList ) {
-			Map<AppCommand, CommandParts> tmp;
-			if( (tmp = this.fixedPartMapping.get(pluginID)) == null ) {
-				tmp = new HashMap<AppCommand, CommandParts>();
-			}
 			tmp.put(c, new CommandParts(c.getCommand()));
-			this.fixedPartMapping.put(pluginID, tmp);
 		}
-		log.debug("Finished adding commands of plugin '" + pluginID + "' to matching engine");
+		return Collections.unmodifiableMap(tmp);
 	}
 
 	/**
@@ -130,7 +152,7 @@ public class DefaultMatchingEngine implements MatchingEngine {
 	 */
 	@Override
 	public void removeApplicationCommands(int pluginID) {
-		this.commandList.remove(pluginID);
+		this.fixedPartMapping.remove(pluginID);
 		log.debug("Removed commands of plugin '" + pluginID + "' from matching engine.");
 	}
 
@@ -146,8 +168,29 @@ public class DefaultMatchingEngine implements MatchingEngine {
 	 */
 	@Override
 	public CommandMatch matchCommand(String toMatch, int pluginID) {
+		return matchCommand(toMatch, pluginID, true);
+	}
+
+	/**
+	 * Match a given string to a command of a given plugin without emitting a CommandMatchEvent and
+	 * without logging the result, i.e. for a speculative match whose result may never be used.
+	 *
+	 * @param toMatch The string to match.
+	 * @param pluginID The plugin ID indicating which commands will be considered in the matching process.
+	 * @return CommandMatch A CommandMatch containing the result of the match or null if no match was found.
+	 */
+	@Override
+	public CommandMatch matchCommandQuietly(String toMatch, int pluginID) {
+		return matchCommand(toMatch, pluginID, false);
+	}
+
+	private CommandMatch matchCommand(String toMatch, int pluginID, boolean record) {
 		log.debug("Started matching of input to loaded commands.");
 		CommandMatch match = null;
+		int candidateCount = 0;
+		double bestScore = 0;
+		CommandMatchEvent jfrEvent = new CommandMatchEvent();
+		jfrEvent.begin();
 
 		// for each command of given plugin do:
 		// -- extract the fixed part and variable part according to
@@ -155,14 +198,19 @@ public class DefaultMatchingEngine implements MatchingEngine {
 		// -- check similiarity using Jaro Winkler distance
 		// -- find command with highest similarity above treshold in
 		//    Ava configuration file
-		if( !commandList.isEmpty() && commandList.containsKey(pluginID) ) {
-			for(AppCommand c : commandList.get(pluginID)) {
+		// the commands of the plugin as published when the match started
+		Map<AppCommand, CommandParts> commands = this.fixedPartMapping.get(pluginID);
+		if( commands != null ) {
+			candidateCount = commands.size();
+			for(Map.Entry<AppCommand, CommandParts> command : commands.entrySet()) {
+				AppCommand c = command.getKey();
+				CommandParts parts = command.getValue();
 				// extract fixed part from input
 				String[] toMatchWordList = toMatch.split(" ");
 				String toMatchFixedPart = "";
 				int ii = 0;
-				if( this.fixedPartMapping.get(pluginID).get(c).getFixedPartLength() <= toMatchWordList.length ) {
-					while( ii < this.fixedPartMapping.get(pluginID).get(c).getFixedPartLength() ) {
+				if( parts.getFixedPartLength() <= toMatchWordList.length ) {
+					while( ii < parts.getFixedPartLength() ) {
 						toMatchFixedPart = toMatchFixedPart + toMatchWordList[ii] + " ";
 						ii++;
 					}
@@ -170,7 +218,7 @@ public class DefaultMatchingEngine implements MatchingEngine {
 				} else {
 					log.debug("Utterance is shorter than current command. Skip to next command. "
 							+ "[utterance = '" + toMatch + "', "
-							+ "command = '" + this.fixedPartMapping.get(pluginID).get(c).getFixedPart() + "']");
+							+ "command = '" + parts.getFixedPart() + "']");
 					continue;
 				}
 
@@ -189,9 +237,10 @@ public class DefaultMatchingEngine implements MatchingEngine {
 				}
 
 				// match
-				double jwDistance = this.computeSimilarity(toMatchFixedPart, this.fixedPartMapping.get(pluginID).get(c).getFixedPart());
+				double jwDistance = this.computeSimilarity(toMatchFixedPart, parts.getFixedPart());
+				bestScore = Math.max(bestScore, jwDistance);
 				if( jwDistance >= matchingThreshold
-						&& (inputHasVariablePart == this.fixedPartMapping.get(pluginID).get(c).hasVariablePart()) ) {
+						&& (inputHasVariablePart == parts.hasVariablePart()) ) {
 					if( match != null ) {
 						if( jwDistance > match.getMatchLikelihood() ) {
 							match = new CommandMatch(jwDistance, c, toMatchVariablePart);
@@ -206,6 +255,21 @@ public class DefaultMatchingEngine implements MatchingEngine {
 			match = null;
 		}
 
+		if( !record ) {
+			return match;
+		}
+
+		jfrEvent.end();
+		if( jfrEvent.shouldCommit() ) {
+			jfrEvent.traceID = UtteranceTrace.currentTraceID();
+			jfrEvent.pluginID = pluginID;
+			jfrEvent.utterance = toMatch;
+			jfrEvent.candidateCount = candidateCount;
+			jfrEvent.bestScore = bestScore;
+			jfrEvent.matchedCommand = match == null ? null : match.getCommand().getCommand();
+			jfrEvent.commit();
+		}
+
 		if(match == null) {
 			log.info("No command match found.");
 		} else {
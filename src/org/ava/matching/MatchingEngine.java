@@ -30,6 +30,16 @@ public interface MatchingEngine {
 	 */
 	public void removeApplicationCommands(int pluginID);
 
+	/**
+	 * Replace the application commands of a specific plugin, i.e. after the plugin has been reloaded. The
+	 * commands are replaced atomically: a concurrent matchCommand(...) call either considers all old or all
+	 * new commands of the plugin. The commands of other plugins are not affected.
+	 *
+	 * @param commandList The new commands of the plugin.
+	 * @param pluginID The plugin ID of the plugin to which these commands belong.
+	 */
+	public void replaceApplicationCommands(List<AppCommand> commandList, int pluginID);
+
 	/**
 	 * Match a given string to a command of a given plugin. Return a CommandMatch containing the
 	 * likelihood of this match and other information.
@@ -42,6 +52,16 @@ public interface MatchingEngine {
 	 */
 	public CommandMatch matchCommand(String toMatch, int pluginID);
 
+	/**
+	 * Match a given string to a command of a given plugin like matchCommand(...), without recording
+	 * the match, i.e. for a speculative match whose result may never be used.
+	 *
+	 * @param toMatch The string to match.
+	 * @param pluginID The plugin ID indicating which commands will be considered in the matching process.
+	 * @return CommandMatch A CommandMatch containing the result of the match or null if no match was found.
+	 */
+	public CommandMatch matchCommandQuietly(String toMatch, int pluginID);
+
 	/**
 	 * Match to strings and return the similarity of both string. 1.0 indicates exactly the same strings,
 	 * 0.0 indicates totally dissimilar strings.
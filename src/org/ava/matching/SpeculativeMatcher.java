@@ -0,0 +1,352 @@
+package org.ava.matching;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class matches utterances ahead of the utterance processing. As soon as an utterance arrives,
+ * it is scored concurrently as activation phrase, as plugin name and as command of the most likely
+ * plugins. When the utterance processing needs one of these results, it is ready or already being
+ * computed. Results are cached, so repeated utterances are not matched again.
+ * <p>
+ * The most likely plugins of an input source are the best scored plugins of the last utterance of
+ * that source naming a plugin. Commands are therefore matched speculatively while the confirmation
+ * sound of the plugin match is played.
+ * <p>
+ * Results not computed speculatively are computed on the calling thread. Commands matched speculatively
+ * are not recorded by the matching engine, since most of these matches are never used. The caches must be
+ * invalidated whenever application commands are added or removed.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class SpeculativeMatcher {
+
+	private final static Logger log = LogManager.getLogger(SpeculativeMatcher.class);
+
+	/** Number of threads matching speculatively. */
+	public final static int DEFAULT_THREADS = 2;
+
+	/** Number of plugins the commands are matched speculatively of. */
+	public final static int SPECULATIVE_PLUGINS = 2;
+
+	/** Number of cached results per kind of match. */
+	public final static int CACHE_SIZE = 256;
+
+	/**
+	 * This class holds the scores of an utterance matched against the names of all application plugins.
+	 */
+	public static class PluginRanking {
+
+		private List<Integer> pluginIDs;
+		private List<Double> scores;
+		private int candidateCount;
+
+		private PluginRanking(List<Integer> pluginIDs, List<Double> scores, int candidateCount) {
+			this.pluginIDs = pluginIDs;
+			this.scores = scores;
+			this.candidateCount = candidateCount;
+		}
+
+		/**
+		 * Returns the IDs of the plugins, best match first.
+		 *
+		 * @return List<Integer> The ranked plugin IDs.
+		 */
+		public List<Integer> getPluginIDs() {
+			return pluginIDs;
+		}
+
+		/**
+		 * Returns the plugin with the highest score.
+		 *
+		 * @return int The ID of the best matching plugin, -1 if no plugin has been scored.
+		 */
+		public int getBestPluginID() {
+			return pluginIDs.isEmpty() ? -1 : pluginIDs.get(0);
+		}
+
+		/**
+		 * Returns the highest score.
+		 *
+		 * @return double The score of the best matching plugin, 0.0 if no plugin has been scored.
+		 */
+		public double getBestScore() {
+			return scores.isEmpty() ? 0.0 : scores.get(0);
+		}
+
+		public int getCandidateCount() {
+			return candidateCount;
+		}
+	}
+
+	/**
+	 * Inner class implementing a LRU cache of computed or running matches.
+	 */
+	private class ResultCache<T> extends LinkedHashMap<String, CompletableFuture<T>> {
+
+		private static final long serialVersionUID = 1L;
+
+		public ResultCache() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<T>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	}
+
+	private MatchingEngine matchingEngine;
+
+	/** Provides the names of the loaded application plugins by plugin ID. */
+	private Supplier<Map<Integer, String>> appPlugins;
+
+	/** Threshold above which a plugin name is matched. */
+	private double pluginThreshold;
+
+	private ExecutorService pool;
+
+	private ResultCache<Boolean> activationCache;
+
+	private ResultCache<PluginRanking> pluginCache;
+
+	private ResultCache<CommandMatch> commandCache;
+
+	/** The most likely plugins of each input source. */
+	private Map<String, List<Integer>> likelyPlugins;
+
+	/** Incremented by invalidate(), so rankings started before are not used to predict the likely plugins. */
+	private long generation;
+
+	private AtomicLong hitCount;
+
+	private AtomicLong missCount;
+
+	/**
+	 * Create a speculative matcher.
+	 *
+	 * @param matchingEngine The engine computing the matches.
+	 * @param appPlugins Provides the names of the loaded application plugins by plugin ID.
+	 * @param pluginThreshold Threshold above which a plugin name is matched.
+	 */
+	public SpeculativeMatcher(MatchingEngine matchingEngine, Supplier<Map<Integer, String>> appPlugins, double pluginThreshold) {
+		this.matchingEngine = matchingEngine;
+		this.appPlugins = appPlugins;
+		this.pluginThreshold = pluginThreshold;
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.pool = Executors.newFixedThreadPool(DEFAULT_THREADS, r -> {
+			Thread t = new Thread(r, "speculative-matcher-" + threadNumber.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.activationCache = new ResultCache<Boolean>();
+		this.pluginCache = new ResultCache<PluginRanking>();
+		this.commandCache = new ResultCache<CommandMatch>();
+		this.likelyPlugins = new ConcurrentHashMap<String, List<Integer>>();
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+	}
+
+	/**
+	 * Start matching an utterance that just arrived. Returns immediately.
+	 *
+	 * @param source The input source of the utterance.
+	 * @param utterance The utterance.
+	 * @param activationPhrase The phrase activating Ava.
+	 * @return CompletableFuture<Void> A future completed when all speculative matches of the utterance are done.
+	 */
+	public CompletableFuture<Void> speculate(String source, String utterance, String activationPhrase) {
+		List<CompletableFuture<?>> matches = new ArrayList<CompletableFuture<?>>();
+		matches.add(lookup(activationCache, activationPhrase + "|" + utterance,
+				() -> matchingEngine.matchStringToAvaTreshold(utterance, activationPhrase), true));
+
+		long startGeneration;
+		synchronized( likelyPlugins ) {
+			startGeneration = generation;
+		}
+		matches.add(lookup(pluginCache, utterance, () -> rankPlugins(utterance), true).thenAccept( ranking -> {
+			// the utterance names a plugin, the next utterance of the source likely is one of its commands
+			if( ranking.getBestScore() > pluginThreshold ) {
+				List<Integer> ids = ranking.getPluginIDs();
+				synchronized( likelyPlugins ) {
+					// the plugins may have changed while ranking
+					if( generation == startGeneration ) {
+						likelyPlugins.put(source, new ArrayList<Integer>(ids.subList(0, Math.min(SPECULATIVE_PLUGINS, ids.size()))));
+					}
+				}
+			}
+		}));
+
+		List<Integer> plugins = likelyPlugins.get(source);
+		if( plugins != null ) {
+			for( int pluginID : plugins ) {
+				matches.add(lookup(commandCache, pluginID + "|" + utterance,
+						() -> matchingEngine.matchCommandQuietly(utterance, pluginID), true));
+			}
+		}
+		return CompletableFuture.allOf(matches.toArray(new CompletableFuture<?>[matches.size()]));
+	}
+
+	/**
+	 * Check whether an utterance is the activation phrase.
+	 *
+	 * @param utterance The utterance.
+	 * @param activationPhrase The phrase activating Ava.
+	 * @return boolean True if the similarity is above the threshold of the matching engine.
+	 */
+	public boolean isActivationPhrase(String utterance, String activationPhrase) {
+		return join(lookup(activationCache, activationPhrase + "|" + utterance,
+				() -> matchingEngine.matchStringToAvaTreshold(utterance, activationPhrase), false));
+	}
+
+	/**
+	 * Score an utterance against the names of all loaded application plugins.
+	 *
+	 * @param utterance The utterance.
+	 * @return PluginRanking The scores of all plugins.
+	 */
+	public PluginRanking matchPlugin(String utterance) {
+		return join(lookup(pluginCache, utterance, () -> rankPlugins(utterance), false));
+	}
+
+	/**
+	 * Match an utterance to the commands of a plugin.
+	 *
+	 * @param utterance The utterance.
+	 * @param pluginID The plugin whose commands are considered.
+	 * @return CommandMatch The best matching command, null if no command matched.
+	 */
+	public CommandMatch matchCommand(String utterance, int pluginID) {
+		return join(lookup(commandCache, pluginID + "|" + utterance,
+				() -> matchingEngine.matchCommand(utterance, pluginID), false));
+	}
+
+	/**
+	 * Discard all cached results. Must be called if application plugins or commands changed.
+	 */
+	public void invalidate() {
+		synchronized( activationCache ) {
+			activationCache.clear();
+		}
+		synchronized( pluginCache ) {
+			pluginCache.clear();
+		}
+		synchronized( commandCache ) {
+			commandCache.clear();
+		}
+		synchronized( likelyPlugins ) {
+			generation++;
+			likelyPlugins.clear();
+		}
+		log.debug("Speculative matching results invalidated.");
+	}
+
+	/**
+	 * Stop the matching threads.
+	 */
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Returns the cached or running match of the key. If there is none, the match is started, either on
+	 * the matching threads or on the calling thread.
+	 */
+	private <T> CompletableFuture<T> lookup(ResultCache<T> cache, String key, Supplier<T> match, boolean async) {
+		CompletableFuture<T> result;
+		synchronized( cache ) {
+			result = cache.get(key);
+			if( result != null ) {
+				if( !async ) {
+					hitCount.incrementAndGet();
+				}
+				return result;
+			}
+			result = new CompletableFuture<T>();
+			cache.put(key, result);
+		}
+
+		if( async ) {
+			CompletableFuture<T> f = result;
+			try {
+				pool.execute( () -> complete(cache, key, f, match) );
+			} catch(RuntimeException e) {
+				// the pool has been shut down, match on demand
+				synchronized( cache ) {
+					cache.remove(key, f);
+				}
+			}
+		} else {
+			missCount.incrementAndGet();
+			complete(cache, key, result, match);
+		}
+		return result;
+	}
+
+	private <T> void complete(ResultCache<T> cache, String key, CompletableFuture<T> result, Supplier<T> match) {
+		try {
+			result.complete(match.get());
+		} catch(RuntimeException e) {
+			log.catching(Level.DEBUG, e);
+			synchronized( cache ) {
+				cache.remove(key, result);
+			}
+			result.completeExceptionally(e);
+		}
+	}
+
+	private <T> T join(CompletableFuture<T> result) {
+		try {
+			return result.join();
+		} catch(CompletionException e) {
+			if( e.getCause() instanceof RuntimeException ) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private PluginRanking rankPlugins(String utterance) {
+		Map<Integer, String> plugins = appPlugins.get();
+		List<Map.Entry<Integer, Double>> scored = new ArrayList<Map.Entry<Integer, Double>>();
+		for( Map.Entry<Integer, String> p : plugins.entrySet() ) {
+			scored.add(new AbstractMap.SimpleEntry<Integer, Double>(p.getKey(),
+					matchingEngine.matchString(utterance, p.getValue())));
+		}
+		Collections.sort(scored, (a, b) -> Double.compare(b.getValue(), a.getValue()));
+
+		List<Integer> ids = new ArrayList<Integer>(scored.size());
+		List<Double> scores = new ArrayList<Double>(scored.size());
+		for( Map.Entry<Integer, Double> e : scored ) {
+			ids.add(e.getKey());
+			scores.add(e.getValue());
+		}
+		return new PluginRanking(ids, scores, plugins.size());
+	}
+}
@@ -0,0 +1,30 @@
+package org.ava.pluginengine;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Optional extension of the STTPlugin interface for STT engines that are able to
+ * deliver a requested utterance without blocking the calling thread.
+ *
+ * If the current STT engine implements this interface, Ava uses requestTextAsync()
+ * to serve utterance requests of application plugins. Otherwise the blocking
+ * requestText() method is called on a single shared request thread.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public interface AsyncSTTPlugin extends STTPlugin {
+
+	/**
+	 * Upon calling this method, the STTPlugin is supposed to start listening and
+	 * return immediately. The returned future is completed with the next recognized
+	 * utterance.
+	 *
+	 * The future may be cancelled by Ava if the requester is not interested in the
+	 * utterance anymore, i.e. because the request timed out.
+	 *
+	 * @return CompletableFuture<String> A future completed with the recognized text.
+	 */
+	public CompletableFuture<String> requestTextAsync();
+}
@@ -0,0 +1,155 @@
+package org.ava.pluginengine;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class reports plugin class loaders that are not garbage collected after their plugin has been
+ * stopped. Such a class loader keeps all classes of the plugin in the metaspace, usually because a thread,
+ * a static field or a listener registered by the plugin still references one of its objects.
+ * <p>
+ * Each closed class loader is tracked by a PhantomReference. A class loader that has not been collected
+ * within the grace period is reported once as suspected leak. The check runs periodically on the maintenance
+ * thread of the PluginManager, whenever a class loader is tracked and whenever the leaks are queried.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class ClassLoaderLeakDetector {
+
+	private final static Logger log = LogManager.getLogger(ClassLoaderLeakDetector.class);
+
+	/** Milliseconds a closed class loader may take to be garbage collected. */
+	public final static long DEFAULT_GRACE_PERIOD = 60000;
+
+	/** The singleton instance of the detector. */
+	private static ClassLoaderLeakDetector instance = new ClassLoaderLeakDetector();
+
+	/**
+	 * Inner class referencing a closed class loader without keeping it alive.
+	 */
+	private static class LoaderReference extends PhantomReference<ClassLoader> {
+
+		private String pluginName;
+		private long closedAt;
+		private boolean reported;
+
+		public LoaderReference(ClassLoader loader, ReferenceQueue<ClassLoader> queue, String pluginName) {
+			super(loader, queue);
+			this.pluginName = pluginName;
+			this.closedAt = System.currentTimeMillis();
+		}
+	}
+
+	private ReferenceQueue<ClassLoader> queue;
+
+	/** The class loaders not collected yet. The references must be reachable to be enqueued. */
+	private Set<LoaderReference> pending;
+
+	private AtomicLong trackedCount;
+
+	private AtomicLong collectedCount;
+
+	private long gracePeriod;
+
+	/**
+	 * Private constructor to ensure singleton functionality.
+	 */
+	private ClassLoaderLeakDetector() {
+		queue = new ReferenceQueue<ClassLoader>();
+		pending = ConcurrentHashMap.newKeySet();
+		trackedCount = new AtomicLong();
+		collectedCount = new AtomicLong();
+		gracePeriod = DEFAULT_GRACE_PERIOD;
+	}
+
+	/**
+	 * Returns the singleton instance of the ClassLoaderLeakDetector.
+	 *
+	 * @return ClassLoaderLeakDetector The instance of the detector.
+	 */
+	public static ClassLoaderLeakDetector getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Track a class loader that has been closed and is expected to be garbage collected.
+	 *
+	 * @param loader The closed class loader.
+	 * @param pluginName The name of the plugin the class loader belonged to.
+	 */
+	public void track(ClassLoader loader, String pluginName) {
+		pending.add(new LoaderReference(loader, queue, pluginName));
+		trackedCount.incrementAndGet();
+		findLeaks();
+	}
+
+	/**
+	 * Returns the plugins whose class loaders have not been collected within the grace period.
+	 * Each suspected leak is logged once.
+	 *
+	 * @return List<String> The plugin names, once per leaked class loader.
+	 */
+	public synchronized List<String> findLeaks() {
+		Reference<? extends ClassLoader> ref;
+		while( (ref = queue.poll()) != null ) {
+			if( pending.remove(ref) ) {
+				collectedCount.incrementAndGet();
+			}
+		}
+
+		List<String> leaks = new ArrayList<String>();
+		long now = System.currentTimeMillis();
+		for( LoaderReference r : pending ) {
+			if( now - r.closedAt >= gracePeriod ) {
+				leaks.add(r.pluginName);
+				if( !r.reported ) {
+					r.reported = true;
+					log.warn("Class loader of plugin '" + r.pluginName + "' has not been garbage collected "
+							+ (now - r.closedAt) / 1000 + " s after the plugin has been stopped.");
+				}
+			}
+		}
+		return leaks;
+	}
+
+	/**
+	 * Returns the number of class loaders tracked since startup.
+	 */
+	public long getTrackedCount() {
+		return trackedCount.get();
+	}
+
+	/**
+	 * Returns the number of tracked class loaders that have been garbage collected.
+	 */
+	public long getCollectedCount() {
+		findLeaks();
+		return collectedCount.get();
+	}
+
+	/**
+	 * Returns the number of tracked class loaders that have not been garbage collected yet.
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	public long getGracePeriod() {
+		return gracePeriod;
+	}
+
+	public void setGracePeriod(long gracePeriod) {
+		this.gracePeriod = gracePeriod;
+	}
+}
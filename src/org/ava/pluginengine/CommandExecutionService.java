@@ -0,0 +1,397 @@
+package org.ava.pluginengine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ava.jfr.CommandExecutionEvent;
+import org.ava.util.LatencyHistogram;
+import org.ava.util.TraceStage;
+import org.ava.util.UtteranceTrace;
+
+/**
+ * This class executes the commands of application plugins on a bounded pool of worker threads,
+ * so a slow or hung plugin command does not block the recognition of further utterances.
+ * <p>
+ * Features:
+ * 		-- The number of commands running at the same time is limited per plugin. Further commands
+ * 			of the plugin wait in a backlog until a running command returns.
+ * 		-- The number of waiting commands is bounded. Commands exceeding the bound are rejected.
+ * 		-- A command running longer than the configured timeout is interrupted via
+ * 			Plugin.interruptExecution() and its worker thread is interrupted. The command keeps
+ * 			its slot of the plugin until it actually returns.
+ * 		-- The queue depth, the time commands wait and the execution latency are recorded.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class CommandExecutionService {
+
+	private final static Logger log = LogManager.getLogger(CommandExecutionService.class);
+
+	public final static int DEFAULT_POOL_SIZE = 4;
+
+	public final static int DEFAULT_PLUGIN_CONCURRENCY = 1;
+
+	public final static long DEFAULT_TIMEOUT = 30000;
+
+	/** Maximum number of commands waiting for a worker thread or a slot of their plugin. */
+	public final static int DEFAULT_QUEUE_CAPACITY = 64;
+
+	/**
+	 * Inner class wrapping a submitted command.
+	 */
+	private class CommandTask {
+
+		private int pluginID;
+		private PluginLane lane;
+		private Plugin plugin;
+		private AppCommand command;
+		private String arg;
+		private long submittedAt;
+		private CompletableFuture<Void> done;
+		/** Trace of the utterance that triggered the command, null if not traced. */
+		private UtteranceTrace trace;
+		/** True once the command returned, guarded by the task. */
+		private boolean returned;
+
+		public CommandTask(int pluginID, PluginLane lane, Plugin plugin, AppCommand command, String arg) {
+			this.pluginID = pluginID;
+			this.lane = lane;
+			this.plugin = plugin;
+			this.command = command;
+			this.arg = arg;
+			this.submittedAt = System.nanoTime();
+			this.done = new CompletableFuture<Void>();
+			this.trace = UtteranceTrace.current();
+			if( this.trace != null ) {
+				this.trace.retain();
+			}
+		}
+	}
+
+	/**
+	 * Inner class holding the running and waiting commands of a single plugin.
+	 */
+	private class PluginLane {
+
+		private int running;
+		private Deque<CommandTask> backlog = new ArrayDeque<CommandTask>();
+	}
+
+	private ThreadPoolExecutor pool;
+
+	/** Thread interrupting commands that exceeded the timeout. */
+	private ScheduledExecutorService watchdog;
+
+	private Map<Integer, PluginLane> lanes;
+
+	private int pluginConcurrency;
+
+	private long timeout;
+
+	/** Number of commands waiting in the pool queue or a plugin backlog. */
+	private AtomicInteger waitingCount;
+
+	private AtomicLong executedCount;
+
+	private AtomicLong failedCount;
+
+	private AtomicLong timedOutCount;
+
+	private AtomicLong rejectedCount;
+
+	/** Time between submitting and starting a command. */
+	private LatencyHistogram queueLatency;
+
+	/** Time between starting a command and its return. */
+	private LatencyHistogram executionLatency;
+
+	/**
+	 * Create the service with the default settings.
+	 */
+	public CommandExecutionService() {
+		this(DEFAULT_POOL_SIZE, DEFAULT_PLUGIN_CONCURRENCY, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * Create the service.
+	 *
+	 * @param poolSize Number of worker threads. Values below 1 are treated as 1.
+	 * @param pluginConcurrency Maximum number of commands of one plugin running at the same time. Values below 1 are treated as 1.
+	 * @param timeout Milliseconds a command may run before it is interrupted. 0 disables the timeout.
+	 */
+	public CommandExecutionService(int poolSize, int pluginConcurrency, long timeout) {
+		int threads = Math.max(1, poolSize);
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(DEFAULT_QUEUE_CAPACITY), r -> {
+					Thread t = new Thread(r, "command-worker-" + threadNumber.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		this.watchdog = Executors.newSingleThreadScheduledExecutor( r -> {
+			Thread t = new Thread(r, "command-watchdog");
+			t.setDaemon(true);
+			return t;
+		});
+		this.lanes = new ConcurrentHashMap<Integer, PluginLane>();
+		this.pluginConcurrency = Math.max(1, pluginConcurrency);
+		this.timeout = Math.max(0, timeout);
+		this.waitingCount = new AtomicInteger();
+		this.executedCount = new AtomicLong();
+		this.failedCount = new AtomicLong();
+		this.timedOutCount = new AtomicLong();
+		this.rejectedCount = new AtomicLong();
+		this.queueLatency = new LatencyHistogram();
+		this.executionLatency = new LatencyHistogram();
+		log.debug("CommandExecutionService created [threads = " + threads + ", per plugin = "
+				+ this.pluginConcurrency + ", timeout = " + this.timeout + " ms].");
+	}
+
+	/**
+	 * Execute a command of an application plugin asynchronously.
+	 *
+	 * @param pluginID The ID of the plugin, used to limit the concurrent commands of the plugin.
+	 * @param plugin The plugin the command belongs to. Interrupted if the command times out.
+	 * @param command The command to execute.
+	 * @param arg The variable part of the command.
+	 * @return CompletableFuture<Void> Completed when the command returns. Completed exceptionally with a
+	 * 			TimeoutException if the command timed out, a RejectedExecutionException if too many commands
+	 * 			are waiting, or the exception thrown by the command.
+	 */
+	public CompletableFuture<Void> submit(int pluginID, Plugin plugin, AppCommand command, String arg) {
+		PluginLane lane = lanes.computeIfAbsent(pluginID, id -> new PluginLane());
+		CommandTask task = new CommandTask(pluginID, lane, plugin, command, arg);
+
+		if( waitingCount.incrementAndGet() > DEFAULT_QUEUE_CAPACITY ) {
+			waitingCount.decrementAndGet();
+			rejectedCount.incrementAndGet();
+			log.error("Too many commands waiting. Command rejected. [command = '" + command.getCommand() + "']");
+			task.done.completeExceptionally(new RejectedExecutionException("Too many commands waiting."));
+			releaseTrace(task);
+			return task.done;
+		}
+
+		boolean start;
+		synchronized( lane ) {
+			start = lane.running < pluginConcurrency;
+			if( start ) {
+				lane.running++;
+			} else {
+				lane.backlog.addLast(task);
+				log.debug("Plugin busy, command waits. [command = '" + command.getCommand()
+						+ "', waiting = " + lane.backlog.size() + "]");
+			}
+		}
+		if( start ) {
+			dispatch(task);
+		}
+		return task.done;
+	}
+
+	private void dispatch(CommandTask task) {
+		try {
+			pool.execute( () -> run(task) );
+		} catch(RejectedExecutionException e) {
+			waitingCount.decrementAndGet();
+			rejectedCount.incrementAndGet();
+			log.error("No worker available. Command rejected. [command = '" + task.command.getCommand() + "']");
+			task.done.completeExceptionally(e);
+			releaseTrace(task);
+			finished(task.lane);
+		}
+	}
+
+	private void run(CommandTask task) {
+		waitingCount.decrementAndGet();
+		long start = System.nanoTime();
+		queueLatency.record(start - task.submittedAt);
+		if( task.trace != null ) {
+			task.trace.record(TraceStage.COMMAND_WAIT, task.submittedAt, start);
+			UtteranceTrace.setCurrent(task.trace);
+		}
+
+		// created before the watchdog is armed, the first event initializes JFR which must not count against the timeout
+		CommandExecutionEvent jfrEvent = new CommandExecutionEvent();
+
+		Thread worker = Thread.currentThread();
+		Future<?> timer = null;
+		if( timeout > 0 ) {
+			timer = watchdog.schedule( () -> interrupt(task, worker), timeout, TimeUnit.MILLISECONDS);
+		}
+
+		jfrEvent.begin();
+		try {
+			log.debug("Execute command. [command = '" + task.command.getCommand() + "', arg = '" + task.arg + "']");
+			task.command.execute(task.arg);
+			task.done.complete(null);
+		} catch(Throwable e) {
+			// also an Error, i.e. a NoClassDefFoundError of the plugin class loader, callers wait for the future
+			jfrEvent.failed = true;
+			failedCount.incrementAndGet();
+			log.error("Command failed. [command = '" + task.command.getCommand() + "']");
+			log.catching(Level.DEBUG, e);
+			task.done.completeExceptionally(e);
+		} finally {
+			if( timer != null ) {
+				timer.cancel(false);
+			}
+			synchronized( task ) {
+				task.returned = true;
+				// clear an interrupt of the watchdog, the worker is reused
+				Thread.interrupted();
+			}
+			long end = System.nanoTime();
+			jfrEvent.end();
+			if( jfrEvent.shouldCommit() ) {
+				jfrEvent.traceID = task.trace == null ? 0 : task.trace.getTraceID();
+				jfrEvent.pluginID = task.pluginID;
+				jfrEvent.command = task.command.getCommand();
+				jfrEvent.argument = task.arg;
+				jfrEvent.commit();
+			}
+			executionLatency.record(end - start);
+			executedCount.incrementAndGet();
+			if( task.trace != null ) {
+				task.trace.record(TraceStage.EXECUTE, start, end);
+				UtteranceTrace.setCurrent(null);
+				releaseTrace(task);
+			}
+			finished(task.lane);
+		}
+	}
+
+	private void interrupt(CommandTask task, Thread worker) {
+		// the next command of the plugin is not started before the task returned, so holding the task
+		// keeps the interrupt of the plugin from hitting that command
+		synchronized( task ) {
+			if( task.returned || task.done.isDone() ) {
+				return;
+			}
+			timedOutCount.incrementAndGet();
+			log.error("Command timed out after " + timeout + " ms. Interrupt plugin. [command = '"
+					+ task.command.getCommand() + "']");
+			task.done.completeExceptionally(new TimeoutException("Command timed out after " + timeout + " ms."));
+			try {
+				task.plugin.interruptExecution();
+			} catch(Exception e) {
+				log.catching(Level.DEBUG, e);
+			}
+			worker.interrupt();
+		}
+	}
+
+	private void releaseTrace(CommandTask task) {
+		if( task.trace != null ) {
+			task.trace.release();
+		}
+	}
+
+	/**
+	 * A command of the lane returned: start the next waiting command of the plugin or free the slot.
+	 */
+	private void finished(PluginLane lane) {
+		CommandTask next;
+		synchronized( lane ) {
+			next = lane.backlog.pollFirst();
+			if( next == null ) {
+				lane.running--;
+			}
+		}
+		if( next != null ) {
+			dispatch(next);
+		}
+	}
+
+	/**
+	 * Stop all worker threads. Running commands are interrupted, waiting commands are discarded.
+	 */
+	public void shutdown() {
+		pool.shutdownNow();
+		watchdog.shutdownNow();
+	}
+
+	/**
+	 * Returns the number of commands waiting for a worker thread or a slot of their plugin.
+	 *
+	 * @return int The queue depth.
+	 */
+	public int getQueueDepth() {
+		return waitingCount.get();
+	}
+
+	/**
+	 * Check whether the service is idle, i.e. no command is waiting or running.
+	 *
+	 * @return boolean True if all submitted commands have returned.
+	 */
+	public boolean isIdle() {
+		return waitingCount.get() == 0 && pool.getActiveCount() == 0;
+	}
+
+	public int getActiveCount() {
+		return pool.getActiveCount();
+	}
+
+	public long getExecutedCount() {
+		return executedCount.get();
+	}
+
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	public long getTimedOutCount() {
+		return timedOutCount.get();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	public LatencyHistogram getQueueLatency() {
+		return queueLatency;
+	}
+
+	public LatencyHistogram getExecutionLatency() {
+		return executionLatency;
+	}
+
+	/**
+	 * Returns a short report of the queue depth, the counters and the latencies.
+	 *
+	 * @return String The report.
+	 */
+	public String formatReport() {
+		return "Commands: active " + getActiveCount() + ", waiting " + getQueueDepth()
+				+ ", executed " + getExecutedCount() + ", failed " + getFailedCount()
+				+ ", timed out " + getTimedOutCount() + ", rejected " + getRejectedCount() + "\n"
+				+ "  wait      p50 " + formatMillis(queueLatency.getPercentile(50))
+				+ "  p99 " + formatMillis(queueLatency.getPercentile(99))
+				+ "  max " + formatMillis(queueLatency.getMax()) + "\n"
+				+ "  execution p50 " + formatMillis(executionLatency.getPercentile(50))
+				+ "  p99 " + formatMillis(executionLatency.getPercentile(99))
+				+ "  max " + formatMillis(executionLatency.getMax());
+	}
+
+	private static String formatMillis(long nanos) {
+		return String.format("%.3f ms", nanos / 1e6);
+	}
+}
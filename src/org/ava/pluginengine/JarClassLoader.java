@@ -28,6 +28,7 @@ import java.applet.AppletStub;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -44,7 +45,9 @@ import java.lang.reflect.Modifier;
 import java.net.JarURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.net.URLDecoder;
+import java.net.URLStreamHandler;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 import java.security.cert.Certificate;
@@ -53,13 +56,16 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Attributes;
 import java.util.jar.Attributes.Name;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 
 import javax.swing.JApplet;
@@ -173,6 +179,8 @@ public class MyAppletLauncher extends JApplet {
  * <li><code>-DJarClassLoader.logger.area=CLASS,RESOURCE</code> for logging area.
  * The default area is ALL. See also {@link LogArea}. Multiple logging areas
  * could be specified with ',' delimiter.</li>
+ * <li><code>-DJarClassLoader.inMemory=true</code> to load JARs inside the top JAR
+ * into memory instead of extracting them into temporary files. See also {@link #KEY_IN_MEMORY}.</li>
  * </ul>
  *
  * <p>
@@ -193,6 +201,11 @@ public class MyAppletLauncher extends JApplet {
  */
 public class JarClassLoader extends ClassLoader {
 
+    static {
+        // Classes are loaded concurrently, locked per class name. See loadClass().
+        registerAsParallelCapable();
+    }
+
     /** VM parameter key to turn on logging to file or console. */
     public static final String KEY_LOGGER = "JarClassLoader.logger";
 
@@ -211,6 +224,16 @@ public class JarClassLoader extends ClassLoader {
      */
     public static final String KEY_LOGGER_AREA = "JarClassLoader.logger.area";
 
+    /**
+     * VM parameter key to load inner JARs into memory.
+     * <p>
+     * The entries of each inner JAR are read once into memory when the JAR is
+     * loaded. No temporary files are created, except for native libraries.
+     * The heap holds the uncompressed content of all inner JARs.
+     * Default value is <code>false</code>.
+     */
+    public static final String KEY_IN_MEMORY = "JarClassLoader.inMemory";
+
     public enum LogLevel { ERROR, WARN, INFO, DEBUG }
     public enum LogArea {
         /** Enable all logging areas. */
@@ -245,6 +268,8 @@ public class JarClassLoader extends ClassLoader {
     private List<JarFileInfo> lstJarFile;
     private Set<File> hsDeleteOnExit;
     private Map<String, Class<?>> hmClass;
+    private Map<String, JarEntryInfo> hmEntry; // the first entry of each name in lstJarFile
+    private boolean bInMemory;
     private LogLevel logLevel;
     private Set<LogArea> hsLogArea;
     private boolean bLogConsole;
@@ -267,9 +292,11 @@ public class JarClassLoader extends ClassLoader {
         super(parent);
         initLogger();
 
-        hmClass = new HashMap<String, Class<?>>();
+        hmClass = new ConcurrentHashMap<String, Class<?>>();
+        hmEntry = new HashMap<String, JarEntryInfo>();
         lstJarFile = new ArrayList<JarFileInfo>();
-        hsDeleteOnExit = new HashSet<File>();
+        hsDeleteOnExit = Collections.synchronizedSet(new HashSet<File>());
+        bInMemory = Boolean.getBoolean(KEY_IN_MEMORY);
 
         // Prepare common for all protocols 
         String sUrlTopJar = null;
@@ -334,6 +361,7 @@ public class JarClassLoader extends ClassLoader {
                     "Unknown protocol %s", protocol));
             }
             loadJar(jarFileInfo); // start recursive JAR loading
+            indexJarEntries();
         } catch (IOException e) {
             logError(LogArea.JAR, "Not valid URL: %s %s", urlTopJar, e.toString());
             return;
@@ -416,7 +444,7 @@ public class JarClassLoader extends ClassLoader {
      * @return temporary file object presenting JAR entry.
      * @throws JarClassLoaderException
      */
-    private File createTempFile(JarEntryInfo inf)
+    private synchronized File createTempFile(JarEntryInfo inf)
     throws JarClassLoaderException {
         // Temp files directory:
         //   WinXP: C:/Documents and Settings/username/Local Settings/Temp/JarClassLoader
@@ -446,7 +474,7 @@ public class JarClassLoader extends ClassLoader {
             return fileTmp;
         } catch (IOException e) {
             throw new JarClassLoaderException(String.format(
-                    "Cannot create temp file '%s' for %s", fileTmp, inf.jarEntry), e);
+                    "Cannot create temp file '%s' for %s", fileTmp, inf.name), e);
         }
     } // createTempFile()
 
@@ -459,21 +487,26 @@ public class JarClassLoader extends ClassLoader {
     private void loadJar(JarFileInfo jarFileInfo) throws IOException {
         lstJarFile.add(jarFileInfo);
         try {
-            Enumeration<JarEntry> en = jarFileInfo.jarFile.entries();
             final String EXT_JAR = ".jar";
-            while (en.hasMoreElements()) {
-                JarEntry je = en.nextElement();
-                if (je.isDirectory()) {
-                    continue;
+            for (String sEntry : jarFileInfo.getEntryNames()) {
+                if (sEntry.endsWith("/")) {
+                    continue; // directory
                 }
-                String s = je.getName().toLowerCase(); // JarEntry name
+                String s = sEntry.toLowerCase(); // JarEntry name
                 if (s.lastIndexOf(EXT_JAR) == s.length() - EXT_JAR.length()) {
-                    JarEntryInfo inf = new JarEntryInfo(jarFileInfo, je);
-                    File fileTemp = createTempFile(inf);
-                    logInfo(LogArea.JAR, "Loading inner JAR %s from temp file %s",
-                            inf.jarEntry, getFilename4Log(fileTemp));
+                    JarEntryInfo inf = new JarEntryInfo(jarFileInfo, sEntry);
+                    File fileTemp = null;
+                    URL url;
+                    if (bInMemory) {
+                        logInfo(LogArea.JAR, "Loading inner JAR %s into memory", inf);
+                        url = inf.getURL();
+                    } else {
+                        fileTemp = createTempFile(inf);
+                        logInfo(LogArea.JAR, "Loading inner JAR %s from temp file %s",
+                                inf, getFilename4Log(fileTemp));
+                        url = fileTemp.toURI().toURL();
+                    }
                     // Construct ProtectionDomain for this inner JAR:
-                    URL url = fileTemp.toURI().toURL();
                     ProtectionDomain pdParent = jarFileInfo.pd;
                     // 'csParent' is never null: top JAR has it, JCL creates it for child JAR:
                     CodeSource csParent = pdParent.getCodeSource();  
@@ -482,8 +515,12 @@ public class JarClassLoader extends ClassLoader {
                                                              : new CodeSource(url, certParent));
                     ProtectionDomain pdChild = new ProtectionDomain(csChild, 
                             pdParent.getPermissions(), pdParent.getClassLoader(), pdParent.getPrincipals());
-                    loadJar(new JarFileInfo(
-                            new JarFile(fileTemp), inf.getName(), jarFileInfo, pdChild, fileTemp));
+                    if (bInMemory) {
+                        loadJar(readJar(inf, jarFileInfo, pdChild));
+                    } else {
+                        loadJar(new JarFileInfo(
+                                new JarFile(fileTemp), inf.getName(), jarFileInfo, pdChild, fileTemp));
+                    }
                 }
             }
         } catch (JarClassLoaderException e) {
@@ -491,25 +528,62 @@ public class JarClassLoader extends ClassLoader {
                     "ERROR on loading inner JAR: " + e.getMessageAll());
         }
     } // loadJar()
-    
-    private JarEntryInfo findJarEntry(String sName) {
+
+    /**
+     * Reads all entries of an inner JAR into memory.
+     *
+     * @param inf JAR entry information of the inner JAR.
+     * @param jarFileParent JAR containing the inner JAR.
+     * @param pd ProtectionDomain of the inner JAR.
+     * @return JAR information with the content of the inner JAR.
+     * @throws JarClassLoaderException
+     */
+    private JarFileInfo readJar(JarEntryInfo inf, JarFileInfo jarFileParent, ProtectionDomain pd)
+    throws JarClassLoaderException {
+        Map<String, byte[]> hmContent = new LinkedHashMap<String, byte[]>();
+        Manifest mf;
+        try {
+            JarInputStream jis = new JarInputStream(new ByteArrayInputStream(inf.getJarBytes()));
+            try {
+                mf = jis.getManifest();
+                JarEntry je;
+                while ((je = jis.getNextJarEntry()) != null) {
+                    hmContent.put(je.getName(), je.isDirectory() ? new byte[0] : jis.readAllBytes());
+                }
+            } finally {
+                jis.close();
+            }
+        } catch (IOException e) {
+            throw new JarClassLoaderException(String.format(
+                    "Cannot read inner JAR %s", inf), e);
+        }
+        return new JarFileInfo(hmContent, mf, inf.getName(), jarFileParent, pd);
+    } // readJar()
+
+    /**
+     * Builds the index of all JAR entries. An entry shades entries with the
+     * same name in JARs loaded later, as with a sequential search of the JARs.
+     */
+    private void indexJarEntries() {
         for (JarFileInfo jarFileInfo : lstJarFile) {
-            JarFile jarFile = jarFileInfo.jarFile;
-            JarEntry jarEntry = jarFile.getJarEntry(sName);
-            if (jarEntry != null) {
-                return new JarEntryInfo(jarFileInfo, jarEntry);
+            for (String sEntry : jarFileInfo.getEntryNames()) {
+                if (!hmEntry.containsKey(sEntry)) {
+                    hmEntry.put(sEntry, new JarEntryInfo(jarFileInfo, sEntry));
+                }
             }
         }
-        return null;
+        logInfo(LogArea.JAR, "Indexed %d entries in %d JARs", hmEntry.size(), lstJarFile.size());
+    } // indexJarEntries()
+
+    private JarEntryInfo findJarEntry(String sName) {
+        return hmEntry.get(sName);
     } // findJarEntry()
 
     private List<JarEntryInfo> findJarEntries(String sName) {
         List<JarEntryInfo> lst = new ArrayList<JarEntryInfo>();
         for (JarFileInfo jarFileInfo : lstJarFile) {
-            JarFile jarFile = jarFileInfo.jarFile;
-            JarEntry jarEntry = jarFile.getJarEntry(sName);
-            if (jarEntry != null) {
-                lst.add(new JarEntryInfo(jarFileInfo, jarEntry));
+            if (jarFileInfo.hasEntry(sName)) {
+                lst.add(new JarEntryInfo(jarFileInfo, sName));
             }
         }
         return lst;
@@ -528,15 +602,12 @@ public class JarClassLoader extends ClassLoader {
     private JarEntryInfo findJarNativeEntry(String sLib) {
         String sName = System.mapLibraryName(sLib);
         for (JarFileInfo jarFileInfo : lstJarFile) {
-            JarFile jarFile = jarFileInfo.jarFile;
-            Enumeration<JarEntry> en = jarFile.entries();
-            while (en.hasMoreElements()) {
-                JarEntry je = en.nextElement();
-                if (je.isDirectory()) {
-                    continue;
+            for (String sEntry : jarFileInfo.getEntryNames()) {
+                if (sEntry.endsWith("/")) {
+                    continue; // directory
                 }
                 // Example: sName is "Native.dll"
-                String sEntry = je.getName(); // "Native.dll" or "abc/xyz/Native.dll"
+                // sEntry is "Native.dll" or "abc/xyz/Native.dll"
                 // sName "Native.dll" could be found, for example
                 //   - in the path: abc/Native.dll/xyz/my.dll <-- do not load this one!
                 //   - in the partial name: abc/aNative.dll   <-- do not load this one!
@@ -544,7 +615,7 @@ public class JarClassLoader extends ClassLoader {
                 if (token.length > 0 && token[token.length - 1].equals(sName)) {
                     logInfo(LogArea.NATIVE, "Loading native library '%s' found as '%s' in JAR %s",
                             sLib, sEntry, jarFileInfo.simpleName);
-                    return new JarEntryInfo(jarFileInfo, je);
+                    return new JarEntryInfo(jarFileInfo, sEntry);
                 }
             }
         }
@@ -593,14 +664,10 @@ public class JarClassLoader extends ClassLoader {
         }
         Map<String, JarFileInfo> hm = new HashMap<String, JarFileInfo>();
         for (JarFileInfo jarFileInfo : lstJarFile) {
-            JarFile jarFile = jarFileInfo.jarFile;
-            Enumeration<JarEntry> en = jarFile.entries();
-            while (en.hasMoreElements()) {
-                JarEntry je = en.nextElement();
-                if (je.isDirectory()) {
-                    continue;
+            for (String sEntry : jarFileInfo.getEntryNames()) { // "Some.txt" or "abc/xyz/Some.txt"
+                if (sEntry.endsWith("/")) {
+                    continue; // directory
                 }
-                String sEntry = je.getName(); // "Some.txt" or "abc/xyz/Some.txt"
                 if ("META-INF/MANIFEST.MF".equals(sEntry)) {
                     continue;
                 }
@@ -634,7 +701,9 @@ public class JarClassLoader extends ClassLoader {
     private void shutdown() {
         for (JarFileInfo jarFileInfo : lstJarFile) {
             try {
-                jarFileInfo.jarFile.close();
+                if (jarFileInfo.jarFile != null) {
+                    jarFileInfo.jarFile.close();
+                }
             } catch (IOException e) {
                 // Ignore. In the worst case temp files will accumulate.
             }
@@ -890,7 +959,17 @@ public class JarClassLoader extends ClassLoader {
      * able to load a class from a JAR without calling findClass().
      */
     @Override
-    protected synchronized Class<?> loadClass(String sClassName, boolean bResolve)
+    protected Class<?> loadClass(String sClassName, boolean bResolve)
+    throws ClassNotFoundException
+    {
+        // The loader is parallel capable: classes with different names are
+        // loaded concurrently, a class is defined once.
+        synchronized (getClassLoadingLock(sClassName)) {
+            return loadClassLocked(sClassName, bResolve);
+        }
+    } // loadClass()
+
+    private Class<?> loadClassLocked(String sClassName, boolean bResolve)
     throws ClassNotFoundException
     {
         logDebug(LogArea.CLASS, "LOADING %s (resolve=%b)", sClassName, bResolve);
@@ -926,7 +1005,10 @@ public class JarClassLoader extends ClassLoader {
         // Essential reading:
         //   - Thread.getContextClassLoader() JavaDoc.
         //   - http://www.javaworld.com/javaworld/javaqa/2003-06/01-qa-0606-load.html
-        Thread.currentThread().setContextClassLoader(this);
+        Thread thread = Thread.currentThread();
+        if (thread.getContextClassLoader() != this) {
+            thread.setContextClassLoader(this);
+        }
         
         Class<?> c = null;
         try {
@@ -973,7 +1055,7 @@ public class JarClassLoader extends ClassLoader {
                 resolveClass(c);
             }
         }
-    } // loadClass()
+    } // loadClassLocked()
 
     /**
      * @see java.lang.ClassLoader#findResource(java.lang.String)
@@ -1034,7 +1116,7 @@ public class JarClassLoader extends ClassLoader {
                 try {
                     File file = createTempFile(inf);
                     logDebug(LogArea.NATIVE, "Loading native library %s from temp file %s",
-                            inf.jarEntry, getFilename4Log(file));
+                            inf.name, getFilename4Log(file));
                     hsDeleteOnExit.add(file);
                     return file.getAbsolutePath();
                 } catch (JarClassLoaderException e) {
@@ -1068,11 +1150,18 @@ public class JarClassLoader extends ClassLoader {
         String sPackageName = pos > 0 ? sClassName.substring(0, pos) : "";
         if (getPackage(sPackageName) == null) {
             JarFileInfo jfi = inf.jarFileInfo;
-            definePackage(sPackageName,
-                jfi.getSpecificationTitle(), jfi.getSpecificationVersion(),
-                jfi.getSpecificationVendor(), jfi.getImplementationTitle(),
-                jfi.getImplementationVersion(), jfi.getImplementationVendor(),
-                jfi.getSealURL());
+            try {
+                definePackage(sPackageName,
+                    jfi.getSpecificationTitle(), jfi.getSpecificationVersion(),
+                    jfi.getSpecificationVendor(), jfi.getImplementationTitle(),
+                    jfi.getImplementationVersion(), jfi.getImplementationVendor(),
+                    jfi.getSealURL());
+            } catch (IllegalArgumentException e) {
+                // Defined concurrently by another class of the package.
+                if (getDefinedPackage(sPackageName) == null) {
+                    throw e;
+                }
+            }
         }
     }
 
@@ -1144,7 +1233,9 @@ public class JarClassLoader extends ClassLoader {
      * Inner class with JAR file information.
      */
     private static class JarFileInfo {
-        JarFile jarFile;   // this is the essence of JarFileInfo wrapper
+        JarFile jarFile;   // this is the essence of JarFileInfo wrapper, null for JAR in memory
+        Map<String, byte[]> hmContent; // entries of JAR in memory, null for JarFile
+        URLStreamHandler urlHandler; // URLs of entries of JAR in memory
         String simpleName; // accumulated for logging like: "topJar!childJar!kidJar"
         File fileDeleteOnExit;
         Manifest mf; // required for package creation
@@ -1178,6 +1269,63 @@ public class JarClassLoader extends ClassLoader {
                 this.mf = new Manifest();
             }
         }
+
+        /**
+         * @param hmContent
+         *            Entries of the JAR in memory by name. Never null.
+         * @param mf
+         *            Manifest of the JAR. Could be null if META-INF directory is missing.
+         */
+        JarFileInfo(Map<String, byte[]> hmContent, Manifest mf, String simpleName,
+                    JarFileInfo jarFileParent, ProtectionDomain pd)
+        {
+            this.simpleName = (jarFileParent == null ? "" : jarFileParent.simpleName + "!") + simpleName;
+            this.hmContent = hmContent;
+            this.pd = pd;
+            this.mf = (mf == null ? new Manifest() : mf);
+            this.urlHandler = new URLStreamHandler() {
+                @Override
+                protected URLConnection openConnection(URL url) throws IOException {
+                    // URL in form "jcl:topJar!childJar!/abc/xyz/Some.txt"
+                    String sUrl = url.toString();
+                    final byte[] a_by = JarFileInfo.this.hmContent.get(sUrl.substring(sUrl.indexOf("!/") + 2));
+                    if (a_by == null) {
+                        throw new FileNotFoundException(sUrl);
+                    }
+                    return new URLConnection(url) {
+                        @Override
+                        public void connect() {
+                        }
+                        @Override
+                        public InputStream getInputStream() {
+                            return new ByteArrayInputStream(a_by);
+                        }
+                        @Override
+                        public int getContentLength() {
+                            return a_by.length;
+                        }
+                    };
+                }
+            };
+        }
+
+        /**
+         * @return Names of all entries including directories, in JAR order.
+         */
+        List<String> getEntryNames() {
+            if (hmContent != null) {
+                return new ArrayList<String>(hmContent.keySet());
+            }
+            List<String> lst = new ArrayList<String>();
+            Enumeration<JarEntry> en = jarFile.entries();
+            while (en.hasMoreElements()) {
+                lst.add(en.nextElement().getName());
+            }
+            return lst;
+        }
+        boolean hasEntry(String sEntry) {
+            return (hmContent != null ? hmContent.containsKey(sEntry) : jarFile.getJarEntry(sEntry) != null);
+        }
         String getSpecificationTitle() {
             return mf.getMainAttributes().getValue(Name.SPECIFICATION_TITLE);
         }
@@ -1210,28 +1358,31 @@ public class JarClassLoader extends ClassLoader {
     } // inner class JarFileInfo
 
     /**
-     * Inner class with JAR entry information. Keeps JAR file and entry object.
+     * Inner class with JAR entry information. Keeps JAR file and entry name.
      */
     private static class JarEntryInfo {
         JarFileInfo jarFileInfo;
-        JarEntry jarEntry;
-        JarEntryInfo(JarFileInfo jarFileInfo, JarEntry jarEntry) {
+        String name;
+        JarEntryInfo(JarFileInfo jarFileInfo, String name) {
             this.jarFileInfo = jarFileInfo;
-            this.jarEntry = jarEntry;
+            this.name = name;
         }
         URL getURL() { // used in findResource() and findResources()
             try {
-                return new URL("jar:file:" + jarFileInfo.jarFile.getName() + "!/" + jarEntry);
+                if (jarFileInfo.jarFile == null) {
+                    return new URL(null, "jcl:" + jarFileInfo.simpleName + "!/" + name, jarFileInfo.urlHandler);
+                }
+                return new URL("jar:file:" + jarFileInfo.jarFile.getName() + "!/" + name);
             } catch (MalformedURLException e) {
                 return null;
             }
         }
         String getName() { // used in createTempFile() and loadJar()
-            return jarEntry.getName().replace('/', '_');
+            return name.replace('/', '_');
         }
         @Override
         public String toString() {
-            return "JAR: " + jarFileInfo.jarFile.getName() + " ENTRY: " + jarEntry;
+            return "JAR: " + jarFileInfo.simpleName + " ENTRY: " + name;
         }
         /**
          * Read JAR entry and returns byte array of this JAR entry. This is
@@ -1242,13 +1393,22 @@ public class JarClassLoader extends ClassLoader {
          * @throws JarClassLoaderException
          */
         byte[] getJarBytes() throws JarClassLoaderException {
+            if (jarFileInfo.hmContent != null) {
+                byte[] a_by = jarFileInfo.hmContent.get(name);
+                if (a_by == null  ||  a_by.length == 0) {
+                    throw new JarClassLoaderException(
+                            "Invalid size 0 for entry " + name);
+                }
+                return a_by;
+            }
             DataInputStream dis = null;
             byte[] a_by = null;
             try {
-                long lSize = jarEntry.getSize();
+                JarEntry jarEntry = jarFileInfo.jarFile.getJarEntry(name);
+                long lSize = (jarEntry == null ? 0 : jarEntry.getSize());
                 if (lSize <= 0  ||  lSize >= Integer.MAX_VALUE) {
                     throw new JarClassLoaderException(
-                            "Invalid size " + lSize + " for entry " + jarEntry);
+                            "Invalid size " + lSize + " for entry " + name);
                 }
                 a_by = new byte[(int)lSize];
                 InputStream is = jarFileInfo.jarFile.getInputStream(jarEntry);
@@ -0,0 +1,217 @@
+package org.ava.pluginengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class stands in for an application plugin that has not been instantiated yet. Its commands are
+ * known from the declared commands or the command snapshot of the plugin. The plugin is instantiated and
+ * started when one of its commands is executed the first time, or ahead of that by preload() when its name
+ * has been matched. An idle plugin can be unloaded again, it is reloaded with the next command.
+ * <p>
+ * Changes of the commands of the plugin take effect with the next session.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+class LazyAppPlugin implements AppPlugin {
+
+	private final static Logger log = LogManager.getLogger(LazyAppPlugin.class);
+
+	/**
+	 * Inner class standing in for a command of the plugin.
+	 */
+	private class LazyCommand implements AppCommand {
+
+		private String command;
+
+		public LazyCommand(String command) {
+			this.command = command;
+		}
+
+		@Override
+		public void execute(String arg) {
+			LazyAppPlugin.this.execute(command, arg);
+		}
+
+		@Override
+		public String getCommand() {
+			return command;
+		}
+	}
+
+	private PluginManager pluginManager;
+
+	private PluginWrapper pluginWrapper;
+
+	private List<AppCommand> commands;
+
+	/**
+	 * The started plugin, null if it is not loaded. Written while holding this, read without locking so
+	 * interruptExecution() does not wait for a slow load() or command.
+	 */
+	private volatile AppPlugin plugin;
+
+	/** The commands of the started plugin by command. Guarded by this. */
+	private Map<String, AppCommand> pluginCommands;
+
+	/** Number of commands being executed. Guarded by this. */
+	private int executing;
+
+	/** System.currentTimeMillis() the plugin has been used last. Guarded by this. */
+	private long lastUsed;
+
+	private int loadCount;
+
+	LazyAppPlugin(PluginManager pluginManager, PluginWrapper pluginWrapper, List<String> commands) {
+		this.pluginManager = pluginManager;
+		this.pluginWrapper = pluginWrapper;
+		this.commands = new ArrayList<AppCommand>();
+		for( String command : commands ) {
+			this.commands.add(new LazyCommand(command));
+		}
+	}
+
+	/**
+	 * Nothing to do, the plugin is started on demand.
+	 */
+	@Override
+	public void start() {
+	}
+
+	/**
+	 * Stop the plugin if it is loaded.
+	 */
+	@Override
+	public synchronized void stop() {
+		if( plugin != null ) {
+			unload();
+		}
+	}
+
+	@Override
+	public void continueExecution() {
+		AppPlugin p = getLoadedPlugin();
+		if( p != null ) {
+			p.continueExecution();
+		}
+	}
+
+	@Override
+	public void interruptExecution() {
+		AppPlugin p = getLoadedPlugin();
+		if( p != null ) {
+			p.interruptExecution();
+		}
+	}
+
+	@Override
+	public List<AppCommand> getApplicationCommands() {
+		return commands;
+	}
+
+	PluginWrapper getPluginWrapper() {
+		return pluginWrapper;
+	}
+
+	public boolean isLoaded() {
+		return plugin != null;
+	}
+
+	public AppPlugin getLoadedPlugin() {
+		return plugin;
+	}
+
+	/**
+	 * Returns how often the plugin has been loaded.
+	 */
+	public synchronized int getLoadCount() {
+		return loadCount;
+	}
+
+	/**
+	 * Load the plugin if it is not loaded.
+	 *
+	 * @return boolean True if the plugin is loaded, false if loading failed.
+	 */
+	public synchronized boolean load() {
+		lastUsed = System.currentTimeMillis();
+		if( plugin != null ) {
+			return true;
+		}
+		String name = pluginWrapper.getProperties().getName();
+		log.debug("Load lazy plugin '" + name + "'.");
+		long start = System.nanoTime();
+		Plugin p = pluginManager.instantiateAndStart(pluginWrapper);
+		if( !(p instanceof AppPlugin) ) {
+			log.error("Failed to load lazy plugin '" + name + "', it is no application plugin.");
+			if( p != null ) {
+				pluginManager.stopInstance(pluginWrapper);
+			}
+			return false;
+		}
+		AppPlugin loaded = (AppPlugin) p;
+		pluginCommands = new HashMap<String, AppCommand>();
+		List<AppCommand> loadedCommands = loaded.getApplicationCommands();
+		if( loadedCommands != null ) {
+			for( AppCommand command : loadedCommands ) {
+				pluginCommands.put(command.getCommand(), command);
+			}
+		}
+		plugin = loaded;
+		loadCount++;
+		log.info("Lazy plugin '" + name + "' loaded in " + (System.nanoTime() - start) / 1000000 + " ms.");
+		return true;
+	}
+
+	/**
+	 * Unload the plugin if it is loaded and has not been used for the given time.
+	 *
+	 * @param idleMillis Milliseconds the plugin has to be idle.
+	 * @return boolean True if the plugin has been unloaded.
+	 */
+	public synchronized boolean unloadIfIdle(long idleMillis) {
+		if( plugin == null || executing > 0 || System.currentTimeMillis() - lastUsed < idleMillis ) {
+			return false;
+		}
+		log.debug("Lazy plugin '" + pluginWrapper.getProperties().getName() + "' idle for " + idleMillis + " ms.");
+		unload();
+		return true;
+	}
+
+	private void unload() {
+		plugin = null;
+		pluginManager.stopInstance(pluginWrapper);
+		pluginCommands = null;
+		log.info("Lazy plugin '" + pluginWrapper.getProperties().getName() + "' unloaded.");
+	}
+
+	private void execute(String command, String arg) {
+		AppCommand target;
+		synchronized( this ) {
+			if( !load() ) {
+				throw new IllegalStateException("Plugin '" + pluginWrapper.getProperties().getName() + "' could not be loaded.");
+			}
+			target = pluginCommands.get(command);
+			if( target == null ) {
+				throw new IllegalStateException("Plugin '" + pluginWrapper.getProperties().getName()
+						+ "' does not provide the command '" + command + "' anymore.");
+			}
+			executing++;
+		}
+		try {
+			target.execute(arg);
+		} finally {
+			synchronized( this ) {
+				executing--;
+				lastUsed = System.currentTimeMillis();
+			}
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package org.ava.pluginengine;
+
+/**
+ * Listener notified by the PluginManager when running plugins change while their plugin directory
+ * is reloaded.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ *
+ * @see org.ava.pluginengine.PluginManager#reloadPlugins(PluginChangeListener)
+ */
+public interface PluginChangeListener {
+
+	/**
+	 * A running plugin has been replaced by a new version with the same plugin ID. Called after the new
+	 * version has been started and before the old version is stopped.
+	 *
+	 * @param pluginID The ID of the plugin.
+	 * @param oldInstance The instance of the old version.
+	 * @param newInstance The instance of the new version.
+	 */
+	public void pluginReplaced(int pluginID, Plugin oldInstance, Plugin newInstance);
+
+	/**
+	 * A running plugin has been removed from the plugin directory and stopped.
+	 *
+	 * @param pluginID The ID of the plugin.
+	 * @param oldInstance The instance of the removed plugin.
+	 */
+	public void pluginRemoved(int pluginID, Plugin oldInstance);
+}
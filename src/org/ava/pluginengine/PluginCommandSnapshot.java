@@ -0,0 +1,120 @@
+package org.ava.pluginengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class keeps the commands of all application plugins that have been instantiated in a snapshot file,
+ * so application plugins without declared commands can be loaded lazily from the next session on.
+ * Commands are stored by plugin name and version, a new version of a plugin is instantiated again.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+class PluginCommandSnapshot {
+
+	private final static Logger log = LogManager.getLogger(PluginCommandSnapshot.class);
+
+	/** The name of the snapshot file in the configuration directory. */
+	public final static String FILE_NAME = "plugincommands.properties";
+
+	/** Separates the commands of a plugin in the snapshot file. */
+	private final static String SEPARATOR = "\n";
+
+	private Path file;
+
+	private Properties commands;
+
+	/**
+	 * Load the snapshot file. A missing or unreadable file is treated as empty snapshot.
+	 *
+	 * @param file The snapshot file.
+	 */
+	public PluginCommandSnapshot(Path file) {
+		this.file = file;
+		this.commands = new Properties();
+		if( Files.isRegularFile(file) ) {
+			try( InputStream in = Files.newInputStream(file) ) {
+				commands.load(in);
+				log.debug("Plugin command snapshot loaded: " + file + " [plugins = " + commands.size() + "]");
+			} catch(IOException | IllegalArgumentException e) {
+				log.error("Failed to read plugin command snapshot '" + file + "'.");
+				log.catching(Level.DEBUG, e);
+				commands.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the commands of a plugin.
+	 *
+	 * @param props The properties of the plugin.
+	 * @return List<String> The commands, null if the plugin is not in the snapshot.
+	 */
+	public synchronized List<String> getCommands(PluginProperties props) {
+		String value = commands.getProperty(key(props));
+		if( value == null ) {
+			return null;
+		}
+		return value.isEmpty() ? new ArrayList<String>() : new ArrayList<String>(Arrays.asList(value.split(SEPARATOR)));
+	}
+
+	/**
+	 * Record the commands of an instantiated plugin. The snapshot file is written if the commands changed.
+	 *
+	 * @param props The properties of the plugin.
+	 * @param appCommands The commands of the plugin.
+	 */
+	public synchronized void record(PluginProperties props, List<AppCommand> appCommands) {
+		StringBuilder sb = new StringBuilder();
+		for( AppCommand command : appCommands ) {
+			if( sb.length() > 0 ) {
+				sb.append(SEPARATOR);
+			}
+			sb.append(command.getCommand());
+		}
+		String value = sb.toString();
+		if( value.equals(commands.getProperty(key(props))) ) {
+			return;
+		}
+		commands.setProperty(key(props), value);
+		store();
+		log.debug("Plugin command snapshot updated for plugin '" + props.getName() + "'.");
+	}
+
+	/**
+	 * Remove the commands of a plugin, i.e. because the plugin has been updated.
+	 *
+	 * @param props The properties of the plugin.
+	 */
+	public synchronized void forget(PluginProperties props) {
+		if( commands.remove(key(props)) != null ) {
+			store();
+		}
+	}
+
+	private void store() {
+		try( OutputStream out = Files.newOutputStream(file) ) {
+			commands.store(out, "Commands of the application plugins, maintained by Ava.");
+		} catch(IOException e) {
+			log.error("Failed to write plugin command snapshot '" + file + "'.");
+			log.catching(Level.DEBUG, e);
+		}
+	}
+
+	private String key(PluginProperties props) {
+		return props.getName() + "@" + props.getVersion();
+	}
+}
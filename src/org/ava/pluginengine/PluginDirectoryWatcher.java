@@ -0,0 +1,146 @@
+package org.ava.pluginengine;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class watches the plugin directory and its subdirectories for added, changed and removed files.
+ * Copying a jar file causes a burst of events, so the change is reported once no further event arrived
+ * for a quiet period. The reload itself is up to the change handler, see PluginManager.reloadPlugins().
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class PluginDirectoryWatcher {
+
+	private final static Logger log = LogManager.getLogger(PluginDirectoryWatcher.class);
+
+	/** Milliseconds without events after which a change is reported. */
+	public final static long DEFAULT_QUIET_PERIOD = 500;
+
+	private Path pluginDir;
+
+	private Runnable changeHandler;
+
+	private long quietPeriod;
+
+	private WatchService watchService;
+
+	private Thread watcherThread;
+
+	/**
+	 * Create a watcher. Call start() to start watching.
+	 *
+	 * @param pluginDir The plugin directory.
+	 * @param changeHandler Called on the watcher thread when files in the plugin directory changed.
+	 * @param quietPeriod Milliseconds without events after which a change is reported.
+	 */
+	public PluginDirectoryWatcher(Path pluginDir, Runnable changeHandler, long quietPeriod) {
+		this.pluginDir = pluginDir;
+		this.changeHandler = changeHandler;
+		this.quietPeriod = quietPeriod;
+	}
+
+	/**
+	 * Start watching the plugin directory.
+	 *
+	 * @throws IOException If the plugin directory can't be watched.
+	 */
+	public synchronized void start() throws IOException {
+		if( watcherThread != null ) {
+			return;
+		}
+		watchService = pluginDir.getFileSystem().newWatchService();
+		registerAll(pluginDir);
+		watcherThread = new Thread(this::watch, "plugin-watcher");
+		watcherThread.setDaemon(true);
+		watcherThread.start();
+		log.debug("Watching plugin directory '" + pluginDir + "'.");
+	}
+
+	/**
+	 * Stop watching the plugin directory. A running change handler is not interrupted.
+	 */
+	public synchronized void stop() {
+		if( watcherThread == null ) {
+			return;
+		}
+		try {
+			watchService.close();
+		} catch(IOException e) {
+			log.catching(Level.DEBUG, e);
+		}
+		watcherThread = null;
+		log.debug("Stopped watching plugin directory '" + pluginDir + "'.");
+	}
+
+	private void watch() {
+		try {
+			while( true ) {
+				// wait for the first event of a change, then until the change is quiet
+				WatchKey key = watchService.take();
+				while( key != null ) {
+					handleEvents(key);
+					key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS);
+				}
+				log.debug("Plugin directory changed.");
+				try {
+					changeHandler.run();
+				} catch(RuntimeException e) {
+					log.error("Failed to reload the plugin directory.");
+					log.catching(Level.DEBUG, e);
+				}
+			}
+		} catch(InterruptedException | ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+
+	private void handleEvents(WatchKey key) {
+		Path dir = (Path) key.watchable();
+		for( WatchEvent<?> event : key.pollEvents() ) {
+			if( event.kind() == OVERFLOW ) {
+				continue;
+			}
+			Path file = dir.resolve((Path) event.context());
+			// a new subdirectory may contain plugins as well
+			if( event.kind() == ENTRY_CREATE && Files.isDirectory(file) ) {
+				try {
+					registerAll(file);
+				} catch(IOException e) {
+					log.catching(Level.DEBUG, e);
+				}
+			}
+		}
+		key.reset();
+	}
+
+	private void registerAll(Path root) throws IOException {
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+}
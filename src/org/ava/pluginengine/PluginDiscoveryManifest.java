@@ -0,0 +1,293 @@
+package org.ava.pluginengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class keeps the result of the last plugin discovery in a manifest file, so the plugin directory
+ * does not have to be walked and the property files of the plugins do not have to be parsed on every start.
+ * <p>
+ * The manifest records the modification time of every directory of the plugin tree, and the size and
+ * modification time of the jar and property file of every plugin. If no directory changed, no plugin has
+ * been added or removed and the directory is not walked. A plugin whose files changed is parsed again.
+ * The type of a plugin is recorded once the plugin has been instantiated.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+class PluginDiscoveryManifest {
+
+	private final static Logger log = LogManager.getLogger(PluginDiscoveryManifest.class);
+
+	/** The name of the manifest file in the configuration directory. */
+	public final static String FILE_NAME = "pluginmanifest.properties";
+
+	/** Version of the manifest format, a manifest of another version is discarded. */
+	private final static String FORMAT_VERSION = "1";
+
+	/**
+	 * Inner class holding a discovered plugin.
+	 */
+	static class Entry {
+
+		private Path jarFilepath;
+		private Path propertyFilepath;
+		private long jarSize;
+		private long jarModified;
+		private long propertySize;
+		private long propertyModified;
+
+		/** The values of the property file of the plugin. */
+		private Map<String, String> values;
+
+		private PluginType pluginType;
+
+		/**
+		 * Create an entry of a plugin whose property file has just been parsed.
+		 *
+		 * @throws IOException If the files of the plugin can't be accessed.
+		 */
+		Entry(Path jarFilepath, Path propertyFilepath, Map<String, String> values) throws IOException {
+			this.jarFilepath = jarFilepath;
+			this.propertyFilepath = propertyFilepath;
+			BasicFileAttributes jarAttrs = Files.readAttributes(jarFilepath, BasicFileAttributes.class);
+			BasicFileAttributes propertyAttrs = Files.readAttributes(propertyFilepath, BasicFileAttributes.class);
+			this.jarSize = jarAttrs.size();
+			this.jarModified = jarAttrs.lastModifiedTime().toMillis();
+			this.propertySize = propertyAttrs.size();
+			this.propertyModified = propertyAttrs.lastModifiedTime().toMillis();
+			this.values = values;
+			this.pluginType = PluginType.TYPE_NOT_SPECIFIED;
+		}
+
+		private Entry() {
+		}
+
+		/**
+		 * Check with two stat calls whether the files of the plugin are unchanged.
+		 */
+		boolean isUnchanged() {
+			try {
+				BasicFileAttributes jarAttrs = Files.readAttributes(jarFilepath, BasicFileAttributes.class);
+				BasicFileAttributes propertyAttrs = Files.readAttributes(propertyFilepath, BasicFileAttributes.class);
+				return jarAttrs.size() == jarSize && jarAttrs.lastModifiedTime().toMillis() == jarModified
+						&& propertyAttrs.size() == propertySize && propertyAttrs.lastModifiedTime().toMillis() == propertyModified;
+			} catch(IOException e) {
+				return false;
+			}
+		}
+
+		Path getJarFilepath() { return jarFilepath; }
+		Path getPropertyFilepath() { return propertyFilepath; }
+		Map<String, String> getValues() { return values; }
+		PluginType getPluginType() { return pluginType; }
+		void setPluginType(PluginType pluginType) { this.pluginType = pluginType; }
+	}
+	// end inner class Entry
+
+	private Path file;
+
+	/** The modification time of each directory of the plugin tree. */
+	private Map<Path, Long> directories;
+
+	/** The discovered plugins by jar file. */
+	private Map<Path, Entry> entries;
+
+	/** The manifest as written last, to skip writing an unchanged manifest. */
+	private Properties written;
+
+	/**
+	 * Load the manifest file. A missing, unreadable or outdated manifest is treated as empty manifest.
+	 *
+	 * @param file The manifest file.
+	 */
+	public PluginDiscoveryManifest(Path file) {
+		this.file = file;
+		this.directories = new LinkedHashMap<Path, Long>();
+		this.entries = new LinkedHashMap<Path, Entry>();
+		this.written = new Properties();
+		if( Files.isRegularFile(file) ) {
+			try( InputStream in = Files.newInputStream(file) ) {
+				Properties props = new Properties();
+				props.load(in);
+				if( FORMAT_VERSION.equals(props.getProperty("manifest.version")) ) {
+					parse(props);
+					written = props;
+				}
+				log.debug("Plugin discovery manifest loaded: " + file + " [directories = " + directories.size()
+						+ ", plugins = " + entries.size() + "]");
+			} catch(IOException | RuntimeException e) {
+				log.error("Failed to read plugin discovery manifest '" + file + "'.");
+				log.catching(Level.DEBUG, e);
+				directories.clear();
+				entries.clear();
+			}
+		}
+	}
+
+	/**
+	 * Check whether plugins might have been added or removed since the manifest has been written.
+	 *
+	 * @param pluginDir The plugin directory.
+	 * @return boolean True if the manifest covers the plugin directory and none of its directories changed.
+	 */
+	public boolean isTreeUnchanged(Path pluginDir) {
+		if( !directories.containsKey(pluginDir) ) {
+			return false;
+		}
+		for( Map.Entry<Path, Long> dir : directories.entrySet() ) {
+			try {
+				if( Files.getLastModifiedTime(dir.getKey()).toMillis() != dir.getValue() ) {
+					log.debug("Plugin directory changed: " + dir.getKey());
+					return false;
+				}
+			} catch(IOException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns all plugins of the manifest, whether their files changed or not.
+	 *
+	 * @return List<Entry> The plugins in the order they have been discovered.
+	 */
+	public List<Entry> getEntries() {
+		return new ArrayList<Entry>(entries.values());
+	}
+
+	/**
+	 * Returns the plugin of a jar file if its files are unchanged.
+	 *
+	 * @param jarFilepath The jar file of the plugin.
+	 * @param propertyFilepath The property file of the plugin.
+	 * @return Entry The plugin, null if it is unknown or one of its files changed.
+	 */
+	public Entry getValidEntry(Path jarFilepath, Path propertyFilepath) {
+		Entry e = entries.get(jarFilepath);
+		if( e == null || !e.getPropertyFilepath().equals(propertyFilepath) || !e.isUnchanged() ) {
+			return null;
+		}
+		return e;
+	}
+
+	/**
+	 * Replace the content of the manifest with the result of a discovery.
+	 *
+	 * @param directories The modification time of each directory of the plugin tree, null if the tree is unchanged.
+	 * @param discovered The discovered plugins.
+	 */
+	public void update(Map<Path, Long> directories, List<Entry> discovered) {
+		if( directories != null ) {
+			this.directories = new LinkedHashMap<Path, Long>(directories);
+		}
+		this.entries = new LinkedHashMap<Path, Entry>();
+		for( Entry e : discovered ) {
+			entries.put(e.getJarFilepath(), e);
+		}
+	}
+
+	/**
+	 * Record the type of an instantiated plugin.
+	 *
+	 * @param jarFilepath The jar file of the plugin.
+	 * @param pluginType The type of the plugin.
+	 */
+	public void setPluginType(Path jarFilepath, PluginType pluginType) {
+		Entry e = entries.get(jarFilepath);
+		if( e != null && pluginType != PluginType.TYPE_NOT_SPECIFIED ) {
+			e.setPluginType(pluginType);
+		}
+	}
+
+	/**
+	 * Write the manifest file if its content changed.
+	 */
+	public void save() {
+		Properties props = toProperties();
+		if( props.equals(written) ) {
+			return;
+		}
+		try( OutputStream out = Files.newOutputStream(file) ) {
+			props.store(out, "Plugins discovered in the plugin directory, maintained by Ava.");
+			written = props;
+			log.debug("Plugin discovery manifest written: " + file);
+		} catch(IOException e) {
+			log.error("Failed to write plugin discovery manifest '" + file + "'.");
+			log.catching(Level.DEBUG, e);
+		}
+	}
+
+	private Properties toProperties() {
+		Properties props = new Properties();
+		props.setProperty("manifest.version", FORMAT_VERSION);
+		int ii = 0;
+		for( Map.Entry<Path, Long> dir : directories.entrySet() ) {
+			props.setProperty("dir." + ii + ".path", dir.getKey().toString());
+			props.setProperty("dir." + ii + ".modified", Long.toString(dir.getValue()));
+			ii++;
+		}
+		ii = 0;
+		for( Entry e : entries.values() ) {
+			String prefix = "plugin." + ii + ".";
+			props.setProperty(prefix + "jar", e.jarFilepath.toString());
+			props.setProperty(prefix + "jar.size", Long.toString(e.jarSize));
+			props.setProperty(prefix + "jar.modified", Long.toString(e.jarModified));
+			props.setProperty(prefix + "properties", e.propertyFilepath.toString());
+			props.setProperty(prefix + "properties.size", Long.toString(e.propertySize));
+			props.setProperty(prefix + "properties.modified", Long.toString(e.propertyModified));
+			props.setProperty(prefix + "type", e.pluginType.name());
+			for( Map.Entry<String, String> value : e.values.entrySet() ) {
+				props.setProperty(prefix + "value." + value.getKey(), value.getValue());
+			}
+			ii++;
+		}
+		return props;
+	}
+
+	private void parse(Properties props) {
+		for( int ii = 0; props.getProperty("dir." + ii + ".path") != null; ii++ ) {
+			directories.put(Paths.get(props.getProperty("dir." + ii + ".path")),
+					Long.parseLong(props.getProperty("dir." + ii + ".modified")));
+		}
+		List<Entry> byIndex = new ArrayList<Entry>();
+		for( int ii = 0; props.getProperty("plugin." + ii + ".jar") != null; ii++ ) {
+			String prefix = "plugin." + ii + ".";
+			Entry e = new Entry();
+			e.jarFilepath = Paths.get(props.getProperty(prefix + "jar"));
+			e.jarSize = Long.parseLong(props.getProperty(prefix + "jar.size"));
+			e.jarModified = Long.parseLong(props.getProperty(prefix + "jar.modified"));
+			e.propertyFilepath = Paths.get(props.getProperty(prefix + "properties"));
+			e.propertySize = Long.parseLong(props.getProperty(prefix + "properties.size"));
+			e.propertyModified = Long.parseLong(props.getProperty(prefix + "properties.modified"));
+			e.pluginType = PluginType.valueOf(props.getProperty(prefix + "type"));
+			e.values = new LinkedHashMap<String, String>();
+			byIndex.add(e);
+			entries.put(e.jarFilepath, e);
+		}
+		// plugin.<index>.value.<key>
+		for( String key : props.stringPropertyNames() ) {
+			int valueStart = key.indexOf(".value.");
+			if( key.startsWith("plugin.") && valueStart > 0 ) {
+				int index = Integer.parseInt(key.substring("plugin.".length(), valueStart));
+				byIndex.get(index).values.put(key.substring(valueStart + ".value.".length()), props.getProperty(key));
+			}
+		}
+	}
+}
@@ -1,19 +1,33 @@
 package org.ava.pluginengine;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.ava.jfr.PluginLifecycleEvent;
 import org.ava.util.ApplicationConfig;
+import org.ava.util.BootProfiler;
 import org.ava.util.JarPropertyFileSearcher;
 import org.ava.util.JarPropertyFileSearcher.JarPropertyFilepathPair;
 import org.ava.util.PropertiesFileLoader;
@@ -30,6 +44,10 @@ public class PluginManager {
 
 	private final static Logger log = LogManager.getLogger(PluginManager.class);
 
+	/** The keys read from the property file of a plugin. */
+	private final static String[] PLUGIN_PROPERTY_KEYS = { "plugin.name", "plugin.version",
+			"plugin.fqnpluginclass", "plugin.dependencies", "plugin.commands" };
+
 	/** A Map to provide easy retrieval of plugins. */
 	private Map<Integer, PluginWrapper> pluginList;
 
@@ -40,21 +58,73 @@ public class PluginManager {
 	/** Current highest plugin ID. */
 	private int counterPluginID;
 
+	/** Milliseconds each plugin took to start at startup, by plugin name. */
+	private Map<String, Long> pluginStartTimes;
+
+	/** The application plugins started lazily, by plugin ID. */
+	private Map<Integer, LazyAppPlugin> lazyPlugins;
+
+	/** The commands of the application plugins instantiated in previous sessions. */
+	private PluginCommandSnapshot commandSnapshot;
+
+	/** The result of the last plugin discovery. */
+	private PluginDiscoveryManifest discoveryManifest;
+
+	/** The common parent of the plugin class loaders, null if no library is shared. */
+	private SharedLibraryClassLoader sharedLibraries;
+
+	private boolean sharedLibrariesCreated;
+
+	/** Unloads idle lazy plugins and checks for leaked class loaders, null until it is needed. */
+	private ScheduledExecutorService maintenance;
+
+	private boolean idleReaperScheduled;
+
+	private boolean leakCheckScheduled;
+
+	/** Starts plugins at startup and preloads lazy plugins, null until it is needed. */
+	private ExecutorService startupExecutor;
+
 	public PluginManager() {
-		pluginList = new HashMap<Integer, PluginWrapper>();
+		// plugins are (de)activated on the control thread while utterances are matched concurrently
+		pluginList = new ConcurrentHashMap<Integer, PluginWrapper>();
 		pluginsLoadedLastSession = new ArrayList<String>();
-		loadedPlugins = new ArrayList<Plugin>();
+		loadedPlugins = new CopyOnWriteArrayList<Plugin>();
 		counterPluginID = 0;
+		pluginStartTimes = new LinkedHashMap<String, Long>();
+		lazyPlugins = new ConcurrentHashMap<Integer, LazyAppPlugin>();
 
 		log.debug("Created PluginManager.");
 	}
 
 	public void initialize() {
 		log.debug("Initializing PluginManager.");
-		loadPluginsFromLastSession();
-		discoverPlugins();
-		cleanPropertyFile();
-		startAllActivatedPlugins();
+		BootProfiler profiler = BootProfiler.getInstance();
+		BootProfiler.Phase phase = profiler.begin("loadPluginsFromLastSession");
+		try {
+			loadPluginsFromLastSession();
+		} finally {
+			phase.end();
+		}
+		phase = profiler.begin("discoverPlugins");
+		try {
+			discoverPlugins();
+		} finally {
+			phase.end();
+		}
+		phase = profiler.begin("cleanPropertyFile");
+		try {
+			cleanPropertyFile();
+		} finally {
+			phase.end();
+		}
+		phase = profiler.begin("startAllActivatedPlugins");
+		try {
+			startAllActivatedPlugins();
+		} finally {
+			phase.end();
+		}
+		saveDiscoveryManifest();
 		log.debug("PluginManager initialized.");
 	}
 
@@ -65,15 +135,44 @@ public class PluginManager {
 				stopPlugin(pw);
 			}
 		}
+		synchronized( this ) {
+			if( maintenance != null ) {
+				maintenance.shutdownNow();
+				maintenance = null;
+				idleReaperScheduled = false;
+				leakCheckScheduled = false;
+			}
+			if( startupExecutor != null ) {
+				startupExecutor.shutdownNow();
+				startupExecutor = null;
+			}
+			if( sharedLibraries != null ) {
+				try {
+					sharedLibraries.close();
+				} catch(IOException e) {
+					log.catching(Level.DEBUG, e);
+				}
+				sharedLibraries = null;
+				sharedLibrariesCreated = false;
+			}
+		}
 		log.debug("PluginManager shut down.");
 	}
 
+	/**
+	 * Starts all activated plugins concurrently, see PluginStartupScheduler.
+	 */
 	private void startAllActivatedPlugins() {
+		List<PluginWrapper> activated = new ArrayList<PluginWrapper>();
 		for(PluginWrapper pw : pluginList.values()) {
 			if( pw.getPluginActivationState() == PluginActivationState.ACTIVATED ) {
-				startPlugin(pw);
+				activated.add(pw);
 			}
 		}
+		PluginStartupScheduler scheduler = new PluginStartupScheduler(this,
+				getStartupExecutor(), ApplicationConfig.getPluginStartTimeout());
+		scheduler.startAll(activated);
+		pluginStartTimes = scheduler.getStartTimes();
 	}
 
 	/**
@@ -87,25 +186,227 @@ public class PluginManager {
 		return startPlugin(pluginList.get(pluginID));
 	}
 
-	private Plugin startPlugin(PluginWrapper pluginWrapper) {
+	Plugin startPlugin(PluginWrapper pluginWrapper) {
 		log.debug("Trying to start plugin: '" + pluginWrapper.getProperties().getName()
 					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
+		if( ApplicationConfig.isLazyAppPlugins() ) {
+			List<String> commands = getKnownCommands(pluginWrapper.getProperties());
+			if( commands != null ) {
+				return startLazyPlugin(pluginWrapper, commands);
+			}
+		}
+		BootProfiler.Phase phase = BootProfiler.getInstance().begin(pluginWrapper.getProperties().getName(), BootProfiler.PLUGIN);
+		PluginLifecycleEvent jfrEvent = new PluginLifecycleEvent();
+		jfrEvent.begin();
 		Plugin p = pluginWrapper.getPluginInstance();
 		try {
 			p.start();
+			jfrEvent.succeeded = true;
 			pluginWrapper.setPluginState(PluginState.RUNNING);
 			loadedPlugins.add(p);
 			log.debug("Successfully started plugin '" + pluginWrapper.getProperties().getName()
 					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
-		} catch(Exception e) {
+			if( ApplicationConfig.isLazyAppPlugins() && p instanceof AppPlugin
+					&& pluginWrapper.getProperties().getCommands() == null ) {
+				// lets the plugin be started lazily from the next session on
+				getCommandSnapshot().record(pluginWrapper.getProperties(), ((AppPlugin) p).getApplicationCommands());
+			}
+		} catch(Exception | LinkageError e) {
+			// a LinkageError is thrown by a plugin missing one of its libraries
 			log.error("Failed to start plugin '" + pluginWrapper.getProperties().getName()
 					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
 			log.catching(Level.DEBUG, e);
+			// closes the class loader of the plugin, a later start creates a fresh instance
+			destroyPluginInstance(pluginWrapper);
 			return null;
+		} finally {
+			commitLifecycleEvent(jfrEvent, pluginWrapper, PluginLifecycleEvent.START);
+			phase.end();
 		}
 		return p;
 	}
 
+	/**
+	 * Starts an application plugin whose commands are known without instantiating it. The plugin is
+	 * represented by a LazyAppPlugin, which instantiates and starts it on first use.
+	 */
+	private Plugin startLazyPlugin(PluginWrapper pluginWrapper, List<String> commands) {
+		LazyAppPlugin p = new LazyAppPlugin(this, pluginWrapper, commands);
+		pluginWrapper.setPluginType(PluginType.APPLICATION_PLUGIN);
+		pluginWrapper.setPluginState(PluginState.RUNNING);
+		lazyPlugins.put(pluginWrapper.getProperties().getID(), p);
+		loadedPlugins.add(p);
+		scheduleIdleReaper();
+		log.debug("Plugin '" + pluginWrapper.getProperties().getName() + "' (ID: "
+				+ pluginWrapper.getProperties().getID() + ") started lazily [commands = " + commands.size() + "]");
+		return p;
+	}
+
+	/**
+	 * Returns the commands of an application plugin that are known without instantiating it: the commands
+	 * declared in its property file, or else the commands recorded in a previous session.
+	 *
+	 * @return List<String> The commands, null if they are not known.
+	 */
+	private List<String> getKnownCommands(PluginProperties props) {
+		List<String> commands = props.getCommands();
+		if( commands == null ) {
+			commands = getCommandSnapshot().getCommands(props);
+		}
+		return commands;
+	}
+
+	private synchronized PluginCommandSnapshot getCommandSnapshot() {
+		if( commandSnapshot == null ) {
+			commandSnapshot = new PluginCommandSnapshot(
+					Paths.get(ApplicationConfig.getConfigDir() + PluginCommandSnapshot.FILE_NAME));
+		}
+		return commandSnapshot;
+	}
+
+	private synchronized ExecutorService getStartupExecutor() {
+		if( startupExecutor == null ) {
+			startupExecutor = PluginStartupScheduler.createExecutor(ApplicationConfig.getPluginStartThreads());
+		}
+		return startupExecutor;
+	}
+
+	private synchronized ScheduledExecutorService getMaintenance() {
+		if( maintenance == null ) {
+			maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "plugin-maintenance");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return maintenance;
+	}
+
+	private synchronized void scheduleIdleReaper() {
+		long idleTimeout = ApplicationConfig.getAppPluginIdleTimeout();
+		if( idleTimeout <= 0 || idleReaperScheduled ) {
+			return;
+		}
+		idleReaperScheduled = true;
+		long period = Math.max(idleTimeout / 2, 10);
+		getMaintenance().scheduleWithFixedDelay( () -> {
+			for( LazyAppPlugin p : lazyPlugins.values() ) {
+				p.unloadIfIdle(idleTimeout);
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Checks the closed plugin class loaders for leaks periodically, so a leak is reported even if no
+	 * further plugin is stopped. Called whenever a plugin instance is destroyed.
+	 */
+	private synchronized void scheduleLeakCheck() {
+		if( leakCheckScheduled ) {
+			return;
+		}
+		leakCheckScheduled = true;
+		ClassLoaderLeakDetector detector = ClassLoaderLeakDetector.getInstance();
+		long period = Math.max(detector.getGracePeriod() / 2, 1000);
+		getMaintenance().scheduleWithFixedDelay(detector::findLeaks, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private void destroyPluginInstance(PluginWrapper pluginWrapper) {
+		pluginWrapper.destroyPluginInstance();
+		scheduleLeakCheck();
+	}
+
+	/**
+	 * Instantiates and starts the plugin of a LazyAppPlugin.
+	 *
+	 * @return Plugin The started instance, null if instantiation or start() failed.
+	 */
+	Plugin instantiateAndStart(PluginWrapper pluginWrapper) {
+		PluginLifecycleEvent jfrEvent = new PluginLifecycleEvent();
+		jfrEvent.begin();
+		try {
+			Plugin p = pluginWrapper.getPluginInstance();
+			p.start();
+			jfrEvent.succeeded = true;
+			return p;
+		} catch(Exception | LinkageError e) {
+			// a LinkageError is thrown by a plugin missing one of its libraries
+			log.error("Failed to start plugin '" + pluginWrapper.getProperties().getName()
+					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
+			log.catching(Level.DEBUG, e);
+			destroyPluginInstance(pluginWrapper);
+			return null;
+		} finally {
+			commitLifecycleEvent(jfrEvent, pluginWrapper, PluginLifecycleEvent.START);
+		}
+	}
+
+	/**
+	 * Stops and destroys the plugin instance of a LazyAppPlugin. The plugin keeps its running state.
+	 */
+	void stopInstance(PluginWrapper pluginWrapper) {
+		PluginLifecycleEvent jfrEvent = new PluginLifecycleEvent();
+		jfrEvent.begin();
+		try {
+			if( pluginWrapper.isAlreadyInstantiated() ) {
+				pluginWrapper.getPluginInstance().stop();
+			}
+			jfrEvent.succeeded = true;
+		} catch(Exception e) {
+			log.error("Failed to stop plugin '" + pluginWrapper.getProperties().getName()
+					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
+			log.catching(Level.DEBUG, e);
+		} finally {
+			destroyPluginInstance(pluginWrapper);
+			commitLifecycleEvent(jfrEvent, pluginWrapper, PluginLifecycleEvent.STOP);
+		}
+	}
+
+	/**
+	 * Starts to instantiate a lazily started plugin in the background, i.e. as soon as its name has been
+	 * matched. Does nothing for other plugins.
+	 *
+	 * @param pluginInstance The plugin.
+	 * @return CompletableFuture<Boolean> Completed with true when the plugin is loaded, false if loading failed.
+	 */
+	public CompletableFuture<Boolean> preloadPlugin(Plugin pluginInstance) {
+		if( pluginInstance instanceof LazyAppPlugin ) {
+			LazyAppPlugin p = (LazyAppPlugin) pluginInstance;
+			if( !p.isLoaded() ) {
+				return CompletableFuture.supplyAsync(p::load, getStartupExecutor());
+			}
+		}
+		return CompletableFuture.completedFuture(true);
+	}
+
+	/**
+	 * Returns the running plugin of a wrapper without instantiating a lazily started plugin.
+	 *
+	 * @param pluginWrapper The wrapper of the plugin.
+	 * @return Plugin The plugin, null if it is not running.
+	 */
+	public Plugin getRunningPlugin(PluginWrapper pluginWrapper) {
+		LazyAppPlugin p = findLazyPlugin(pluginWrapper);
+		if( p != null ) {
+			return p;
+		}
+		return pluginWrapper.isAlreadyInstantiated() ? pluginWrapper.getPluginInstance() : null;
+	}
+
+	/**
+	 * Returns the LazyAppPlugin of a wrapper. While a plugin is reloaded the LazyAppPlugins of the old
+	 * and the new version share the plugin ID, so they are told apart by their wrapper.
+	 *
+	 * @return LazyAppPlugin The lazily started plugin, null if the plugin has not been started lazily.
+	 */
+	private LazyAppPlugin findLazyPlugin(PluginWrapper pluginWrapper) {
+		for( Plugin p : loadedPlugins ) {
+			if( p instanceof LazyAppPlugin && ((LazyAppPlugin) p).getPluginWrapper() == pluginWrapper ) {
+				return (LazyAppPlugin) p;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Stops a plugin by destroying the plugin instance via the PluginWrapper.
 	 * The stop() method of the plugin is called.
@@ -119,17 +420,36 @@ public class PluginManager {
 	public void stopPlugin(Plugin pluginInstance) {
 		PluginWrapper pw;
 		if( (pw = findWrapperFromPluginInstance(pluginInstance)) != null ) {
-			stopPlugin(pluginList.get(pw));
+			stopPlugin(pw);
 		}
 	}
 
-	private void stopPlugin(PluginWrapper pluginWrapper) {
+	void stopPlugin(PluginWrapper pluginWrapper) {
 		log.debug("Trying to stop plugin: '" + pluginWrapper.getProperties().getName()
 				+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
+		LazyAppPlugin lazy = findLazyPlugin(pluginWrapper);
+		if( lazy != null ) {
+			// a reloaded plugin shares the ID with the new version, which may have replaced it already
+			lazyPlugins.remove(pluginWrapper.getProperties().getID(), lazy);
+			loadedPlugins.remove(lazy);
+			lazy.stop();
+			pluginWrapper.setPluginState(PluginState.STOPPED);
+			log.debug("Successfully stopped plugin '" + pluginWrapper.getProperties().getName()
+					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
+			return;
+		}
+		if( !pluginWrapper.isAlreadyInstantiated() ) {
+			// getPluginInstance() would instantiate a plugin that has never been started
+			pluginWrapper.setPluginState(PluginState.STOPPED);
+			return;
+		}
+		PluginLifecycleEvent jfrEvent = new PluginLifecycleEvent();
+		jfrEvent.begin();
 		try {
 			loadedPlugins.remove(pluginWrapper.getPluginInstance());
 			pluginWrapper.getPluginInstance().stop();
-			pluginWrapper.destroyPluginInstance();
+			jfrEvent.succeeded = true;
+			destroyPluginInstance(pluginWrapper);
 			pluginWrapper.setPluginState(PluginState.STOPPED);
 			log.debug("Successfully stopped plugin '" + pluginWrapper.getProperties().getName()
 					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
@@ -138,6 +458,18 @@ public class PluginManager {
 					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
 			log.catching(Level.DEBUG, e);
 			return;
+		} finally {
+			commitLifecycleEvent(jfrEvent, pluginWrapper, PluginLifecycleEvent.STOP);
+		}
+	}
+
+	private void commitLifecycleEvent(PluginLifecycleEvent jfrEvent, PluginWrapper pluginWrapper, String action) {
+		jfrEvent.end();
+		if( jfrEvent.shouldCommit() ) {
+			jfrEvent.pluginID = pluginWrapper.getProperties().getID();
+			jfrEvent.pluginName = pluginWrapper.getProperties().getName();
+			jfrEvent.action = action;
+			jfrEvent.commit();
 		}
 	}
 
@@ -163,32 +495,17 @@ public class PluginManager {
 	public void discoverPlugins() {
 		log.debug("Search plugin directory '" + ApplicationConfig.getPluginDir() + "' for plugins.");
 
-		// search plugin directory for jar files with corresponding property files
-		Path pluginDir = Paths.get(ApplicationConfig.getPluginDir());
-		JarPropertyFileSearcher fileSearcher = new JarPropertyFileSearcher();
-		try {
-			Files.walkFileTree(pluginDir, fileSearcher);
-		} catch (IOException e) {
-			log.catching(Level.DEBUG, e);
-		}
-		List<JarPropertyFilepathPair> filePairs = fileSearcher.getJarPropertyFilepathPairs();
-
-		if(filePairs.isEmpty()) {
-			log.info("No plugins in directory '" + ApplicationConfig.getPluginDir() + "' found.");
-			return;
-		} else {
-			log.info("Discoverd " + filePairs.size() + " plugins.");
-		}
-
 		// for each discoverd plugin, build PluginWrapper and PluginProperties
-		for(JarPropertyFilepathPair singleFilePair : filePairs) {
-			int pluginID = generateIntegerID();
-			PluginProperties pluginProps = buildPluginProperties(singleFilePair.getPropertyFilepath(), pluginID);
-			PluginWrapper pluginWrapper = buildPluginWrapper(singleFilePair.getJarFilepath(), pluginProps);
+		for(PluginDiscoveryManifest.Entry entry : scanPluginDirectory(null)) {
+			PluginWrapper pluginWrapper = buildPluginWrapper(entry, generateIntegerID());
+			if( pluginWrapper == null ) {
+				continue;
+			}
+			PluginProperties pluginProps = pluginWrapper.getProperties();
 
 			// filter duplicate plugin by comparing the property files
 			if(!isPluginAlreadyDiscovered(pluginProps)) {
-				pluginList.put(pluginID, pluginWrapper);
+				pluginList.put(pluginProps.getID(), pluginWrapper);
 			}
 
 			// check if the discovered plugin has been in 'ACTIVATED' state in last session
@@ -208,11 +525,239 @@ public class PluginManager {
 
 	}
 
-	private PluginWrapper buildPluginWrapper(Path jarFilepath, PluginProperties pluginProps) {
-		return new PluginWrapper(jarFilepath, pluginProps);
+	/**
+	 * Discovers the plugins added, changed or removed since the last discovery, without touching the other
+	 * plugins. A new plugin is discovered as deactivated plugin. A changed plugin keeps its ID, if it is
+	 * running the new version is started before the old version is stopped. A removed plugin is stopped.
+	 *
+	 * @param listener Notified of each replaced and removed running plugin, i.e. to update the matching engine.
+	 */
+	public synchronized void reloadPlugins(PluginChangeListener listener) {
+		log.debug("Reload plugin directory '" + ApplicationConfig.getPluginDir() + "'.");
+		List<PluginDiscoveryManifest.Entry> changed = new ArrayList<PluginDiscoveryManifest.Entry>();
+		List<PluginDiscoveryManifest.Entry> entries = scanPluginDirectory(changed);
+
+		Set<Path> present = new HashSet<Path>();
+		for(PluginDiscoveryManifest.Entry entry : entries) {
+			present.add(entry.getJarFilepath());
+		}
+		for(PluginWrapper pw : pluginList.values()) {
+			if( !present.contains(pw.getJarFilePath()) ) {
+				removePlugin(pw, listener);
+			}
+		}
+		SharedLibraryClassLoader shared = getSharedLibraries();
+		if( shared != null ) {
+			// drop removed and updated plugin jars, the updated ones are added again with their new wrappers
+			Set<Path> unchanged = new HashSet<Path>(present);
+			for(PluginDiscoveryManifest.Entry entry : changed) {
+				unchanged.remove(entry.getJarFilepath());
+			}
+			shared.retainPluginJars(unchanged);
+		}
+
+		for(PluginDiscoveryManifest.Entry entry : changed) {
+			PluginWrapper old = findWrapperFromJarFilepath(entry.getJarFilepath());
+			if( old == null ) {
+				PluginWrapper pw = buildPluginWrapper(entry, generateIntegerID());
+				if( pw != null && !isPluginAlreadyDiscovered(pw.getProperties()) ) {
+					pluginList.put(pw.getProperties().getID(), pw);
+					log.info("Plugin '" + pw.getProperties().getName() + "' (ID: " + pw.getProperties().getID() + ") discovered.");
+				}
+			} else {
+				replacePlugin(old, entry, listener);
+			}
+		}
+		saveDiscoveryManifest();
+	}
+
+	private void replacePlugin(PluginWrapper old, PluginDiscoveryManifest.Entry entry, PluginChangeListener listener) {
+		int pluginID = old.getProperties().getID();
+		PluginWrapper pw = buildPluginWrapper(entry, pluginID);
+		if( pw == null ) {
+			return;
+		}
+		pw.setPluginActivationState(old.getPluginActivationState());
+		if( old.getPluginState() == PluginState.STOPPED ) {
+			pluginList.put(pluginID, pw);
+			log.info("Plugin '" + pw.getProperties().getName() + "' (ID: " + pluginID + ") updated.");
+			return;
+		}
+
+		// the recorded commands of the old version are outdated
+		getCommandSnapshot().forget(old.getProperties());
+		getCommandSnapshot().forget(pw.getProperties());
+		long start = System.nanoTime();
+		Plugin oldInstance = getRunningPlugin(old);
+		Plugin newInstance = startPlugin(pw);
+		if( newInstance == null ) {
+			log.error("Failed to start the new version of plugin '" + pw.getProperties().getName()
+					+ "' (ID: " + pluginID + "), the old version keeps running.");
+			return;
+		}
+		pluginList.put(pluginID, pw);
+		listener.pluginReplaced(pluginID, oldInstance, newInstance);
+		stopPlugin(old);
+		log.info("Plugin '" + pw.getProperties().getName() + "' (ID: " + pluginID + ") reloaded in "
+				+ (System.nanoTime() - start) / 1000000 + " ms.");
+	}
+
+	private void removePlugin(PluginWrapper pw, PluginChangeListener listener) {
+		int pluginID = pw.getProperties().getID();
+		Plugin oldInstance = null;
+		if( pw.getPluginState() != PluginState.STOPPED ) {
+			oldInstance = getRunningPlugin(pw);
+			stopPlugin(pw);
+		}
+		pluginList.remove(pluginID);
+		if( oldInstance != null ) {
+			listener.pluginRemoved(pluginID, oldInstance);
+		}
+		log.info("Plugin '" + pw.getProperties().getName() + "' (ID: " + pluginID + ") removed.");
+	}
+
+	private PluginWrapper findWrapperFromJarFilepath(Path jarFilepath) {
+		for(PluginWrapper pw : pluginList.values()) {
+			if( pw.getJarFilePath().equals(jarFilepath) ) {
+				return pw;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Walks the plugin directory for jar files with corresponding property files. If no directory changed
+	 * since the last discovery, the plugins are taken from the discovery manifest instead. Only property
+	 * files that changed since the last discovery are parsed.
+	 *
+	 * @param changed Receives the plugins that are new or whose files changed, may be null.
+	 * @return List<PluginDiscoveryManifest.Entry> All plugins in the plugin directory.
+	 */
+	private List<PluginDiscoveryManifest.Entry> scanPluginDirectory(List<PluginDiscoveryManifest.Entry> changed) {
+		Path pluginDir = Paths.get(ApplicationConfig.getPluginDir());
+		PluginDiscoveryManifest manifest = getDiscoveryManifest();
+		List<JarPropertyFilepathPair> filePairs;
+		Map<Path, Long> directories = null;
+		if( manifest.isTreeUnchanged(pluginDir) ) {
+			// no plugin has been added or removed, take the plugins from the manifest
+			log.debug("Plugin directory unchanged since the last discovery.");
+			filePairs = new ArrayList<JarPropertyFilepathPair>();
+			for(PluginDiscoveryManifest.Entry e : manifest.getEntries()) {
+				filePairs.add(new JarPropertyFilepathPair(e.getJarFilepath(), e.getPropertyFilepath()));
+			}
+		} else {
+			// search plugin directory for jar files with corresponding property files
+			JarPropertyFileSearcher fileSearcher = new JarPropertyFileSearcher();
+			try {
+				fileSearcher.walk(pluginDir, ApplicationConfig.getPluginDiscoveryThreads());
+			} catch (IOException e) {
+				log.catching(Level.DEBUG, e);
+			}
+			filePairs = fileSearcher.getJarPropertyFilepathPairs();
+			directories = fileSearcher.getDirectories();
+		}
+
+		if(filePairs.isEmpty()) {
+			log.info("No plugins in directory '" + ApplicationConfig.getPluginDir() + "' found.");
+		} else {
+			log.info("Discoverd " + filePairs.size() + " plugins.");
+		}
+
+		List<PluginDiscoveryManifest.Entry> discovered = new ArrayList<PluginDiscoveryManifest.Entry>();
+		int parsed = 0;
+		for(JarPropertyFilepathPair singleFilePair : filePairs) {
+			// the property file is only parsed if it changed since the last discovery
+			PluginDiscoveryManifest.Entry entry = manifest.getValidEntry(
+					singleFilePair.getJarFilepath(), singleFilePair.getPropertyFilepath());
+			if( entry == null ) {
+				Map<String, String> values = readPluginPropertyValues(singleFilePair.getPropertyFilepath());
+				if( values == null ) {
+					continue;
+				}
+				parsed++;
+				try {
+					entry = new PluginDiscoveryManifest.Entry(
+							singleFilePair.getJarFilepath(), singleFilePair.getPropertyFilepath(), values);
+				} catch (IOException e) {
+					log.catching(Level.DEBUG, e);
+					continue;
+				}
+				if( changed != null ) {
+					changed.add(entry);
+				}
+			}
+			discovered.add(entry);
+		}
+		log.debug("Plugin discovery parsed " + parsed + " of " + filePairs.size() + " property files.");
+
+		manifest.update(directories, discovered);
+		manifest.save();
+		return discovered;
+	}
+
+	/**
+	 * Builds the wrapper of a discovered plugin.
+	 *
+	 * @return PluginWrapper The wrapper, null if the properties of the plugin are invalid.
+	 */
+	private PluginWrapper buildPluginWrapper(PluginDiscoveryManifest.Entry entry, int pluginID) {
+		PluginProperties pluginProps = buildPluginProperties(entry.getValues(), pluginID);
+		if( pluginProps == null ) {
+			return null;
+		}
+		PluginWrapper pluginWrapper = new PluginWrapper(entry.getJarFilepath(), pluginProps);
+		if( entry.getPluginType() != PluginType.TYPE_NOT_SPECIFIED ) {
+			pluginWrapper.setPluginType(entry.getPluginType());
+		}
+		SharedLibraryClassLoader shared = getSharedLibraries();
+		if( shared != null ) {
+			shared.addPluginJar(entry.getJarFilepath());
+			pluginWrapper.setParentClassLoader(shared);
+		}
+		return pluginWrapper;
+	}
+
+	/**
+	 * Returns the common parent of the plugin class loaders. It is created on first use from the jar files in
+	 * the library directory of the plugin directory and the shared packages of the configuration.
+	 *
+	 * @return SharedLibraryClassLoader The class loader, null if there is neither a library nor a shared package.
+	 */
+	public synchronized SharedLibraryClassLoader getSharedLibraries() {
+		if( !sharedLibrariesCreated ) {
+			sharedLibrariesCreated = true;
+			List<Path> jars = SharedLibraryClassLoader.findLibraryJars(Paths.get(ApplicationConfig.getPluginDir()));
+			List<String> packages = ApplicationConfig.getSharedPackages();
+			if( !jars.isEmpty() || !packages.isEmpty() ) {
+				sharedLibraries = new SharedLibraryClassLoader(jars, packages, PluginWrapper.class.getClassLoader());
+			}
+		}
+		return sharedLibraries;
+	}
+
+	private synchronized PluginDiscoveryManifest getDiscoveryManifest() {
+		if( discoveryManifest == null ) {
+			discoveryManifest = new PluginDiscoveryManifest(
+					Paths.get(ApplicationConfig.getConfigDir() + PluginDiscoveryManifest.FILE_NAME));
+		}
+		return discoveryManifest;
+	}
+
+	/**
+	 * Records the types of the instantiated plugins in the discovery manifest.
+	 */
+	private void saveDiscoveryManifest() {
+		PluginDiscoveryManifest manifest = getDiscoveryManifest();
+		for(PluginWrapper pw : pluginList.values()) {
+			manifest.setPluginType(pw.getJarFilePath(), pw.getPluginType());
+		}
+		manifest.save();
 	}
 
 	private PluginWrapper findWrapperFromPluginInstance(Plugin pluginInstance) {
+		if( pluginInstance instanceof LazyAppPlugin ) {
+			return ((LazyAppPlugin) pluginInstance).getPluginWrapper();
+		}
 		for(PluginWrapper pw : pluginList.values()) {
 			if( pw.isAlreadyInstantiated() && (pluginInstance == pw.getPluginInstance()) ) {
 				return pw;
@@ -236,27 +781,50 @@ public class PluginManager {
 	}
 
 	/**
+	 * Reads the values of a plugin property file. The file is read directly instead of through the
+	 * PropertiesFileCache, it is only read if it changed since the last discovery.
 	 *
-	 * @param propertyFilepath
-	 * @param pluginID
-	 * @return null if not loaded
+	 * @param propertyFilepath The plugin property file.
+	 * @return Map<String, String> The values by key, null if the file could not be read.
 	 */
-	private PluginProperties buildPluginProperties(Path propertyFilepath, int pluginID) {
-		PluginProperties pluginProps= null;
-
-		try {
-			PropertiesFileLoader pfl = new PropertiesFileLoader(propertyFilepath);
+	private Map<String, String> readPluginPropertyValues(Path propertyFilepath) {
+		Properties props = new Properties();
+		try( InputStream in = new BufferedInputStream(Files.newInputStream(propertyFilepath)) ) {
+			props.load(in);
+		} catch (IOException | IllegalArgumentException e) {
+			log.error("Failed to read plugin property file '" + propertyFilepath + "'");
+			log.catching(Level.DEBUG, e);
+			return null;
+		}
 
-			if(!pfl.readPropertiesFile()) {
-				log.error("Failed to read plugin property file '" + propertyFilepath + "'");
-				return null;
+		Map<String, String> values = new LinkedHashMap<String, String>();
+		for(String key : PLUGIN_PROPERTY_KEYS) {
+			String value = props.getProperty(key);
+			if( value != null ) {
+				values.put(key, value);
 			}
+		}
+		return values;
+	}
+
+	/**
+	 * Creates the properties of a plugin from the values of its property file.
+	 *
+	 * @param values The values of the property file by key.
+	 * @param pluginID The ID of the plugin.
+	 * @return PluginProperties The properties, null if a required value is missing or invalid.
+	 */
+	private PluginProperties buildPluginProperties(Map<String, String> values, int pluginID) {
+		PluginProperties pluginProps= null;
 
+		try {
 			pluginProps = new PluginProperties(
 					pluginID,
-					pfl.getPropertie("plugin.name"),
-					pfl.getPropertie("plugin.version"),
-					pfl.getPropertie("plugin.fqnpluginclass")
+					values.get("plugin.name"),
+					values.get("plugin.version"),
+					values.get("plugin.fqnpluginclass"),
+					values.get("plugin.dependencies"),
+					values.get("plugin.commands")
 				);
 		} catch (IllegalArgumentException e) {
 			log.catching(Level.DEBUG, e);
@@ -291,7 +859,7 @@ public class PluginManager {
 		log.debug("Trying to interrupt plugin '" + pluginWrapper.getProperties().getName()
 				+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
 		try {
-			pluginWrapper.getPluginInstance().interruptExecution();
+			getRunningPlugin(pluginWrapper).interruptExecution();
 			log.debug("Successfully interrupted plugin '" + pluginWrapper.getProperties().getName()
 					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
 		} catch(Exception e) {
@@ -329,7 +897,7 @@ public class PluginManager {
 		log.debug("Try to continue plugin '" + pluginWrapper.getProperties().getName()
 				+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
 		try {
-			pluginWrapper.getPluginInstance().continueExecution();
+			getRunningPlugin(pluginWrapper).continueExecution();
 			log.debug("Successfully continued plugin '" + pluginWrapper.getProperties().getName()
 					+ "' (ID: " + pluginWrapper.getProperties().getID() + ")");
 		} catch(Exception e) {
@@ -346,9 +914,9 @@ public class PluginManager {
 		PluginWrapper pw = pluginList.get(pluginID);
 		pw.setPluginActivationState(PluginActivationState.ACTIVATED);
 		log.debug("PluginActivationState of plugin '" + pluginID + "' changed to 'ACTIVATED'.");
-		this.startPlugin(pw);
+		Plugin p = this.startPlugin(pw);
 		writeLoadedPluginToPropertyFile(pluginList.get(pluginID));
-		return pw.getPluginInstance();
+		return p != null ? p : pw.getPluginInstance();
 	}
 
 	public PluginType deactivatePlugin(int pluginID) {
@@ -383,6 +951,30 @@ public class PluginManager {
 		return null;
 	}
 
+	/**
+	 * Check whether a plugin with the given name is running.
+	 *
+	 * @param name The name of the plugin.
+	 * @return boolean True if the plugin is running.
+	 */
+	public boolean isPluginRunning(String name) {
+		for(PluginWrapper pw : pluginList.values()) {
+			if( pw.getProperties().getName().equals(name) && pw.getPluginState() == PluginState.RUNNING ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the time each plugin took to start at startup.
+	 *
+	 * @return Map<String, Long> Milliseconds by plugin name, in the order the plugins have been started.
+	 */
+	public Map<String, Long> getPluginStartTimes() {
+		return pluginStartTimes;
+	}
+
 	public Map<Integer, PluginWrapper> getPluginList() {
 		return pluginList;
 	}
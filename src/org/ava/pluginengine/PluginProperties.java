@@ -1,5 +1,9 @@
 package org.ava.pluginengine;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -25,6 +29,12 @@ public class PluginProperties {
 	/** The full qualified name of the plugin class. */
 	private String fqnPluginClass;
 	
+	/** The names of the plugins that have to be started before this plugin. */
+	private List<String> dependencies;
+	
+	/** The commands of an application plugin declared in its property file, null if not declared. */
+	private List<String> commands;
+	
 	/**
 	 * @param id
 	 * @param name
@@ -32,16 +42,57 @@ public class PluginProperties {
 	 * @param fqnPluginClass
 	 */
 	public PluginProperties(int id, String name, String version, String fqnPluginClass) {
+		this(id, name, version, fqnPluginClass, null);
+	}
+
+	/**
+	 * @param id
+	 * @param name
+	 * @param version
+	 * @param fqnPluginClass
+	 * @param dependencies Comma separated names of the plugins that have to be started before this plugin, may be null.
+	 */
+	public PluginProperties(int id, String name, String version, String fqnPluginClass, String dependencies) {
+		this(id, name, version, fqnPluginClass, dependencies, null);
+	}
+
+	/**
+	 * @param id
+	 * @param name
+	 * @param version
+	 * @param fqnPluginClass
+	 * @param dependencies Comma separated names of the plugins that have to be started before this plugin, may be null.
+	 * @param commands Semicolon separated commands of an application plugin, may be null.
+	 */
+	public PluginProperties(int id, String name, String version, String fqnPluginClass, String dependencies, String commands) {
 		this.id = id;
 		this.name = name;
 		this.version = version;
 		this.fqnPluginClass = fqnPluginClass;
+		this.dependencies = new ArrayList<String>();
+		if( dependencies != null ) {
+			for( String dependency : dependencies.split(",") ) {
+				if( !dependency.trim().isEmpty() ) {
+					this.dependencies.add(dependency.trim());
+				}
+			}
+		}
+		if( commands != null ) {
+			this.commands = new ArrayList<String>();
+			for( String command : commands.split(";") ) {
+				if( !command.trim().isEmpty() ) {
+					this.commands.add(command.trim());
+				}
+			}
+		}
 		
 		log.debug("Created PluginProperties instance (" + this.toString() + "):\n"
 				+ "\tid = " + id + "\n" 
 				+ "\tname = " + name + "\n"
 				+ "\tversion = " + version + "\n"
-				+ "\tfqnPluginClass = " + fqnPluginClass);
+				+ "\tfqnPluginClass = " + fqnPluginClass + "\n"
+				+ "\tdependencies = " + this.dependencies + "\n"
+				+ "\tcommands = " + commands);
 	}
 
 	/**
@@ -79,6 +130,25 @@ public class PluginProperties {
 	public String getFqnPluginClass() {
 		return fqnPluginClass;
 	}
+
+	/**
+	 * Return the names of the plugins that have to be started before this plugin.
+	 * 
+	 * @return List<String> The names of the plugins, empty if the plugin has no dependencies.
+	 */
+	public List<String> getDependencies() {
+		return Collections.unmodifiableList(dependencies);
+	}
+
+	/**
+	 * Return the commands of an application plugin declared in its property file. The commands are known
+	 * without instantiating the plugin.
+	 * 
+	 * @return List<String> The declared commands, null if the plugin does not declare its commands.
+	 */
+	public List<String> getCommands() {
+		return commands == null ? null : Collections.unmodifiableList(commands);
+	}
 	
 	/**
 	 * Check if the given object is equal to this PluginProperties.
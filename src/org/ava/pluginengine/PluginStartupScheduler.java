@@ -0,0 +1,303 @@
+package org.ava.pluginengine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class starts plugins concurrently. A plugin is started as soon as all plugins it depends on
+ * (property 'plugin.dependencies' of the plugin) have been started. If a dependency could not be started,
+ * the plugin is not started either. Plugins with cyclic dependencies are not started.
+ * <p>
+ * A plugin whose start() does not return within the start timeout is interrupted and treated as not started,
+ * so its dependents are not held up. If its start() returns successfully afterwards, the plugin is stopped again.
+ * <p>
+ * Plugin names identify the dependencies, so only the first of several plugins with the same name is started.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class PluginStartupScheduler {
+
+	private final static Logger log = LogManager.getLogger(PluginStartupScheduler.class);
+
+	/** Default number of threads starting plugins. */
+	public final static int DEFAULT_THREADS = 4;
+
+	/** Default milliseconds a plugin may take to start. */
+	public final static long DEFAULT_TIMEOUT = 60000;
+
+	/**
+	 * Inner class holding the start of a single plugin.
+	 */
+	private class StartTask {
+
+		private PluginWrapper pluginWrapper;
+
+		/** Completed with true if the plugin has been started in time, false if not. */
+		private CompletableFuture<Boolean> started = new CompletableFuture<Boolean>();
+
+		/** Set when start() returned. Guarded by the task. */
+		private boolean returned;
+
+		/** Set when the start timed out. Guarded by the task. */
+		private boolean timedOut;
+
+		public StartTask(PluginWrapper pluginWrapper) {
+			this.pluginWrapper = pluginWrapper;
+		}
+
+		public String getName() {
+			return pluginWrapper.getProperties().getName();
+		}
+	}
+
+	private PluginManager pluginManager;
+
+	private int threads;
+
+	private long timeout;
+
+	/** The executor starting the plugins, null to create one for each startAll(). */
+	private ExecutorService executor;
+
+	/** Milliseconds each plugin took to start, by plugin name. */
+	private Map<String, Long> startTimes;
+
+	/**
+	 * @param pluginManager The manager starting and stopping the single plugins.
+	 * @param threads Number of plugins started at the same time.
+	 * @param timeout Milliseconds a plugin may take to start, 0 to wait indefinitely.
+	 */
+	public PluginStartupScheduler(PluginManager pluginManager, int threads, long timeout) {
+		this.pluginManager = pluginManager;
+		this.threads = Math.max(1, threads);
+		this.timeout = timeout;
+		this.startTimes = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+	}
+
+	/**
+	 * @param pluginManager The manager starting and stopping the single plugins.
+	 * @param executor The executor starting the plugins. It is not shut down by the scheduler.
+	 * @param timeout Milliseconds a plugin may take to start, 0 to wait indefinitely.
+	 */
+	public PluginStartupScheduler(PluginManager pluginManager, ExecutorService executor, long timeout) {
+		this(pluginManager, 1, timeout);
+		this.executor = executor;
+	}
+
+	/**
+	 * Start the given plugins. Blocks until all plugins have been started, failed or timed out.
+	 *
+	 * @param pluginWrappers The plugins to start.
+	 */
+	public void startAll(List<PluginWrapper> pluginWrappers) {
+		Map<String, StartTask> tasks = new LinkedHashMap<String, StartTask>();
+		for( PluginWrapper pw : pluginWrappers ) {
+			String name = pw.getProperties().getName();
+			if( tasks.containsKey(name) ) {
+				log.error("Plugin '" + name + "' (ID: " + pw.getProperties().getID() + ") not started, "
+						+ "plugin ID " + tasks.get(name).pluginWrapper.getProperties().getID() + " has the same name.");
+				continue;
+			}
+			tasks.put(name, new StartTask(pw));
+		}
+
+		ExecutorService pool = executor != null ? executor : createExecutor(threads);
+		ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor( r -> {
+			Thread t = new Thread(r, "plugin-start-watchdog");
+			t.setDaemon(true);
+			return t;
+		});
+
+		List<StartTask> ordered = orderByDependencies(tasks);
+		for( StartTask task : tasks.values() ) {
+			if( !ordered.contains(task) ) {
+				log.error("Plugin '" + task.getName() + "' not started due to cyclic dependencies " + getDependencies(task) + ".");
+				task.started.complete(false);
+			}
+		}
+
+		// tasks are ordered, so the tasks of all dependencies exist when a task is scheduled
+		for( StartTask task : ordered ) {
+			List<CompletableFuture<Boolean>> dependencies = new ArrayList<CompletableFuture<Boolean>>();
+			for( String dependency : getDependencies(task) ) {
+				StartTask dependencyTask = tasks.get(dependency);
+				if( dependencyTask != null ) {
+					dependencies.add(dependencyTask.started);
+				} else {
+					dependencies.add(CompletableFuture.completedFuture(pluginManager.isPluginRunning(dependency)));
+				}
+			}
+
+			CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0])).whenComplete( (v, e) -> {
+				for( CompletableFuture<Boolean> dependency : dependencies ) {
+					if( !dependency.join() ) {
+						log.error("Plugin '" + task.getName() + "' not started, a dependency of " + getDependencies(task)
+								+ " is not running.");
+						task.started.complete(false);
+						return;
+					}
+				}
+				pool.execute( () -> start(task, watchdog) );
+			});
+		}
+
+		for( StartTask task : tasks.values() ) {
+			task.started.join();
+		}
+		if( pool != executor ) {
+			pool.shutdown();
+		}
+		watchdog.shutdownNow();
+		log.info("Plugin start times: " + startTimes);
+	}
+
+	/**
+	 * Creates an executor for starting plugins with daemon threads named 'plugin-starter-N'.
+	 *
+	 * @param threads Number of threads.
+	 * @return ExecutorService The executor.
+	 */
+	static ExecutorService createExecutor(int threads) {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+			Thread t = new Thread(r, "plugin-starter-" + threadNumber.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Returns the time each plugin took to start.
+	 *
+	 * @return Map<String, Long> Milliseconds by plugin name, in the order the plugins have been started.
+	 */
+	public Map<String, Long> getStartTimes() {
+		synchronized( startTimes ) {
+			return new LinkedHashMap<String, Long>(startTimes);
+		}
+	}
+
+	private void start(StartTask task, ScheduledExecutorService watchdog) {
+		try {
+			startPlugin(task, watchdog);
+		} finally {
+			// startAll() waits for every task, complete it even if the plugin threw an Error
+			task.started.complete(false);
+		}
+	}
+
+	private void startPlugin(StartTask task, ScheduledExecutorService watchdog) {
+		Thread worker = Thread.currentThread();
+		ClassLoader contextClassLoader = worker.getContextClassLoader();
+		Future<?> timer = null;
+		if( timeout > 0 ) {
+			timer = watchdog.schedule( () -> timeout(task, worker), timeout, TimeUnit.MILLISECONDS);
+		}
+
+		long start = System.nanoTime();
+		Plugin p = null;
+		try {
+			p = pluginManager.startPlugin(task.pluginWrapper);
+		} catch(Throwable t) {
+			log.error("Plugin '" + task.getName() + "' failed to start.");
+			log.catching(Level.DEBUG, t);
+		} finally {
+			if( timer != null ) {
+				timer.cancel(false);
+			}
+			synchronized( task ) {
+				task.returned = true;
+				// clear an interrupt of the watchdog, the thread is reused
+				Thread.interrupted();
+			}
+			// plugins may replace the context class loader of the starting thread
+			worker.setContextClassLoader(contextClassLoader);
+		}
+		long millis = (System.nanoTime() - start) / 1000000;
+
+		synchronized( task ) {
+			if( task.timedOut ) {
+				if( p != null ) {
+					log.error("Plugin '" + task.getName() + "' started after " + millis + " ms, after its start timed out. Stop plugin.");
+					pluginManager.stopPlugin(task.pluginWrapper);
+				}
+				return;
+			}
+		}
+		if( p != null ) {
+			startTimes.put(task.getName(), millis);
+			log.debug("Plugin '" + task.getName() + "' started in " + millis + " ms.");
+		}
+		task.started.complete(p != null);
+	}
+
+	private void timeout(StartTask task, Thread worker) {
+		synchronized( task ) {
+			if( task.returned ) {
+				return;
+			}
+			task.timedOut = true;
+			worker.interrupt();
+		}
+		log.error("Plugin '" + task.getName() + "' did not start within " + timeout + " ms. Interrupt start.");
+		task.started.complete(false);
+	}
+
+	private List<String> getDependencies(StartTask task) {
+		return task.pluginWrapper.getProperties().getDependencies();
+	}
+
+	/**
+	 * Orders the tasks so that each task follows the tasks of its dependencies. Tasks with cyclic
+	 * dependencies are left out.
+	 */
+	private List<StartTask> orderByDependencies(Map<String, StartTask> tasks) {
+		Map<StartTask, Integer> pending = new HashMap<StartTask, Integer>();
+		Map<String, List<StartTask>> dependents = new HashMap<String, List<StartTask>>();
+		Deque<StartTask> ready = new ArrayDeque<StartTask>();
+		for( StartTask task : tasks.values() ) {
+			int count = 0;
+			for( String dependency : getDependencies(task) ) {
+				if( tasks.containsKey(dependency) ) {
+					count++;
+					dependents.computeIfAbsent(dependency, k -> new ArrayList<StartTask>()).add(task);
+				}
+			}
+			pending.put(task, count);
+			if( count == 0 ) {
+				ready.add(task);
+			}
+		}
+
+		List<StartTask> ordered = new ArrayList<StartTask>();
+		while( !ready.isEmpty() ) {
+			StartTask task = ready.poll();
+			ordered.add(task);
+			for( StartTask dependent : dependents.getOrDefault(task.getName(), Collections.<StartTask>emptyList()) ) {
+				if( pending.merge(dependent, -1, Integer::sum) == 0 ) {
+					ready.add(dependent);
+				}
+			}
+		}
+		return ordered;
+	}
+}
@@ -1,5 +1,6 @@
 package org.ava.pluginengine;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -13,7 +14,7 @@ import org.apache.logging.log4j.Logger;
  *
  * @author Constantin
  * @since 2016-03-20
- * @version 3
+ * @version 5
  *
  * Changelog:
  * 2016-03-21 Constantin v2
@@ -21,6 +22,10 @@ import org.apache.logging.log4j.Logger;
  * 2016-03-26 Constantin v3
  * 		-- Added support for PluginType.
  * 		-- Initialize enum values in constructor.
+ * 2026-10-19 Constantin v4
+ * 		-- Close the class loader of the plugin when the instance is destroyed.
+ * 2026-10-19 Constantin v5
+ * 		-- Added parent class loader, see SharedLibraryClassLoader.
  */
 public class PluginWrapper {
 
@@ -31,6 +36,12 @@ public class PluginWrapper {
 
 	private boolean isInstantiated;
 
+	/** The class loader of the instance, closed when the instance is destroyed. */
+	private URLClassLoader pluginClassLoader;
+
+	/** The parent of the class loader of the instance. */
+	private ClassLoader parentClassLoader;
+
 	/** The properties of the wrapped plugin. */
 	private PluginProperties properties;
 
@@ -61,6 +72,7 @@ public class PluginWrapper {
 		this.pluginActivationState = PluginActivationState.DEACTIVATED;
 		this.pluginState = PluginState.STOPPED;
 		this.pluginType = PluginType.TYPE_NOT_SPECIFIED;
+		this.parentClassLoader = this.getClass().getClassLoader();
 
 		log.debug("PluginWrapper for plugin '" + properties.getName() + "' created, with properties "
 				+ properties.toString() + ". Instance: " + this.toString());
@@ -82,7 +94,7 @@ public class PluginWrapper {
 				instance = null;
 			}
 
-			ClassLoader pluginClassLoader = new URLClassLoader(urlArr, this.getClass().getClassLoader());
+			pluginClassLoader = new URLClassLoader(urlArr, parentClassLoader);
 			
 			// dirty fix for MaryTTS Plugin
 			// MaryTTS code relies on the System Class Loader to locate some classes. Therefore when we try to
@@ -109,12 +121,7 @@ public class PluginWrapper {
 				log.catching(Level.DEBUG, e);
 				instance = null;
 				isInstantiated = false;
-			} finally {
-				/*try {
-					//pluginClassLoader.close();
-				} catch (IOException e) {
-					log.catching(Level.DEBUG, e);
-				}*/
+				closeClassLoader();
 			}
 
 		}
@@ -128,6 +135,24 @@ public class PluginWrapper {
 	public void destroyPluginInstance() {
 		this.instance = null;
 		this.isInstantiated = false;
+		closeClassLoader();
+	}
+
+	/**
+	 * Close the class loader of the plugin, which releases its jar file. The class loader is tracked
+	 * until it has been garbage collected, see ClassLoaderLeakDetector.
+	 */
+	private void closeClassLoader() {
+		if( pluginClassLoader == null ) {
+			return;
+		}
+		try {
+			pluginClassLoader.close();
+		} catch (IOException e) {
+			log.catching(Level.DEBUG, e);
+		}
+		ClassLoaderLeakDetector.getInstance().track(pluginClassLoader, properties.getName());
+		pluginClassLoader = null;
 	}
 
 	/**
@@ -193,6 +218,15 @@ public class PluginWrapper {
 		return pluginType;
 	}
 
+	/**
+	 * Set the type of a plugin that has not been instantiated, i.e. a lazily started application plugin.
+	 *
+	 * @param pluginType The type of the plugin.
+	 */
+	void setPluginType(PluginType pluginType) {
+		this.pluginType = pluginType;
+	}
+
 	/**
 	 * Check whether the plugin has already been instantiated.
 	 *
@@ -201,4 +235,13 @@ public class PluginWrapper {
 	public boolean isAlreadyInstantiated() {
 		return this.isInstantiated;
 	}
+
+	/**
+	 * Set the parent of the class loader of the plugin. Takes effect on the next instantiation.
+	 *
+	 * @param parentClassLoader The parent, i.e. the SharedLibraryClassLoader of the plugin directory.
+	 */
+	void setParentClassLoader(ClassLoader parentClassLoader) {
+		this.parentClassLoader = parentClassLoader;
+	}
 }
@@ -0,0 +1,324 @@
+package org.ava.pluginengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class loader is the common parent of all plugin class loaders. Libraries used by several plugins
+ * are loaded, verified and compiled once instead of once per plugin.
+ * <p>
+ * It loads the classes of the jar files in the library directory of the plugin directory (plugins/lib).
+ * In addition, classes of the shared packages are loaded from the jar files of the plugins. A library
+ * bundled by several plugins is thereby loaded once, from the first plugin jar containing it. All packages
+ * of such a library and of its dependencies have to be shared.
+ * <p>
+ * Shared classes are never unloaded, and are not reloaded if a plugin is updated. A removed or updated plugin
+ * jar is not searched for further shared classes after the plugins have been reloaded, see retainPluginJars().
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class SharedLibraryClassLoader extends URLClassLoader {
+
+	private final static Logger log = LogManager.getLogger(SharedLibraryClassLoader.class);
+
+	/** Name of the library directory in the plugin directory. */
+	public final static String LIBRARY_DIR = "lib";
+
+	static {
+		registerAsParallelCapable();
+	}
+
+	/**
+	 * Inner class holding the jar file of a plugin searched for classes of the shared packages. The jar file
+	 * is opened on first use and read directly, not through the cached connections of jar URLs, so closing
+	 * it releases the file.
+	 */
+	private static class PluginJar {
+
+		private URL url;
+
+		private Path path;
+
+		/** The opened jar file, null until it is searched the first time. */
+		private JarFile jarFile;
+
+		public PluginJar(Path path, URL url) {
+			this.path = path;
+			this.url = url;
+		}
+
+		public JarFile getJarFile() throws IOException {
+			if( jarFile == null ) {
+				jarFile = new JarFile(path.toFile());
+			}
+			return jarFile;
+		}
+
+		public void close() {
+			if( jarFile == null ) {
+				return;
+			}
+			try {
+				jarFile.close();
+			} catch(IOException e) {
+				log.catching(Level.DEBUG, e);
+			}
+			jarFile = null;
+		}
+	}
+
+	/**
+	 * Inner class holding a class read from a plugin jar.
+	 */
+	private static class ClassFile {
+
+		private byte[] bytes;
+
+		private CodeSource codeSource;
+
+		private Manifest manifest;
+
+		public ClassFile(byte[] bytes, CodeSource codeSource, Manifest manifest) {
+			this.bytes = bytes;
+			this.codeSource = codeSource;
+			this.manifest = manifest;
+		}
+	}
+
+	/** Package prefixes of the classes loaded from the plugin jars, i.e. "org.json.". */
+	private List<String> sharedPackages;
+
+	/** The plugin jars searched for shared classes in the order they have been added. Guarded by itself. */
+	private Map<Path, PluginJar> pluginJars;
+
+	private AtomicInteger sharedClassCount;
+
+	/**
+	 * Create the class loader of the shared libraries.
+	 *
+	 * @param libraryJars The jar files of the library directory.
+	 * @param sharedPackages The packages loaded from the plugin jars, may be empty.
+	 * @param parent The class loader of Ava.
+	 */
+	public SharedLibraryClassLoader(List<Path> libraryJars, List<String> sharedPackages, ClassLoader parent) {
+		super(toURLs(libraryJars), parent);
+		this.sharedPackages = new ArrayList<String>();
+		for( String p : sharedPackages ) {
+			this.sharedPackages.add(p.endsWith(".") ? p : p + ".");
+		}
+		this.pluginJars = new LinkedHashMap<Path, PluginJar>();
+		this.sharedClassCount = new AtomicInteger();
+		log.debug("Shared library class loader created [libraries = " + libraryJars.size()
+				+ ", shared packages = " + this.sharedPackages + "]");
+	}
+
+	/**
+	 * Returns the jar files in the library directory of a plugin directory.
+	 *
+	 * @param pluginDir The plugin directory.
+	 * @return List<Path> The jar files sorted by name, empty if there is no library directory.
+	 */
+	public static List<Path> findLibraryJars(Path pluginDir) {
+		List<Path> jars = new ArrayList<Path>();
+		Path libraryDir = pluginDir.resolve(LIBRARY_DIR);
+		if( !Files.isDirectory(libraryDir) ) {
+			return jars;
+		}
+		try( DirectoryStream<Path> stream = Files.newDirectoryStream(libraryDir, "*.jar") ) {
+			for( Path jar : stream ) {
+				jars.add(jar);
+			}
+		} catch(IOException e) {
+			log.catching(Level.DEBUG, e);
+		}
+		Collections.sort(jars);
+		return jars;
+	}
+
+	/**
+	 * Make the classes of the shared packages in the jar file of a plugin available to all plugins.
+	 * Does nothing if no packages are shared. A jar file added again is reopened, i.e. after an update.
+	 *
+	 * @param jar The jar file of the plugin.
+	 */
+	public void addPluginJar(Path jar) {
+		if( sharedPackages.isEmpty() ) {
+			return;
+		}
+		URL url;
+		try {
+			url = jar.toUri().toURL();
+		} catch(MalformedURLException e) {
+			log.catching(Level.DEBUG, e);
+			return;
+		}
+		synchronized( pluginJars ) {
+			PluginJar old = pluginJars.put(jar, new PluginJar(jar, url));
+			if( old != null ) {
+				old.close();
+			}
+		}
+	}
+
+	/**
+	 * Stop searching all plugin jars but the given ones for shared classes and close them. Called on reload,
+	 * so removed and updated plugin jars are dropped. The updated ones are added again afterwards.
+	 *
+	 * @param jars The plugin jars to keep.
+	 */
+	public void retainPluginJars(Set<Path> jars) {
+		synchronized( pluginJars ) {
+			Iterator<PluginJar> it = pluginJars.values().iterator();
+			while( it.hasNext() ) {
+				PluginJar pluginJar = it.next();
+				if( !jars.contains(pluginJar.path) ) {
+					pluginJar.close();
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of classes of the shared packages loaded from plugin jars.
+	 */
+	public int getSharedClassCount() {
+		return sharedClassCount.get();
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		try {
+			return super.findClass(name);
+		} catch(ClassNotFoundException e) {
+			if( !isShared(name) ) {
+				throw e;
+			}
+		}
+
+		// called with the class loading lock of the name held, the class is defined once
+		ClassFile classFile;
+		try {
+			classFile = readPluginClass(name.replace('.', '/') + ".class");
+		} catch(IOException e) {
+			throw new ClassNotFoundException(name, e);
+		}
+		if( classFile == null ) {
+			throw new ClassNotFoundException(name);
+		}
+		int lastDot = name.lastIndexOf('.');
+		if( lastDot > 0 ) {
+			definePluginPackage(name.substring(0, lastDot), classFile.manifest, classFile.codeSource.getLocation());
+		}
+		Class<?> c = defineClass(name, classFile.bytes, 0, classFile.bytes.length, classFile.codeSource);
+		sharedClassCount.incrementAndGet();
+		log.debug("Shared class '" + name + "' loaded from " + classFile.codeSource.getLocation());
+		return c;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			retainPluginJars(Collections.<Path>emptySet());
+		} finally {
+			super.close();
+		}
+	}
+
+	/**
+	 * Reads a class file from the first plugin jar containing it.
+	 *
+	 * @param entryName The name of the class file in the jar, i.e. "org/json/JSONObject.class".
+	 * @return ClassFile The class, null if no plugin jar contains it.
+	 */
+	private ClassFile readPluginClass(String entryName) throws IOException {
+		synchronized( pluginJars ) {
+			for( PluginJar pluginJar : pluginJars.values() ) {
+				JarFile jarFile;
+				try {
+					jarFile = pluginJar.getJarFile();
+				} catch(IOException e) {
+					// i.e. removed since the last reload
+					log.catching(Level.DEBUG, e);
+					continue;
+				}
+				JarEntry entry = jarFile.getJarEntry(entryName);
+				if( entry == null ) {
+					continue;
+				}
+				byte[] b;
+				try( InputStream in = jarFile.getInputStream(entry) ) {
+					b = in.readAllBytes();
+				}
+				// the signers are known once the entry has been read completely
+				CodeSigner[] signers = entry.getCodeSigners();
+				return new ClassFile(b, new CodeSource(pluginJar.url, signers), jarFile.getManifest());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Defines the package of a shared class unless it has been defined already.
+	 */
+	private void definePluginPackage(String packageName, Manifest manifest, URL url) {
+		if( getDefinedPackage(packageName) != null ) {
+			return;
+		}
+		try {
+			if( manifest != null ) {
+				definePackage(packageName, manifest, url);
+			} else {
+				definePackage(packageName, null, null, null, null, null, null, null);
+			}
+		} catch(IllegalArgumentException e) {
+			// defined concurrently by another class of the package
+		}
+	}
+
+	private boolean isShared(String name) {
+		for( String p : sharedPackages ) {
+			if( name.startsWith(p) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static URL[] toURLs(List<Path> jars) {
+		List<URL> urls = new ArrayList<URL>();
+		for( Path jar : jars ) {
+			try {
+				urls.add(jar.toUri().toURL());
+			} catch(MalformedURLException e) {
+				log.catching(Level.DEBUG, e);
+			}
+		}
+		return urls.toArray(new URL[urls.size()]);
+	}
+}
@@ -1,5 +1,12 @@
 package org.ava.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ava.eventhandling.OverflowPolicy;
+import org.ava.eventhandling.UtteranceEventQueue;
+import org.ava.pluginengine.CommandExecutionService;
+import org.ava.pluginengine.PluginStartupScheduler;
 
 /**
  * This class contains all data to initialize Ava.
@@ -47,6 +54,69 @@ public class ApplicationConfig {
 
 	private static String activationPhrase = "Ava";
 
+	/**
+	 * Utterance queue settings.
+	 */
+	private static OverflowPolicy utteranceOverflowPolicy = OverflowPolicy.BLOCK_WITH_TIMEOUT;
+	private static int utteranceQueueCapacity = UtteranceEventQueue.DEFAULT_CAPACITY;
+	private static long utteranceQueueTimeout = UtteranceEventQueue.DEFAULT_OFFER_TIMEOUT;
+
+	/**
+	 * Path to the event journal. No journal is written if null.
+	 */
+	private static String eventJournalFile = null;
+
+	/**
+	 * Path to the utterances of a training run, see TrainingRun. Ava runs normally if null.
+	 */
+	private static String trainingScriptFile = null;
+	private static int commandThreads = CommandExecutionService.DEFAULT_POOL_SIZE;
+	private static int commandPluginConcurrency = CommandExecutionService.DEFAULT_PLUGIN_CONCURRENCY;
+	private static long commandTimeout = CommandExecutionService.DEFAULT_TIMEOUT;
+	private static int pluginStartThreads = PluginStartupScheduler.DEFAULT_THREADS;
+	private static long pluginStartTimeout = PluginStartupScheduler.DEFAULT_TIMEOUT;
+
+	/**
+	 * Audio output of Ava. Either "line" for the sound card, "none" to mute all audio output or
+	 * "file:<path>" to write the audio output to a WAV file.
+	 */
+	private static String audioOutput = "line";
+
+	/**
+	 * Whether System.in is read for console commands. Disabled if Ava runs as a daemon.
+	 */
+	private static boolean consoleInput = true;
+
+	/**
+	 * Whether application plugins with known commands are instantiated on first use.
+	 */
+	private static boolean lazyAppPlugins = false;
+
+	/**
+	 * Milliseconds a lazily instantiated application plugin may be idle before it is unloaded, 0 to keep it loaded.
+	 */
+	private static long appPluginIdleTimeout = 0;
+
+	/**
+	 * Number of threads walking the plugin directory, 1 for a sequential walk.
+	 */
+	private static int pluginDiscoveryThreads = 1;
+
+	/**
+	 * Whether the plugin directory is watched and changed plugins are reloaded while Ava is running.
+	 */
+	private static boolean pluginHotReload = false;
+
+	/**
+	 * Packages loaded once from the plugin jars and shared by all plugins, i.e. "org.json".
+	 */
+	private static List<String> sharedPackages = new ArrayList<String>();
+
+	/**
+	 * Path the boot timeline is written to as JSON. Not written if null.
+	 */
+	private static String bootProfileFile = null;
+
 	private ApplicationConfig() {}
 
 	public ApplicationConfig getInstance() {
@@ -116,4 +186,148 @@ public class ApplicationConfig {
 	public static String getActivationPhrase() {
 		return activationPhrase;
 	}
+
+	public static String getEventJournalFile() {
+		return eventJournalFile;
+	}
+
+	public static void setEventJournalFile(String eventJournalFile) {
+		ApplicationConfig.eventJournalFile = eventJournalFile;
+	}
+
+	public static OverflowPolicy getUtteranceOverflowPolicy() {
+		return utteranceOverflowPolicy;
+	}
+
+	public static void setUtteranceOverflowPolicy(OverflowPolicy utteranceOverflowPolicy) {
+		ApplicationConfig.utteranceOverflowPolicy = utteranceOverflowPolicy;
+	}
+
+	public static int getUtteranceQueueCapacity() {
+		return utteranceQueueCapacity;
+	}
+
+	public static void setUtteranceQueueCapacity(int utteranceQueueCapacity) {
+		ApplicationConfig.utteranceQueueCapacity = utteranceQueueCapacity;
+	}
+
+	public static long getUtteranceQueueTimeout() {
+		return utteranceQueueTimeout;
+	}
+
+	public static void setUtteranceQueueTimeout(long utteranceQueueTimeout) {
+		ApplicationConfig.utteranceQueueTimeout = utteranceQueueTimeout;
+	}
+
+	public static int getCommandThreads() {
+		return commandThreads;
+	}
+
+	public static void setCommandThreads(int commandThreads) {
+		ApplicationConfig.commandThreads = commandThreads;
+	}
+
+	public static int getCommandPluginConcurrency() {
+		return commandPluginConcurrency;
+	}
+
+	public static void setCommandPluginConcurrency(int commandPluginConcurrency) {
+		ApplicationConfig.commandPluginConcurrency = commandPluginConcurrency;
+	}
+
+	public static long getCommandTimeout() {
+		return commandTimeout;
+	}
+
+	public static void setCommandTimeout(long commandTimeout) {
+		ApplicationConfig.commandTimeout = commandTimeout;
+	}
+
+	public static String getAudioOutput() {
+		return audioOutput;
+	}
+
+	public static void setAudioOutput(String audioOutput) {
+		ApplicationConfig.audioOutput = audioOutput;
+	}
+
+	public static boolean isConsoleInput() {
+		return consoleInput;
+	}
+
+	public static void setConsoleInput(boolean consoleInput) {
+		ApplicationConfig.consoleInput = consoleInput;
+	}
+
+	public static String getBootProfileFile() {
+		return bootProfileFile;
+	}
+
+	public static void setBootProfileFile(String bootProfileFile) {
+		ApplicationConfig.bootProfileFile = bootProfileFile;
+	}
+
+	public static int getPluginStartThreads() {
+		return pluginStartThreads;
+	}
+
+	public static void setPluginStartThreads(int pluginStartThreads) {
+		ApplicationConfig.pluginStartThreads = pluginStartThreads;
+	}
+
+	public static long getPluginStartTimeout() {
+		return pluginStartTimeout;
+	}
+
+	public static void setPluginStartTimeout(long pluginStartTimeout) {
+		ApplicationConfig.pluginStartTimeout = pluginStartTimeout;
+	}
+
+	public static boolean isLazyAppPlugins() {
+		return lazyAppPlugins;
+	}
+
+	public static void setLazyAppPlugins(boolean lazyAppPlugins) {
+		ApplicationConfig.lazyAppPlugins = lazyAppPlugins;
+	}
+
+	public static long getAppPluginIdleTimeout() {
+		return appPluginIdleTimeout;
+	}
+
+	public static void setAppPluginIdleTimeout(long appPluginIdleTimeout) {
+		ApplicationConfig.appPluginIdleTimeout = appPluginIdleTimeout;
+	}
+
+	public static int getPluginDiscoveryThreads() {
+		return pluginDiscoveryThreads;
+	}
+
+	public static void setPluginDiscoveryThreads(int pluginDiscoveryThreads) {
+		ApplicationConfig.pluginDiscoveryThreads = pluginDiscoveryThreads;
+	}
+
+	public static boolean isPluginHotReload() {
+		return pluginHotReload;
+	}
+
+	public static void setPluginHotReload(boolean pluginHotReload) {
+		ApplicationConfig.pluginHotReload = pluginHotReload;
+	}
+
+	public static List<String> getSharedPackages() {
+		return sharedPackages;
+	}
+
+	public static void setSharedPackages(List<String> sharedPackages) {
+		ApplicationConfig.sharedPackages = sharedPackages;
+	}
+
+	public static String getTrainingScriptFile() {
+		return trainingScriptFile;
+	}
+
+	public static void setTrainingScriptFile(String trainingScriptFile) {
+		ApplicationConfig.trainingScriptFile = trainingScriptFile;
+	}
 }
@@ -40,7 +40,11 @@ public class AvaUtil {
 	 *
 	 * http://stackoverflow.com/a/26318
 	 * http://stackoverflow.com/a/577926
+	 *
+	 * @deprecated The sound is decoded on each call and bypasses the mixer. Play audio cues via
+	 * 		AudioCueManager.play(AudioCue), other samples via AudioOutputService.play(AudioChannel, short[]).
 	 */
+	@Deprecated
 	public static void playSound(String soundFilePath) {
 		try{
 
@@ -0,0 +1,303 @@
+package org.ava.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class records the timeline of the startup of Ava. Each startup phase and the start of each plugin
+ * is recorded with its start relative to the start of the JVM, its wall time and the CPU time of the
+ * thread executing it. Phases may be nested. The recording ends when Ava is ready, phases begun afterwards
+ * are not recorded.
+ * <p>
+ * CPU time is the time of the thread that began the phase, work a phase hands to other threads is only
+ * contained in its wall time.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class BootProfiler {
+
+	private final static Logger log = LogManager.getLogger(BootProfiler.class);
+
+	/** Category of startup phases. */
+	public final static String PHASE = "phase";
+
+	/** Category of plugin starts. */
+	public final static String PLUGIN = "plugin";
+
+	/** The singleton instance of the profiler. */
+	private static BootProfiler instance = new BootProfiler();
+
+	/**
+	 * This class represents a running phase. A phase has to be ended on the thread that began it.
+	 */
+	public class Phase {
+
+		private String name;
+		private String category;
+		private String thread;
+		private int depth;
+		private long startedAt;
+		private long cpuStartedAt;
+		private long wallNanos = -1;
+		private long cpuNanos = -1;
+		private boolean recorded;
+
+		private Phase(String name, String category, boolean recorded) {
+			this.name = name;
+			this.category = category;
+			this.recorded = recorded;
+			this.thread = Thread.currentThread().getName();
+			this.startedAt = System.nanoTime();
+			this.cpuStartedAt = getThreadCpuTime();
+			if( recorded ) {
+				this.depth = depth(1);
+			}
+		}
+
+		/**
+		 * End the phase.
+		 */
+		public void end() {
+			if( !recorded || wallNanos >= 0 ) {
+				return;
+			}
+			wallNanos = System.nanoTime() - startedAt;
+			long cpu = getThreadCpuTime();
+			cpuNanos = cpu < 0 || cpuStartedAt < 0 ? -1 : cpu - cpuStartedAt;
+			depth(-1);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getCategory() {
+			return category;
+		}
+
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Returns the start of the phase in nanoseconds since the start of the JVM.
+		 */
+		public long getStart() {
+			return startedAt - origin;
+		}
+
+		/**
+		 * Returns the wall time of the phase in nanoseconds, -1 if it has not ended.
+		 */
+		public long getWallTime() {
+			return wallNanos;
+		}
+
+		/**
+		 * Returns the CPU time of the phase in nanoseconds, -1 if it has not ended or CPU time is not supported.
+		 */
+		public long getCpuTime() {
+			return cpuNanos;
+		}
+	}
+
+	/** System.nanoTime() at the start of the JVM. */
+	private long origin;
+
+	private ThreadMXBean threads;
+
+	/** All recorded phases in the order they have been begun. */
+	private List<Phase> phases;
+
+	/** Nesting depth of the phases running on each thread. */
+	private ThreadLocal<Integer> depth = ThreadLocal.withInitial( () -> 0 );
+
+	/** Nanoseconds since the start of the JVM until Ava was ready, -1 if Ava is starting. */
+	private volatile long readyAt = -1;
+
+	/**
+	 * Private constructor to ensure singleton functionality.
+	 */
+	private BootProfiler() {
+		origin = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1000000L;
+		threads = ManagementFactory.getThreadMXBean();
+		phases = new ArrayList<Phase>();
+	}
+
+	/**
+	 * Returns the singleton instance of the BootProfiler.
+	 *
+	 * @return BootProfiler The instance of the profiler.
+	 */
+	public static BootProfiler getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Begin a startup phase.
+	 *
+	 * @param name The name of the phase.
+	 * @return Phase The running phase, it has to be ended by the calling thread.
+	 */
+	public Phase begin(String name) {
+		return begin(name, PHASE);
+	}
+
+	/**
+	 * Begin a phase of the given category, i.e. the start of a plugin.
+	 *
+	 * @param name The name of the phase.
+	 * @param category The category of the phase.
+	 * @return Phase The running phase, it has to be ended by the calling thread.
+	 */
+	public Phase begin(String name, String category) {
+		Phase phase = new Phase(name, category, readyAt < 0);
+		if( phase.recorded ) {
+			synchronized( phases ) {
+				phases.add(phase);
+			}
+		}
+		return phase;
+	}
+
+	/**
+	 * Mark Ava as ready. Ends the recording.
+	 */
+	public void markReady() {
+		if( readyAt < 0 ) {
+			readyAt = System.nanoTime() - origin;
+			log.info(String.format(Locale.ROOT, "Ava ready after %.1f ms.", readyAt / 1e6));
+		}
+	}
+
+	/**
+	 * Returns the time from the start of the JVM until Ava was ready.
+	 *
+	 * @return long The time in nanoseconds, -1 if Ava is not ready yet.
+	 */
+	public long getTimeToReady() {
+		return readyAt;
+	}
+
+	/**
+	 * Returns all recorded phases.
+	 *
+	 * @return List<Phase> The phases in the order they have been begun.
+	 */
+	public List<Phase> getPhases() {
+		synchronized( phases ) {
+			return new ArrayList<Phase>(phases);
+		}
+	}
+
+	/**
+	 * Returns the boot timeline: the start, wall time and CPU time of each phase, nested phases indented.
+	 *
+	 * @return String The report.
+	 */
+	public String formatReport() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ROOT, "%10s %10s %10s  %s%n", "start ms", "wall ms", "cpu ms", "phase"));
+		for( Phase phase : getPhases() ) {
+			StringBuilder name = new StringBuilder();
+			for( int ii = 0; ii < phase.depth; ii++ ) {
+				name.append("  ");
+			}
+			name.append(phase.category.equals(PLUGIN) ? "plugin " + phase.name : phase.name);
+			if( !phase.thread.equals("main") ) {
+				name.append(" [" + phase.thread + "]");
+			}
+			sb.append(String.format(Locale.ROOT, "%10.1f %10s %10s  %s%n", phase.getStart() / 1e6,
+					formatMillis(phase.wallNanos), formatMillis(phase.cpuNanos), name));
+		}
+		sb.append(readyAt < 0 ? "Ava is not ready yet."
+				: String.format(Locale.ROOT, "Ready after %.1f ms.", readyAt / 1e6));
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the boot timeline as JSON object. Times are in milliseconds, -1 if unknown.
+	 *
+	 * @return String The JSON object.
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append(String.format(Locale.ROOT, "  \"timeToReadyMs\": %.3f,%n", readyAt < 0 ? -1 : readyAt / 1e6));
+		sb.append("  \"phases\": [");
+		String separator = "\n";
+		for( Phase phase : getPhases() ) {
+			sb.append(separator);
+			sb.append(String.format(Locale.ROOT,
+					"    {\"name\": %s, \"category\": %s, \"thread\": %s, \"depth\": %d, \"startMs\": %.3f, \"wallMs\": %.3f, \"cpuMs\": %.3f}",
+					quote(phase.name), quote(phase.category), quote(phase.thread), phase.depth, phase.getStart() / 1e6,
+					phase.wallNanos < 0 ? -1 : phase.wallNanos / 1e6, phase.cpuNanos < 0 ? -1 : phase.cpuNanos / 1e6));
+			separator = ",\n";
+		}
+		sb.append("\n  ]\n}\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Write the boot timeline as JSON file.
+	 *
+	 * @param file The file.
+	 * @return boolean True if the file has been written.
+	 */
+	public boolean writeJson(Path file) {
+		try {
+			Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+			log.debug("Boot profile written to " + file);
+			return true;
+		} catch(IOException e) {
+			log.error("Failed to write boot profile to '" + file + "'.");
+			log.catching(Level.DEBUG, e);
+			return false;
+		}
+	}
+
+	private int depth(int delta) {
+		int current = depth.get();
+		depth.set(current + delta);
+		return current;
+	}
+
+	private long getThreadCpuTime() {
+		try {
+			return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+		} catch(UnsupportedOperationException e) {
+			return -1;
+		}
+	}
+
+	private String formatMillis(long nanos) {
+		return nanos < 0 ? "-" : String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+	}
+
+	private String quote(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for( char c : s.toCharArray() ) {
+			if( c == '"' || c == '\\' ) {
+				sb.append('\\').append(c);
+			} else if( c < 0x20 ) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+}
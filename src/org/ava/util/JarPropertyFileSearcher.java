@@ -1,24 +1,38 @@
 package org.ava.util;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 
  * @author Constantin
  * @since 2016-03-20
- * @version 1
+ * @version 2
+ *
+ * Changelog:
+ * 2026-10-19 Constantin v2
+ * 		-- Pair jar and property files by a hash join on their base name.
+ * 		-- Optional parallel walk of the plugin directory.
  */
 public class JarPropertyFileSearcher extends SimpleFileVisitor<Path> {
 
-	public class JarPropertyFilepathPair {
+	public static class JarPropertyFilepathPair {
 		
 		private Path jarFilepath;
 		private Path propertyFilepath;
@@ -33,14 +47,55 @@ public class JarPropertyFileSearcher extends SimpleFileVisitor<Path> {
 	} 
 	// end inner class JarPropertyFilePair
 	
+	/**
+	 * Inner class visiting a directory and forking a task for each of its subdirectories.
+	 */
+	@SuppressWarnings("serial")
+	private class DirectoryTask extends RecursiveAction {
+		
+		private Path dir;
+		private BasicFileAttributes attrs;
+		
+		public DirectoryTask(Path dir, BasicFileAttributes attrs) {
+			this.dir = dir;
+			this.attrs = attrs;
+		}
+		
+		@Override
+		protected void compute() {
+			preVisitDirectory(dir, attrs);
+			List<DirectoryTask> subdirectories = new ArrayList<DirectoryTask>();
+			try( DirectoryStream<Path> stream = Files.newDirectoryStream(dir) ) {
+				for(Path file : stream) {
+					BasicFileAttributes fileAttrs;
+					try {
+						fileAttrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					} catch (IOException e) {
+						visitFileFailed(file, e);
+						continue;
+					}
+					if( fileAttrs.isDirectory() ) {
+						subdirectories.add(new DirectoryTask(file, fileAttrs));
+					} else {
+						visitFile(file, fileAttrs);
+					}
+				}
+			} catch (IOException e) {
+				visitFileFailed(dir, e);
+			}
+			invokeAll(subdirectories);
+		}
+	}
+	// end inner class DirectoryTask
+	
 	/** List containing found jar files. */
 	private List<Path> jarFiles;
 	
 	/** List containing found property files. */
 	private List<Path> propertyFiles;
 	
-	/** List containing pairs of jar and property files with the same name. */
-	private List<JarPropertyFilepathPair> filePairs;
+	/** The modification time of each visited directory. */
+	private Map<Path, Long> directories;
 	
 	private PathMatcher jarFileMatcher;
 	private PathMatcher propertiesFileMatcher;
@@ -48,14 +103,48 @@ public class JarPropertyFileSearcher extends SimpleFileVisitor<Path> {
 	public JarPropertyFileSearcher() {
 		jarFiles = new ArrayList<Path>();
 		propertyFiles = new ArrayList<Path>();
-		filePairs = new ArrayList<JarPropertyFilepathPair>();
+		directories = new LinkedHashMap<Path, Long>();
 		
 		jarFileMatcher = FileSystems.getDefault().getPathMatcher("glob:*.jar");
 		propertiesFileMatcher = FileSystems.getDefault().getPathMatcher("glob:*.properties");
 	}
 	
+	/**
+	 * Search a directory tree for jar and property files. With more than one thread the subdirectories
+	 * are listed concurrently, which pays off for large or network mounted plugin directories. The
+	 * found files are then sorted by path, so the result does not depend on the order of the walk.
+	 * 
+	 * @param root The directory to search.
+	 * @param threads Number of threads listing directories, 1 for a sequential walk.
+	 * @throws IOException If the root directory can't be read.
+	 */
+	public void walk(Path root, int threads) throws IOException {
+		if( threads <= 1 ) {
+			Files.walkFileTree(root, this);
+			return;
+		}
+		BasicFileAttributes attrs = Files.readAttributes(root, BasicFileAttributes.class);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.invoke(new DirectoryTask(root, attrs));
+		} finally {
+			pool.shutdown();
+		}
+		synchronized( this ) {
+			Collections.sort(jarFiles);
+			Collections.sort(propertyFiles);
+		}
+	}
+	
 	@Override
-	public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+	public synchronized FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+		// the modification time changes whenever a file is added to or removed from the directory
+		directories.put(dir, attrs.lastModifiedTime().toMillis());
+		return FileVisitResult.CONTINUE;
+	}
+	
+	@Override
+	public synchronized FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
 		//System.out.println(file.getFileName());
 		if(jarFileMatcher.matches(file.getFileName())) {
 			jarFiles.add(file);
@@ -75,16 +164,28 @@ public class JarPropertyFileSearcher extends SimpleFileVisitor<Path> {
         return FileVisitResult.CONTINUE;
     }
 	
-	public List<JarPropertyFilepathPair> getJarPropertyFilepathPairs() {
+	/**
+	 * Pair each found jar file with the property files of the same base name, i.e. plugin.jar with
+	 * plugin.properties. The pairs are built by a hash join on the base name and ordered by jar file.
+	 * 
+	 * @return List<JarPropertyFilepathPair> A new list of the pairs on each call.
+	 */
+	public synchronized List<JarPropertyFilepathPair> getJarPropertyFilepathPairs() {
+		Map<String, List<Path>> propertyFilesByName = new HashMap<String, List<Path>>();
+		for(Path propertiesPath : propertyFiles) {
+			String tmp = propertiesPath.getFileName().toString();
+			String propertiesPathAsString = tmp.substring(0, tmp.length() - ".properties".length());
+			propertyFilesByName.computeIfAbsent(propertiesPathAsString, k -> new ArrayList<Path>(1)).add(propertiesPath);
+		}
+		
+		List<JarPropertyFilepathPair> filePairs = new ArrayList<JarPropertyFilepathPair>();
 		for(Path jarPath : jarFiles) {
 			String tmp = jarPath.getFileName().toString();
 			String jarPathAsString = tmp.substring(0, tmp.length() - ".jar".length());
 			
-			for(Path propertiesPath : propertyFiles) {
-				tmp = propertiesPath.getFileName().toString();
-				String propertiesPathAsString = tmp.substring(0, tmp.length() - ".properties".length());
-				
-				if(jarPathAsString.equals(propertiesPathAsString)) {
+			List<Path> matches = propertyFilesByName.get(jarPathAsString);
+			if( matches != null ) {
+				for(Path propertiesPath : matches) {
 					filePairs.add(new JarPropertyFilepathPair(jarPath, propertiesPath));
 				}
 			}
@@ -92,4 +193,13 @@ public class JarPropertyFileSearcher extends SimpleFileVisitor<Path> {
 		return filePairs;
 	}
 	
+	/**
+	 * Returns the modification time of each visited directory.
+	 * 
+	 * @return Map<Path, Long> A copy of the milliseconds since the epoch by directory, in the order the directories have been visited.
+	 */
+	public synchronized Map<Path, Long> getDirectories() {
+		return new LinkedHashMap<Path, Long>(directories);
+	}
+	
 }
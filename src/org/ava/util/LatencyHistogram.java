@@ -0,0 +1,153 @@
+package org.ava.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class implements a lock-free histogram for latencies in nanoseconds.
+ * <p>
+ * Like a HDR histogram, values are recorded into log-linear buckets: values below 16 are
+ * recorded exactly, larger values are recorded with eight buckets per power of two. Therefore
+ * the relative error of a reported percentile is at most 12.5 % for the whole range of long
+ * values, while recording a value is a single atomic increment.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class LatencyHistogram {
+
+	/** Number of values below 16, which are recorded exactly. */
+	private final static int LINEAR_BUCKETS = 16;
+
+	/** Number of bits of a value used to select the bucket within a power of two. */
+	private final static int SUB_BUCKET_BITS = 3;
+
+	private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** First power of two that is not recorded exactly. */
+	private final static int FIRST_EXPONENT = 4;
+
+	private final static int BUCKET_COUNT = LINEAR_BUCKETS + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+	private AtomicLongArray buckets;
+
+	private AtomicLong count;
+
+	private AtomicLong sum;
+
+	private AtomicLong max;
+
+	/**
+	 * Create an empty histogram.
+	 */
+	public LatencyHistogram() {
+		buckets = new AtomicLongArray(BUCKET_COUNT);
+		count = new AtomicLong();
+		sum = new AtomicLong();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * Record a single value. Negative values are recorded as 0.
+	 *
+	 * @param nanos The latency in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		buckets.incrementAndGet(bucketIndex(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 *
+	 * @return long The number of recorded values.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 *
+	 * @return long The largest recorded value in nanoseconds, 0 if nothing has been recorded.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the mean of all recorded values.
+	 *
+	 * @return double The mean in nanoseconds, 0.0 if nothing has been recorded.
+	 */
+	public double getMean() {
+		long c = count.get();
+		return c == 0 ? 0.0 : (double) sum.get() / c;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of recorded values lie.
+	 * The result is the upper bound of the bucket containing the percentile,
+	 * but never more than the largest recorded value.
+	 *
+	 * @param percentile The percentile between 0.0 and 100.0.
+	 * @return long The percentile in nanoseconds, 0 if nothing has been recorded.
+	 */
+	public long getPercentile(double percentile) {
+		long[] snapshot = new long[BUCKET_COUNT];
+		long total = 0;
+		for( int ii = 0; ii < BUCKET_COUNT; ii++ ) {
+			snapshot[ii] = buckets.get(ii);
+			total += snapshot[ii];
+		}
+		if( total == 0 ) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * total);
+		rank = Math.max(1, rank);
+		long seen = 0;
+		for( int ii = 0; ii < BUCKET_COUNT; ii++ ) {
+			seen += snapshot[ii];
+			if( seen >= rank ) {
+				return Math.min(bucketUpperBound(ii), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Remove all recorded values.
+	 */
+	public void reset() {
+		for( int ii = 0; ii < BUCKET_COUNT; ii++ ) {
+			buckets.set(ii, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	private static int bucketIndex(long value) {
+		if( value < LINEAR_BUCKETS ) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+		return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long bucketUpperBound(int index) {
+		if( index < LINEAR_BUCKETS ) {
+			return index;
+		}
+		int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + FIRST_EXPONENT;
+		long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (1L << exponent) + subBucket * width + width - 1;
+	}
+}
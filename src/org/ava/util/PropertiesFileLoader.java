@@ -34,10 +34,34 @@ public class PropertiesFileLoader {
 			+ "# Possible options:                                                                        #\n"
 			+ "#                                                                                          #\n"
 			+ "#    -- ACTIVATION PHRASE    = The phrase or word that activates Ava from idle mode.       #\n"
+			+ "#    -- APP_PLUGIN_IDLE_TIMEOUT = Optional. Milliseconds a lazily loaded application       #\n"
+			+ "#                                 plugin may be idle before it is unloaded. 0 keeps it     #\n"
+			+ "#                                 loaded. Default is 0.                                    #\n"
+			+ "#    -- AUDIO_OUTPUT         = Optional. Audio output of Ava. Possible values:             #\n"
+			+ "#                                  line: the default sound card (default)                  #\n"
+			+ "#                                  none: audio output is muted                             #\n"
+			+ "#                                  file:<path>: a WAV file the audio output is written to  #\n"
+			+ "#    -- BOOT_PROFILE         = Optional. File to which the boot timeline is written as     #\n"
+			+ "#                              JSON when Ava is ready. Shown with the CUI command -boot.   #\n"
+			+ "#    -- COMMAND_PLUGIN_CONCURRENCY = Optional. Maximum number of commands of one           #\n"
+			+ "#                                     plugin running at the same time. Default is 1.       #\n"
+			+ "#    -- COMMAND_THREADS            = Optional. Number of threads executing plugin          #\n"
+			+ "#                                     commands. Default is 4.                              #\n"
+			+ "#    -- COMMAND_TIMEOUT            = Optional. Milliseconds a plugin command may run       #\n"
+			+ "#                                     before the plugin is interrupted. 0 disables         #\n"
+			+ "#                                     the timeout. Default is 30000.                       #\n"
 			+ "#    -- CONFIGDIR            = The path to the configuration directory containing this     #\n"
 			+ "#                              file. Default directory is: ./res/                          #\n"
+			+ "#    -- CONSOLE_INPUT        = Optional. Whether the console is read for commands. Set     #\n"
+			+ "#                              to false to run Ava as a daemon. Default is true.           #\n"
 			+ "#    -- CUI_ACTIVE           = Wether the CUI is activated at startup. Possible values:    #\n"
 			+ "#                              true or false.                                              #\n"
+			+ "#    -- EVENT_JOURNAL        = Optional. File to which all bus events are journaled.       #\n"
+			+ "#                              The journal can be replayed with the CUI command -replay.   #\n"
+			+ "#    -- LAZY_APP_PLUGINS     = Optional. Whether application plugins are instantiated on   #\n"
+			+ "#                              their first command. Requires their commands declared as    #\n"
+			+ "#                              plugin.commands or known from a previous session.           #\n"
+			+ "#                              Default is false.                                           #\n"
 			+ "#    -- LOGLEVEL             = How verbose Ava's output is. Possible values:               #\n"
 			+ "#                                  OFF: no logging                                         #\n"
 			+ "#                                  FATAL: errors that impact core functionality            #\n"
@@ -51,6 +75,28 @@ public class PropertiesFileLoader {
 			+ "#                              should be above 0.9.                                        #\n"
 			+ "#    -- PLUGINDIR            = The path to the plugin directory. Default directory is:     #\n"
 			+ "#                              ./plugins/                                                  #\n"
+			+ "#    -- PLUGIN_DISCOVERY_THREADS = Optional. Number of threads walking the plugin          #\n"
+			+ "#                                  directory. Use more than 1 for large or network         #\n"
+			+ "#                                  mounted plugin directories. Default is 1.               #\n"
+			+ "#    -- PLUGIN_HOT_RELOAD    = Optional. Whether added, changed and removed plugins in     #\n"
+			+ "#                              the plugin directory are reloaded while Ava is running.     #\n"
+			+ "#                              Default is false.                                           #\n"
+			+ "#    -- PLUGIN_START_THREADS = Optional. Number of plugins started at the same time.       #\n"
+			+ "#                              Default is 4.                                               #\n"
+			+ "#    -- PLUGIN_START_TIMEOUT = Optional. Milliseconds a plugin may take to start before    #\n"
+			+ "#                              it is interrupted. 0 disables the timeout.                  #\n"
+			+ "#                              Default is 60000.                                           #\n"
+			+ "#    -- SHARED_PACKAGES      = Optional. Comma separated packages, i.e. org.json,          #\n"
+			+ "#                              loaded once from the plugin jars and shared by all          #\n"
+			+ "#                              plugins. The jar files in the lib folder of the plugin      #\n"
+			+ "#                              directory are always shared.                                #\n"
+			+ "#    -- UTTERANCE_QUEUE_CAPACITY = Optional. Maximum number of recognized utterances       #\n"
+			+ "#                                   waiting to be processed. Default is 16.                #\n"
+			+ "#    -- UTTERANCE_QUEUE_POLICY   = Optional. What happens if the utterance queue is full.  #\n"
+			+ "#                                   Possible values: DROP_OLDEST, DROP_NEWEST,             #\n"
+			+ "#                                   COALESCE_TO_LATEST, BLOCK_WITH_TIMEOUT (default).      #\n"
+			+ "#    -- UTTERANCE_QUEUE_TIMEOUT  = Optional. Milliseconds the STT plugin is blocked by     #\n"
+			+ "#                                   BLOCK_WITH_TIMEOUT before an utterance is dropped.     #\n"
 			+ "#                                                                                          #\n"
 			+ "# All other options are automatically created and maintaned by Ava.                        #\n"
 			+ "#                                                                                          #\n"
@@ -0,0 +1,221 @@
+package org.ava.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class creates the traces of recognized utterances and collects the completed traces.
+ * Each completed trace is logged as span record. The durations of the stages of the most recent
+ * traces are kept in rolling windows to report the p50, p95 and p99 per stage, so slow matching,
+ * slow plugins and slow TTS can be told apart. Traces of dropped utterances are counted, but kept
+ * out of the percentiles.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class TraceRecorder {
+
+	private final static Logger log = LogManager.getLogger(TraceRecorder.class);
+
+	/** Number of durations per stage the percentiles are computed of. */
+	public final static int WINDOW_SIZE = 1024;
+
+	/** Number of completed traces kept for the report. */
+	public final static int RECENT_TRACES = 10;
+
+	/** The singleton instance of the recorder. */
+	private static TraceRecorder instance = new TraceRecorder();
+
+	/**
+	 * Inner class holding the most recent durations of a stage.
+	 */
+	private class RollingWindow {
+
+		private long[] samples = new long[WINDOW_SIZE];
+		private int next;
+		private int size;
+
+		public synchronized void add(long nanos) {
+			samples[next] = nanos;
+			next = (next + 1) % WINDOW_SIZE;
+			size = Math.min(size + 1, WINDOW_SIZE);
+		}
+
+		/**
+		 * Returns the given percentiles of the durations in the window, all 0 if the window is empty.
+		 */
+		public long[] getPercentiles(double... percentiles) {
+			long[] sorted;
+			synchronized( this ) {
+				sorted = Arrays.copyOf(samples, size);
+			}
+			Arrays.sort(sorted);
+			long[] result = new long[percentiles.length];
+			for( int ii = 0; ii < percentiles.length && sorted.length > 0; ii++ ) {
+				int rank = (int) Math.ceil(percentiles[ii] / 100.0 * sorted.length);
+				result[ii] = sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+			}
+			return result;
+		}
+
+		public synchronized int getSize() {
+			return size;
+		}
+	}
+
+	private AtomicLong nextTraceID;
+
+	private RollingWindow[] windows;
+
+	/** Number of completed traces of dropped utterances. */
+	private AtomicLong droppedCount;
+
+	/** The most recently completed traces, oldest first. */
+	private Deque<UtteranceTrace> recent;
+
+	/**
+	 * Private constructor to ensure singleton functionality.
+	 */
+	private TraceRecorder() {
+		nextTraceID = new AtomicLong(1);
+		windows = new RollingWindow[TraceStage.values().length];
+		for( int ii = 0; ii < windows.length; ii++ ) {
+			windows[ii] = new RollingWindow();
+		}
+		recent = new ArrayDeque<UtteranceTrace>();
+		droppedCount = new AtomicLong();
+	}
+
+	/**
+	 * Returns the singleton instance of the TraceRecorder.
+	 *
+	 * @return TraceRecorder The instance of the recorder.
+	 */
+	public static TraceRecorder getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Start the trace of a recognized utterance.
+	 *
+	 * @param source The input source of the utterance.
+	 * @param utterance The recognized utterance.
+	 * @return UtteranceTrace The new trace with a unique trace ID.
+	 */
+	public UtteranceTrace start(String source, String utterance) {
+		return new UtteranceTrace(this, nextTraceID.getAndIncrement(), source, utterance);
+	}
+
+	/**
+	 * Called by a trace that has been released by all components working on the utterance.
+	 */
+	void complete(UtteranceTrace trace) {
+		if( trace.isDropped() ) {
+			droppedCount.incrementAndGet();
+		} else {
+			for( TraceStage stage : TraceStage.values() ) {
+				long duration = trace.getDuration(stage);
+				if( duration >= 0 ) {
+					windows[stage.ordinal()].add(duration);
+				}
+			}
+		}
+		synchronized( recent ) {
+			recent.addLast(trace);
+			if( recent.size() > RECENT_TRACES ) {
+				recent.removeFirst();
+			}
+		}
+		if( log.isDebugEnabled() ) {
+			log.debug(trace.format());
+		}
+	}
+
+	/**
+	 * Returns the most recently completed traces.
+	 *
+	 * @return List<UtteranceTrace> The traces, oldest first.
+	 */
+	public List<UtteranceTrace> getRecentTraces() {
+		synchronized( recent ) {
+			return new ArrayList<UtteranceTrace>(recent);
+		}
+	}
+
+	/**
+	 * Returns the number of traces of dropped utterances.
+	 *
+	 * @return long The number of dropped utterances.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Returns percentiles of the durations of a stage over the most recent traces.
+	 *
+	 * @param stage The stage.
+	 * @param percentiles The percentiles, i.e. 50, 95 and 99.
+	 * @return long[] The durations in nanoseconds in the order of the percentiles, all 0 if the stage has not been recorded.
+	 */
+	public long[] getPercentiles(TraceStage stage, double... percentiles) {
+		return windows[stage.ordinal()].getPercentiles(percentiles);
+	}
+
+	/**
+	 * Returns the number of durations of a stage the percentiles are computed of.
+	 *
+	 * @param stage The stage.
+	 * @return int The number of samples, at most WINDOW_SIZE.
+	 */
+	public int getSampleCount(TraceStage stage) {
+		return windows[stage.ordinal()].getSize();
+	}
+
+	/**
+	 * Returns the p50, p95 and p99 of each stage over the most recent traces, followed by the
+	 * span records of the most recently completed traces.
+	 *
+	 * @return String The report.
+	 */
+	public String formatReport() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-18s %8s %12s %12s %12s%n", "Stage", "Samples", "p50 ms", "p95 ms", "p99 ms"));
+		for( TraceStage stage : TraceStage.values() ) {
+			long[] p = getPercentiles(stage, 50, 95, 99);
+			sb.append(String.format("%-18s %8d %12.3f %12.3f %12.3f%n", stage.getLabel(), getSampleCount(stage),
+					p[0] / 1e6, p[1] / 1e6, p[2] / 1e6));
+		}
+		sb.append(String.format("%-18s %8d%n", "dropped", droppedCount.get()));
+		List<UtteranceTrace> traces = getRecentTraces();
+		if( !traces.isEmpty() ) {
+			sb.append(String.format("%nRecent traces:%n"));
+			for( UtteranceTrace trace : traces ) {
+				sb.append(trace.format());
+				sb.append(String.format("%n"));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Remove all collected durations and traces.
+	 */
+	public void reset() {
+		for( int ii = 0; ii < windows.length; ii++ ) {
+			windows[ii] = new RollingWindow();
+		}
+		synchronized( recent ) {
+			recent.clear();
+		}
+		droppedCount.set(0);
+	}
+}
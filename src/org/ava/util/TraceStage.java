@@ -0,0 +1,41 @@
+package org.ava.util;
+
+/**
+ * Enum encoding the stages an utterance passes from its recognition to the end of the speech output.
+ *
+ * Possible values:
+ * 		-- QUEUE: Waiting in the utterance queue of the STTEventBus.
+ * 		-- ACTIVATION_CHECK: Matching the utterance against the activation phrase.
+ * 		-- PLUGIN_MATCH: Matching the utterance against the names of the application plugins.
+ * 		-- COMMAND_MATCH: Matching the utterance against the commands of the matched plugin.
+ * 		-- COMMAND_WAIT: Waiting for a worker thread of the command execution.
+ * 		-- EXECUTE: Executing the matched command.
+ * 		-- SPEAK_WAIT: Waiting in the speak queue.
+ * 		-- SPEAK: Speech output by the TTS plugin.
+ * 		-- TOTAL: From the recognition of the utterance until all stages have finished.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public enum TraceStage {
+	QUEUE("queue"),
+	ACTIVATION_CHECK("activation check"),
+	PLUGIN_MATCH("plugin match"),
+	COMMAND_MATCH("command match"),
+	COMMAND_WAIT("command wait"),
+	EXECUTE("execute"),
+	SPEAK_WAIT("speak wait"),
+	SPEAK("speak"),
+	TOTAL("total");
+
+	private String label;
+
+	private TraceStage(String label) {
+		this.label = label;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+}
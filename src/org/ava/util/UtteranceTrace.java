@@ -0,0 +1,241 @@
+package org.ava.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class records the timing of a single utterance through all processing stages. A trace is
+ * created by the TraceRecorder when the utterance enters the STTEventBus and identified by a
+ * unique trace ID.
+ * <p>
+ * The trace of the utterance processed by the current thread is available through current(). Components
+ * continuing the processing on another thread, i.e. the command execution or the speak queue, retain the
+ * trace and release it when they are done. The trace is completed when it has been released by all of them.
+ * <p>
+ * A stage recorded several times, i.e. the speech output of two messages, spans from its first start
+ * to its last end.
+ *
+ * @author Constantin
+ * @since 2026-10-19
+ * @version 1
+ */
+public class UtteranceTrace {
+
+	/** The trace of the utterance processed by the current thread. */
+	private final static ThreadLocal<UtteranceTrace> current = new ThreadLocal<UtteranceTrace>();
+
+	private long traceID;
+
+	private String source;
+
+	private String utterance;
+
+	/** Wall clock time the utterance has been recognized. */
+	private long timestamp;
+
+	/** System.nanoTime() the utterance has been recognized. */
+	private long startedAt;
+
+	/** Start of each stage in nanoseconds since startedAt, -1 if the stage has not been recorded. */
+	private long[] stageStart;
+
+	/** End of each stage in nanoseconds since startedAt. */
+	private long[] stageEnd;
+
+	/** Number of components still working on the utterance. */
+	private AtomicInteger pending;
+
+	/** Why the utterance has been discarded before it has been processed, null if it has not been dropped. */
+	private String dropReason;
+
+	/** Whether the utterance has been fed back from an event journal. */
+	private volatile boolean replayed;
+
+	private TraceRecorder recorder;
+
+	UtteranceTrace(TraceRecorder recorder, long traceID, String source, String utterance) {
+		this.recorder = recorder;
+		this.traceID = traceID;
+		this.source = source;
+		this.utterance = utterance;
+		this.timestamp = System.currentTimeMillis();
+		this.startedAt = System.nanoTime();
+		this.stageStart = new long[TraceStage.values().length];
+		this.stageEnd = new long[TraceStage.values().length];
+		Arrays.fill(stageStart, -1);
+		this.pending = new AtomicInteger(1);
+	}
+
+	/**
+	 * Returns the trace of the utterance processed by the current thread.
+	 *
+	 * @return UtteranceTrace The current trace, null if the current thread does not process a traced utterance.
+	 */
+	public static UtteranceTrace current() {
+		return current.get();
+	}
+
+	/**
+	 * Set the trace of the utterance processed by the current thread.
+	 *
+	 * @param trace The trace, null to clear the current trace.
+	 */
+	public static void setCurrent(UtteranceTrace trace) {
+		if( trace == null ) {
+			current.remove();
+		} else {
+			current.set(trace);
+		}
+	}
+
+	/**
+	 * Returns the ID of the trace of the utterance processed by the current thread.
+	 *
+	 * @return long The trace ID, 0 if the current thread does not process a traced utterance.
+	 */
+	public static long currentTraceID() {
+		UtteranceTrace trace = current.get();
+		return trace == null ? 0 : trace.traceID;
+	}
+
+	/**
+	 * Record a stage of the current trace that started at the given time and ends now.
+	 * Does nothing if the current thread does not process a traced utterance.
+	 *
+	 * @param stage The stage.
+	 * @param startNanos System.nanoTime() at the start of the stage.
+	 */
+	public static void recordCurrent(TraceStage stage, long startNanos) {
+		UtteranceTrace trace = current.get();
+		if( trace != null ) {
+			trace.record(stage, startNanos, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Record a stage of this trace.
+	 *
+	 * @param stage The stage.
+	 * @param startNanos System.nanoTime() at the start of the stage.
+	 * @param endNanos System.nanoTime() at the end of the stage.
+	 */
+	public synchronized void record(TraceStage stage, long startNanos, long endNanos) {
+		int ii = stage.ordinal();
+		long start = startNanos - startedAt;
+		long end = endNanos - startedAt;
+		if( stageStart[ii] < 0 ) {
+			stageStart[ii] = start;
+			stageEnd[ii] = end;
+		} else {
+			stageStart[ii] = Math.min(stageStart[ii], start);
+			stageEnd[ii] = Math.max(stageEnd[ii], end);
+		}
+	}
+
+	/**
+	 * Mark the utterance as fed back from an event journal. Events caused by its processing are not journaled.
+	 */
+	public void markReplayed() {
+		replayed = true;
+	}
+
+	/**
+	 * Check whether the utterance has been fed back from an event journal.
+	 *
+	 * @return boolean True if the utterance is replayed.
+	 */
+	public boolean isReplayed() {
+		return replayed;
+	}
+
+	/**
+	 * A component continues to work on the utterance. It has to call release() when it is done.
+	 */
+	public void retain() {
+		pending.incrementAndGet();
+	}
+
+	/**
+	 * A component finished its work on the utterance. The trace is completed if no component is left.
+	 */
+	public void release() {
+		if( pending.decrementAndGet() == 0 ) {
+			record(TraceStage.TOTAL, startedAt, System.nanoTime());
+			recorder.complete(this);
+		}
+	}
+
+	/**
+	 * The utterance has been discarded before it has been processed, i.e. by the overflow policy of its
+	 * queue. Records the time spent in the queue and releases the trace.
+	 *
+	 * @param reason Why the utterance has been discarded.
+	 */
+	public void drop(String reason) {
+		synchronized( this ) {
+			dropReason = reason;
+		}
+		record(TraceStage.QUEUE, startedAt, System.nanoTime());
+		release();
+	}
+
+	public synchronized boolean isDropped() {
+		return dropReason != null;
+	}
+
+	/**
+	 * Returns the duration of a stage.
+	 *
+	 * @param stage The stage.
+	 * @return long The duration in nanoseconds, -1 if the stage has not been recorded.
+	 */
+	public synchronized long getDuration(TraceStage stage) {
+		int ii = stage.ordinal();
+		return stageStart[ii] < 0 ? -1 : stageEnd[ii] - stageStart[ii];
+	}
+
+	public long getTraceID() {
+		return traceID;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public String getUtterance() {
+		return utterance;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public long getStartedAt() {
+		return startedAt;
+	}
+
+	/**
+	 * Returns the span record of this trace: each recorded stage with its start relative to the
+	 * recognition of the utterance and its duration.
+	 *
+	 * @return String The span record.
+	 */
+	public synchronized String format() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("trace " + traceID + " [source = " + source + ", utterance = '" + utterance + "']");
+		if( dropReason != null ) {
+			sb.append(" dropped (" + dropReason + ")");
+		}
+		String separator = " ";
+		for( TraceStage stage : TraceStage.values() ) {
+			int ii = stage.ordinal();
+			if( stageStart[ii] >= 0 ) {
+				sb.append(separator);
+				sb.append(String.format("%s %.3f ms @%.3f", stage.getLabel(),
+						(stageEnd[ii] - stageStart[ii]) / 1e6, stageStart[ii] / 1e6));
+				separator = ", ";
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,75 @@
+package org.ava.test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ava.SpeakQueue;
+import org.ava.pluginengine.TTSPlugin;
+
+public class TestSpeakQueue {
+
+	/** Records the spoken messages. Speaking 'long' blocks until the plugin is interrupted. */
+	static class RecordingTTS implements TTSPlugin {
+		List<String> spoken = new CopyOnWriteArrayList<String>();
+		CountDownLatch speakingLong = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		AtomicInteger interrupts = new AtomicInteger();
+		public void sayText(String msg) {
+			spoken.add(msg);
+			if( msg.equals("long") ) {
+				speakingLong.countDown();
+				try {
+					interrupted.await();
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		public void start() {}
+		public void stop() {}
+		public void continueExecution() {}
+		public void interruptExecution() {
+			interrupts.incrementAndGet();
+			interrupted.countDown();
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		RecordingTTS tts = new RecordingTTS();
+		SpeakQueue queue = new SpeakQueue( () -> tts );
+
+		// dedup of the spoken and of a queued message
+		queue.enqueue("long", "a");
+		tts.speakingLong.await();
+		boolean idleWhileSpeaking = queue.isIdle();
+		boolean spokenAgain = queue.enqueue("long", "a");
+		queue.enqueue("stale", "a");
+		boolean queuedAgain = queue.enqueue("stale", "a");
+		System.out.println("Duplicates queued: " + spokenAgain + ", " + queuedAgain + ", deduped " + queue.getDedupedCount()
+				+ " (expected false, false, 2)");
+
+		// a new interaction of 'a' cancels its pending messages, not the ones of 'b'
+		queue.enqueue("other source", "b");
+		queue.startNewInteraction("a");
+		queue.enqueue("current", "a");
+		System.out.println("Cancelled: " + queue.getCancelledCount() + ", pending " + queue.getPendingCount() + " (expected 1, 2)");
+
+		// barge-in interrupts the speech output of the own source only
+		boolean otherBargeIn = queue.bargeIn("b");
+		boolean ownBargeIn = queue.bargeIn("a");
+		System.out.println("Barge-in of another source: " + otherBargeIn + ", of the own source: " + ownBargeIn
+				+ ", plugin interrupts " + tts.interrupts.get() + " (expected false, true, 1)");
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while( !queue.isIdle() && System.currentTimeMillis() < deadline ) {
+			Thread.sleep(10);
+		}
+		System.out.println("Spoken: " + tts.spoken + ", interrupted " + queue.getInterruptedCount()
+				+ " (expected [long, other source, current], 1)");
+		System.out.println("Idle while speaking: " + idleWhileSpeaking + ", after speaking: " + queue.isIdle()
+				+ " (expected false, true)");
+		queue.shutdown();
+	}
+}
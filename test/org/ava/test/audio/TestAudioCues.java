@@ -0,0 +1,72 @@
+package org.ava.test.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.ava.audio.AudioChannel;
+import org.ava.audio.AudioCue;
+import org.ava.audio.AudioCueManager;
+import org.ava.audio.AudioOutputService;
+import org.ava.audio.AudioStream;
+import org.ava.audio.FileAudioOutput;
+import org.ava.audio.NullAudioOutput;
+import org.ava.util.LatencyHistogram;
+
+public class TestAudioCues {
+
+	public static void main(String[] args) throws Exception {
+		AudioOutputService service = AudioOutputService.getInstance();
+
+		// cues through the null output
+		NullAudioOutput output = new NullAudioOutput();
+		service.start(output);
+		AudioCueManager cues = new AudioCueManager("./res/", service);
+		long start = System.nanoTime();
+		for( int ii = 0; ii < 100; ii++ ) {
+			cues.play(ii % 10 == 0 ? AudioCue.BOOT : AudioCue.CONFIRMATION);
+		}
+		System.out.println("100 cues requested in " + (System.nanoTime() - start) / 1000 + " us");
+		while( service.getStreamCount() > 0 ) {
+			Thread.sleep(10);
+		}
+		System.out.println("Mixed frames: " + service.getMixedFrames() + ", bytes written: " + output.getByteCount());
+		LatencyHistogram latency = service.getStartLatency();
+		System.out.println(String.format("Start latency p50 %.3f ms, p99 %.3f ms",
+				latency.getPercentile(50) / 1e6, latency.getPercentile(99) / 1e6));
+		service.shutdown();
+
+		// speech ducked under a cue, written to a file
+		Path file = Files.createTempFile("ava-mix", ".wav");
+		AudioStream speech = service.openStream(AudioChannel.SPEECH, new AudioFormat(22050f, 16, 1, true, false));
+		byte[] tone = new byte[22050];		// 0.5 s of constant amplitude 10000
+		for( int ii = 0; ii < tone.length; ii += 2 ) {
+			tone[ii] = (byte) 10000;
+			tone[ii + 1] = (byte) (10000 >> 8);
+		}
+		speech.write(tone, 0, tone.length);
+		speech.close();
+		short[] cue = new short[4410 * 2];	// 0.1 s of constant amplitude 1000
+		Arrays.fill(cue, (short) 1000);
+		service.play(AudioChannel.CUE, cue);
+		service.start(new FileAudioOutput(file));
+		System.out.println("Speech drained: " + speech.drain());
+		service.shutdown();
+
+		// nothing plays a stream opened after shutdown, draining it must not block
+		AudioStream late = service.openStream(AudioChannel.SPEECH, new AudioFormat(22050f, 16, 1, true, false));
+		late.write(tone, 0, tone.length);
+		System.out.println("Late stream drained: " + late.drain() + " (expected false)");
+
+		ByteBuffer wav = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+		int frames = (wav.limit() - 44) / 4;
+		System.out.println("File frames: " + frames + " (expected ~22050)");
+		System.out.println("Under cue: " + wav.getShort(44 + 3000 * 4) + " (expected 4000)"
+				+ ", after cue: " + wav.getShort(44 + 15000 * 4) + " (expected 10000)");
+		Files.delete(file);
+	}
+}
@@ -0,0 +1,82 @@
+package org.ava.test.eventhandling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ava.eventhandling.CommandEnteredEvent;
+import org.ava.eventhandling.EventJournal;
+import org.ava.eventhandling.EventJournalReplayer;
+import org.ava.eventhandling.JournalRecord;
+import org.ava.eventhandling.STTEventBus;
+import org.ava.eventhandling.UIEventBus;
+import org.ava.eventhandling.UtteranceRecognizedEvent;
+import org.ava.eventhandling.UtteranceRecognizedListener;
+
+public class TestEventJournal {
+
+	public static void main(String[] args) throws IOException {
+		Path journalFile = Files.createTempFile("ava-journal", ".bin");
+		STTEventBus seb = STTEventBus.getInstance();
+		AtomicInteger processed = new AtomicInteger();
+		AtomicBoolean replaying = new AtomicBoolean();
+
+		UtteranceRecognizedListener ucl = new UtteranceRecognizedListener() {
+			@Override
+			public void processRecognizedUtterance(UtteranceRecognizedEvent event) {
+				if( processed.incrementAndGet() == 1 && replaying.get() ) {
+					// caused by a replayed utterance, not journaled
+					UIEventBus.getInstance().fireCommandEnteredEvent(new CommandEnteredEvent("replayed command"));
+					// a live event fired by an unrelated thread while the journal is replayed
+					Thread live = new Thread( () ->
+							UIEventBus.getInstance().fireCommandEnteredEvent(new CommandEnteredEvent("live command")) );
+					live.start();
+					try {
+						live.join();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}};
+		seb.registerUtteranceRecognizedListener(ucl);
+
+		// record
+		EventJournal.getInstance().open(journalFile);
+		for( int ii = 0; ii < 1000; ii++ ) {
+			seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("utterance " + ii));
+		}
+		UIEventBus.getInstance().fireCommandEnteredEvent(new CommandEnteredEvent("spotify: play"));
+		seb.awaitUtterancesProcessed(10000);
+		EventJournal.getInstance().close();
+		System.out.println("Journal size: " + Files.size(journalFile) + " bytes (expected far below 4 MB)");
+
+		List<JournalRecord> records = EventJournalReplayer.readJournal(journalFile);
+		System.out.println("Records read: " + records.size() + " (expected 1001)");
+		System.out.println("First record: #" + records.get(0).getSequenceNumber() + " "
+				+ records.get(0).getType() + " '" + records.get(0).getPayload()[0] + "'");
+
+		// replay at max speed into a new journal
+		processed.set(0);
+		Path replayJournalFile = Files.createTempFile("ava-journal", ".bin");
+		EventJournal.getInstance().open(replayJournalFile);
+		EventJournalReplayer replayer = new EventJournalReplayer();
+		replaying.set(true);
+		replayer.replay(records, EventJournalReplayer.Speed.MAX);
+		replaying.set(false);
+		EventJournal.getInstance().close();
+		System.out.println("Replay: " + replayer.formatResult());
+		System.out.println("Utterances processed during replay: " + processed.get() + " (expected 1000)");
+
+		List<JournalRecord> liveRecords = EventJournalReplayer.readJournal(replayJournalFile);
+		System.out.println("Records journaled during replay: " + liveRecords.size()
+				+ (liveRecords.isEmpty() ? "" : " '" + liveRecords.get(0).getPayload()[0] + "'")
+				+ " (expected 1 'live command')");
+
+		seb.unregisterUtteranceRecognizedListener(ucl);
+		Files.delete(journalFile);
+		Files.delete(replayJournalFile);
+	}
+}
@@ -0,0 +1,98 @@
+package org.ava.test.eventhandling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ava.eventhandling.PluginActivationStateChangedEvent;
+import org.ava.eventhandling.PluginActivationStateChangedListener;
+import org.ava.eventhandling.STTEventBus;
+import org.ava.eventhandling.ShutdownTriggeredListener;
+import org.ava.eventhandling.UIEventBus;
+import org.ava.eventhandling.UtteranceRecognizedEvent;
+import org.ava.eventhandling.UtteranceRecognizedListener;
+import org.ava.pluginengine.PluginActivationState;
+
+public class TestPriorityLanes {
+
+	private static final int SOURCES = 4;
+
+	public static void main(String[] args) throws InterruptedException {
+		STTEventBus seb = STTEventBus.getInstance();
+		UIEventBus uieb = UIEventBus.getInstance();
+		AtomicInteger utterancesStarted = new AtomicInteger();
+
+		// each utterance keeps its dispatcher busy for 50 ms
+		UtteranceRecognizedListener slow = new UtteranceRecognizedListener() {
+			@Override
+			public void processRecognizedUtterance(UtteranceRecognizedEvent event) {
+				utterancesStarted.incrementAndGet();
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}};
+		seb.registerUtteranceRecognizedListener(slow);
+
+		// saturate the utterance lane of all sources
+		AtomicBoolean producing = new AtomicBoolean(true);
+		List<Thread> producers = new ArrayList<Thread>();
+		for( int ii = 0; ii < SOURCES; ii++ ) {
+			String source = "source-" + ii;
+			Thread producer = new Thread( () -> {
+				while( producing.get() ) {
+					seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("utterance", source));
+				}
+			});
+			producer.setDaemon(true);
+			producer.start();
+			producers.add(producer);
+		}
+		while( utterancesStarted.get() < 2 * SOURCES ) {
+			Thread.sleep(10);
+		}
+
+		// control events do not queue behind the utterances
+		AtomicLong shutdownNotified = new AtomicLong();
+		ShutdownTriggeredListener stl = () -> shutdownNotified.set(System.nanoTime());
+		uieb.registerShutdownTriggeredListener(stl);
+		long start = System.nanoTime();
+		uieb.fireShutdownTriggeredEvent();
+		System.out.println("Shutdown event notified after " + (shutdownNotified.get() - start) / 1000000
+				+ " ms, returned after " + (System.nanoTime() - start) / 1000000 + " ms (expected < 50 ms, one utterance)");
+		uieb.unregisterShutdownTriggeredListener(stl);
+
+		// no utterance starts while an activation event is running
+		AtomicInteger startedDuringActivation = new AtomicInteger();
+		PluginActivationStateChangedListener pascl = new PluginActivationStateChangedListener() {
+			@Override
+			public void changeActivationStateOfPlugin(PluginActivationStateChangedEvent event) {
+				int before = utterancesStarted.get();
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				startedDuringActivation.set(utterancesStarted.get() - before);
+			}
+		};
+		uieb.registerPluginActivationStateChangedListener(pascl);
+		start = System.nanoTime();
+		uieb.firePluginActiavtionStateChangedEvent(new PluginActivationStateChangedEvent("test", PluginActivationState.ACTIVATED));
+		System.out.println("Activation event returned after " + (System.nanoTime() - start) / 1000000
+				+ " ms (expected ~300 ms, the listener)");
+		System.out.println("Utterances started during the activation event: " + startedDuringActivation.get()
+				+ " (expected at most " + SOURCES + ", dispatchers already past awaitTurn)");
+		uieb.unregisterPluginActivationStateChangedListener(pascl);
+
+		producing.set(false);
+		seb.shutdown();
+		for( Thread producer : producers ) {
+			producer.join(1000);
+		}
+		seb.unregisterUtteranceRecognizedListener(slow);
+	}
+}
@@ -1,12 +1,47 @@
 package org.ava.test.eventhandling;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
 import org.ava.eventhandling.STTEventBus;
 import org.ava.eventhandling.UtteranceRecognizedEvent;
 import org.ava.eventhandling.UtteranceRecognizedListener;
+import org.ava.eventhandling.UtteranceRequestedListener;
+import org.ava.pluginengine.Plugin;
 
 public class TestSTTEventHandling {
 
-	public static void main(String[] args) {
+	/** Blocks on the first request until it is interrupted, answers the following ones. */
+	static class BlockingEngine implements UtteranceRequestedListener, Plugin {
+		AtomicInteger requests = new AtomicInteger();
+		AtomicInteger interrupts = new AtomicInteger();
+		public String requestUtterance() {
+			if( requests.incrementAndGet() > 1 ) {
+				return "answered";
+			}
+			try {
+				Thread.sleep(10000);
+			} catch(InterruptedException e) {
+				// interrupted after the timeout
+			}
+			return null;
+		}
+		public void start() {}
+		public void stop() {}
+		public void continueExecution() {}
+		public void interruptExecution() { interrupts.incrementAndGet(); }
+	}
+
+	private static List<Thread> dispatcherThreads(String namePrefix) {
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter( t -> t.getName().startsWith(namePrefix) )
+				.collect(Collectors.toList());
+	}
+
+	public static void main(String[] args) throws InterruptedException {
 		STTEventBus seb = STTEventBus.getInstance();
 		
 		UtteranceRecognizedEvent ure = new UtteranceRecognizedEvent("Hello World.");
@@ -19,7 +54,43 @@ public class TestSTTEventHandling {
 			
 		seb.registerUtteranceRecognizedListener(ucl);
 		seb.fireUtteranceRecognizedEvent(ure);
+		seb.awaitUtterancesProcessed(1000);
+		
+		// the queue and the dispatcher thread of an idle source are removed
+		seb.setSourceIdleTimeout(100);
+		seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("Hello Room.", "room"));
+		seb.awaitUtterancesProcessed(1000);
+		// the dispatcher thread terminates after it removed the queue
+		for( Thread t : dispatcherThreads("stt-dispatcher-room") ) {
+			t.join(5000);
+		}
+		System.out.println("Queue of idle source removed: " + !seb.getUtteranceQueues().containsKey("room") + " (expected true)");
+		seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("Hello again.", "room"));
+		seb.awaitUtterancesProcessed(1000);
 		seb.unregisterUtteranceRecognizedListener(ucl);
+		
+		// a blocked request neither delays the next request nor keeps listening after the timeout
+		BlockingEngine engine = new BlockingEngine();
+		seb.registerUtteranceRequestedListener(engine);
+		try {
+			seb.requestUtteranceAsync(Duration.ofMillis(200)).join();
+		} catch(CompletionException e) {
+			System.out.println("Blocked request: " + e.getCause().getClass().getSimpleName() + " (expected TimeoutException)");
+		}
+		long start = System.currentTimeMillis();
+		String utterance = seb.requestUtteranceAsync(Duration.ofMillis(1000)).join();
+		System.out.println("Next request: '" + utterance + "' after " + (System.currentTimeMillis() - start)
+				+ " ms, engine interrupts " + engine.interrupts.get() + " (expected 'answered' after ~0 ms, 1)");
+		seb.unregisterUtteranceRequestedListener(engine);
+		
+		List<Thread> dispatchers = dispatcherThreads("stt-dispatcher-");
+		seb.shutdown();
+		boolean dispatcherRunning = false;
+		for( Thread t : dispatchers ) {
+			t.join(5000);
+			dispatcherRunning |= t.isAlive();
+		}
+		System.out.println("Dispatcher threads running after shutdown: " + dispatcherRunning + " (expected false)");
 	}
 
 }
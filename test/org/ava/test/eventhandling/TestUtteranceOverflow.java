@@ -0,0 +1,81 @@
+package org.ava.test.eventhandling;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.ava.eventhandling.OverflowPolicy;
+import org.ava.eventhandling.STTEventBus;
+import org.ava.eventhandling.UtteranceEventQueue;
+import org.ava.eventhandling.UtteranceRecognizedEvent;
+import org.ava.eventhandling.UtteranceRecognizedListener;
+import org.ava.util.TraceRecorder;
+
+public class TestUtteranceOverflow {
+
+	public static void main(String[] args) throws InterruptedException {
+		STTEventBus seb = STTEventBus.getInstance();
+		TraceRecorder recorder = TraceRecorder.getInstance();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+
+		UtteranceRecognizedListener ucl = new UtteranceRecognizedListener() {
+			@Override
+			public void processRecognizedUtterance(UtteranceRecognizedEvent event) {
+				System.out.println("Utterance '" + event.getUtterance() + "' processed.");
+				started.countDown();
+				try {
+					proceed.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}};
+		seb.registerUtteranceRecognizedListener(ucl);
+
+		// the first utterance blocks the listener, the following ones are coalesced to the last one
+		seb.configureUtteranceQueue(OverflowPolicy.COALESCE_TO_LATEST, 4, 0);
+		seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("utterance 0"));
+		started.await();
+		for( int ii = 1; ii <= 4; ii++ ) {
+			seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("utterance " + ii));
+		}
+		proceed.countDown();
+		seb.awaitUtterancesProcessed(1000);
+		System.out.println("Dropped traces: " + recorder.getDroppedCount() + ", coalesced "
+				+ seb.getUtteranceQueue().getCoalescedCount() + " (expected 3, 3)");
+
+		// the oldest utterances are dropped from a full queue
+		recorder.reset();
+		CountDownLatch blocked = new CountDownLatch(1);
+		UtteranceRecognizedListener blocking = new UtteranceRecognizedListener() {
+			@Override
+			public void processRecognizedUtterance(UtteranceRecognizedEvent event) {
+				try {
+					blocked.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}};
+		seb.registerUtteranceRecognizedListener(blocking);
+		seb.configureUtteranceQueue(OverflowPolicy.DROP_OLDEST, 2, 0);
+		for( int ii = 0; ii < 10; ii++ ) {
+			seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("utterance " + ii));
+		}
+		blocked.countDown();
+		seb.awaitUtterancesProcessed(1000);
+		System.out.println("Dropped traces: " + recorder.getDroppedCount()
+				+ " (expected " + seb.getUtteranceQueue().getDroppedCount() + ")");
+
+		seb.unregisterUtteranceRecognizedListener(ucl);
+		seb.unregisterUtteranceRecognizedListener(blocking);
+		seb.shutdown();
+
+		// a closed queue does not accept utterances
+		UtteranceEventQueue closed = new UtteranceEventQueue();
+		closed.close();
+		try {
+			closed.offer(new UtteranceRecognizedEvent("after close"));
+			System.out.println("Offer to closed queue accepted, pending " + closed.size() + " (expected IllegalStateException)");
+		} catch(IllegalStateException e) {
+			System.out.println("Offer to closed queue: " + e.getClass().getSimpleName() + " (expected IllegalStateException)");
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package org.ava.test.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.ava.SpeakQueue;
+import org.ava.jfr.CommandExecutionEvent;
+import org.ava.jfr.CommandMatchEvent;
+import org.ava.jfr.PluginLifecycleEvent;
+import org.ava.jfr.PluginMatchEvent;
+import org.ava.jfr.SpeechOutputEvent;
+import org.ava.jfr.UtteranceReceivedEvent;
+import org.ava.matching.AppPluginMatcher;
+import org.ava.matching.DefaultMatchingEngine;
+import org.ava.matching.SpeculativeMatcher;
+import org.ava.pluginengine.AppCommand;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.CommandExecutionService;
+import org.ava.pluginengine.Plugin;
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginProperties;
+import org.ava.pluginengine.PluginWrapper;
+import org.ava.pluginengine.TTSPlugin;
+import org.ava.util.ApplicationConfig;
+
+public class TestFlightRecorderEvents {
+
+	private static final Class<?>[] EVENTS = { UtteranceReceivedEvent.class, PluginMatchEvent.class,
+			CommandMatchEvent.class, CommandExecutionEvent.class, SpeechOutputEvent.class, PluginLifecycleEvent.class };
+
+	public static class SpeakerPlugin implements AppPlugin {
+		private List<AppCommand> commands = new ArrayList<AppCommand>();
+		public SpeakerPlugin() {
+			commands.add(new AppCommand() {
+				public void execute(String arg) {}
+				public String getCommand() { return "say *"; }
+			});
+		}
+		public void start() {}
+		public void stop() {}
+		public void continueExecution() {}
+		public void interruptExecution() {}
+		public List<AppCommand> getApplicationCommands() { return commands; }
+	}
+
+	public static void main(String[] args) throws Exception {
+		// the event types and their fields
+		for( Class<?> c : EVENTS ) {
+			EventType type = EventType.getEventType(c.asSubclass(jdk.jfr.Event.class));
+			List<String> fields = new ArrayList<String>();
+			for( ValueDescriptor field : type.getFields() ) {
+				fields.add(field.getName());
+			}
+			System.out.println(type.getName() + " " + type.getCategoryNames() + ": " + fields);
+		}
+
+		Recording recording = new Recording();
+		for( Class<?> c : EVENTS ) {
+			recording.enable(c.getAnnotation(jdk.jfr.Name.class).value()).withThreshold(Duration.ZERO);
+		}
+		recording.start();
+
+		PluginManager manager = new PluginManager();
+		manager.getPluginList().put(0, new PluginWrapper(Paths.get("test.jar"),
+				new PluginProperties(0, "Speaker", "1", SpeakerPlugin.class.getName())));
+		AppPlugin plugin = (AppPlugin) manager.startPlugin(0);
+		AppCommand command = plugin.getApplicationCommands().get(0);
+
+		DefaultMatchingEngine engine = new DefaultMatchingEngine();
+		engine.addApplicationCommands(plugin.getApplicationCommands(), 0);
+		SpeculativeMatcher speculativeMatcher = new SpeculativeMatcher(engine,
+				() -> AppPluginMatcher.getAppPluginNames(manager), ApplicationConfig.getMatchingTreshold());
+		new AppPluginMatcher(manager, speculativeMatcher).match("speaker");
+		engine.matchCommand("say hello", 0);
+		// a speculative match is not recorded
+		engine.matchCommandQuietly("say goodbye", 0);
+
+		CommandExecutionService commands = new CommandExecutionService();
+		commands.submit(0, plugin, command, "hello").join();
+
+		List<String> spoken = new ArrayList<String>();
+		SpeakQueue speakQueue = new SpeakQueue( () -> new TTSPlugin() {
+			public void start() {}
+			public void stop() {}
+			public void continueExecution() {}
+			public void interruptExecution() {}
+			public void sayText(String msg) { spoken.add(msg); }
+		});
+		speakQueue.enqueue("hello", null);
+		long deadline = System.currentTimeMillis() + 5000;
+		while( speakQueue.getSpokenCount() < 1 && System.currentTimeMillis() < deadline ) {
+			Thread.sleep(10);
+		}
+		manager.stopPlugin((Plugin) plugin);
+
+		recording.stop();
+		Path file = Files.createTempFile("ava-jfr", ".jfr");
+		recording.dump(file);
+		recording.close();
+		Map<String, List<RecordedEvent>> recorded = new TreeMap<String, List<RecordedEvent>>();
+		for( RecordedEvent e : RecordingFile.readAllEvents(file) ) {
+			recorded.computeIfAbsent(e.getEventType().getName(), n -> new ArrayList<RecordedEvent>()).add(e);
+		}
+		Files.delete(file);
+
+		List<String> actions = new ArrayList<String>();
+		for( RecordedEvent e : recorded.getOrDefault("org.ava.PluginLifecycle", new ArrayList<RecordedEvent>()) ) {
+			actions.add(e.getString("pluginName") + " " + e.getString("action") + " " + e.getBoolean("succeeded"));
+		}
+		System.out.println("PluginLifecycle: " + actions + " (expected [Speaker start true, Speaker stop true])");
+		RecordedEvent pluginMatch = first(recorded, "org.ava.PluginMatch");
+		System.out.println("PluginMatch: " + (pluginMatch == null ? null : "'" + pluginMatch.getString("utterance") + "' -> '"
+				+ pluginMatch.getString("matchedPlugin") + "', candidates " + pluginMatch.getInt("candidateCount"))
+				+ " (expected 'speaker' -> 'Speaker', candidates 1)");
+		RecordedEvent commandMatch = first(recorded, "org.ava.CommandMatch");
+		System.out.println("CommandMatch: " + (commandMatch == null ? null : "'" + commandMatch.getString("utterance") + "' -> '"
+				+ commandMatch.getString("matchedCommand") + "', plugin " + commandMatch.getInt("pluginID"))
+				+ " (expected 'say hello' -> 'say *', plugin 0)");
+		System.out.println("CommandMatch events: " + recorded.getOrDefault("org.ava.CommandMatch", new ArrayList<RecordedEvent>()).size()
+				+ " (expected 1, the quiet match is not recorded)");
+		RecordedEvent execution = first(recorded, "org.ava.CommandExecution");
+		System.out.println("CommandExecution: " + (execution == null ? null : "'" + execution.getString("command") + "' arg '"
+				+ execution.getString("argument") + "', failed " + execution.getBoolean("failed"))
+				+ " (expected 'say *' arg 'hello', failed false)");
+		RecordedEvent speech = first(recorded, "org.ava.SpeechOutput");
+		System.out.println("SpeechOutput: " + (speech == null ? null : "'" + speech.getString("message") + "', wait time recorded "
+				+ (speech.getLong("waitTime") >= 0)) + " (expected 'hello', wait time recorded true)");
+
+		speakQueue.shutdown();
+		commands.shutdown();
+		speculativeMatcher.shutdown();
+	}
+
+	private static RecordedEvent first(Map<String, List<RecordedEvent>> recorded, String name) {
+		List<RecordedEvent> events = recorded.get(name);
+		return events == null || events.isEmpty() ? null : events.get(0);
+	}
+}
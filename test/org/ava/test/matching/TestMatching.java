@@ -1,10 +1,14 @@
 package org.ava.test.matching;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.ava.matching.CommandMatch;
 import org.ava.matching.DefaultMatchingEngine;
 import org.ava.matching.MatchingEngine;
+import org.ava.matching.SpeculativeMatcher;
 import org.ava.pluginengine.AppCommand;
 
 public class TestMatching {
@@ -47,5 +51,34 @@ public class TestMatching {
 
 		CommandMatch cm = me.matchCommand("Print string", 1);		
 		cm = me.matchCommand("Print txt Hello World", 1);
+
+		// the plugin name is matched first, the following command is matched speculatively
+		SpeculativeMatcher sm = new SpeculativeMatcher(me, () -> Collections.singletonMap(1, "Printer"), 0.9);
+		sm.speculate("stt", "Printer", "Ava").join();
+		sm.speculate("stt", "Print txt Hello World", "Ava").join();
+		System.out.println("Plugin match: " + sm.matchPlugin("Printer").getBestPluginID() + " (expected 1)");
+		cm = sm.matchCommand("Print txt Hello World", 1);
+		System.out.println("Command match: " + cm.getCommand().getCommand() + " (expected 'Print text *')");
+		System.out.println("Cache hits: " + sm.getHitCount() + ", misses: " + sm.getMissCount() + " (expected 2, 0)");
+		sm.shutdown();
+
+		// a ranking finished after invalidate() does not predict the likely plugins
+		CountDownLatch ranking = new CountDownLatch(1);
+		SpeculativeMatcher slow = new SpeculativeMatcher(me, () -> {
+			try {
+				ranking.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Collections.singletonMap(1, "Printer");
+		}, 0.9);
+		CompletableFuture<Void> stale = slow.speculate("stt", "Printer", "Ava");
+		slow.invalidate();
+		ranking.countDown();
+		stale.join();
+		slow.speculate("stt", "Print txt Hello World", "Ava").join();
+		slow.matchCommand("Print txt Hello World", 1);
+		System.out.println("Stale ranking: cache hits " + slow.getHitCount() + ", misses " + slow.getMissCount() + " (expected 0, 1)");
+		slow.shutdown();
 	}
 }
@@ -0,0 +1,60 @@
+package org.ava.test.matching;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.ava.matching.AppPluginMatcher;
+import org.ava.matching.DefaultMatchingEngine;
+import org.ava.matching.SpeculativeMatcher;
+import org.ava.pluginengine.AppCommand;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.Plugin;
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginProperties;
+import org.ava.pluginengine.PluginWrapper;
+import org.ava.util.ApplicationConfig;
+
+public class TestPluginMatch {
+
+	public static class TestPlugin implements AppPlugin {
+		public void start() {}
+		public void stop() {}
+		public void continueExecution() {}
+		public void interruptExecution() {}
+		public List<AppCommand> getApplicationCommands() { return null; }
+	}
+
+	public static void main(String[] args) throws Exception {
+		String utterance = "weather forecast";
+		DefaultMatchingEngine engine = new DefaultMatchingEngine();
+		double best = engine.matchString(utterance, "Weather Forecast");
+		double worse = engine.matchString(utterance, "Weather Report");
+		System.out.println("Scores: 'Weather Forecast' " + best + ", 'Weather Report' " + worse);
+		ApplicationConfig.setMatchingTreshold(Math.min(best, worse) / 2);
+
+		// the better matching plugin is started first, so it is checked first
+		PluginManager manager = new PluginManager();
+		String[] names = { "Weather Forecast", "Weather Report" };
+		for( int ii = 0; ii < names.length; ii++ ) {
+			manager.getPluginList().put(ii, new PluginWrapper(Paths.get("test.jar"),
+					new PluginProperties(ii, names[ii], "1", TestPlugin.class.getName())));
+			Plugin p = manager.startPlugin(ii);
+			if( p == null ) {
+				System.out.println("Plugin '" + names[ii] + "' not started!");
+				return;
+			}
+		}
+
+		SpeculativeMatcher speculativeMatcher = new SpeculativeMatcher(engine,
+				() -> AppPluginMatcher.getAppPluginNames(manager), ApplicationConfig.getMatchingTreshold());
+		AppPluginMatcher matcher = new AppPluginMatcher(manager, speculativeMatcher);
+		Plugin matched = matcher.match(utterance);
+		System.out.println("Matched plugin: '" + (matched == null ? null : manager.getPluginProperties(matched).getName())
+				+ "' (expected 'Weather Forecast')");
+
+		ApplicationConfig.setMatchingTreshold(Math.max(best, worse) + 1);
+		speculativeMatcher.invalidate();
+		System.out.println("Matched plugin above the best score: " + matcher.match(utterance) + " (expected null)");
+		speculativeMatcher.shutdown();
+	}
+}
@@ -0,0 +1,140 @@
+package org.ava.test.plugin;
+
+import java.io.OutputStream;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.ava.pluginengine.ClassLoaderLeakDetector;
+import org.ava.pluginengine.Plugin;
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginProperties;
+import org.ava.pluginengine.PluginWrapper;
+import org.ava.util.BootProfiler;
+
+public class TestClassLoaderSoak {
+
+	private static final int CYCLES = 3000;
+
+	/** A plugin that is not on the class path, so its classes are loaded by the plugin class loader. */
+	private static final String PLUGIN_SOURCE =
+			"package soak;\n"
+			+ "import java.util.ArrayList;\n"
+			+ "import java.util.List;\n"
+			+ "import org.ava.pluginengine.AppCommand;\n"
+			+ "import org.ava.pluginengine.AppPlugin;\n"
+			+ "public class SoakPlugin implements AppPlugin {\n"
+			+ "	private byte[] state = new byte[64 * 1024];\n"
+			+ "	public void start() {}\n"
+			+ "	public void stop() {}\n"
+			+ "	public void continueExecution() {}\n"
+			+ "	public void interruptExecution() {}\n"
+			+ "	public List<AppCommand> getApplicationCommands() {\n"
+			+ "		List<AppCommand> commands = new ArrayList<AppCommand>();\n"
+			+ "		commands.add(new AppCommand() {\n"
+			+ "			public void execute(String arg) {}\n"
+			+ "			public String getCommand() { return \"soak\"; }\n"
+			+ "		});\n"
+			+ "		return commands;\n"
+			+ "	}\n"
+			+ "}\n";
+
+	private static Path buildPluginJar(Path dir) throws Exception {
+		Path src = Files.createDirectories(dir.resolve("src/soak")).resolve("SoakPlugin.java");
+		Files.write(src, PLUGIN_SOURCE.getBytes(StandardCharsets.UTF_8));
+		Path classes = Files.createDirectories(dir.resolve("classes"));
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		int result = compiler.run(null, null, null, "-cp", System.getProperty("java.class.path"),
+				"-d", classes.toString(), src.toString());
+		if( result != 0 ) {
+			throw new IllegalStateException("Failed to compile the soak plugin.");
+		}
+		Path jar = dir.resolve("soak.jar");
+		try( JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)) ) {
+			for( String name : new String[] { "SoakPlugin.class", "SoakPlugin$1.class" } ) {
+				out.putNextEntry(new JarEntry("soak/" + name));
+				out.write(Files.readAllBytes(classes.resolve("soak").resolve(name)));
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+	private static long metaspaceUsed() {
+		System.gc();
+		for( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+			if( pool.getName().equals("Metaspace") ) {
+				return pool.getUsage().getUsed();
+			}
+		}
+		return -1;
+	}
+
+	private static long openFiles() {
+		String[] fds = Paths.get("/proc/self/fd").toFile().list();
+		return fds == null ? -1 : fds.length;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path dir = Files.createTempDirectory("ava-soak");
+		Path jar = buildPluginJar(dir);
+		BootProfiler.getInstance().markReady();
+		ClassLoaderLeakDetector detector = ClassLoaderLeakDetector.getInstance();
+		detector.setGracePeriod(2000);
+
+		PluginManager manager = new PluginManager();
+		PluginWrapper pw = new PluginWrapper(jar, new PluginProperties(0, "Soak", "1", "soak.SoakPlugin", null));
+		manager.getPluginList().put(0, pw);
+		ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+		long start = System.currentTimeMillis();
+		long firstMetaspace = 0;
+		for( int ii = 1; ii <= CYCLES; ii++ ) {
+			Plugin p = manager.startPlugin(0);
+			if( p == null || !p.getClass().getClassLoader().getClass().getSimpleName().equals("URLClassLoader") ) {
+				System.out.println("Plugin not loaded by its own class loader!");
+				return;
+			}
+			manager.stopPlugin(p);
+			if( ii == 1000 ) {
+				firstMetaspace = metaspaceUsed();
+			}
+			if( ii % 500 == 0 ) {
+				System.out.println(String.format("cycle %5d: metaspace %6d KB, loaded classes %6d, unloaded %6d, open files %d",
+						ii, metaspaceUsed() / 1024, classLoading.getLoadedClassCount(),
+						classLoading.getUnloadedClassCount(), openFiles()));
+			}
+		}
+		long lastMetaspace = metaspaceUsed();
+		System.out.println("Cycles: " + CYCLES + " in " + (System.currentTimeMillis() - start) + " ms");
+		System.out.println(String.format("Metaspace growth over the last %d cycles: %d KB (expected about 0)", CYCLES - 1000,
+				(lastMetaspace - firstMetaspace) / 1024));
+		System.out.println("Loaded plugins after stop: " + manager.getLoadedPlugins().size() + " (expected 0)");
+
+		Thread.sleep(2500);
+		System.gc();
+		Thread.sleep(1500);
+		System.out.println("Pending class loaders after the periodic check: " + detector.getPendingCount() + " (expected 0)");
+		System.out.println("Class loaders closed " + detector.getTrackedCount() + ", collected " + detector.getCollectedCount()
+				+ ", suspected leaks " + detector.findLeaks().size() + " (expected " + CYCLES + ", " + CYCLES + ", 0)");
+
+		// a plugin instance still referenced after stop keeps its class loader alive
+		Plugin leaked = manager.startPlugin(0);
+		manager.stopPlugin(leaked);
+		Thread.sleep(2500);
+		System.gc();
+		Thread.sleep(100);
+		System.out.println("Suspected leaks with a retained instance: " + detector.findLeaks().size()
+				+ " (expected 1, " + leaked.getClass().getName() + ")");
+	}
+}
@@ -0,0 +1,94 @@
+package org.ava.test.plugin;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ava.pluginengine.AppCommand;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.CommandExecutionService;
+import org.ava.pluginengine.Plugin;
+
+public class TestCommandExecution {
+
+	public static void main(String[] args) throws Exception {
+		CommandExecutionService service = new CommandExecutionService(4, 1, 200);
+		AtomicInteger interrupts = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		Plugin plugin = new AppPlugin() {
+			public void start() {}
+			public void stop() {}
+			public void continueExecution() {}
+			public void interruptExecution() { interrupts.incrementAndGet(); }
+			public List<AppCommand> getApplicationCommands() { return null; }
+		};
+
+		AppCommand slow = new AppCommand() {
+			public void execute(String arg) {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					// interrupted by the watchdog
+				}
+				running.decrementAndGet();
+			}
+			public String getCommand() { return "slow"; }
+		};
+
+		AppCommand hung = new AppCommand() {
+			public void execute(String arg) {
+				try {
+					Thread.sleep(10000);
+				} catch (InterruptedException e) {
+					// interrupted by the watchdog
+				}
+			}
+			public String getCommand() { return "hung"; }
+		};
+
+		// ten commands of one plugin must run one after another
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[10];
+		for( int ii = 0; ii < futures.length; ii++ ) {
+			futures[ii] = service.submit(1, plugin, slow, null);
+		}
+		CompletableFuture.allOf(futures).join();
+		System.out.println("Max concurrent commands of one plugin: " + maxRunning.get() + " (expected 1)");
+
+		// a hung command is interrupted after the timeout
+		long start = System.currentTimeMillis();
+		CompletableFuture<Void> f = service.submit(2, plugin, hung, null);
+		try {
+			f.join();
+		} catch(Exception e) {
+			System.out.println("Hung command: " + e.getCause().getClass().getSimpleName()
+					+ " after " + (System.currentTimeMillis() - start) + " ms (expected TimeoutException after ~200 ms)");
+		}
+		System.out.println("Plugin interrupts: " + interrupts.get() + " (expected 1)");
+
+		// an Error of a command completes its future as well
+		AppCommand broken = new AppCommand() {
+			public void execute(String arg) {
+				throw new NoClassDefFoundError("missing/Dependency");
+			}
+			public String getCommand() { return "broken"; }
+		};
+		try {
+			service.submit(3, plugin, broken, null).get(1, TimeUnit.SECONDS);
+		} catch(ExecutionException e) {
+			System.out.println("Broken command: " + e.getCause().getClass().getSimpleName() + " (expected NoClassDefFoundError)");
+		}
+		// the futures complete before the workers are released
+		long deadline = System.currentTimeMillis() + 5000;
+		while( !service.isIdle() && System.currentTimeMillis() < deadline ) {
+			Thread.sleep(10);
+		}
+		System.out.println("Idle: " + service.isIdle() + " (expected true)");
+		System.out.println(service.formatReport());
+		service.shutdown();
+	}
+}
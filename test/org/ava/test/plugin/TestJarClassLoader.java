@@ -0,0 +1,170 @@
+package org.ava.test.plugin;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.ava.pluginengine.JarClassLoader;
+
+public class TestJarClassLoader {
+
+	private static final int INNER_JARS = 10;
+
+	private static final int CLASSES_PER_JAR = 100;
+
+	private static void addEntry(JarOutputStream out, String name, byte[] content) throws Exception {
+		out.putNextEntry(new JarEntry(name));
+		out.write(content);
+		out.closeEntry();
+	}
+
+	/**
+	 * Builds a JAR containing the JarClassLoader and INNER_JARS inner JARs with CLASSES_PER_JAR classes each.
+	 */
+	private static Path buildFatJar(Path dir) throws Exception {
+		List<String> compilerArgs = new ArrayList<String>();
+		Path classes = Files.createDirectories(dir.resolve("classes"));
+		compilerArgs.add("-d");
+		compilerArgs.add(classes.toString());
+		for( int jj = 0; jj < INNER_JARS; jj++ ) {
+			Path pkg = Files.createDirectories(dir.resolve("src/nested/p" + jj));
+			for( int ii = 0; ii < CLASSES_PER_JAR; ii++ ) {
+				Path src = pkg.resolve("C" + ii + ".java");
+				Files.write(src, ("package nested.p" + jj + "; public class C" + ii + " { }").getBytes(StandardCharsets.UTF_8));
+				compilerArgs.add(src.toString());
+			}
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if( compiler.run(null, null, null, compilerArgs.toArray(new String[compilerArgs.size()])) != 0 ) {
+			throw new IllegalStateException("Failed to compile the nested classes.");
+		}
+
+		Path fatJar = dir.resolve("fat.jar");
+		Path loaderClasses = Paths.get(JarClassLoader.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+				.resolve("org/ava/pluginengine");
+		try( JarOutputStream out = new JarOutputStream(Files.newOutputStream(fatJar)) ) {
+			for( File f : loaderClasses.toFile().listFiles() ) {
+				if( f.getName().startsWith("JarClassLoader") ) {
+					addEntry(out, "org/ava/pluginengine/" + f.getName(), Files.readAllBytes(f.toPath()));
+				}
+			}
+			for( int jj = 0; jj < INNER_JARS; jj++ ) {
+				Path inner = dir.resolve("inner" + jj + ".jar");
+				try( JarOutputStream innerOut = new JarOutputStream(Files.newOutputStream(inner)) ) {
+					for( int ii = 0; ii < CLASSES_PER_JAR; ii++ ) {
+						addEntry(innerOut, "nested/p" + jj + "/C" + ii + ".class",
+								Files.readAllBytes(classes.resolve("nested/p" + jj + "/C" + ii + ".class")));
+					}
+					if( jj == INNER_JARS - 1 ) {
+						addEntry(innerOut, "nested/data.txt", "inner resource".getBytes(StandardCharsets.UTF_8));
+					}
+				}
+				addEntry(out, "lib/inner" + jj + ".jar", Files.readAllBytes(inner));
+			}
+		}
+		return fatJar;
+	}
+
+	private static int tempFiles() {
+		String[] files = new File(System.getProperty("java.io.tmpdir"), JarClassLoader.TMP_SUB_DIRECTORY).list();
+		return files == null ? 0 : files.length;
+	}
+
+	private static void run(Path fatJar, boolean inMemory) throws Exception {
+		System.setProperty(JarClassLoader.KEY_IN_MEMORY, String.valueOf(inMemory));
+		int tempFilesBefore = tempFiles();
+
+		// the JarClassLoader locates the top JAR by its own code source, so it is loaded from the fat JAR
+		URLClassLoader fat = new URLClassLoader(new URL[] { fatJar.toUri().toURL() }, ClassLoader.getPlatformClassLoader());
+		long start = System.nanoTime();
+		ClassLoader jcl = (ClassLoader) fat.loadClass(JarClassLoader.class.getName())
+				.getConstructor(ClassLoader.class).newInstance(ClassLoader.getPlatformClassLoader());
+		long loaded = System.nanoTime();
+
+		int count = 0;
+		for( int jj = 0; jj < INNER_JARS; jj++ ) {
+			for( int ii = 0; ii < CLASSES_PER_JAR; ii++ ) {
+				Class<?> c = jcl.loadClass("nested.p" + jj + ".C" + ii);
+				if( c.getClassLoader() == jcl ) {
+					count++;
+				}
+			}
+		}
+		long classesLoaded = System.nanoTime();
+
+		String resource;
+		try( InputStream in = jcl.getResourceAsStream("nested/data.txt") ) {
+			resource = in == null ? null : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		Method isLaunchedFromJar = jcl.getClass().getMethod("isLaunchedFromJar");
+
+		System.out.println(String.format("inMemory=%b: open %.1f ms, %d classes in %.1f ms, launched from JAR %b",
+				inMemory, (loaded - start) / 1e6, count, (classesLoaded - loaded) / 1e6, isLaunchedFromJar.invoke(jcl)));
+		System.out.println("  classes loaded " + count + " (expected " + (INNER_JARS * CLASSES_PER_JAR) + "), resource '"
+				+ resource + "' (expected 'inner resource'), new temp files " + (tempFiles() - tempFilesBefore)
+				+ " (expected " + (inMemory ? 0 : INNER_JARS) + ")");
+	}
+
+	/**
+	 * Load all classes with several threads, each thread loading all classes in a different order.
+	 */
+	private static void runConcurrent(Path fatJar, int threads) throws Exception {
+		System.setProperty(JarClassLoader.KEY_IN_MEMORY, "true");
+		URLClassLoader fat = new URLClassLoader(new URL[] { fatJar.toUri().toURL() }, ClassLoader.getPlatformClassLoader());
+		ClassLoader jcl = (ClassLoader) fat.loadClass(JarClassLoader.class.getName())
+				.getConstructor(ClassLoader.class).newInstance(ClassLoader.getPlatformClassLoader());
+
+		Set<Class<?>> distinct = ConcurrentHashMap.newKeySet();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		long start = System.nanoTime();
+		for( int tt = 0; tt < threads; tt++ ) {
+			int offset = tt;
+			futures.add(pool.submit(() -> {
+				for( int jj = 0; jj < INNER_JARS; jj++ ) {
+					for( int ii = 0; ii < CLASSES_PER_JAR; ii++ ) {
+						distinct.add(jcl.loadClass("nested.p" + ((jj + offset) % INNER_JARS) + ".C" + ii));
+					}
+				}
+				return null;
+			}));
+		}
+		for( Future<?> f : futures ) {
+			f.get();
+		}
+		long end = System.nanoTime();
+		pool.shutdown();
+		System.out.println(String.format("%d threads: %d distinct classes in %.1f ms (expected %d), parallel capable %b",
+				threads, distinct.size(), (end - start) / 1e6, INNER_JARS * CLASSES_PER_JAR, jcl.isRegisteredAsParallelCapable()));
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path dir = Files.createTempDirectory("ava-jcl");
+		Path fatJar = buildFatJar(dir);
+		// the first round warms up the JIT
+		for( int round = 0; round < 2; round++ ) {
+			run(fatJar, false);
+			run(fatJar, true);
+		}
+		runConcurrent(fatJar, 1);
+		runConcurrent(fatJar, 4);
+	}
+}
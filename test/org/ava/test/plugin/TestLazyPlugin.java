@@ -0,0 +1,102 @@
+package org.ava.test.plugin;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ava.pluginengine.AppCommand;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.Plugin;
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginProperties;
+import org.ava.pluginengine.PluginStartupScheduler;
+import org.ava.pluginengine.PluginWrapper;
+import org.ava.util.ApplicationConfig;
+
+public class TestLazyPlugin {
+
+	static AtomicInteger instances = new AtomicInteger();
+	static AtomicInteger starts = new AtomicInteger();
+	static AtomicInteger stops = new AtomicInteger();
+	static AtomicInteger executions = new AtomicInteger();
+	static volatile long startDelay;
+
+	public static class CountingPlugin implements AppPlugin {
+		public CountingPlugin() { instances.incrementAndGet(); }
+		public void start() {
+			starts.incrementAndGet();
+			try {
+				Thread.sleep(startDelay);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		public void stop() { stops.incrementAndGet(); }
+		public void continueExecution() {}
+		public void interruptExecution() {}
+		public List<AppCommand> getApplicationCommands() {
+			List<AppCommand> commands = new ArrayList<AppCommand>();
+			commands.add(new AppCommand() {
+				public void execute(String arg) { executions.incrementAndGet(); }
+				public String getCommand() { return "say *"; }
+			});
+			return commands;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		ApplicationConfig.setLazyAppPlugins(true);
+		ApplicationConfig.setAppPluginIdleTimeout(200);
+
+		PluginManager manager = new PluginManager();
+		PluginProperties props = new PluginProperties(0, "Counter", "1", CountingPlugin.class.getName(), null, "say *");
+		PluginWrapper pw = new PluginWrapper(Paths.get("plugins/Counter.jar"), props);
+		new PluginStartupScheduler(manager, 1, 1000).startAll(Collections.singletonList(pw));
+
+		List<Plugin> loaded = manager.getLoadedAppPlugins();
+		System.out.println("Loaded app plugins: " + loaded.size() + " (expected 1)");
+		System.out.println("Instances after startup: " + instances.get() + " (expected 0)");
+		AppPlugin plugin = (AppPlugin) loaded.get(0);
+		AppCommand command = plugin.getApplicationCommands().get(0);
+		System.out.println("Command known before loading: '" + command.getCommand() + "' (expected 'say *')");
+
+		long start = System.nanoTime();
+		command.execute("hello");
+		System.out.println("First command: " + (System.nanoTime() - start) / 1000 + " us, instances "
+				+ instances.get() + ", starts " + starts.get() + ", executions " + executions.get() + " (expected 1, 1, 1)");
+		start = System.nanoTime();
+		command.execute("again");
+		System.out.println("Second command: " + (System.nanoTime() - start) / 1000 + " us, instances "
+				+ instances.get() + ", executions " + executions.get() + " (expected 1, 2)");
+
+		Thread.sleep(600);
+		System.out.println("Stops after idle period: " + stops.get() + " (expected 1)");
+		manager.interruptPlugin(plugin);
+		System.out.println("Instances after interrupting the unloaded plugin: " + instances.get() + " (expected 1)");
+		command.execute("reloaded");
+		System.out.println("After reload: instances " + instances.get() + ", executions " + executions.get() + " (expected 2, 3)");
+
+		Thread.sleep(600);
+		startDelay = 500;
+		Thread slowLoad = new Thread( () -> command.execute("slow") );
+		slowLoad.start();
+		Thread.sleep(100);
+		start = System.nanoTime();
+		manager.interruptPlugin(plugin);
+		System.out.println("Interrupt during a slow load: " + (System.nanoTime() - start) / 1000000
+				+ " ms (expected ~0 ms, not waiting for the load)");
+		slowLoad.join();
+		System.out.println("After slow load: instances " + instances.get() + ", executions " + executions.get() + " (expected 3, 4)");
+
+		Thread.sleep(600);
+		startDelay = 0;
+		boolean preloaded = manager.preloadPlugin(plugin).join();
+		System.out.println("Preloaded: " + preloaded + ", instances " + instances.get() + " (expected true, 4)");
+
+		plugin.stop();
+		System.out.println("Stops after stop: " + stops.get() + " (expected 4)");
+		manager.shutdown();
+	}
+}
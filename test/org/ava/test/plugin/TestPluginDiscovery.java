@@ -0,0 +1,72 @@
+package org.ava.test.plugin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginWrapper;
+import org.ava.util.ApplicationConfig;
+
+public class TestPluginDiscovery {
+
+	private static final int PLUGINS = 500;
+
+	private static void writePlugin(Path dir, int ii, String version) throws Exception {
+		Files.write(dir.resolve("plugin" + ii + ".jar"), new byte[] { 'P', 'K' });
+		Files.write(dir.resolve("plugin" + ii + ".properties"), Arrays.asList(
+				"plugin.name=Plugin" + ii,
+				"plugin.version=" + version,
+				"plugin.fqnpluginclass=org.example.Plugin" + ii), StandardCharsets.ISO_8859_1);
+	}
+
+	private static PluginManager discover(String label) {
+		PluginManager manager = new PluginManager();
+		long start = System.nanoTime();
+		manager.discoverPlugins();
+		System.out.println(label + ": " + manager.getPluginList().size() + " plugins in "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+		return manager;
+	}
+
+	private static String version(PluginManager manager, String name) {
+		for( PluginWrapper pw : manager.getPluginList().values() ) {
+			if( pw.getProperties().getName().equals(name) ) {
+				return pw.getProperties().getVersion();
+			}
+		}
+		return null;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path root = Files.createTempDirectory("ava-discovery");
+		Path pluginDir = Files.createDirectories(root.resolve("plugins"));
+		Path configDir = Files.createDirectories(root.resolve("config"));
+		for( int ii = 0; ii < PLUGINS; ii++ ) {
+			Path dir = Files.createDirectories(pluginDir.resolve("group" + ii % 10));
+			writePlugin(dir, ii, "1");
+		}
+		ApplicationConfig.setPluginDir(pluginDir.toString());
+		ApplicationConfig.setConfigDir(configDir.toString() + "/");
+
+		discover("Cold discovery (walk and parse)");
+		discover("Warm discovery (manifest)");
+		discover("Warm discovery (manifest)");
+
+		// a changed property file is parsed again
+		Path changed = pluginDir.resolve("group3").resolve("plugin3.properties");
+		writePlugin(pluginDir.resolve("group3"), 3, "2");
+		Files.setLastModifiedTime(changed, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+		PluginManager manager = discover("Discovery after changing a plugin");
+		System.out.println("Version of Plugin3: " + version(manager, "Plugin3") + " (expected 2)");
+
+		// an added plugin is found
+		Path dir = pluginDir.resolve("group4");
+		writePlugin(dir, PLUGINS, "1");
+		Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+		manager = discover("Discovery after adding a plugin");
+		System.out.println("Plugins: " + manager.getPluginList().size() + " (expected " + (PLUGINS + 1) + ")");
+	}
+}
@@ -0,0 +1,167 @@
+package org.ava.test.plugin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.ava.matching.CommandMatch;
+import org.ava.matching.DefaultMatchingEngine;
+import org.ava.pluginengine.AppCommand;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.Plugin;
+import org.ava.pluginengine.PluginChangeListener;
+import org.ava.pluginengine.PluginDirectoryWatcher;
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginStartupScheduler;
+import org.ava.pluginengine.PluginWrapper;
+import org.ava.util.ApplicationConfig;
+
+public class TestPluginReload {
+
+	static AtomicInteger stops = new AtomicInteger();
+	static AtomicInteger instances = new AtomicInteger();
+
+	public static class EchoPlugin implements AppPlugin {
+		private List<AppCommand> commands = new ArrayList<AppCommand>();
+		public EchoPlugin() {
+			instances.incrementAndGet();
+			commands.add(new AppCommand() {
+				public void execute(String arg) {}
+				public String getCommand() { return "echo *"; }
+			});
+		}
+		public void start() {}
+		public void stop() { stops.incrementAndGet(); }
+		public void continueExecution() {}
+		public void interruptExecution() {}
+		public List<AppCommand> getApplicationCommands() { return commands; }
+	}
+
+	private static void writePlugin(Path dir, String name, String version) throws Exception {
+		writePlugin(dir, name, version, null);
+	}
+
+	private static void writePlugin(Path dir, String name, String version, String commands) throws Exception {
+		Files.write(dir.resolve(name + ".jar"), new byte[] { 'P', 'K' });
+		List<String> lines = new ArrayList<String>(Arrays.asList(
+				"plugin.name=" + name,
+				"plugin.version=" + version,
+				"plugin.fqnpluginclass=" + EchoPlugin.class.getName()));
+		if( commands != null ) {
+			lines.add("plugin.commands=" + commands);
+		}
+		Files.write(dir.resolve(name + ".properties"), lines, StandardCharsets.ISO_8859_1);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path root = Files.createTempDirectory("ava-reload");
+		Path pluginDir = Files.createDirectories(root.resolve("plugins"));
+		Path configDir = Files.createDirectories(root.resolve("config"));
+		writePlugin(pluginDir, "Echo", "1");
+		ApplicationConfig.setPluginDir(pluginDir.toString());
+		ApplicationConfig.setConfigDir(configDir.toString() + "/");
+
+		PluginManager manager = new PluginManager();
+		manager.discoverPlugins();
+		List<PluginWrapper> plugins = new ArrayList<PluginWrapper>(manager.getPluginList().values());
+		new PluginStartupScheduler(manager, 1, 1000).startAll(plugins);
+		int pluginID = plugins.get(0).getProperties().getID();
+
+		DefaultMatchingEngine engine = new DefaultMatchingEngine();
+		engine.addApplicationCommands(((AppPlugin) manager.getLoadedAppPlugins().get(0)).getApplicationCommands(), pluginID);
+
+		// match continuously while the plugin is reloaded
+		AtomicBoolean matching = new AtomicBoolean(true);
+		AtomicLong matches = new AtomicLong();
+		AtomicLong failures = new AtomicLong();
+		Thread matcher = new Thread( () -> {
+			while( matching.get() ) {
+				CommandMatch cm = engine.matchCommand("echo hello", pluginID);
+				if( cm == null ) {
+					failures.incrementAndGet();
+				}
+				matches.incrementAndGet();
+			}
+		});
+		matcher.start();
+
+		AtomicReference<CountDownLatch> changed = new AtomicReference<CountDownLatch>(new CountDownLatch(1));
+		AtomicLong reloadMicros = new AtomicLong();
+		PluginChangeListener listener = new PluginChangeListener() {
+			public void pluginReplaced(int id, Plugin oldInstance, Plugin newInstance) {
+				engine.replaceApplicationCommands(((AppPlugin) newInstance).getApplicationCommands(), id);
+			}
+			public void pluginRemoved(int id, Plugin oldInstance) {
+				engine.removeApplicationCommands(id);
+			}
+		};
+		PluginDirectoryWatcher watcher = new PluginDirectoryWatcher(pluginDir, () -> {
+			long start = System.nanoTime();
+			manager.reloadPlugins(listener);
+			reloadMicros.set((System.nanoTime() - start) / 1000);
+			changed.get().countDown();
+		}, 100);
+		watcher.start();
+
+		// update the plugin
+		AppCommand before = engine.matchCommand("echo hello", pluginID).getCommand();
+		writePlugin(pluginDir, "Echo", "2");
+		Files.setLastModifiedTime(pluginDir.resolve("Echo.properties"), FileTime.fromMillis(System.currentTimeMillis() + 5000));
+		changed.get().await(10, TimeUnit.SECONDS);
+		AppCommand after = engine.matchCommand("echo hello", pluginID).getCommand();
+		System.out.println("Version after update: " + manager.getPluginProperties(pluginID).getVersion() + " (expected 2)");
+		System.out.println("Reload took " + reloadMicros.get() + " us");
+		System.out.println("Commands replaced: " + (before != after) + ", old version stopped: " + stops.get() + " (expected true, 1)");
+		System.out.println("Matches during reload: " + matches.get() + ", without result: " + failures.get() + " (expected 0)");
+
+		// add a plugin
+		changed.set(new CountDownLatch(1));
+		writePlugin(pluginDir, "Other", "1");
+		changed.get().await(10, TimeUnit.SECONDS);
+		System.out.println("Plugins after adding one: " + manager.getPluginList().size() + " (expected 2)");
+
+		// remove the running plugin
+		changed.set(new CountDownLatch(1));
+		Files.delete(pluginDir.resolve("Echo.jar"));
+		Files.delete(pluginDir.resolve("Echo.properties"));
+		changed.get().await(10, TimeUnit.SECONDS);
+		matching.set(false);
+		matcher.join();
+		System.out.println("Plugins after removing one: " + manager.getPluginList().size() + ", stops " + stops.get()
+				+ ", commands matched " + (engine.matchCommand("echo hello", pluginID) != null) + " (expected 1, 2, false)");
+
+		watcher.stop();
+
+		// update a lazily started plugin that has been loaded
+		ApplicationConfig.setLazyAppPlugins(true);
+		writePlugin(pluginDir, "Lazy", "1", "echo *");
+		manager.reloadPlugins(listener);
+		int lazyID = -1;
+		for( PluginWrapper pw : manager.getPluginList().values() ) {
+			if( pw.getProperties().getName().equals("Lazy") ) {
+				lazyID = pw.getProperties().getID();
+			}
+		}
+		AppPlugin lazy = (AppPlugin) manager.startPlugin(lazyID);
+		lazy.getApplicationCommands().get(0).execute("load");
+		int instancesBefore = instances.get();
+		int stopsBefore = stops.get();
+		writePlugin(pluginDir, "Lazy", "2", "echo *");
+		Files.setLastModifiedTime(pluginDir.resolve("Lazy.properties"), FileTime.fromMillis(System.currentTimeMillis() + 10000));
+		manager.reloadPlugins(listener);
+		System.out.println("Lazy plugin after update: version " + manager.getPluginProperties(lazyID).getVersion()
+				+ ", new instances " + (instances.get() - instancesBefore) + ", old version stopped " + (stops.get() - stopsBefore)
+				+ ", running app plugins " + manager.getLoadedAppPlugins().size() + " (expected 2, 0, 1, 1)");
+		manager.shutdown();
+	}
+}
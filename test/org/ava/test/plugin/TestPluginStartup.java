@@ -0,0 +1,76 @@
+package org.ava.test.plugin;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ava.pluginengine.AppCommand;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.PluginManager;
+import org.ava.pluginengine.PluginProperties;
+import org.ava.pluginengine.PluginStartupScheduler;
+import org.ava.pluginengine.PluginWrapper;
+
+public class TestPluginStartup {
+
+	public static class SlowPlugin implements AppPlugin {
+		public void start() {
+			try {
+				Thread.sleep(300);
+			} catch (InterruptedException e) {
+				// interrupted by the watchdog
+			}
+		}
+		public void stop() {}
+		public void continueExecution() {}
+		public void interruptExecution() {}
+		public List<AppCommand> getApplicationCommands() { return new ArrayList<AppCommand>(); }
+	}
+
+	public static class HungPlugin extends SlowPlugin {
+		public void start() {
+			try {
+				Thread.sleep(10000);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException("Start interrupted.");
+			}
+		}
+	}
+
+	public static class BrokenPlugin extends SlowPlugin {
+		public void start() {
+			throw new NoClassDefFoundError("org/example/MissingLibrary");
+		}
+	}
+
+	private static int nextID = 0;
+
+	private static PluginWrapper wrapper(String name, Class<?> pluginClass, String dependencies) {
+		PluginProperties props = new PluginProperties(nextID++, name, "1", pluginClass.getName(), dependencies);
+		return new PluginWrapper(Paths.get("plugins/" + name + ".jar"), props);
+	}
+
+	public static void main(String[] args) {
+		PluginManager manager = new PluginManager();
+		PluginStartupScheduler scheduler = new PluginStartupScheduler(manager, 4, 1000);
+
+		List<PluginWrapper> plugins = new ArrayList<PluginWrapper>();
+		plugins.add(wrapper("A", SlowPlugin.class, null));
+		plugins.add(wrapper("B", SlowPlugin.class, null));
+		plugins.add(wrapper("C", SlowPlugin.class, "A"));
+		plugins.add(wrapper("D", HungPlugin.class, null));
+		plugins.add(wrapper("E", SlowPlugin.class, "D"));
+		plugins.add(wrapper("F", SlowPlugin.class, "G"));
+		plugins.add(wrapper("G", SlowPlugin.class, "F"));
+		plugins.add(wrapper("H", BrokenPlugin.class, null));
+		plugins.add(wrapper("I", SlowPlugin.class, "H"));
+		plugins.add(wrapper("A", SlowPlugin.class, null));
+
+		long start = System.currentTimeMillis();
+		scheduler.startAll(plugins);
+		System.out.println("Startup took " + (System.currentTimeMillis() - start) + " ms (expected ~1000 ms, the start timeout of D)");
+		System.out.println("Started: " + scheduler.getStartTimes().keySet() + " (expected A, B, C in any order of A and B)");
+		System.out.println("Loaded plugins: " + manager.getLoadedPlugins().size() + " (expected 3)");
+		System.out.println("Broken plugin instantiated: " + plugins.get(7).isAlreadyInstantiated() + " (expected false)");
+	}
+}
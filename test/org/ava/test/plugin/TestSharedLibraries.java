@@ -0,0 +1,117 @@
+package org.ava.test.plugin;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.ava.pluginengine.SharedLibraryClassLoader;
+
+public class TestSharedLibraries {
+
+	private static final String[][] SOURCES = {
+		{ "libs/Util.java", "package libs; public class Util { public static int loads = 1; }" },
+		{ "bundled/Codec.java", "package bundled; public class Codec { }" },
+		{ "a/PluginA.java", "package a; public class PluginA { public Class<?>[] uses() { return new Class<?>[] { libs.Util.class, bundled.Codec.class }; } }" },
+		{ "b/PluginB.java", "package b; public class PluginB { public Class<?>[] uses() { return new Class<?>[] { libs.Util.class, bundled.Codec.class }; } }" }
+	};
+
+	private static void jar(Path jar, Path classes, String... packages) throws Exception {
+		try( JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)) ) {
+			for( String p : packages ) {
+				for( Path c : Files.newDirectoryStream(classes.resolve(p)) ) {
+					out.putNextEntry(new JarEntry(p + "/" + c.getFileName()));
+					out.write(Files.readAllBytes(c));
+					out.closeEntry();
+				}
+			}
+		}
+	}
+
+	private static Class<?>[] uses(ClassLoader parent, Path jar, String pluginClass) throws Exception {
+		// the same class loader setup as PluginWrapper.getPluginInstance()
+		URLClassLoader loader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, parent);
+		Object plugin = loader.loadClass(pluginClass).getDeclaredConstructor().newInstance();
+		return (Class<?>[]) plugin.getClass().getMethod("uses").invoke(plugin);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path dir = Files.createTempDirectory("ava-shared");
+		Path classes = Files.createDirectories(dir.resolve("classes"));
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		String[] compilerArgs = new String[SOURCES.length + 2];
+		compilerArgs[0] = "-d";
+		compilerArgs[1] = classes.toString();
+		for( int ii = 0; ii < SOURCES.length; ii++ ) {
+			Path src = dir.resolve("src").resolve(SOURCES[ii][0]);
+			Files.createDirectories(src.getParent());
+			Files.write(src, SOURCES[ii][1].getBytes(StandardCharsets.UTF_8));
+			compilerArgs[ii + 2] = src.toString();
+		}
+		if( compiler.run(null, null, null, compilerArgs) != 0 ) {
+			throw new IllegalStateException("Failed to compile the test plugins.");
+		}
+
+		Path pluginDir = Files.createDirectories(dir.resolve("plugins"));
+		Files.createDirectories(pluginDir.resolve(SharedLibraryClassLoader.LIBRARY_DIR));
+		jar(pluginDir.resolve(SharedLibraryClassLoader.LIBRARY_DIR).resolve("util.jar"), classes, "libs");
+		Path jarA = pluginDir.resolve("a.jar");
+		Path jarB = pluginDir.resolve("b.jar");
+		jar(jarA, classes, "a", "bundled");
+		jar(jarB, classes, "b", "bundled");
+
+		List<Path> libraryJars = SharedLibraryClassLoader.findLibraryJars(pluginDir);
+		System.out.println("Library jars: " + libraryJars.size() + " (expected 1)");
+
+		// lib folder only: the library is shared, the bundled classes are loaded per plugin
+		SharedLibraryClassLoader shared = new SharedLibraryClassLoader(libraryJars, Collections.<String>emptyList(),
+				TestSharedLibraries.class.getClassLoader());
+		shared.addPluginJar(jarA);
+		shared.addPluginJar(jarB);
+		Class<?>[] a = uses(shared, jarA, "a.PluginA");
+		Class<?>[] b = uses(shared, jarB, "b.PluginB");
+		System.out.println("Library class shared: " + (a[0] == b[0]) + ", loaded by " + a[0].getClassLoader().getClass().getSimpleName()
+				+ " (expected true, SharedLibraryClassLoader)");
+		System.out.println("Bundled class shared: " + (a[1] == b[1]) + " (expected false)");
+		shared.close();
+
+		// shared package: the bundled classes are loaded once from the first plugin jar
+		shared = new SharedLibraryClassLoader(libraryJars, Arrays.asList("bundled"), TestSharedLibraries.class.getClassLoader());
+		shared.addPluginJar(jarA);
+		shared.addPluginJar(jarB);
+		a = uses(shared, jarA, "a.PluginA");
+		b = uses(shared, jarB, "b.PluginB");
+		System.out.println("Bundled class shared: " + (a[1] == b[1]) + ", loaded by " + a[1].getClassLoader().getClass().getSimpleName()
+				+ " (expected true, SharedLibraryClassLoader)");
+		System.out.println("Bundled class shared after plugin reload: " + (uses(shared, jarA, "a.PluginA")[1] == a[1])
+				+ ", shared classes loaded from plugin jars " + shared.getSharedClassCount() + " (expected true, 1)");
+		System.out.println("Code source of the shared class: " + a[1].getProtectionDomain().getCodeSource().getLocation()
+				.getPath().endsWith("a.jar") + " (expected true)");
+		shared.close();
+
+		// reload: a removed plugin jar is no longer searched
+		shared = new SharedLibraryClassLoader(libraryJars, Arrays.asList("bundled"), TestSharedLibraries.class.getClassLoader());
+		shared.addPluginJar(jarA);
+		shared.retainPluginJars(Collections.<Path>emptySet());
+		boolean found = true;
+		try {
+			shared.loadClass("bundled.Codec");
+		} catch(ClassNotFoundException e) {
+			found = false;
+		}
+		System.out.println("Shared class found in a removed plugin jar: " + found + " (expected false)");
+		shared.addPluginJar(jarB);
+		System.out.println("Shared class loaded from the remaining plugin jar: " + shared.loadClass("bundled.Codec")
+				.getProtectionDomain().getCodeSource().getLocation().getPath().endsWith("b.jar") + " (expected true)");
+		shared.close();
+	}
+}
@@ -0,0 +1,110 @@
+package org.ava.test.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.ava.util.JarPropertyFileSearcher;
+import org.ava.util.JarPropertyFileSearcher.JarPropertyFilepathPair;
+
+public class TestJarPropertyFileSearcher {
+
+	private static final int DIRECTORIES = 100;
+	private static final int PLUGINS_PER_DIRECTORY = 40;
+
+	/** The nested loop pairing used before the hash join, for comparison. */
+	private static int nestedLoopPairs(List<Path> jars, List<Path> properties) {
+		int pairs = 0;
+		for( Path jar : jars ) {
+			String tmp = jar.getFileName().toString();
+			String jarName = tmp.substring(0, tmp.length() - ".jar".length());
+			for( Path props : properties ) {
+				tmp = props.getFileName().toString();
+				if( jarName.equals(tmp.substring(0, tmp.length() - ".properties".length())) ) {
+					pairs++;
+				}
+			}
+		}
+		return pairs;
+	}
+
+	private static List<String> toStrings(List<JarPropertyFilepathPair> pairs) {
+		List<String> result = new ArrayList<String>();
+		for( JarPropertyFilepathPair p : pairs ) {
+			result.add(p.getJarFilepath() + "|" + p.getPropertyFilepath());
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private static void deleteTree(Path root) throws IOException {
+		List<Path> paths;
+		try( Stream<Path> walk = Files.walk(root) ) {
+			// children before their directory
+			paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+		}
+		for( Path p : paths ) {
+			Files.delete(p);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		// synthetic plugin tree: jars with and without property files, and unrelated files
+		Path root = Files.createTempDirectory("ava-searcher");
+		try {
+			List<Path> jars = new ArrayList<Path>();
+			List<Path> properties = new ArrayList<Path>();
+			for( int d = 0; d < DIRECTORIES; d++ ) {
+				Path dir = Files.createDirectories(root.resolve("vendor" + d % 10).resolve("dir" + d));
+				for( int ii = 0; ii < PLUGINS_PER_DIRECTORY; ii++ ) {
+					String name = "plugin" + d + "_" + ii;
+					jars.add(Files.createFile(dir.resolve(name + ".jar")));
+					if( ii % 4 != 0 ) {
+						properties.add(Files.createFile(dir.resolve(name + ".properties")));
+					}
+					Files.createFile(dir.resolve(name + ".txt"));
+				}
+			}
+			int files = jars.size() + properties.size() + DIRECTORIES * PLUGINS_PER_DIRECTORY;
+			System.out.println("Synthetic tree: " + DIRECTORIES + " directories, " + files + " files");
+
+			long start = System.nanoTime();
+			int expected = nestedLoopPairs(jars, properties);
+			System.out.println("Nested loop pairing: " + expected + " pairs in " + (System.nanoTime() - start) / 1000000 + " ms");
+
+			List<String> sequential = null;
+			for( int threads : new int[] { 1, 4, 8 } ) {
+				for( int run = 0; run < 3; run++ ) {
+					JarPropertyFileSearcher searcher = new JarPropertyFileSearcher();
+					start = System.nanoTime();
+					searcher.walk(root, threads);
+					long walked = System.nanoTime();
+					List<JarPropertyFilepathPair> pairs = searcher.getJarPropertyFilepathPairs();
+					long paired = System.nanoTime();
+					if( run == 2 ) {
+						System.out.println(String.format("Walk with %d thread(s): %.1f ms, hash join: %.1f ms, %d pairs, %d directories",
+								threads, (walked - start) / 1e6, (paired - walked) / 1e6, pairs.size(), searcher.getDirectories().size()));
+					}
+					if( threads == 1 ) {
+						sequential = toStrings(pairs);
+					} else if( !toStrings(pairs).equals(sequential) ) {
+						System.out.println("Parallel walk found other pairs than the sequential walk!");
+					}
+					// repeated calls must not duplicate pairs
+					if( searcher.getJarPropertyFilepathPairs().size() != pairs.size() ) {
+						System.out.println("Repeated call returned another number of pairs!");
+					}
+				}
+			}
+			System.out.println("Expected pairs: " + expected);
+		} finally {
+			deleteTree(root);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package org.ava.test.util;
+
+import org.ava.util.LatencyHistogram;
+
+public class TestLatencyHistogram {
+
+	public static void main(String[] args) throws InterruptedException {
+		LatencyHistogram h = new LatencyHistogram();
+
+		// record 1..100000 ns from several threads
+		Thread[] threads = new Thread[4];
+		for( int t = 0; t < threads.length; t++ ) {
+			final int offset = t;
+			threads[t] = new Thread( () -> {
+				for( long v = 1 + offset; v <= 100000; v += 4 ) {
+					h.record(v);
+				}
+			});
+			threads[t].start();
+		}
+		for( Thread t : threads ) {
+			t.join();
+		}
+
+		System.out.println("count = " + h.getCount() + " (expected 100000)");
+		System.out.println("mean  = " + h.getMean() + " (expected 50000.5)");
+		System.out.println("max   = " + h.getMax() + " (expected 100000)");
+		for( double p : new double[] { 50, 90, 99, 100 } ) {
+			long expected = (long) (p * 1000);
+			long actual = h.getPercentile(p);
+			System.out.println("p" + p + " = " + actual + " (expected ~" + expected
+					+ ", error " + String.format("%.1f", 100.0 * (actual - expected) / expected) + " %)");
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package org.ava.test.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ava.eventhandling.STTEventBus;
+import org.ava.eventhandling.UtteranceRecognizedEvent;
+import org.ava.eventhandling.UtteranceRecognizedListener;
+import org.ava.pluginengine.AppCommand;
+import org.ava.pluginengine.AppPlugin;
+import org.ava.pluginengine.CommandExecutionService;
+import org.ava.util.TraceRecorder;
+import org.ava.util.TraceStage;
+import org.ava.util.UtteranceTrace;
+
+public class TestTraceRecorder {
+
+	public static void main(String[] args) throws InterruptedException {
+		STTEventBus seb = STTEventBus.getInstance();
+		TraceRecorder recorder = TraceRecorder.getInstance();
+		CommandExecutionService commands = new CommandExecutionService();
+
+		AppPlugin plugin = new AppPlugin() {
+			public void start() {}
+			public void stop() {}
+			public void continueExecution() {}
+			public void interruptExecution() {}
+			public List<AppCommand> getApplicationCommands() { return null; }
+		};
+		AppCommand command = new AppCommand() {
+			public void execute(String arg) {}
+			public String getCommand() { return "test *"; }
+		};
+
+		// utterance n takes n ms to match, the last one executes a command
+		UtteranceRecognizedListener ucl = new UtteranceRecognizedListener() {
+			@Override
+			public void processRecognizedUtterance(UtteranceRecognizedEvent event) {
+				int n = Integer.parseInt(event.getUtterance().split(" ")[1]);
+				long start = System.nanoTime();
+				UtteranceTrace.current().record(TraceStage.PLUGIN_MATCH, start, start + n * 1000000L);
+				if( n == 100 ) {
+					commands.submit(0, plugin, command, "last");
+				}
+			}};
+		seb.registerUtteranceRecognizedListener(ucl);
+
+		recorder.reset();
+		for( int ii = 1; ii <= 100; ii++ ) {
+			seb.fireUtteranceRecognizedEvent(new UtteranceRecognizedEvent("utterance " + ii));
+		}
+		seb.awaitUtterancesProcessed(10000);
+		// the trace of the last utterance is completed by the command
+		long deadline = System.currentTimeMillis() + 5000;
+		while( !commands.isIdle() && System.currentTimeMillis() < deadline ) {
+			Thread.sleep(10);
+		}
+
+		List<UtteranceTrace> traces = recorder.getRecentTraces();
+		UtteranceTrace last = traces.get(traces.size() - 1);
+		List<String> stages = new ArrayList<String>();
+		for( TraceStage stage : TraceStage.values() ) {
+			if( last.getDuration(stage) >= 0 ) {
+				stages.add(stage.getLabel());
+			}
+		}
+		System.out.println("Recent traces: " + traces.size() + ", last '" + last.getUtterance() + "' (expected "
+				+ TraceRecorder.RECENT_TRACES + ", last 'utterance 100')");
+		System.out.println("Stages of the last trace: " + stages
+				+ " (expected [queue, plugin match, command wait, execute, total])");
+
+		System.out.println("Samples: queue " + recorder.getSampleCount(TraceStage.QUEUE) + ", plugin match "
+				+ recorder.getSampleCount(TraceStage.PLUGIN_MATCH) + ", execute " + recorder.getSampleCount(TraceStage.EXECUTE)
+				+ " (expected 100, 100, 1)");
+		long[] p = recorder.getPercentiles(TraceStage.PLUGIN_MATCH, 50, 95, 99, 100);
+		System.out.println("Plugin match p50 " + p[0] / 1000000 + " ms, p95 " + p[1] / 1000000 + " ms, p99 "
+				+ p[2] / 1000000 + " ms, max " + p[3] / 1000000 + " ms (expected 50, 95, 99, 100)");
+		System.out.println("Dropped: " + recorder.getDroppedCount() + " (expected 0)");
+
+		seb.unregisterUtteranceRecognizedListener(ucl);
+		seb.shutdown();
+		commands.shutdown();
+	}
+}